@@ -0,0 +1,52 @@
+package com.shiroha.mmdskin.player.animation;
+
+import net.minecraft.world.item.UseAnim;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 动画状态解析：玩家使用或挥动物品时每帧求出的物品动画键与触发动画名。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AnimationStateManagerBenchmark {
+
+    private String bowItem = "item.minecraft.bow";
+    private String shieldItem = "item.minecraft.shield";
+    private UseAnim eat = UseAnim.EAT;
+    private UseAnim block = UseAnim.BLOCK;
+
+    /** 弓：主手键之外还要解析另一只手的回退键 */
+    @Benchmark
+    public List<String> itemKeysBow() {
+        return AnimationStateManager.resolveItemAnimationKeys(bowItem, "Right", UseAnim.BOW, "using");
+    }
+
+    @Benchmark
+    public List<String> itemKeysShield() {
+        return AnimationStateManager.resolveItemAnimationKeys(shieldItem, "Left", UseAnim.BLOCK, "using");
+    }
+
+    @Benchmark
+    public List<String> itemKeysSwinging() {
+        return AnimationStateManager.resolveItemAnimationKeys(shieldItem, "Right", UseAnim.NONE, "swinging");
+    }
+
+    @Benchmark
+    public String useTriggerHit() {
+        return AnimationStateManager.resolveUseTriggerAnimationName(eat);
+    }
+
+    @Benchmark
+    public String useTriggerMiss() {
+        return AnimationStateManager.resolveUseTriggerAnimationName(block);
+    }
+}
@@ -0,0 +1,72 @@
+package com.shiroha.mmdskin.renderer.runtime.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模型缓存：渲染线程逐帧 get 与 tick 清理并发进行时的吞吐。
+ * 条目全部处于活跃期（未超过空闲 TTL），tick 只遍历不移动条目，与游戏中的常态一致。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Group)
+public class ModelCacheBenchmark {
+
+    private static final int KEY_COUNT = 64;
+
+    private ModelCache<Object> cache;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cache = new ModelCache<>("benchmark");
+        keys = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "player_" + i + "/model.pmx";
+            cache.put(keys[i], new Object());
+        }
+    }
+
+    /** 每个线程独立轮询的键序号 */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String nextKey(String[] keys) {
+            String key = keys[next];
+            next = (next + 1) % keys.length;
+            return key;
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public ModelCache.CacheEntry<Object> contendedGet(Cursor cursor) {
+        return cache.get(cursor.nextKey(keys));
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void contendedTick() {
+        cache.tick(value -> {
+        });
+    }
+
+    @Benchmark
+    @Group("uncontended")
+    public ModelCache.CacheEntry<Object> uncontendedGet(Cursor cursor) {
+        return cache.get(cursor.nextKey(keys));
+    }
+}
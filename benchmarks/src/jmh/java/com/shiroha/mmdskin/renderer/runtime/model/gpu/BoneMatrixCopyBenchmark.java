@@ -0,0 +1,52 @@
+package com.shiroha.mmdskin.renderer.runtime.model.gpu;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GPU 蒙皮每帧的骨骼矩阵复制（原生层写入的字节缓冲 → 上传用 FloatBuffer）。
+ * 两个缓冲与上传器相同，为原生字节序的直接缓冲。
+ * 测量的是 MMDModelGpuSkinningUploader 中复制代码的副本（原方法随后上传到 SSBO），修改原代码时需同步。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BoneMatrixCopyBenchmark {
+
+    @Param({"256", "1024"})
+    public int boneCount;
+
+    private ByteBuffer source;
+    private FloatBuffer target;
+
+    @Setup
+    public void setup() {
+        source = ByteBuffer.allocateDirect(boneCount * 64).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < boneCount * 16; i++) {
+            source.putFloat(i * 4, (i % 16) % 5 == 0 ? 1.0f : i * 0.001f);
+        }
+        target = ByteBuffer.allocateDirect(boneCount * 64).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    @Benchmark
+    public FloatBuffer copy() {
+        target.clear();
+        source.position(0);
+        FloatBuffer floatView = source.asFloatBuffer();
+        floatView.limit(boneCount * 16);
+        target.put(floatView);
+        target.flip();
+        return target;
+    }
+}
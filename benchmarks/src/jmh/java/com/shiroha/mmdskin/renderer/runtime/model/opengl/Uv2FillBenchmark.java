@@ -0,0 +1,47 @@
+package com.shiroha.mmdskin.renderer.runtime.model.opengl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 光照变化时 uv2 缓冲的逐顶点填充。缓冲与渲染器相同，为原生字节序的直接缓冲。
+ * 测量的是 MMDModelOpenGLRenderer 中填充循环的副本（原方法随后直接上传到 GL），修改原循环时需同步。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class Uv2FillBenchmark {
+
+    @Param({"20000", "100000"})
+    public int vertexCount;
+
+    private ByteBuffer uv2Buffer;
+    private int blockBrightness = 15 << 4;
+    private int skyBrightness = 12 << 4;
+
+    @Setup
+    public void setup() {
+        uv2Buffer = ByteBuffer.allocateDirect(vertexCount * 8).order(ByteOrder.nativeOrder());
+    }
+
+    @Benchmark
+    public ByteBuffer fill() {
+        uv2Buffer.clear();
+        for (int i = 0; i < vertexCount; i++) {
+            uv2Buffer.putInt(blockBrightness);
+            uv2Buffer.putInt(skyBrightness);
+        }
+        uv2Buffer.flip();
+        return uv2Buffer;
+    }
+}
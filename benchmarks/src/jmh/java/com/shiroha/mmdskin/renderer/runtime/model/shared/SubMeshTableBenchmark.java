@@ -0,0 +1,163 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+import com.shiroha.mmdskin.renderer.runtime.texture.TextureAlphaMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 子网格表解析：每次绘制时读取原生层写入的子网格表，分桶、半透明排序，以及描边的间接绘制命令填充。
+ * 约 1/8 子网格不可见，镂空与半透明各约 1/8。
+ * {@link SubMeshDrawHelper} 的循环与 GL 调用交织，这里测量其去掉 GL 调用后的副本，修改原循环时需同步。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SubMeshTableBenchmark {
+
+    /** 与 SubMeshDrawHelper 的子网格表布局一致 */
+    private static final int SUB_MESH_STRIDE = 20;
+
+    @Param({"16", "128"})
+    public int subMeshCount;
+
+    private ByteBuffer table;
+    private SubMeshOrder order;
+    private int[] direct;
+    private ByteBuffer commandBuf;
+    private FloatBuffer modelView;
+    private final SubMeshDrawHelper.AlphaResolver alphaResolver = (materialId, baseAlpha) -> baseAlpha;
+
+    @Setup
+    public void setup() {
+        table = ByteBuffer.allocateDirect(subMeshCount * SUB_MESH_STRIDE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        TextureAlphaMode[] modes = new TextureAlphaMode[subMeshCount];
+        float[] centers = new float[subMeshCount * 3];
+        int beginIndex = 0;
+        for (int i = 0; i < subMeshCount; i++) {
+            int base = i * SUB_MESH_STRIDE;
+            int indexCount = 300 + (i * 37) % 1200;
+            table.putInt(base, i);
+            table.putInt(base + 4, beginIndex);
+            table.putInt(base + 8, indexCount);
+            table.putFloat(base + 12, i % 8 == 3 ? 0.6f : 1.0f);
+            table.put(base + 16, (byte) (i % 8 == 7 ? 0 : 1));
+            beginIndex += indexCount;
+
+            modes[i] = i % 8 == 5 ? TextureAlphaMode.CUTOUT : TextureAlphaMode.OPAQUE;
+            centers[i * 3] = (i % 5) * 0.2f;
+            centers[i * 3 + 1] = (i % 7) * 0.25f;
+            centers[i * 3 + 2] = ((i * 13) % 11) * 0.1f - 0.5f;
+        }
+        order = new SubMeshOrder(modes, centers);
+        direct = new int[subMeshCount];
+        commandBuf = ByteBuffer.allocateDirect(subMeshCount * SubMeshDrawHelper.INDIRECT_COMMAND_STRIDE)
+                .order(ByteOrder.nativeOrder());
+        modelView = ByteBuffer.allocateDirect(16 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        float[] matrix = {
+                0.8f, 0.0f, -0.6f, 0.0f,
+                0.0f, 1.0f, 0.0f, 0.0f,
+                0.6f, 0.0f, 0.8f, 0.0f,
+                0.3f, -1.6f, -4.0f, 1.0f
+        };
+        modelView.put(matrix).flip();
+    }
+
+    /** 未启用分桶时的解析（全部按材质顺序直接绘制） */
+    @Benchmark
+    public int collectUnordered() {
+        return collectDirect(table, subMeshCount, null, alphaResolver, null, direct);
+    }
+
+    @Benchmark
+    public int collectBucketed() {
+        return collectDirect(table, subMeshCount, null, alphaResolver, order, direct);
+    }
+
+    /** 分桶并按深度排列半透明桶，即着色通道绘制前的全部 CPU 工作 */
+    @Benchmark
+    public int collectBucketedAndSort() {
+        int count = collectDirect(table, subMeshCount, null, alphaResolver, order, direct);
+        order.sortBlend(modelView);
+        return count + order.blendCount();
+    }
+
+    @Benchmark
+    public int writeOutlineCommands() {
+        return writeOutlineCommands(table, subMeshCount, null, alphaResolver, commandBuf);
+    }
+
+    /** SubMeshDrawHelper.draw 的分桶循环，直接绘制的子网格记入 direct 而非发出绘制 */
+    private static int collectDirect(ByteBuffer subMeshDataBuf,
+                                     int subMeshCount,
+                                     int[] lodRanges,
+                                     SubMeshDrawHelper.AlphaResolver alphaResolver,
+                                     SubMeshOrder order,
+                                     int[] direct) {
+        if (order != null) {
+            order.begin();
+        }
+        int directCount = 0;
+        for (int i = 0; i < subMeshCount; ++i) {
+            int base = i * SUB_MESH_STRIDE;
+            int materialId = subMeshDataBuf.getInt(base);
+            int vertexCount = lodRanges != null ? lodRanges[i * 2 + 1] : subMeshDataBuf.getInt(base + 8);
+            float alpha = alphaResolver.resolve(materialId, subMeshDataBuf.getFloat(base + 12));
+            boolean visible = subMeshDataBuf.get(base + 16) != 0;
+
+            if (!visible || vertexCount <= 0 || alpha < 0.001f) {
+                continue;
+            }
+
+            TextureAlphaMode bucket = order != null ? order.bucket(i, alpha) : TextureAlphaMode.OPAQUE;
+            if (bucket == TextureAlphaMode.CUTOUT) {
+                order.addCutout(i);
+            } else if (bucket == TextureAlphaMode.BLEND) {
+                order.addBlend(i);
+            } else {
+                direct[directCount++] = i;
+            }
+        }
+        return directCount;
+    }
+
+    /** SubMeshDrawHelper.drawOutlineIndirect 的命令填充循环，不含上传与绘制 */
+    private static int writeOutlineCommands(ByteBuffer subMeshDataBuf,
+                                            int subMeshCount,
+                                            int[] lodRanges,
+                                            SubMeshDrawHelper.AlphaResolver alphaResolver,
+                                            ByteBuffer commandBuf) {
+        commandBuf.clear();
+        int drawCount = 0;
+        for (int i = 0; i < subMeshCount; ++i) {
+            int base = i * SUB_MESH_STRIDE;
+            int materialId = subMeshDataBuf.getInt(base);
+            int beginIndex = lodRanges != null ? lodRanges[i * 2] : subMeshDataBuf.getInt(base + 4);
+            int vertexCount = lodRanges != null ? lodRanges[i * 2 + 1] : subMeshDataBuf.getInt(base + 8);
+            float alpha = subMeshDataBuf.getFloat(base + 12);
+            boolean visible = subMeshDataBuf.get(base + 16) != 0;
+
+            if (!visible || vertexCount <= 0 || alphaResolver.resolve(materialId, alpha) < 0.001f) {
+                continue;
+            }
+
+            commandBuf.putInt(vertexCount).putInt(1).putInt(beginIndex).putInt(0).putInt(0);
+            drawCount++;
+        }
+        if (drawCount > 0) {
+            commandBuf.flip();
+        }
+        return drawCount;
+    }
+}
@@ -0,0 +1,99 @@
+package com.shiroha.mmdskin.renderer.runtime.texture;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 纹理引用计数：模型加载/释放时的 addRef/release、渲染时的 GetTexture 命中，
+ * 以及引用归零进入待释放队列后再被取回的路径。纹理对象为 0，不发出 GL 调用。
+ * Init 会加载原生库，这里改为直接写入纹理表。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MMDTextureManagerBenchmark {
+
+    private static final int TEXTURE_COUNT = 256;
+
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        names = new String[TEXTURE_COUNT];
+        Map<String, MMDTextureManager.Texture> uploaded = new ConcurrentHashMap<>();
+        for (int i = 0; i < TEXTURE_COUNT; i++) {
+            names[i] = "models/player_" + (i / 16) + "/tex/material_" + (i % 16) + ".png";
+            MMDTextureManager.Texture tex = new MMDTextureManager.Texture();
+            tex.vramSize = 1024L * 1024L;
+            // 基础引用：保证并发 addRef/release 不会让纹理落入待释放队列
+            tex.refCount.set(1);
+            uploaded.put(names[i], tex);
+        }
+        Field textures = MMDTextureManager.class.getDeclaredField("textures");
+        textures.setAccessible(true);
+        textures.set(null, uploaded);
+    }
+
+    /** 每个线程独立轮询的纹理序号 */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String nextName(String[] names) {
+            String name = names[next];
+            next = (next + 1) % names.length;
+            return name;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void addRefRelease(Cursor cursor) {
+        String name = cursor.nextName(names);
+        MMDTextureManager.addRef(name);
+        MMDTextureManager.release(name);
+    }
+
+    @Benchmark
+    public MMDTextureManager.Texture getTextureHit(Cursor cursor) {
+        return MMDTextureManager.GetTexture(cursor.nextName(names));
+    }
+
+    /** 释放到待释放队列（引用归零）后立即取回，即模型切换时复用纹理的路径 */
+    @Benchmark
+    public MMDTextureManager.Texture releaseAndRevive(Cursor cursor) {
+        String name = cursor.nextName(names);
+        MMDTextureManager.release(name);
+        MMDTextureManager.Texture tex = MMDTextureManager.GetTexture(name);
+        MMDTextureManager.addRef(name);
+        return tex;
+    }
+
+    /** 待释放队列非空时的逐帧 tick（条目均未过期且未超出预算，只遍历不释放） */
+    @State(Scope.Benchmark)
+    public static class PendingState {
+        @Setup(Level.Trial)
+        public void setup(MMDTextureManagerBenchmark owner) {
+            for (int i = 0; i < TEXTURE_COUNT / 4; i++) {
+                MMDTextureManager.release(owner.names[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void tickPending(PendingState pending) {
+        MMDTextureManager.tick();
+    }
+}
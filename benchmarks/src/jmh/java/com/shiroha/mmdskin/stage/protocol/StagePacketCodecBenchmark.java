@@ -0,0 +1,76 @@
+package com.shiroha.mmdskin.stage.protocol;
+
+import com.shiroha.mmdskin.stage.domain.model.StageCameraMode;
+import com.shiroha.mmdskin.stage.domain.model.StageDescriptor;
+import com.shiroha.mmdskin.stage.domain.model.StageInviteDecision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 舞台数据包编解码：帧同步包（播放期间高频发送）与携带完整描述的开始播放包。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class StagePacketCodecBenchmark {
+
+    private StagePacket frameSync;
+    private StagePacket playbackStart;
+    private String frameSyncEncoded;
+    private String playbackStartEncoded;
+
+    @Setup
+    public void setup() {
+        frameSync = new StagePacket(StagePacketType.FRAME_SYNC);
+        frameSync.sessionId = "207716c5-6857-4190-a69b-f5937d90bf89";
+        frameSync.frame = 1234.5f;
+
+        playbackStart = new StagePacket(StagePacketType.PLAYBACK_START);
+        playbackStart.sessionId = "207716c5-6857-4190-a69b-f5937d90bf89";
+        playbackStart.targetPlayerId = "d8016232-9357-4339-8f82-5d11263ae4a5";
+        playbackStart.inviteDecision = StageInviteDecision.ACCEPT;
+        playbackStart.ready = true;
+        playbackStart.cameraMode = StageCameraMode.HOST_CAMERA;
+        playbackStart.frame = 15.0f;
+        playbackStart.heightOffset = 0.5f;
+        playbackStart.descriptor = new StageDescriptor("demo_pack", List.of("dance_a.vmd", "dance_b.vmd"),
+                "camera.vmd", "music.ogg");
+        playbackStart.motionPackName = "guest_pack";
+        playbackStart.motionFiles = List.of("dance_b.vmd");
+        playbackStart.members = List.of(
+                new StageMemberSnapshot("member-1", "Alice", "HOST", "HOST_CAMERA"),
+                new StageMemberSnapshot("member-2", "Bob", "READY", "HOST_CAMERA"),
+                new StageMemberSnapshot("member-3", "Carol", "ACCEPTED", "LOCAL_CAMERA"));
+
+        frameSyncEncoded = StagePacketCodec.encode(frameSync);
+        playbackStartEncoded = StagePacketCodec.encode(playbackStart);
+    }
+
+    @Benchmark
+    public String encodeFrameSync() {
+        return StagePacketCodec.encode(frameSync);
+    }
+
+    @Benchmark
+    public StagePacket decodeFrameSync() {
+        return StagePacketCodec.decode(frameSyncEncoded);
+    }
+
+    @Benchmark
+    public String encodePlaybackStart() {
+        return StagePacketCodec.encode(playbackStart);
+    }
+
+    @Benchmark
+    public StagePacket decodePlaybackStart() {
+        return StagePacketCodec.decode(playbackStartEncoded);
+    }
+}
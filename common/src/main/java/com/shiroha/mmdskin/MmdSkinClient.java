@@ -1,5 +1,7 @@
 package com.shiroha.mmdskin;
 
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.renderer.pipeline.shader.ShaderWarmup;
 import com.shiroha.mmdskin.renderer.runtime.animation.MMDAnimManager;
 import com.shiroha.mmdskin.renderer.runtime.model.MMDModelManager;
 import com.shiroha.mmdskin.renderer.runtime.texture.MMDTextureManager;
@@ -19,6 +21,20 @@ public class MmdSkinClient {
         MMDModelManager.Init();
         MMDTextureManager.Init();
         MMDAnimManager.Init();
+        ShaderWarmup.schedule();
+        applyNativeSettings();
+    }
+
+    /** 启动时下发需在 Native 侧常驻的设置（其余物理参数在保存配置时下发） */
+    private static void applyNativeSettings() {
+        try {
+            NativeFunc.GetInst().SetPhysicsThreaded(ConfigManager.isPhysicsThreaded());
+            NativeFunc.GetInst().SetPhysicsWorldPool(ConfigManager.isPhysicsWorldPool());
+            NativeFunc.GetInst().SetPhysicsSleep(ConfigManager.isPhysicsSleepEnabled(), ConfigManager.getPhysicsSleepIdleFrames());
+            NativeFunc.GetInst().SetMeshLodEnabled(ConfigManager.isMeshLodEnabled());
+        } catch (UnsatisfiedLinkError e) {
+            logger.warn("原生设置 JNI 方法未找到，请重新编译 Rust 库");
+        }
     }
 
     public static String calledFrom(int i){
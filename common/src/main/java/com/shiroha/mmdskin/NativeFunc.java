@@ -135,6 +135,13 @@ public class NativeFunc {
 
     public native long LoadAnimation(long model, String filename);
 
+    /**
+     * 加载动画并按固定采样率预烘焙骨骼/Morph 轨道
+     * @param bakeSampleRate 采样率（Hz），0 表示不烘焙
+     * @param quantizeRotations 是否以 16 位存储旋转
+     */
+    public native long LoadAnimationWithOptions(long model, String filename, int bakeSampleRate, boolean quantizeRotations);
+
     public native void DeleteAnimation(long anim);
 
     public native boolean PreloadFbxFile(String path);
@@ -155,6 +162,12 @@ public class NativeFunc {
 
     public native void MergeAnimation(long target, long source);
 
+    /** 将动画关键帧转为压缩存储，返回是否发生压缩 */
+    public native boolean CompactAnimation(long anim);
+
+    /** 动画常驻内存（字节） */
+    public native long GetAnimationMemoryUsage(long anim);
+
     public native void SetHeadAngle(long model, float x, float y, float z, boolean flag);
 
     public native void SetModelTransform(long model,
@@ -229,6 +242,24 @@ public class NativeFunc {
 
     public native void UpdateAnimationOnly(long model, float deltaTime);
 
+    public native void AdvanceAnimationClock(long model, float deltaTime);
+
+    public native void EvaluateAnimationOnly(long model, float deltaTime);
+
+    public native long GetPoseShareKey(long model);
+
+    public native void SetUvLayoutKey(long model, long key);
+
+    public native int BakeBonePalette(long model);
+
+    public native float PrepareBonePalette(long model);
+
+    public native int GetBonePaletteTrackCount(long model);
+
+    public native boolean CopyBonePaletteToBuffers(long model, java.nio.ByteBuffer bones, java.nio.ByteBuffer info, java.nio.ByteBuffer tracks);
+
+    public native void ReleaseBonePalette(long model);
+
     public native void InitGpuSkinningData(long model);
 
     public native void InitGpuMorphData(long model);
@@ -247,6 +278,9 @@ public class NativeFunc {
 
     public native int CopyGpuMorphWeightsToBuffer(long model, java.nio.ByteBuffer buffer);
 
+    /** GPU 顶点 Morph 权重版本（权重内容变化时递增，可据此跳过重复上传） */
+    public native long GetGpuMorphWeightsVersion(long model);
+
     public native boolean IsGpuMorphInitialized(long model);
 
     public native int ApplyVpdMorph(long model, String filename);
@@ -273,12 +307,32 @@ public class NativeFunc {
 
     public native int CopyGpuUvMorphWeightsToBuffer(long model, java.nio.ByteBuffer buffer);
 
+    /** GPU UV Morph 权重版本（权重内容变化时递增） */
+    public native long GetGpuUvMorphWeightsVersion(long model);
+
     public native int GetMaterialMorphResultCount(long model);
 
     public native int CopyMaterialMorphResultsToBuffer(long model, java.nio.ByteBuffer buffer);
 
     public native int BatchGetSubMeshData(long model, java.nio.ByteBuffer buffer);
 
+    /** 设置加载时是否生成网格 LOD（只影响之后加载的模型） */
+    public native void SetMeshLodEnabled(boolean enabled);
+
+    /** 网格 LOD 额外级别数（不含原始网格，未生成时为 0） */
+    public native int GetMeshLodLevelCount(long model);
+
+    public native int GetMeshLodIndexCount(long model);
+
+    /** 将 LOD 索引（u32）复制到 buffer 的 byteOffset 处，返回索引数 */
+    public native int CopyMeshLodIndicesToBuffer(long model, java.nio.ByteBuffer buffer, int byteOffset);
+
+    /** 按级别、子网格写入 (beginIndex, indexCount)，末尾按级别写入需蒙皮的顶点数；返回级别数 */
+    public native int CopyMeshLodRangesToBuffer(long model, java.nio.ByteBuffer buffer);
+
+    /** 设置当前 LOD 级别（0 = 原始网格），CPU 蒙皮只处理该级用到的顶点 */
+    public native void SetMeshLodLevel(long model, int level);
+
     public native void SetPhysicsConfig(
         boolean enabled,
         float gravityY,
@@ -292,6 +346,27 @@ public class NativeFunc {
         boolean debugLog
     );
 
+    /** 设置是否在独立物理线程上按固定频率步进（模型下次更新时切换） */
+    public native void SetPhysicsThreaded(boolean threaded);
+
+    /** 设置线程物理模式下是否将模型放入共享物理世界（模型下次更新时迁移） */
+    public native void SetPhysicsWorldPool(boolean enabled);
+
+    /** 设置静止/剔除时的物理冻结（idleFrames：连续静止多少帧后冻结） */
+    public native void SetPhysicsSleep(boolean enabled, int idleFrames);
+
+    /** 获取物理处于活动状态的模型数 */
+    public native int GetPhysicsActiveModelCount();
+
+    /** 获取物理已冻结（静止或被剔除）的模型数 */
+    public native int GetPhysicsFrozenModelCount();
+
+    /** 获取原生堆累计分配次数（仅启用 alloc_counter 特性的原生库统计，否则返回 -1） */
+    public native long GetNativeAllocationCount();
+
+    /** 设置 CPU 蒙皮线程数（0 = 共享线程池，1 = 调用线程串行，N = 独立 N 线程池） */
+    public native void SetSkinningThreadCount(int count);
+
     public native void SetFirstPersonMode(long model, boolean enabled);
 
     public native boolean IsFirstPersonMode(long model);
@@ -32,6 +32,7 @@ public abstract class AbstractMmdSkinConfig implements ConfigManager.IConfigProv
     @Override public float getToonOutlineR() { return data.toonOutlineR; }
     @Override public float getToonOutlineG() { return data.toonOutlineG; }
     @Override public float getToonOutlineB() { return data.toonOutlineB; }
+    @Override public int getToonOutlineMode() { return data.toonOutlineMode; }
 
     @Override public float getPhysicsGravityY() { return data.physicsGravityY; }
     @Override public float getPhysicsFps() { return data.physicsFps; }
@@ -42,12 +43,34 @@ public abstract class AbstractMmdSkinConfig implements ConfigManager.IConfigProv
     @Override public boolean isPhysicsJointsEnabled() { return data.physicsJointsEnabled; }
     @Override public boolean isPhysicsKinematicFilter() { return data.physicsKinematicFilter; }
     @Override public boolean isPhysicsDebugLog() { return data.physicsDebugLog; }
+    @Override public boolean isPhysicsThreaded() { return data.physicsThreaded; }
+    @Override public boolean isPhysicsWorldPool() { return data.physicsWorldPool; }
+    @Override public boolean isPhysicsSleepEnabled() { return data.physicsSleepEnabled; }
+    @Override public int getPhysicsSleepIdleFrames() { return data.physicsSleepIdleFrames; }
 
     @Override public boolean isFirstPersonModelEnabled() { return data.firstPersonModelEnabled; }
     @Override public float getFirstPersonCameraForwardOffset() { return data.firstPersonCameraForwardOffset; }
     @Override public float getFirstPersonCameraVerticalOffset() { return data.firstPersonCameraVerticalOffset; }
     @Override public boolean isDebugHudEnabled() { return data.debugHudEnabled; }
     @Override public int getTextureCacheBudgetMB() { return data.textureCacheBudgetMB; }
+    @Override public boolean isTextureAtlasEnabled() { return data.textureAtlasEnabled; }
+    @Override public boolean isPoseSharingEnabled() { return data.poseSharingEnabled; }
+    @Override public boolean isGpuBonePaletteEnabled() { return data.gpuBonePaletteEnabled; }
+    @Override public int getAnimationBakeMode() { return data.animationBakeMode; }
+    @Override public boolean isAnimationBakeQuantize() { return data.animationBakeQuantize; }
+    @Override public boolean isAnimationCompactStorage() { return data.animationCompactStorage; }
+    @Override public boolean isFramePoseCacheEnabled() { return data.framePoseCacheEnabled; }
+    @Override public int getCpuSkinningThreads() { return data.cpuSkinningThreads; }
+    @Override public boolean isModelCullingEnabled() { return data.modelCullingEnabled; }
+    @Override public boolean isOcclusionCullingEnabled() { return data.occlusionCullingEnabled; }
+    @Override public boolean isMeshLodEnabled() { return data.meshLodEnabled; }
+    @Override public int getImpostorDistance() { return data.impostorDistance; }
+    @Override public int getImpostorUpdateRate() { return data.impostorUpdateRate; }
+    @Override public int getImpostorCaptureBudget() { return data.impostorCaptureBudget; }
+    @Override public boolean isShaderBinaryCacheEnabled() { return data.shaderBinaryCacheEnabled; }
+    @Override public boolean isTransparencySortEnabled() { return data.transparencySortEnabled; }
+    @Override public boolean isDepthPrepassEnabled() { return data.depthPrepassEnabled; }
+    @Override public boolean isRenderProfilerEnabled() { return data.renderProfilerEnabled; }
 
     @Override public boolean isVREnabled() { return false; }
     @Override public float getVRArmIKStrength() { return data.vrArmIKStrength; }
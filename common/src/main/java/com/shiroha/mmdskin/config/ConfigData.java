@@ -41,6 +41,7 @@ public class ConfigData {
     public float toonOutlineR = 0.0f;
     public float toonOutlineG = 0.0f;
     public float toonOutlineB = 0.0f;
+    public int toonOutlineMode = 0;
 
     public boolean physicsEnabled = true;
     public float physicsGravityY = -98.0f;
@@ -52,14 +53,36 @@ public class ConfigData {
     public boolean physicsJointsEnabled = true;
     public boolean physicsKinematicFilter = true;
     public boolean physicsDebugLog = false;
+    public boolean physicsThreaded = false;
+    public boolean physicsWorldPool = false;
+    public boolean physicsSleepEnabled = true;
+    public int physicsSleepIdleFrames = 180;
 
     public boolean firstPersonModelEnabled = false;
     public float firstPersonCameraForwardOffset = 0.0f;
     public float firstPersonCameraVerticalOffset = 0.0f;
+    public boolean transparencySortEnabled = true;
 
     public int textureCacheBudgetMB = 256;
+    public boolean textureAtlasEnabled = false;
+    public boolean poseSharingEnabled = false;
+    public boolean gpuBonePaletteEnabled = false;
+    public int animationBakeMode = 0;
+    public boolean animationBakeQuantize = false;
+    public boolean animationCompactStorage = false;
+    public boolean framePoseCacheEnabled = false;
+    public int cpuSkinningThreads = 0;
+    public boolean modelCullingEnabled = true;
+    public boolean occlusionCullingEnabled = false;
+    public boolean meshLodEnabled = true;
+    public int impostorDistance = 0;
+    public int impostorUpdateRate = 4;
+    public int impostorCaptureBudget = 4;
+    public boolean shaderBinaryCacheEnabled = true;
+    public boolean depthPrepassEnabled = false;
 
     public boolean debugHudEnabled = false;
+    public boolean renderProfilerEnabled = false;
 
     public boolean vrEnabled = false;
     public float vrArmIKStrength = 1.0f;
@@ -95,6 +95,10 @@ public class ConfigManager {
         return provider != null ? provider.getToonOutlineB() : 0.0f;
     }
 
+    public static int getToonOutlineMode() {
+        return provider != null ? provider.getToonOutlineMode() : 0;
+    }
+
     public static boolean isPhysicsEnabled() {
         return provider != null ? provider.isPhysicsEnabled() : true;
     }
@@ -135,6 +139,22 @@ public class ConfigManager {
         return provider != null ? provider.isPhysicsDebugLog() : false;
     }
 
+    public static boolean isPhysicsThreaded() {
+        return provider != null ? provider.isPhysicsThreaded() : false;
+    }
+
+    public static boolean isPhysicsWorldPool() {
+        return provider != null ? provider.isPhysicsWorldPool() : false;
+    }
+
+    public static boolean isPhysicsSleepEnabled() {
+        return provider != null ? provider.isPhysicsSleepEnabled() : true;
+    }
+
+    public static int getPhysicsSleepIdleFrames() {
+        return provider != null ? provider.getPhysicsSleepIdleFrames() : 180;
+    }
+
     public static boolean isFirstPersonModelEnabled() {
         return provider != null ? provider.isFirstPersonModelEnabled() : false;
     }
@@ -155,6 +175,78 @@ public class ConfigManager {
         return provider != null ? provider.isDebugHudEnabled() : false;
     }
 
+    public static boolean isTextureAtlasEnabled() {
+        return provider != null ? provider.isTextureAtlasEnabled() : false;
+    }
+
+    public static boolean isPoseSharingEnabled() {
+        return provider != null ? provider.isPoseSharingEnabled() : false;
+    }
+
+    public static boolean isGpuBonePaletteEnabled() {
+        return provider != null ? provider.isGpuBonePaletteEnabled() : false;
+    }
+
+    public static int getAnimationBakeMode() {
+        return provider != null ? provider.getAnimationBakeMode() : 0;
+    }
+
+    public static boolean isAnimationBakeQuantize() {
+        return provider != null ? provider.isAnimationBakeQuantize() : false;
+    }
+
+    public static boolean isAnimationCompactStorage() {
+        return provider != null ? provider.isAnimationCompactStorage() : false;
+    }
+
+    public static boolean isFramePoseCacheEnabled() {
+        return provider != null ? provider.isFramePoseCacheEnabled() : false;
+    }
+
+    public static int getCpuSkinningThreads() {
+        return provider != null ? provider.getCpuSkinningThreads() : 0;
+    }
+
+    public static boolean isModelCullingEnabled() {
+        return provider != null ? provider.isModelCullingEnabled() : true;
+    }
+
+    public static boolean isOcclusionCullingEnabled() {
+        return provider != null ? provider.isOcclusionCullingEnabled() : false;
+    }
+
+    public static boolean isMeshLodEnabled() {
+        return provider != null ? provider.isMeshLodEnabled() : true;
+    }
+
+    public static int getImpostorDistance() {
+        return provider != null ? provider.getImpostorDistance() : 0;
+    }
+
+    public static int getImpostorUpdateRate() {
+        return provider != null ? provider.getImpostorUpdateRate() : 4;
+    }
+
+    public static int getImpostorCaptureBudget() {
+        return provider != null ? provider.getImpostorCaptureBudget() : 4;
+    }
+
+    public static boolean isShaderBinaryCacheEnabled() {
+        return provider != null ? provider.isShaderBinaryCacheEnabled() : true;
+    }
+
+    public static boolean isTransparencySortEnabled() {
+        return provider != null ? provider.isTransparencySortEnabled() : true;
+    }
+
+    public static boolean isDepthPrepassEnabled() {
+        return provider != null ? provider.isDepthPrepassEnabled() : false;
+    }
+
+    public static boolean isRenderProfilerEnabled() {
+        return provider != null ? provider.isRenderProfilerEnabled() : false;
+    }
+
     public static boolean isVREnabled() {
         return provider != null ? provider.isVREnabled() : false;
     }
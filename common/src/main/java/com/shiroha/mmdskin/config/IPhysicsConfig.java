@@ -25,4 +25,12 @@ public interface IPhysicsConfig {
     default boolean isPhysicsKinematicFilter() { return true; }
 
     default boolean isPhysicsDebugLog() { return false; }
+
+    default boolean isPhysicsThreaded() { return false; }
+
+    default boolean isPhysicsWorldPool() { return false; }
+
+    default boolean isPhysicsSleepEnabled() { return true; }
+
+    default int getPhysicsSleepIdleFrames() { return 180; }
 }
@@ -24,4 +24,40 @@ public interface IRenderConfig {
     default boolean isDebugHudEnabled() { return false; }
 
     default int getTextureCacheBudgetMB() { return 256; }
+
+    default boolean isTextureAtlasEnabled() { return false; }
+
+    default boolean isPoseSharingEnabled() { return false; }
+
+    default boolean isGpuBonePaletteEnabled() { return false; }
+
+    default int getAnimationBakeMode() { return 0; }
+
+    default boolean isAnimationBakeQuantize() { return false; }
+
+    default boolean isAnimationCompactStorage() { return false; }
+
+    default boolean isFramePoseCacheEnabled() { return false; }
+
+    default int getCpuSkinningThreads() { return 0; }
+
+    default boolean isModelCullingEnabled() { return true; }
+
+    default boolean isOcclusionCullingEnabled() { return false; }
+
+    default boolean isMeshLodEnabled() { return true; }
+
+    default int getImpostorDistance() { return 0; }
+
+    default int getImpostorUpdateRate() { return 4; }
+
+    default int getImpostorCaptureBudget() { return 4; }
+
+    default boolean isShaderBinaryCacheEnabled() { return true; }
+
+    default boolean isTransparencySortEnabled() { return true; }
+
+    default boolean isDepthPrepassEnabled() { return false; }
+
+    default boolean isRenderProfilerEnabled() { return false; }
 }
@@ -27,4 +27,5 @@ public interface IToonConfig {
     default float getToonOutlineR() { return 0.0f; }
     default float getToonOutlineG() { return 0.0f; }
     default float getToonOutlineB() { return 0.0f; }
+    default int getToonOutlineMode() { return 0; }
 }
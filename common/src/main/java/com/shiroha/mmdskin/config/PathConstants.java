@@ -27,6 +27,8 @@ public final class PathConstants {
     public static final String CUSTOM_MORPH_DIR = "CustomMorph";
 
     public static final String SHADER_DIR = "shader";
+    public static final String SHADER_CACHE_DIR = "shader_cache";
+    public static final String PROFILER_DIR = "profiler";
 
     public static final String ACTION_WHEEL_CONFIG = "action_wheel.json";
     public static final String MODEL_SELECTOR_CONFIG = "model_selector.json";
@@ -98,6 +100,14 @@ public final class PathConstants {
         return new File(getSkinRootDir(), SHADER_DIR);
     }
 
+    public static File getShaderCacheDir() {
+        return new File(getSkinRootDir(), SHADER_CACHE_DIR);
+    }
+
+    public static File getProfilerDir() {
+        return new File(getSkinRootDir(), PROFILER_DIR);
+    }
+
     public static File getModelDir(String modelName) {
         return new File(getEntityPlayerDir(), modelName);
     }
@@ -3,8 +3,16 @@ package com.shiroha.mmdskin.debug.client;
 import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.config.ConfigManager;
 import com.shiroha.mmdskin.renderer.api.IMMDModel;
+import com.shiroha.mmdskin.renderer.runtime.animation.MMDAnimManager;
+import com.shiroha.mmdskin.renderer.runtime.culling.ModelCulling;
+import com.shiroha.mmdskin.renderer.runtime.impostor.ModelImpostors;
 import com.shiroha.mmdskin.renderer.runtime.model.MMDModelManager;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.GlStateCache;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderProfiler;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderStage;
+import com.shiroha.mmdskin.renderer.runtime.profiling.StageTiming;
 import com.shiroha.mmdskin.renderer.runtime.texture.MMDTextureManager;
+import com.shiroha.mmdskin.stage.client.camera.MMDCameraController;
 
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.Font;
@@ -13,7 +21,11 @@ import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL46C;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 性能调试 HUD。
@@ -30,6 +42,8 @@ public class PerformanceHud {
     private static final int INNER_PAD   = 3;
 
     private static final long REFRESH_INTERVAL_MS = 500;
+    private static final int MAX_ANIM_LINES = 3;
+    private static final int MAX_PROFILE_MODELS = 6;
     private static long lastRefreshTime = 0;
 
     private static final int GL_GPU_MEM_TOTAL_NVX = 0x9048;
@@ -43,10 +57,15 @@ public class PerformanceHud {
     private static final List<HudLine> cachedLines = new ArrayList<>();
     private static int cachedMaxWidth = 0;
 
+    /** 动画句柄 -> 常驻内存；句柄在发布前已完成合并与压缩，之后内容不变 */
+    private static final Map<Long, Long> animMemoryCache = new HashMap<>();
+    private static final Set<Long> animHandlesSeen = new HashSet<>();
+
     private PerformanceHud() {}
 
     public static void render(GuiGraphics graphics) {
-        if (!ConfigManager.isDebugHudEnabled()) return;
+        boolean profiling = RenderProfiler.isEnabled();
+        if (!ConfigManager.isDebugHudEnabled() && !profiling) return;
 
         Minecraft mc = Minecraft.getInstance();
         if (mc.options.hideGui || mc.options.renderDebug) return;
@@ -55,7 +74,13 @@ public class PerformanceHud {
 
         long now = System.currentTimeMillis();
         if (now - lastRefreshTime > REFRESH_INTERVAL_MS) {
-            rebuildLines(mc.font);
+            if (profiling) {
+                rebuildTimingLines();
+            } else {
+                rebuildLines();
+                pruneAnimationMemory();
+            }
+            measureLines(mc.font);
             lastRefreshTime = now;
         }
 
@@ -74,7 +99,7 @@ public class PerformanceHud {
         }
     }
 
-    private static void rebuildLines(Font font) {
+    private static void rebuildLines() {
         cachedLines.clear();
 
         addLine("▶ 系统资源", TITLE_COLOR);
@@ -126,6 +151,17 @@ public class PerformanceHud {
         long totalMmdVram = totalVram + texVram;
 
         addLine(String.format("  RAM    %s", fmtB(totalRam)), VALUE_COLOR);
+        addPhysicsActivityLine();
+        if (ConfigManager.isModelCullingEnabled()) {
+            addLine(String.format("  剔除   视锥 %d  遮挡 %d",
+                    ModelCulling.getFrustumCulledCount(), ModelCulling.getOcclusionCulledCount()), VALUE_COLOR);
+        }
+        if (ConfigManager.getImpostorDistance() > 0) {
+            addLine(String.format("  替身   %d  捕获 %d",
+                    ModelImpostors.getImpostorCount(), ModelImpostors.getCaptureCount()), VALUE_COLOR);
+        }
+        addLine(String.format("  GL调用 发出 %d  省略 %d",
+                GlStateCache.MMD.getIssuedCount(), GlStateCache.MMD.getElidedCount()), VALUE_COLOR);
         addLine(String.format("  VRAM   %s (模型 %s + 纹理 %s)",
                 fmtB(totalMmdVram), fmtB(totalVram), fmtB(texVram)), VALUE_COLOR);
 
@@ -161,9 +197,59 @@ public class PerformanceHud {
                 if (vMorphs > 0 || uvMorphs > 0) {
                     addLine(String.format("    Morph: 顶点 %d  UV %d", vMorphs, uvMorphs), LABEL_COLOR);
                 }
+                addAnimationLines(nf, model);
             }
         }
 
+        MMDCameraController stage = MMDCameraController.getInstance();
+        if (stage.isInStageMode()) {
+            NativeFunc nf = NativeFunc.GetInst();
+            long motion = stage.getMotionAnimHandle();
+            long camera = stage.getCameraAnimHandle();
+            long motionMem = animationMemory(nf, motion);
+            long cameraMem = camera != motion ? animationMemory(nf, camera) : 0;
+            addLine("", VALUE_COLOR);
+            addLine("▶ 舞台动画", TITLE_COLOR);
+            addLine(String.format("  动作 %s  相机 %s", fmtB(motionMem), fmtB(cameraMem)), VALUE_COLOR);
+        }
+    }
+
+    /** 渲染分析器开启时的耗时页：整帧 GPU 合计与各模型各阶段的滚动分位数 */
+    private static void rebuildTimingLines() {
+        cachedLines.clear();
+
+        addLine("▶ 渲染耗时 (p50 / p95 / p99 ms)", TITLE_COLOR);
+        addGpuStageLine();
+
+        List<StageTiming> rows = RenderProfiler.snapshot();
+        if (rows.isEmpty()) {
+            addLine("  等待样本...", LABEL_COLOR);
+            return;
+        }
+        // 快照按最近记录的模型排在后面，只显示最近的几个
+        List<String> names = new ArrayList<>();
+        for (StageTiming row : rows) {
+            if (!names.contains(row.model())) names.add(row.model());
+        }
+        List<String> shown = names.subList(Math.max(0, names.size() - MAX_PROFILE_MODELS), names.size());
+        for (String model : shown) {
+            String name = RenderProfiler.GLOBAL.equals(model) ? "全局" : model;
+            if (name.length() > 24) name = name.substring(0, 22) + "..";
+            addLine("  ○ " + name, VALUE_COLOR);
+            for (StageTiming row : rows) {
+                if (!row.model().equals(model)) continue;
+                int color = row.p95() > 2_000_000L ? WARN_COLOR : LABEL_COLOR;
+                addLine(String.format("    %s %-4s %6.3f / %6.3f / %6.3f",
+                        row.stage().isGpu() ? "GPU" : "CPU", row.stage().label(),
+                        row.p50() / 1_000_000.0, row.p95() / 1_000_000.0, row.p99() / 1_000_000.0), color);
+            }
+        }
+        if (shown.size() < names.size()) {
+            addLine(String.format("  其余 %d 个模型见导出文件", names.size() - shown.size()), LABEL_COLOR);
+        }
+    }
+
+    private static void measureLines(Font font) {
         cachedMaxWidth = 0;
         for (HudLine line : cachedLines) {
             int w = font.width(line.text);
@@ -171,6 +257,71 @@ public class PerformanceHud {
         }
     }
 
+    /** 物理活动模型数与冻结（静止或被剔除）模型数 */
+    private static void addPhysicsActivityLine() {
+        try {
+            NativeFunc nf = NativeFunc.GetInst();
+            int active = nf.GetPhysicsActiveModelCount();
+            int frozen = nf.GetPhysicsFrozenModelCount();
+            if (active + frozen > 0) {
+                addLine(String.format("  物理   活动 %d  冻结 %d", active, frozen), VALUE_COLOR);
+            }
+        } catch (UnsatisfiedLinkError e) {
+            // 旧版 Native 库无此接口
+        }
+    }
+
+    /** 各渲染阶段最近读回的整帧 GPU 耗时 */
+    private static void addGpuStageLine() {
+        StringBuilder line = new StringBuilder("  GPU耗时");
+        boolean any = false;
+        for (RenderStage stage : RenderStage.values()) {
+            if (!stage.isGpu()) continue;
+            long nanos = RenderProfiler.getFrameNanos(stage);
+            if (nanos < 0) continue;
+            line.append(String.format(" %s %.2fms", stage.label(), nanos / 1_000_000.0));
+            any = true;
+        }
+        if (any) {
+            addLine(line.toString(), VALUE_COLOR);
+        }
+    }
+
+    /** 模型已加载动画的内存：合计一行，按占用从大到小列出前几段 */
+    private static void addAnimationLines(NativeFunc nf, IMMDModel model) {
+        Map<String, Long> anims = MMDAnimManager.getLoadedAnimations(model);
+        if (anims.isEmpty()) return;
+
+        List<Map.Entry<String, Long>> clips = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<String, Long> e : anims.entrySet()) {
+            long bytes = animationMemory(nf, e.getValue());
+            total += bytes;
+            clips.add(Map.entry(e.getKey(), bytes));
+        }
+        clips.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+        addLine(String.format("    动画 %d 段  %s", clips.size(), fmtB(total)), LABEL_COLOR);
+        for (int i = 0; i < Math.min(clips.size(), MAX_ANIM_LINES); i++) {
+            Map.Entry<String, Long> clip = clips.get(i);
+            String name = clip.getKey();
+            if (name.length() > 20) name = name.substring(0, 18) + "..";
+            addLine(String.format("      %-20s %s", name, fmtB(clip.getValue())), LABEL_COLOR);
+        }
+    }
+
+    private static long animationMemory(NativeFunc nf, long handle) {
+        if (handle == 0) return 0;
+        animHandlesSeen.add(handle);
+        return animMemoryCache.computeIfAbsent(handle, nf::GetAnimationMemoryUsage);
+    }
+
+    /** 丢弃本次刷新未出现的句柄（已删除的动画） */
+    private static void pruneAnimationMemory() {
+        animMemoryCache.keySet().retainAll(animHandlesSeen);
+        animHandlesSeen.clear();
+    }
+
     private static void addLine(String text, int color) {
         cachedLines.add(new HudLine(text, color));
     }
@@ -0,0 +1,34 @@
+package com.shiroha.mmdskin.debug.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 一次动画文件加载（含烘焙与压缩）。失败的尝试同样记录，便于发现反复查找不存在的动画。
+ */
+@Name("mmdskin.AnimationLoad")
+@Label("MMD Animation Load")
+@Category({"MMD Skin", "Loading"})
+@Description("Loading one VMD/FBX animation for a model")
+public class AnimationLoadEvent extends Event {
+
+    @Label("Model")
+    public String model;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Native Memory")
+    @DataAmount
+    public long bytes;
+
+    @Label("Baked")
+    public boolean baked;
+
+    @Label("Success")
+    public boolean success;
+}
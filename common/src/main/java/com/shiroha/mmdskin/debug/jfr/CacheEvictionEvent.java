@@ -0,0 +1,43 @@
+package com.shiroha.mmdskin.debug.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 模型或纹理缓存淘汰一项。事件时长即释放资源的耗时。
+ */
+@Name("mmdskin.CacheEviction")
+@Label("MMD Cache Eviction")
+@Category({"MMD Skin", "Cache"})
+@Description("A model or texture evicted from its cache")
+@StackTrace(false)
+public class CacheEvictionEvent extends Event {
+
+    /** 闲置超时 */
+    public static final String TTL = "ttl";
+    /** 超出数量或显存预算，按最久未用淘汰 */
+    public static final String LRU = "lru";
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Reason")
+    public String reason;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Idle Time")
+    @Timespan(Timespan.MILLISECONDS)
+    public long idle;
+}
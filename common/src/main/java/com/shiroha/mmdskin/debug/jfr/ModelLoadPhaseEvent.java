@@ -0,0 +1,45 @@
+package com.shiroha.mmdskin.debug.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 模型加载的一个阶段：后台解析、后台纹理预解码、渲染线程创建 GL 资源。事件时长即阶段耗时。
+ */
+@Name("mmdskin.ModelLoadPhase")
+@Label("MMD Model Load Phase")
+@Category({"MMD Skin", "Loading"})
+@Description("One phase of loading an MMD model")
+@StackTrace(false)
+public class ModelLoadPhaseEvent extends Event {
+
+    public static final String PARSE = "parse";
+    public static final String TEXTURE_PREDECODE = "texture_predecode";
+    public static final String GL_FINALIZE = "gl_finalize";
+
+    @Label("Model")
+    public String model;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Format")
+    @Description("PMX, PMD or VRM")
+    public String format;
+
+    @Label("Textures")
+    @Description("Textures decoded in this phase")
+    public int textures;
+
+    @Label("Texture Bytes")
+    @DataAmount
+    public long textureBytes;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,53 @@
+package com.shiroha.mmdskin.debug.jfr;
+
+import com.shiroha.mmdskin.renderer.runtime.model.RenderFrameClock;
+
+/**
+ * 将同一渲染帧内各模型的原生更新汇总为一个 {@link NativeUpdateBatchEvent}，在下一帧第一次更新时提交上一帧的批次。
+ * JFR 未录制该事件时每次更新只做一次帧号比较。仅在渲染线程访问。
+ */
+public final class NativeUpdateBatch {
+
+    private static long frame = -1;
+    /** 本帧的批次；未启用时为 null */
+    private static NativeUpdateBatchEvent batch;
+
+    private NativeUpdateBatch() {
+    }
+
+    /** 开始一次原生更新；未录制时返回 {@link Long#MIN_VALUE} */
+    public static long start() {
+        long current = RenderFrameClock.current();
+        if (current != frame) {
+            commit();
+            frame = current;
+            NativeUpdateBatchEvent event = new NativeUpdateBatchEvent();
+            if (event.isEnabled()) {
+                event.frame = current;
+                event.begin();
+                batch = event;
+            }
+        }
+        return batch != null ? System.nanoTime() : Long.MIN_VALUE;
+    }
+
+    public static void end(String model, long start) {
+        if (start == Long.MIN_VALUE || batch == null) return;
+        long elapsed = System.nanoTime() - start;
+        batch.models++;
+        batch.updateTime += elapsed;
+        if (elapsed > batch.slowestTime) {
+            batch.slowestTime = elapsed;
+            batch.slowestModel = model;
+        }
+        batch.end();
+    }
+
+    private static void commit() {
+        NativeUpdateBatchEvent event = batch;
+        batch = null;
+        if (event != null && event.models > 0 && event.shouldCommit()) {
+            event.commit();
+        }
+    }
+}
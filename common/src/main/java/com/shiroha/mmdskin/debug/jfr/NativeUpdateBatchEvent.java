@@ -0,0 +1,38 @@
+package com.shiroha.mmdskin.debug.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 一帧内全部模型的原生更新（动画、物理、蒙皮）。事件跨度为本帧第一次到最后一次更新，由 {@link NativeUpdateBatch} 汇总提交。
+ */
+@Name("mmdskin.NativeUpdateBatch")
+@Label("MMD Native Update Batch")
+@Category({"MMD Skin", "Rendering"})
+@Description("All native model updates issued during one render frame")
+@StackTrace(false)
+public class NativeUpdateBatchEvent extends Event {
+
+    @Label("Frame")
+    public long frame;
+
+    @Label("Models")
+    public int models;
+
+    @Label("Update Time")
+    @Description("Sum of the native update calls, excluding work between them")
+    @Timespan(Timespan.NANOSECONDS)
+    public long updateTime;
+
+    @Label("Slowest Model")
+    public String slowestModel;
+
+    @Label("Slowest Update")
+    @Timespan(Timespan.NANOSECONDS)
+    public long slowestTime;
+}
@@ -0,0 +1,44 @@
+package com.shiroha.mmdskin.debug.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 渲染分析器每次导出时为每个模型与阶段提交的滚动分位数汇总。
+ */
+@Name("mmdskin.RenderStageTiming")
+@Label("MMD Render Stage Timing")
+@Category({"MMD Skin", "Rendering"})
+@Description("Rolling percentiles of one render stage for one model")
+@StackTrace(false)
+public class RenderStageTimingEvent extends Event {
+
+    @Label("Model")
+    public String model;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("GPU")
+    public boolean gpu;
+
+    @Label("Samples")
+    public int samples;
+
+    @Label("p50")
+    @Timespan(Timespan.NANOSECONDS)
+    public long p50;
+
+    @Label("p95")
+    @Timespan(Timespan.NANOSECONDS)
+    public long p95;
+
+    @Label("p99")
+    @Timespan(Timespan.NANOSECONDS)
+    public long p99;
+}
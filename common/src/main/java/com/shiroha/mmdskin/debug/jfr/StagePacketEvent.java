@@ -0,0 +1,39 @@
+package com.shiroha.mmdskin.debug.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 处理一个多人舞台数据包（解码与分发）。事件时长为整体处理耗时。
+ */
+@Name("mmdskin.StagePacket")
+@Label("MMD Stage Packet")
+@Category({"MMD Skin", "Stage"})
+@Description("Handling one multiplayer stage packet")
+@StackTrace(false)
+public class StagePacketEvent extends Event {
+
+    public static final String CLIENT = "client";
+    public static final String SERVER = "server";
+
+    @Label("Side")
+    public String side;
+
+    @Label("Packet Type")
+    @Description("INVALID when the payload could not be decoded")
+    public String packetType;
+
+    @Label("Payload Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Decode Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long decodeTime;
+}
@@ -0,0 +1,109 @@
+package com.shiroha.mmdskin.renderer.pipeline.shader;
+
+import com.shiroha.mmdskin.util.AssetsUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL43C;
+import org.lwjgl.opengl.GL46C;
+
+import java.nio.ByteBuffer;
+
+/**
+ * GPU 骨骼调色板 Compute Shader：按帧采样烘焙轨道，沿父链累乘后覆盖蒙皮矩阵。
+ */
+public class BonePaletteComputeShader {
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int LOCAL_SIZE_X = 64;
+
+    private static final int BINDING_BONES = 0;
+    private static final int BINDING_BONE_INFO = 1;
+    private static final int BINDING_TRACKS = 2;
+    private static final int BINDING_BONE_MATRICES = 3;
+
+    private static final String COMPUTE_SHADER_SOURCE =
+            AssetsUtil.getAssetsAsString("shader/compute_bone_palette.comp.glsl");
+
+    private int program = 0;
+    private boolean initialized = false;
+
+    private int boneCountLocation = -1;
+    private int sampleCountLocation = -1;
+    private int frameLocation = -1;
+
+    /** 在预热线程编译 Compute 程序 */
+    static void warmUp() {
+        ShaderCompiler.warmComputeProgram(COMPUTE_SHADER_SOURCE, "骨骼调色板 Compute Shader");
+    }
+
+    public boolean init() {
+        if (initialized) return true;
+
+        try {
+            program = ShaderCompiler.compileComputeProgram(COMPUTE_SHADER_SOURCE, "骨骼调色板 Compute Shader");
+            if (program == 0) return false;
+
+            boneCountLocation = GL43C.glGetUniformLocation(program, "BoneCount");
+            sampleCountLocation = GL43C.glGetUniformLocation(program, "SampleCount");
+            frameLocation = GL43C.glGetUniformLocation(program, "Frame");
+
+            initialized = true;
+            return true;
+
+        } catch (Exception e) {
+            logger.error("骨骼调色板 Compute Shader 初始化异常", e);
+            return false;
+        }
+    }
+
+    public static int createStaticBuffer(ByteBuffer data) {
+        int ssbo = GL46C.glGenBuffers();
+        GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, ssbo);
+        GL46C.glBufferData(GL46C.GL_COPY_WRITE_BUFFER, data, GL46C.GL_STATIC_DRAW);
+        GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, 0);
+        return ssbo;
+    }
+
+    /**
+     * 计算调色板骨骼的蒙皮矩阵，须在 CPU 蒙皮矩阵上传之后、蒙皮 dispatch 之前调用。
+     */
+    public void dispatch(int bonesSSBO, int boneInfoSSBO, int tracksSSBO, int boneMatrixSSBO,
+                         int boneCount, int sampleCount, float frame) {
+        if (!initialized || program == 0 || boneCount <= 0) return;
+
+        int savedProgram = GL46C.glGetInteger(GL46C.GL_CURRENT_PROGRAM);
+        var savedSSBO = new SSBOBindings();
+
+        GL43C.glUseProgram(program);
+
+        int dispatchBones = Math.min(boneCount, ShaderConstants.MAX_BONES);
+        if (boneCountLocation >= 0) GL43C.glUniform1i(boneCountLocation, dispatchBones);
+        if (sampleCountLocation >= 0) GL43C.glUniform1i(sampleCountLocation, sampleCount);
+        if (frameLocation >= 0) GL43C.glUniform1f(frameLocation, frame);
+
+        GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_BONES, bonesSSBO);
+        GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_BONE_INFO, boneInfoSSBO);
+        GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_TRACKS, tracksSSBO);
+        GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_BONE_MATRICES, boneMatrixSSBO);
+
+        int groupCount = (dispatchBones + LOCAL_SIZE_X - 1) / LOCAL_SIZE_X;
+        GL43C.glDispatchCompute(groupCount, 1, 1);
+
+        GL43C.glMemoryBarrier(GL43C.GL_SHADER_STORAGE_BARRIER_BIT);
+
+        savedSSBO.restore();
+        GL43C.glUseProgram(savedProgram);
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public void cleanup() {
+        if (program > 0) {
+            GL43C.glDeleteProgram(program);
+            program = 0;
+        }
+        initialized = false;
+    }
+}
@@ -0,0 +1,170 @@
+package com.shiroha.mmdskin.renderer.pipeline.shader;
+
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.config.PathConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL46C;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 着色器程序二进制磁盘缓存（glGetProgramBinary / glProgramBinary）。
+ * 键为着色器源码与驱动（厂商、渲染器、版本）的 SHA-256；驱动拒绝二进制时删除缓存文件，由调用方回退到源码编译。
+ * 可在渲染线程或预热线程（共享上下文）调用，每次调用使用当前线程的 GL 上下文。
+ */
+final class ProgramBinaryCache {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    /** 文件格式或键的组成变化时递增，使旧缓存失效 */
+    private static final int CACHE_VERSION = 1;
+    private static final int MAGIC = 0x4D4D4442;
+    private static final int HEADER_SIZE = 8;
+
+    private static volatile String driver;
+
+    private ProgramBinaryCache() {
+    }
+
+    static boolean isEnabled() {
+        return ConfigManager.isShaderBinaryCacheEnabled();
+    }
+
+    /** 由各阶段源码计算缓存键 */
+    static String key(String... sources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(("v" + CACHE_VERSION + "|" + driver()).getBytes(StandardCharsets.UTF_8));
+            for (String source : sources) {
+                digest.update((byte) 0);
+                digest.update(source.getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 从缓存创建程序。
+     *
+     * @return 已链接的程序；无缓存、缓存关闭或驱动拒绝时返回 0
+     */
+    static int load(String key, String name) {
+        if (!isEnabled() || !isSupported()) return 0;
+        Path file = file(key);
+        if (!Files.isRegularFile(file)) return 0;
+
+        ByteBuffer data = null;
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length <= HEADER_SIZE) {
+                Files.deleteIfExists(file);
+                return 0;
+            }
+            data = MemoryUtil.memAlloc(bytes.length);
+            data.order(ByteOrder.LITTLE_ENDIAN).put(bytes).flip();
+            if (data.getInt(0) != MAGIC) {
+                Files.deleteIfExists(file);
+                return 0;
+            }
+            int format = data.getInt(4);
+            data.position(HEADER_SIZE);
+
+            int program = GL46C.glCreateProgram();
+            GL46C.glProgramBinary(program, format, data);
+            if (GL46C.glGetProgrami(program, GL46C.GL_LINK_STATUS) == GL46C.GL_FALSE) {
+                logger.info("{} 程序二进制被驱动拒绝，重新编译", name);
+                GL46C.glDeleteProgram(program);
+                Files.deleteIfExists(file);
+                return 0;
+            }
+            return program;
+        } catch (IOException e) {
+            logger.warn("{} 程序二进制读取失败: {}", name, e.getMessage());
+            return 0;
+        } finally {
+            if (data != null) MemoryUtil.memFree(data);
+        }
+    }
+
+    /** 链接前设置，使驱动保留可读取的程序二进制 */
+    static void markRetrievable(int program) {
+        if (isEnabled() && isSupported()) {
+            GL46C.glProgramParameteri(program, GL46C.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL46C.GL_TRUE);
+        }
+    }
+
+    /** 将已链接程序的二进制写入缓存（先写临时文件再替换） */
+    static void store(int program, String key, String name) {
+        if (!isEnabled() || !isSupported()) return;
+        int length = GL46C.glGetProgrami(program, GL46C.GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0) return;
+
+        ByteBuffer data = MemoryUtil.memAlloc(HEADER_SIZE + length);
+        Path tmp = null;
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer written = stack.mallocInt(1);
+            IntBuffer format = stack.mallocInt(1);
+            data.order(ByteOrder.LITTLE_ENDIAN).position(HEADER_SIZE);
+            GL46C.glGetProgramBinary(program, written, format, data);
+            data.putInt(0, MAGIC).putInt(4, format.get(0));
+            data.position(0).limit(HEADER_SIZE + written.get(0));
+
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            Path dir = PathConstants.getShaderCacheDir().toPath();
+            Files.createDirectories(dir);
+            tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("{} 程序二进制写入失败: {}", name, e.getMessage());
+            deleteQuietly(tmp);
+        } finally {
+            MemoryUtil.memFree(data);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static boolean isSupported() {
+        return GL46C.glGetInteger(GL46C.GL_NUM_PROGRAM_BINARY_FORMATS) > 0;
+    }
+
+    private static Path file(String key) {
+        return PathConstants.getShaderCacheDir().toPath().resolve(key + ".bin");
+    }
+
+    private static String driver() {
+        String value = driver;
+        if (value == null) {
+            value = GL46C.glGetString(GL46C.GL_VENDOR) + "|" + GL46C.glGetString(GL46C.GL_RENDERER)
+                    + "|" + GL46C.glGetString(GL46C.GL_VERSION);
+            driver = value;
+        }
+        return value;
+    }
+}
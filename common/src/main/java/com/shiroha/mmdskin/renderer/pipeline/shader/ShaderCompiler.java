@@ -6,7 +6,7 @@ import org.lwjgl.opengl.GL43C;
 import org.lwjgl.opengl.GL46C;
 
 /**
- * 着色器编译/链接工具类。
+ * 着色器编译/链接工具类。链接结果经 {@link ProgramBinaryCache} 缓存到磁盘。
  */
 public final class ShaderCompiler {
 
@@ -14,7 +14,35 @@ public final class ShaderCompiler {
 
     private ShaderCompiler() {}
 
+    /** 编译渲染程序；优先领取预热结果，其次读取程序二进制缓存 */
     public static int compileRenderProgram(String vertexSource, String fragmentSource, String name) {
+        String key = ProgramBinaryCache.key(vertexSource, fragmentSource);
+        int program = ShaderWarmup.take(key);
+        return program != 0 ? program : buildRenderProgram(key, vertexSource, fragmentSource, name);
+    }
+
+    /** 编译 Compute 程序；优先领取预热结果，其次读取程序二进制缓存 */
+    public static int compileComputeProgram(String source, String name) {
+        String key = ProgramBinaryCache.key(source);
+        int program = ShaderWarmup.take(key);
+        return program != 0 ? program : buildComputeProgram(key, source, name);
+    }
+
+    /** 预热线程调用：编译并交给 {@link ShaderWarmup} 等待渲染线程领取 */
+    static void warmRenderProgram(String vertexSource, String fragmentSource, String name) {
+        String key = ProgramBinaryCache.key(vertexSource, fragmentSource);
+        ShaderWarmup.publish(key, buildRenderProgram(key, vertexSource, fragmentSource, name));
+    }
+
+    static void warmComputeProgram(String source, String name) {
+        String key = ProgramBinaryCache.key(source);
+        ShaderWarmup.publish(key, buildComputeProgram(key, source, name));
+    }
+
+    private static int buildRenderProgram(String key, String vertexSource, String fragmentSource, String name) {
+        int program = ProgramBinaryCache.load(key, name);
+        if (program != 0) return program;
+
         int vertexShader = compileShader(GL46C.GL_VERTEX_SHADER, vertexSource, name + " 顶点");
         if (vertexShader == 0) return 0;
 
@@ -24,18 +52,23 @@ public final class ShaderCompiler {
             return 0;
         }
 
-        int program = linkProgram(new int[]{vertexShader, fragShader}, name);
+        program = linkProgram(new int[]{vertexShader, fragShader}, name);
         GL46C.glDeleteShader(vertexShader);
         GL46C.glDeleteShader(fragShader);
+        if (program != 0) ProgramBinaryCache.store(program, key, name);
         return program;
     }
 
-    public static int compileComputeProgram(String source, String name) {
+    private static int buildComputeProgram(String key, String source, String name) {
+        int program = ProgramBinaryCache.load(key, name);
+        if (program != 0) return program;
+
         int shader = compileShader(GL43C.GL_COMPUTE_SHADER, source, name);
         if (shader == 0) return 0;
 
-        int program = linkProgram(new int[]{shader}, name);
+        program = linkProgram(new int[]{shader}, name);
         GL43C.glDeleteShader(shader);
+        if (program != 0) ProgramBinaryCache.store(program, key, name);
         return program;
     }
 
@@ -58,6 +91,7 @@ public final class ShaderCompiler {
         for (int s : shaders) {
             GL46C.glAttachShader(program, s);
         }
+        ProgramBinaryCache.markRetrievable(program);
         GL46C.glLinkProgram(program);
 
         if (GL46C.glGetProgrami(program, GL46C.GL_LINK_STATUS) == GL46C.GL_FALSE) {
@@ -37,6 +37,21 @@ public class ShaderProvider {
         }
     }
 
+    /** 在预热线程编译外部着色器；文件不存在时跳过 */
+    static void warmUp() {
+        File shaderDir = PathConstants.getShaderDir();
+        File vertexFile = new File(shaderDir, "MMDShader.vsh");
+        File fragFile = new File(shaderDir, "MMDShader.fsh");
+        if (!vertexFile.isFile() || !fragFile.isFile()) return;
+
+        try {
+            ShaderCompiler.warmRenderProgram(Files.readString(vertexFile.toPath()),
+                    Files.readString(fragFile.toPath()), "MMDShader");
+        } catch (IOException e) {
+            logger.warn("MMD Shader 预热读取失败: {}", e.getMessage());
+        }
+    }
+
     public static boolean isReady() {
         return program > 0;
     }
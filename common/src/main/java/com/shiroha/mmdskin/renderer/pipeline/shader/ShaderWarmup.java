@@ -0,0 +1,101 @@
+package com.shiroha.mmdskin.renderer.pipeline.shader;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.shiroha.mmdskin.config.ConfigManager;
+import net.minecraft.client.Minecraft;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL46C;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 客户端启动时在共享 GL 上下文的后台线程中预先编译（或从二进制缓存载入）Toon、蒙皮与自定义着色器程序。
+ * 程序对象在共享上下文间可见，渲染线程首次使用时直接领取，无需在渲染线程编译。
+ * 未预热完成或预热失败的程序照常在渲染线程编译。
+ */
+public final class ShaderWarmup {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    /** 渲染线程已自行编译该键，预热结果需丢弃 */
+    private static final int CLAIMED = 0;
+
+    private static final ConcurrentHashMap<String, Integer> programs = new ConcurrentHashMap<>();
+    private static volatile boolean started;
+
+    private ShaderWarmup() {
+    }
+
+    /** 在首帧渲染时启动预热（客户端初始化时调用） */
+    public static void schedule() {
+        RenderSystem.recordRenderCall(ShaderWarmup::start);
+    }
+
+    /**
+     * 领取预热好的程序。每个程序只交出一次；返回 0 时调用方自行编译。
+     */
+    static int take(String key) {
+        if (!started) return 0;
+        Integer program = programs.putIfAbsent(key, CLAIMED);
+        if (program == null || program == CLAIMED) return 0;
+        programs.put(key, CLAIMED);
+        return program;
+    }
+
+    /** 预热线程编译完成一个程序后调用；渲染线程已抢先编译时删除预热结果 */
+    static void publish(String key, int program) {
+        if (program == 0) return;
+        GL46C.glFinish();
+        if (programs.putIfAbsent(key, program) != null) {
+            GL46C.glDeleteProgram(program);
+        }
+    }
+
+    private static void start() {
+        if (started || !ConfigManager.isShaderBinaryCacheEnabled()) return;
+
+        long mainWindow = Minecraft.getInstance().getWindow().getWindow();
+        GLFW.glfwDefaultWindowHints();
+        GLFW.glfwWindowHint(GLFW.GLFW_VISIBLE, GLFW.GLFW_FALSE);
+        GLFW.glfwWindowHint(GLFW.GLFW_CLIENT_API, GLFW.GLFW_OPENGL_API);
+        GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MAJOR, 3);
+        GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MINOR, 2);
+        GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_PROFILE, GLFW.GLFW_OPENGL_CORE_PROFILE);
+        GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_FORWARD_COMPAT, GLFW.GLFW_TRUE);
+        long context = GLFW.glfwCreateWindow(1, 1, "", 0L, mainWindow);
+        GLFW.glfwDefaultWindowHints();
+        if (context == 0L) {
+            logger.warn("无法创建共享 GL 上下文，着色器改为首次使用时编译");
+            return;
+        }
+
+        started = true;
+        Thread worker = new Thread(() -> run(context), "MMD-ShaderWarmup");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private static void run(long context) {
+        long begin = System.nanoTime();
+        GLFW.glfwMakeContextCurrent(context);
+        try {
+            var caps = GL.createCapabilities();
+            new ToonShaderCpu().warmUp();
+            if (caps.OpenGL43) {
+                SkinningComputeShader.warmUp();
+                BonePaletteComputeShader.warmUp();
+            }
+            ShaderProvider.warmUp();
+            logger.info("着色器预热完成，用时 {} ms", (System.nanoTime() - begin) / 1_000_000);
+        } catch (Throwable t) {
+            logger.warn("着色器预热失败，改为首次使用时编译", t);
+        } finally {
+            GLFW.glfwMakeContextCurrent(0L);
+            GL.setCapabilities(null);
+            RenderSystem.recordRenderCall(() -> GLFW.glfwDestroyWindow(context));
+        }
+    }
+}
@@ -26,6 +26,7 @@ public class SkinningComputeShader {
     private int morphCountLocation = -1;
     private int maxBonesLocation = -1;
     private int uvMorphCountLocation = -1;
+    private int outlineExtrudeLocation = -1;
 
     private static final int BINDING_ORIG_POSITIONS = 0;
     private static final int BINDING_ORIG_NORMALS = 1;
@@ -40,6 +41,7 @@ public class SkinningComputeShader {
     private static final int BINDING_UV_MORPH_OFFSETS = 10;
     private static final int BINDING_UV_MORPH_WEIGHTS = 11;
     private static final int BINDING_SKINNED_UVS = 12;
+    private static final int BINDING_OUTLINE_SHELL = 13;
 
     private static final String COMPUTE_SHADER_SOURCE =
             AssetsUtil.getAssetsAsString("shader/compute_skinning.comp.glsl");
@@ -57,7 +59,9 @@ public class SkinningComputeShader {
 
             int uvMorphOffsetsSSBO, int uvMorphWeightsSSBO, int uvMorphCount,
 
-            int vertexCount
+            int vertexCount,
+
+            int outOutlineShellBuffer, float outlineExtrude
     ) {
 
         public static DispatchParams withoutUvMorph(
@@ -74,10 +78,16 @@ public class SkinningComputeShader {
                     boneMatrixSSBO,
                     morphOffsetsSSBO, morphWeightsSSBO, morphCount,
                     0, 0, -1,
-                    vertexCount);
+                    vertexCount,
+                    0, 0.0f);
         }
     }
 
+    /** 在预热线程编译 Compute 程序 */
+    static void warmUp() {
+        ShaderCompiler.warmComputeProgram(COMPUTE_SHADER_SOURCE, "蒙皮 Compute Shader");
+    }
+
     public boolean init() {
         if (initialized) return true;
 
@@ -89,6 +99,7 @@ public class SkinningComputeShader {
             morphCountLocation = GL43C.glGetUniformLocation(program, "MorphCount");
             maxBonesLocation = GL43C.glGetUniformLocation(program, "MaxBones");
             uvMorphCountLocation = GL43C.glGetUniformLocation(program, "UvMorphCount");
+            outlineExtrudeLocation = GL43C.glGetUniformLocation(program, "OutlineExtrude");
 
             initialized = true;
             return true;
@@ -115,6 +126,14 @@ public class SkinningComputeShader {
     }
 
     public void dispatch(DispatchParams p) {
+        dispatch(p, p.vertexCount());
+    }
+
+    /**
+     * 只蒙皮前 dispatchVertexCount 个顶点（网格 LOD 的顶点前缀）；
+     * VertexCount uniform 仍为完整顶点数，保证 Morph 数据的步长不变。
+     */
+    public void dispatch(DispatchParams p, int dispatchVertexCount) {
         if (!initialized || program == 0) return;
 
         int savedProgram = GL46C.glGetInteger(GL46C.GL_CURRENT_PROGRAM);
@@ -126,6 +145,8 @@ public class SkinningComputeShader {
         if (morphCountLocation >= 0) GL43C.glUniform1i(morphCountLocation, p.morphCount());
         if (maxBonesLocation >= 0) GL43C.glUniform1i(maxBonesLocation, MAX_BONES);
         if (uvMorphCountLocation >= 0) GL43C.glUniform1i(uvMorphCountLocation, p.uvMorphCount());
+        boolean writeShell = p.outOutlineShellBuffer() != 0 && p.outlineExtrude() > 0.0f;
+        if (outlineExtrudeLocation >= 0) GL43C.glUniform1f(outlineExtrudeLocation, writeShell ? p.outlineExtrude() : 0.0f);
 
         GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_ORIG_POSITIONS, p.origPosBuffer());
         GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_ORIG_NORMALS, p.origNorBuffer());
@@ -149,8 +170,11 @@ public class SkinningComputeShader {
             GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_UV_MORPH_WEIGHTS, p.uvMorphWeightsSSBO());
         }
         GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_SKINNED_UVS, p.outSkinnedUvBuffer());
+        if (writeShell) {
+            GL43C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, BINDING_OUTLINE_SHELL, p.outOutlineShellBuffer());
+        }
 
-        int groupCount = (p.vertexCount() + LOCAL_SIZE_X - 1) / LOCAL_SIZE_X;
+        int groupCount = (dispatchVertexCount + LOCAL_SIZE_X - 1) / LOCAL_SIZE_X;
         GL43C.glDispatchCompute(groupCount, 1, 1);
 
         GL43C.glMemoryBarrier(GL43C.GL_VERTEX_ATTRIB_ARRAY_BARRIER_BIT | GL43C.GL_SHADER_STORAGE_BARRIER_BIT);
@@ -215,6 +239,15 @@ public class SkinningComputeShader {
         return buffer;
     }
 
+    /** 描边外扩壳位置缓冲（每顶点 vec3），同时作为顶点属性读取 */
+    public static int createOutlineShellBuffer(int vertexCount) {
+        int buffer = GL46C.glGenBuffers();
+        GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, buffer);
+        GL46C.glBufferData(GL46C.GL_COPY_WRITE_BUFFER, (long) vertexCount * 3 * 4, GL46C.GL_DYNAMIC_COPY);
+        GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, 0);
+        return buffer;
+    }
+
     public void uploadUvMorphOffsets(int uvMorphOffsetsSSBO, java.nio.ByteBuffer data) {
         if (!initialized || uvMorphOffsetsSSBO == 0) return;
         GL46C.glBindBuffer(GL46C.GL_COPY_WRITE_BUFFER, uvMorphOffsetsSSBO);
@@ -70,4 +70,9 @@ public class ToonConfig {
     public float getOutlineColorB() {
         return ConfigManager.getToonOutlineB();
     }
+
+    /** 描边外扩壳由 GPU 蒙皮的 Compute 调度写出，每个模型一次间接绘制（仅 GPU 蒙皮路径） */
+    public boolean isComputeShellOutline() {
+        return ConfigManager.getToonOutlineMode() == 1;
+    }
 }
@@ -15,6 +15,8 @@ public abstract class ToonShaderBase {
 
     protected int mainProgram = 0;
     protected int outlineProgram = 0;
+    /** 仅写深度的预通道程序，编译失败时为 0（不影响主程序） */
+    protected int depthProgram = 0;
     protected boolean initialized = false;
 
     protected static final String MAIN_FRAGMENT_SHADER_BODY =
@@ -23,6 +25,12 @@ public abstract class ToonShaderBase {
     protected static final String OUTLINE_FRAGMENT_SHADER_BODY =
             AssetsUtil.getAssetsAsString("shader/toon_outline_body.frag.glsl");
 
+    protected static final String DEPTH_VERTEX_SHADER =
+            AssetsUtil.getAssetsAsString("shader/toon_depth.vert.glsl");
+
+    protected static final String DEPTH_FRAGMENT_SHADER =
+            AssetsUtil.getAssetsAsString("shader/toon_depth.frag.glsl");
+
     protected int projMatLocation = -1;
     protected int modelViewMatLocation = -1;
     protected int sampler0Location = -1;
@@ -39,11 +47,15 @@ public abstract class ToonShaderBase {
     protected int outlineWidthLocation = -1;
     protected int outlineColorLocation = -1;
 
+    protected int depthProjMatLocation = -1;
+    protected int depthModelViewMatLocation = -1;
+
     protected int positionLocation = -1;
     protected int normalLocation = -1;
     protected int uv0Location = -1;
     protected int outlinePositionLocation = -1;
     protected int outlineNormalLocation = -1;
+    protected int depthPositionLocation = -1;
 
     protected abstract String getMainVertexShader();
 
@@ -70,6 +82,9 @@ public abstract class ToonShaderBase {
                 return false;
             }
 
+            depthProgram = compileProgram(DEPTH_VERTEX_SHADER, DEPTH_FRAGMENT_SHADER,
+                                         getShaderName() + "深度预通道着色器");
+
             initCommonUniforms();
 
             initCommonAttributes();
@@ -102,6 +117,11 @@ public abstract class ToonShaderBase {
         outlineModelViewMatLocation = GL46C.glGetUniformLocation(outlineProgram, "ModelViewMat");
         outlineWidthLocation = GL46C.glGetUniformLocation(outlineProgram, "OutlineWidth");
         outlineColorLocation = GL46C.glGetUniformLocation(outlineProgram, "OutlineColor");
+
+        if (depthProgram > 0) {
+            depthProjMatLocation = GL46C.glGetUniformLocation(depthProgram, "ProjMat");
+            depthModelViewMatLocation = GL46C.glGetUniformLocation(depthProgram, "ModelViewMat");
+        }
     }
 
     private void initCommonAttributes() {
@@ -112,6 +132,20 @@ public abstract class ToonShaderBase {
 
         outlinePositionLocation = GL46C.glGetAttribLocation(outlineProgram, "Position");
         outlineNormalLocation = GL46C.glGetAttribLocation(outlineProgram, "Normal");
+
+        if (depthProgram > 0) {
+            depthPositionLocation = GL46C.glGetAttribLocation(depthProgram, "Position");
+        }
+    }
+
+    /** 在预热线程编译与 {@link #init()} 相同的各个程序 */
+    void warmUp() {
+        ShaderCompiler.warmRenderProgram(getMainVertexShader(), MAIN_FRAGMENT_SHADER_BODY,
+                getShaderName() + "主着色器");
+        ShaderCompiler.warmRenderProgram(getOutlineVertexShader(), MAIN_FRAGMENT_SHADER_BODY,
+                getShaderName() + "描边着色器");
+        ShaderCompiler.warmRenderProgram(DEPTH_VERTEX_SHADER, DEPTH_FRAGMENT_SHADER,
+                getShaderName() + "深度预通道着色器");
     }
 
     protected int compileProgram(String vertexSource, String fragmentSource, String name) {
@@ -212,8 +246,23 @@ public abstract class ToonShaderBase {
         }
     }
 
+    public void setDepthProjectionMatrix(FloatBuffer matrix) {
+        if (depthProjMatLocation >= 0) {
+            matrix.position(0);
+            GL46C.glUniformMatrix4fv(depthProjMatLocation, false, matrix);
+        }
+    }
+
+    public void setDepthModelViewMatrix(FloatBuffer matrix) {
+        if (depthModelViewMatLocation >= 0) {
+            matrix.position(0);
+            GL46C.glUniformMatrix4fv(depthModelViewMatLocation, false, matrix);
+        }
+    }
+
     public int getMainProgram() { return mainProgram; }
     public int getOutlineProgram() { return outlineProgram; }
+    public int getDepthProgram() { return depthProgram; }
 
     public int getPositionLocation() { return positionLocation; }
     public int getNormalLocation() { return normalLocation; }
@@ -221,6 +270,7 @@ public abstract class ToonShaderBase {
 
     public int getOutlinePositionLocation() { return outlinePositionLocation; }
     public int getOutlineNormalLocation() { return outlineNormalLocation; }
+    public int getDepthPositionLocation() { return depthPositionLocation; }
 
     public boolean isInitialized() { return initialized; }
 
@@ -233,6 +283,10 @@ public abstract class ToonShaderBase {
             GL46C.glDeleteProgram(outlineProgram);
             outlineProgram = 0;
         }
+        if (depthProgram > 0) {
+            GL46C.glDeleteProgram(depthProgram);
+            depthProgram = 0;
+        }
         initialized = false;
     }
 }
@@ -1,13 +1,16 @@
 package com.shiroha.mmdskin.renderer.runtime.animation;
 
 import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.ConfigManager;
 import com.shiroha.mmdskin.config.ModelAnimConfig;
 import com.shiroha.mmdskin.config.PathConstants;
+import com.shiroha.mmdskin.debug.jfr.AnimationLoadEvent;
 import com.shiroha.mmdskin.renderer.api.IMMDModel;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -23,6 +26,12 @@ public class MMDAnimManager {
 
     private static final String[] ANIM_EXTENSIONS = {".vmd", ".fbx"};
 
+    /** 每档烘焙采样率（Hz），配置值 1/2 对应 30/60 Hz */
+    private static final int BAKE_RATE_STEP = 30;
+
+    /** 已缓存动画所用的加载选项（烘焙/压缩），配置变化时整体失效重新加载 */
+    private static volatile int cachedLoadSignature = 0;
+
     public static void Init() {
         nf = NativeFunc.GetInst();
         animModel = new ConcurrentHashMap<>();
@@ -58,6 +67,8 @@ public class MMDAnimManager {
     }
 
     public static long GetAnimModel(IMMDModel model, String animName) {
+        checkLoadOptions();
+
         Map<String, Long> sub = animModel.get(model);
         if (sub == null) return 0;
 
@@ -105,7 +116,7 @@ public class MMDAnimManager {
         for (String ext : ANIM_EXTENSIONS) {
             File file = new File(dir, animName + ext);
             if (file.exists()) {
-                return nf.LoadAnimation(model.getModelHandle(), file.getAbsolutePath());
+                return loadAnimation(model, file.getAbsolutePath());
             }
         }
 
@@ -114,7 +125,7 @@ public class MMDAnimManager {
             File[] fbxFiles = dirFile.listFiles((d, name) -> name.toLowerCase().endsWith(".fbx"));
             if (fbxFiles != null) {
                 for (File fbx : fbxFiles) {
-                    long handle = nf.LoadAnimation(model.getModelHandle(), fbx.getAbsolutePath() + "#" + animName);
+                    long handle = loadAnimation(model, fbx.getAbsolutePath() + "#" + animName);
                     if (handle != 0) return handle;
                 }
             }
@@ -132,18 +143,69 @@ public class MMDAnimManager {
         File animsDir = PathConstants.getModelAnimsDirByPath(modelDir);
         File target = new File(animsDir, mappedFile);
         if (target.exists()) {
-            return nf.LoadAnimation(model.getModelHandle(), target.getAbsolutePath());
+            return loadAnimation(model, target.getAbsolutePath());
         }
 
         target = new File(modelDir, mappedFile);
         if (target.exists()) {
-            return nf.LoadAnimation(model.getModelHandle(), target.getAbsolutePath());
+            return loadAnimation(model, target.getAbsolutePath());
         }
 
         logger.warn("Mapped animation file not found: {} -> {} (slot: {})", modelDir, mappedFile, animName);
         return 0;
     }
 
+    private static long loadAnimation(IMMDModel model, String path) {
+        AnimationLoadEvent event = new AnimationLoadEvent();
+        event.begin();
+        // 压缩存储会丢弃预烘焙轨道，两者同时开启时不再烘焙
+        int rate = ConfigManager.isAnimationCompactStorage() ? 0 : ConfigManager.getAnimationBakeMode() * BAKE_RATE_STEP;
+        long handle = rate <= 0
+                ? nf.LoadAnimation(model.getModelHandle(), path)
+                : nf.LoadAnimationWithOptions(model.getModelHandle(), path, rate, ConfigManager.isAnimationBakeQuantize());
+        compactIfEnabled(handle);
+        if (event.shouldCommit()) {
+            event.model = model.getModelName();
+            event.path = path;
+            event.baked = rate > 0;
+            event.success = handle != 0;
+            event.bytes = handle != 0 ? nf.GetAnimationMemoryUsage(handle) : 0;
+            event.commit();
+        }
+        return handle;
+    }
+
+    /** 按配置将动画转为压缩关键帧存储（舞台合并后的动作同样适用） */
+    public static void compactIfEnabled(long anim) {
+        if (anim != 0 && ConfigManager.isAnimationCompactStorage()) {
+            NativeFunc.GetInst().CompactAnimation(anim);
+        }
+    }
+
+    /** 模型已缓存的动画（槽位名 -> 句柄，不含未找到的槽位） */
+    public static Map<String, Long> getLoadedAnimations(IMMDModel model) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        Map<String, Long> sub = animModel != null ? animModel.get(model) : null;
+        if (sub != null) {
+            sub.forEach((name, handle) -> {
+                if (handle != null && handle != 0) result.put(name, handle);
+            });
+        }
+        return result;
+    }
+
+    private static void checkLoadOptions() {
+        int mode = ConfigManager.getAnimationBakeMode();
+        int signature = mode <= 0 ? 0 : (mode << 1) | (ConfigManager.isAnimationBakeQuantize() ? 1 : 0);
+        signature = (signature << 1) | (ConfigManager.isAnimationCompactStorage() ? 1 : 0);
+        if (signature == cachedLoadSignature) return;
+        cachedLoadSignature = signature;
+        // 正在播放的动画由原生层持有引用，删除句柄不影响当前播放
+        for (IMMDModel model : animModel.keySet()) {
+            invalidateAnimCache(model);
+        }
+    }
+
     public static void invalidateAnimCache(IMMDModel model) {
         Map<String, Long> sub = animModel.get(model);
         if (sub != null) {
@@ -1,6 +1,7 @@
 package com.shiroha.mmdskin.renderer.runtime.cache;
 
 import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.debug.jfr.CacheEvictionEvent;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -12,6 +13,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 
 /**
  * 模型缓存管理器。
@@ -23,13 +25,20 @@ public class ModelCache<T> {
 
     private final Map<String, CacheEntry<T>> pendingRelease;
     private final String cacheName;
+    /** 估算条目占用的字节数，仅用于淘汰事件 */
+    private final ToLongFunction<T> sizer;
 
     private static final long IDLE_TTL_MS = 60_000;
 
     private static final long PENDING_TTL_MS = 60_000;
 
     public ModelCache(String name) {
+        this(name, value -> 0L);
+    }
+
+    public ModelCache(String name, ToLongFunction<T> sizer) {
         this.cacheName = name;
+        this.sizer = sizer;
         this.active = new ConcurrentHashMap<>();
         this.pendingRelease = new ConcurrentHashMap<>();
     }
@@ -103,7 +112,7 @@ public class ModelCache<T> {
             for (String key : expired) {
                 CacheEntry<T> entry = pendingRelease.remove(key);
                 if (entry != null) {
-                    safeDispose(disposer, entry.value, key);
+                    evict(disposer, key, entry, CacheEvictionEvent.TTL, now);
                 }
             }
         }
@@ -121,12 +130,13 @@ public class ModelCache<T> {
         List<Map.Entry<String, CacheEntry<T>>> sorted = new ArrayList<>(pendingRelease.entrySet());
         sorted.sort((a, b) -> Long.compare(a.getValue().lastAccessTime, b.getValue().lastAccessTime));
 
+        long now = System.currentTimeMillis();
         int evicted = 0;
         for (var entry : sorted) {
             if (evicted >= evictCount) break;
             CacheEntry<T> removed = pendingRelease.remove(entry.getKey());
             if (removed != null) {
-                safeDispose(disposer, removed.value, entry.getKey());
+                evict(disposer, entry.getKey(), removed, CacheEvictionEvent.LRU, now);
                 evicted++;
             }
         }
@@ -170,6 +180,23 @@ public class ModelCache<T> {
         active.forEach(action);
     }
 
+    private void evict(Consumer<T> disposer, String key, CacheEntry<T> entry, String reason, long now) {
+        CacheEvictionEvent event = new CacheEvictionEvent();
+        if (event.isEnabled()) {
+            // 释放后资源已不可查询，先记录大小
+            event.bytes = sizer.applyAsLong(entry.value);
+        }
+        event.begin();
+        safeDispose(disposer, entry.value, key);
+        if (event.shouldCommit()) {
+            event.cache = cacheName;
+            event.key = key;
+            event.reason = reason;
+            event.idle = now - entry.lastAccessTime;
+            event.commit();
+        }
+    }
+
     private void safeDispose(Consumer<T> disposer, T value, String key) {
         try {
             if (disposer != null) {
@@ -0,0 +1,113 @@
+package com.shiroha.mmdskin.renderer.runtime.culling;
+
+import com.shiroha.mmdskin.NativeFunc;
+import org.lwjgl.opengl.GL46C;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 单个模型的剔除状态：模型空间保守包围盒与遮挡查询。
+ * 包围盒由蒙皮后的骨骼位置外扩得到，每隔若干次更新刷新一次；持续被剔除的模型每隔若干帧由调用方
+ * 评估一次姿态后强制刷新，避免根运动把模型带出旧包围盒后一直不可见。仅在渲染线程访问。
+ */
+public final class ModelCullState {
+
+    /** 每隔多少次可见更新刷新一次包围盒 */
+    private static final int BOUNDS_REFRESH_INTERVAL = 8;
+    /** 骨骼包围盒按最大边长外扩的比例（网格、头发、裙摆超出骨骼的部分） */
+    private static final float BOUNDS_EXPAND_RATIO = 0.25f;
+    /** 最小外扩（模型单位），避免单骨骼或极小模型被过度剔除 */
+    private static final float BOUNDS_MIN_EXPAND = 2.0f;
+    /** 连续被剔除多少帧后重新评估姿态并刷新包围盒 */
+    private static final int CULLED_REFRESH_FRAMES = 30;
+
+    final float[] bounds = new float[6];
+    boolean hasBounds;
+    private int refreshCountdown;
+    private ByteBuffer boneBuffer;
+    private int culledFrames;
+    private long culledFrame = -1;
+
+    int queryId;
+    boolean queryPending;
+    long queryFrame;
+    boolean occluded;
+
+    /** 可见更新后调用，按间隔从骨骼位置重算包围盒 */
+    public void refreshBounds(NativeFunc nf, long model) {
+        culledFrames = 0;
+        if (hasBounds && --refreshCountdown > 0) return;
+        refreshBoundsNow(nf, model);
+    }
+
+    /**
+     * 模型在本帧被剔除时调用（同一帧的多个通道只计一次）。
+     *
+     * @return 连续剔除已达刷新间隔，调用方应评估姿态后调用 {@link #refreshBoundsNow}
+     */
+    public boolean markCulled(long frame) {
+        if (frame == culledFrame) return false;
+        culledFrame = frame;
+        if (++culledFrames < CULLED_REFRESH_FRAMES) return false;
+        culledFrames = 0;
+        return true;
+    }
+
+    /** 立即从骨骼位置重算包围盒，并重置刷新间隔 */
+    public void refreshBoundsNow(NativeFunc nf, long model) {
+        refreshCountdown = BOUNDS_REFRESH_INTERVAL;
+
+        int boneCount = nf.GetBoneCount(model);
+        if (boneCount <= 0) return;
+        int bytes = boneCount * 12;
+        if (boneBuffer == null || boneBuffer.capacity() < bytes) {
+            if (boneBuffer != null) MemoryUtil.memFree(boneBuffer);
+            boneBuffer = MemoryUtil.memAlloc(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        boneBuffer.clear();
+        int copied = nf.CopyBonePositionsToBuffer(model, boneBuffer);
+        if (copied <= 0) return;
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+        for (int i = 0; i < copied; i++) {
+            float x = boneBuffer.getFloat(i * 12);
+            float y = boneBuffer.getFloat(i * 12 + 4);
+            float z = boneBuffer.getFloat(i * 12 + 8);
+            if (!Float.isFinite(x) || !Float.isFinite(y) || !Float.isFinite(z)) continue;
+            minX = Math.min(minX, x); maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y); maxY = Math.max(maxY, y);
+            minZ = Math.min(minZ, z); maxZ = Math.max(maxZ, z);
+        }
+        if (minX > maxX) return;
+
+        float extent = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+        float expand = Math.max(extent * BOUNDS_EXPAND_RATIO, BOUNDS_MIN_EXPAND);
+        bounds[0] = minX - expand; bounds[1] = minY - expand; bounds[2] = minZ - expand;
+        bounds[3] = maxX + expand; bounds[4] = maxY + expand; bounds[5] = maxZ + expand;
+        hasBounds = true;
+    }
+
+    /** 包围盒角点到模型原点的最大距离（模型单位） */
+    float boundingRadius() {
+        float x = Math.max(Math.abs(bounds[0]), Math.abs(bounds[3]));
+        float y = Math.max(Math.abs(bounds[1]), Math.abs(bounds[4]));
+        float z = Math.max(Math.abs(bounds[2]), Math.abs(bounds[5]));
+        return (float) Math.sqrt(x * x + y * y + z * z);
+    }
+
+    /** 释放遮挡查询与骨骼缓冲（渲染线程） */
+    public void dispose() {
+        if (queryId != 0) {
+            GL46C.glDeleteQueries(queryId);
+            queryId = 0;
+        }
+        queryPending = false;
+        if (boneBuffer != null) {
+            MemoryUtil.memFree(boneBuffer);
+            boneBuffer = null;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.shiroha.mmdskin.renderer.runtime.culling;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.renderer.compat.IrisCompat;
+import com.shiroha.mmdskin.renderer.runtime.model.RenderFrameClock;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.client.renderer.ShaderInstance;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.phys.AABB;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+import org.lwjgl.opengl.GL46C;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 模型剔除阶段：在原生更新之前按模型真实包围盒做视锥测试，可选 GPU 遮挡查询（结果延迟一帧）。
+ * 不可见的模型跳过姿态评估、物理与蒙皮，只推进动画时钟。
+ * 同时记录各实体的包围半径，放宽原版按碰撞箱做的实体剔除，避免大模型在屏幕边缘提前消失；
+ * 并按包围球的屏幕投影大小为可见模型选择网格 LOD 级别，向替身渲染提供视图空间包围球。
+ */
+public final class ModelCulling {
+
+    /** 半径记录超过该帧数未刷新即清除 */
+    private static final long RADIUS_TTL_FRAMES = 600;
+    /** 各 LOD 级别的屏幕覆盖率阈值（包围球投影半径 / 半屏高），低于阈值切换到该级 */
+    private static final float[] LOD_COVERAGE = {Float.MAX_VALUE, 0.25f, 0.1f};
+    /** 回到更精细级别时阈值的放大倍数，避免在阈值附近来回切换 */
+    private static final float LOD_HYSTERESIS = 1.2f;
+
+    private static final FrustumIntersection frustum = new FrustumIntersection();
+    private static final Matrix4f clipMatrix = new Matrix4f();
+    private static final Matrix4f inverseModel = new Matrix4f();
+    private static final Vector3f cameraLocal = new Vector3f();
+    private static final Vector3f scaleTmp = new Vector3f();
+    private static final Vector3f centerTmp = new Vector3f();
+    private static final Vector4f sphereTmp = new Vector4f();
+
+    private static final Map<Integer, CullRadius> entityRadius = new HashMap<>();
+    private static long lastPruneFrame;
+
+    private static long statsFrame;
+    private static int frustumCulled;
+    private static int occlusionCulled;
+    private static int lastFrustumCulled;
+    private static int lastOcclusionCulled;
+
+    private ModelCulling() {
+    }
+
+    /**
+     * 判断模型在当前通道是否可见。
+     *
+     * @param modelPose 模型空间到视图空间的矩阵（与绘制时一致）
+     * @param allowOcclusion 当前通道是否允许遮挡查询（主相机世界通道）
+     */
+    public static boolean isVisible(ModelCullState state, Matrix4f modelPose, boolean allowOcclusion) {
+        if (!ConfigManager.isModelCullingEnabled() || !state.hasBounds) return true;
+        rollStats();
+
+        float[] b = state.bounds;
+        clipMatrix.set(RenderSystem.getProjectionMatrix()).mul(modelPose);
+        frustum.set(clipMatrix, false);
+        if (!frustum.testAab(b[0], b[1], b[2], b[3], b[4], b[5])) {
+            frustumCulled++;
+            return false;
+        }
+
+        if (!allowOcclusion || !ConfigManager.isOcclusionCullingEnabled() || IrisCompat.isRenderingShadows()) {
+            return true;
+        }
+        if (!updateOcclusion(state, modelPose)) {
+            occlusionCulled++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 按包围球在屏幕上的投影大小选择网格 LOD 级别。
+     *
+     * @param current 当前级别（回差判定用）
+     * @param levelCount 可用级别总数（含原始网格）
+     */
+    public static int selectLodLevel(ModelCullState state, Matrix4f modelPose, int current, int levelCount) {
+        if (levelCount <= 1 || !ConfigManager.isMeshLodEnabled() || !state.hasBounds) return 0;
+        // 阴影通道的投影与主相机无关，沿用当前级别
+        if (IrisCompat.isRenderingShadows()) return current;
+
+        viewSphere(state, modelPose, sphereTmp);
+        float radius = sphereTmp.w;
+        float distance = (float) Math.sqrt(sphereTmp.x * sphereTmp.x + sphereTmp.y * sphereTmp.y + sphereTmp.z * sphereTmp.z);
+        if (distance <= radius) return 0;
+
+        float coverage = radius * RenderSystem.getProjectionMatrix().m11() / distance;
+        int level = 0;
+        for (int i = 1; i < levelCount && i < LOD_COVERAGE.length; i++) {
+            float threshold = i <= current ? LOD_COVERAGE[i] * LOD_HYSTERESIS : LOD_COVERAGE[i];
+            if (coverage >= threshold) break;
+            level = i;
+        }
+        return level;
+    }
+
+    /**
+     * 计算包围球在视图空间的球心（xyz）与半径（w）。
+     *
+     * @return 包围盒尚未就绪时返回 false
+     */
+    public static boolean viewSphere(ModelCullState state, Matrix4f modelPose, Vector4f out) {
+        if (!state.hasBounds) return false;
+        float[] b = state.bounds;
+        modelPose.transformPosition(centerTmp.set((b[0] + b[3]) * 0.5f, (b[1] + b[4]) * 0.5f, (b[2] + b[5]) * 0.5f));
+        float dx = b[3] - b[0], dy = b[4] - b[1], dz = b[5] - b[2];
+        float radius = 0.5f * (float) Math.sqrt(dx * dx + dy * dy + dz * dz) * modelPose.getScale(scaleTmp).x;
+        out.set(centerTmp, radius);
+        return true;
+    }
+
+    /** 相机相对包围盒中心的单位方向（模型空间），用于判断观察角度的变化 */
+    public static void viewDirection(ModelCullState state, Matrix4f modelPose, Vector3f out) {
+        float[] b = state.bounds;
+        modelPose.invertAffine(inverseModel).transformPosition(out.set(0.0f));
+        out.sub((b[0] + b[3]) * 0.5f, (b[1] + b[4]) * 0.5f, (b[2] + b[5]) * 0.5f).normalize();
+    }
+
+    /** 记录实体的世界包围半径，供 {@link #shouldRenderEntity} 使用 */
+    public static void recordEntityRadius(Entity entity, ModelCullState state, Matrix4f modelPose, float modelScale) {
+        if (!state.hasBounds) return;
+        float totalScale = modelPose.getScale(scaleTmp).x;
+        // 模型原点相对实体位置的偏移（飞行、睡眠等姿态平移）按尺寸缩放计入
+        float sizeScale = modelScale > 0.0f ? totalScale / modelScale : totalScale;
+        float radius = state.boundingRadius() * totalScale + sizeScale;
+        CullRadius entry = entityRadius.computeIfAbsent(entity.getId(), id -> new CullRadius());
+        entry.radius = radius;
+        entry.frame = RenderFrameClock.current();
+    }
+
+    /** 原版剔除判为不可见时，按模型包围半径复查；仍遵守原版的距离判定 */
+    public static boolean shouldRenderEntity(Entity entity, Frustum vanillaFrustum, double camX, double camY, double camZ) {
+        if (!ConfigManager.isModelCullingEnabled()) return false;
+        CullRadius entry = entityRadius.get(entity.getId());
+        if (entry == null || !entity.shouldRender(camX, camY, camZ)) return false;
+        double r = entry.radius;
+        AABB box = new AABB(entity.getX() - r, entity.getY() - r, entity.getZ() - r,
+                entity.getX() + r, entity.getY() + r, entity.getZ() + r);
+        return vanillaFrustum.isVisible(box);
+    }
+
+    /** 上一帧被视锥 / 遮挡剔除的模型数 */
+    public static int getFrustumCulledCount() {
+        rollStats();
+        return lastFrustumCulled;
+    }
+
+    public static int getOcclusionCulledCount() {
+        rollStats();
+        return lastOcclusionCulled;
+    }
+
+    private static void rollStats() {
+        long frame = RenderFrameClock.current();
+        if (frame == statsFrame) return;
+        boolean consecutive = frame == statsFrame + 1;
+        lastFrustumCulled = consecutive ? frustumCulled : 0;
+        lastOcclusionCulled = consecutive ? occlusionCulled : 0;
+        frustumCulled = 0;
+        occlusionCulled = 0;
+        statsFrame = frame;
+
+        if (frame - lastPruneFrame > RADIUS_TTL_FRAMES) {
+            lastPruneFrame = frame;
+            Iterator<CullRadius> it = entityRadius.values().iterator();
+            while (it.hasNext()) {
+                if (frame - it.next().frame > RADIUS_TTL_FRAMES) it.remove();
+            }
+        }
+    }
+
+    /**
+     * 读取上一帧的查询结果，并在本帧首次经过时以包围盒发起新查询。
+     * 相机位于包围盒内时近裁面会切掉盒面，直接视为可见。
+     */
+    private static boolean updateOcclusion(ModelCullState state, Matrix4f modelPose) {
+        float[] b = state.bounds;
+        modelPose.invertAffine(inverseModel).transformPosition(cameraLocal.set(0.0f));
+        if (cameraLocal.x >= b[0] && cameraLocal.x <= b[3]
+                && cameraLocal.y >= b[1] && cameraLocal.y <= b[4]
+                && cameraLocal.z >= b[2] && cameraLocal.z <= b[5]) {
+            state.occluded = false;
+            return true;
+        }
+
+        if (state.queryPending
+                && GL46C.glGetQueryObjecti(state.queryId, GL46C.GL_QUERY_RESULT_AVAILABLE) != GL46C.GL_FALSE) {
+            state.occluded = GL46C.glGetQueryObjecti(state.queryId, GL46C.GL_QUERY_RESULT) == 0;
+            state.queryPending = false;
+        }
+
+        long frame = RenderFrameClock.current();
+        if (!state.queryPending && state.queryFrame != frame) {
+            if (state.queryId == 0) state.queryId = GL46C.glGenQueries();
+            state.queryFrame = frame;
+            state.queryPending = true;
+            GL46C.glBeginQuery(GL46C.GL_ANY_SAMPLES_PASSED_CONSERVATIVE, state.queryId);
+            drawBoundsProxy(b, modelPose);
+            GL46C.glEndQuery(GL46C.GL_ANY_SAMPLES_PASSED_CONSERVATIVE);
+        }
+        return !state.occluded;
+    }
+
+    /** 以不写颜色与深度的方式绘制包围盒，结束后恢复调用前的剔除、深度与颜色写入状态 */
+    private static void drawBoundsProxy(float[] b, Matrix4f pose) {
+        ShaderInstance previous = RenderSystem.getShader();
+        boolean cull = GL46C.glIsEnabled(GL46C.GL_CULL_FACE);
+        boolean depthTest = GL46C.glIsEnabled(GL46C.GL_DEPTH_TEST);
+        boolean depthWrite = GL46C.glGetBoolean(GL46C.GL_DEPTH_WRITEMASK);
+        boolean red, green, blue, alpha;
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            ByteBuffer mask = stack.malloc(4);
+            GL46C.glGetBooleanv(GL46C.GL_COLOR_WRITEMASK, mask);
+            red = mask.get(0) != 0;
+            green = mask.get(1) != 0;
+            blue = mask.get(2) != 0;
+            alpha = mask.get(3) != 0;
+        }
+        RenderSystem.setShader(GameRenderer::getPositionShader);
+        RenderSystem.colorMask(false, false, false, false);
+        RenderSystem.depthMask(false);
+        RenderSystem.enableDepthTest();
+        RenderSystem.disableCull();
+
+        BufferBuilder buf = Tesselator.getInstance().getBuilder();
+        buf.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION);
+        float x0 = b[0], y0 = b[1], z0 = b[2], x1 = b[3], y1 = b[4], z1 = b[5];
+        quad(buf, pose, x0, y0, z0, x1, y0, z0, x1, y1, z0, x0, y1, z0);
+        quad(buf, pose, x0, y0, z1, x1, y0, z1, x1, y1, z1, x0, y1, z1);
+        quad(buf, pose, x0, y0, z0, x0, y0, z1, x0, y1, z1, x0, y1, z0);
+        quad(buf, pose, x1, y0, z0, x1, y0, z1, x1, y1, z1, x1, y1, z0);
+        quad(buf, pose, x0, y0, z0, x1, y0, z0, x1, y0, z1, x0, y0, z1);
+        quad(buf, pose, x0, y1, z0, x1, y1, z0, x1, y1, z1, x0, y1, z1);
+        BufferUploader.drawWithShader(buf.end());
+
+        if (cull) RenderSystem.enableCull();
+        if (!depthTest) RenderSystem.disableDepthTest();
+        RenderSystem.depthMask(depthWrite);
+        RenderSystem.colorMask(red, green, blue, alpha);
+        if (previous != null) {
+            RenderSystem.setShader(() -> previous);
+        }
+    }
+
+    private static void quad(BufferBuilder buf, Matrix4f pose,
+                             float ax, float ay, float az, float bx, float by, float bz,
+                             float cx, float cy, float cz, float dx, float dy, float dz) {
+        buf.vertex(pose, ax, ay, az).endVertex();
+        buf.vertex(pose, bx, by, bz).endVertex();
+        buf.vertex(pose, cx, cy, cz).endVertex();
+        buf.vertex(pose, dx, dy, dz).endVertex();
+    }
+
+    private static final class CullRadius {
+        float radius;
+        long frame;
+    }
+}
@@ -0,0 +1,26 @@
+package com.shiroha.mmdskin.renderer.runtime.impostor;
+
+import org.joml.Vector3f;
+
+/**
+ * 单个模型的替身状态：占用的图集槽位与最近一次捕获的参数。仅在渲染线程访问。
+ */
+public final class ImpostorState {
+
+    /** 图集槽位，-1 表示尚无可用图像（未捕获或已被回收） */
+    int slot = -1;
+    long captureTime;
+    /** 捕获时的包围球半径（视图空间），面片按此尺寸绘制以与图像比例一致 */
+    float captureRadius;
+    /** 捕获时相机相对模型的方向（模型空间） */
+    final Vector3f captureDirection = new Vector3f();
+
+    boolean hasImage() {
+        return slot >= 0;
+    }
+
+    /** 归还图集槽位（模型释放时调用） */
+    public void dispose() {
+        ModelImpostors.releaseSlot(this);
+    }
+}
@@ -0,0 +1,262 @@
+package com.shiroha.mmdskin.renderer.runtime.impostor;
+
+import com.mojang.blaze3d.pipeline.TextureTarget;
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexSorting;
+import com.shiroha.mmdskin.MmdSkin;
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.renderer.compat.IrisCompat;
+import com.shiroha.mmdskin.renderer.runtime.culling.ModelCullState;
+import com.shiroha.mmdskin.renderer.runtime.culling.ModelCulling;
+import com.shiroha.mmdskin.renderer.runtime.model.RenderFrameClock;
+import com.shiroha.mmdskin.renderer.runtime.model.helper.LightingHelper;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.texture.AbstractTexture;
+import net.minecraft.client.renderer.texture.OverlayTexture;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.ResourceManager;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+import org.lwjgl.opengl.GL46C;
+
+/**
+ * 远距离模型的替身（impostor）渲染。
+ * 超出配置距离的模型每秒只以正交投影向共享图集的一个槽位捕获几次，其余帧以一张朝向相机的面片绘制，
+ * 跳过姿态同步、更新、蒙皮与绘制。捕获按每帧预算调度，图集槽位按最近使用帧回收。
+ * 捕获时模型以满亮度着色，面片按实体光照图与雾效绘制。光影包启用时不使用替身。
+ */
+public final class ModelImpostors {
+
+    private static final int ATLAS_SIZE = 2048;
+    private static final int SLOT_SIZE = 128;
+    private static final int SLOTS_PER_ROW = ATLAS_SIZE / SLOT_SIZE;
+    /** 观察方向与捕获方向夹角超过约 20° 时提前重新捕获 */
+    private static final float RECAPTURE_COS = 0.94f;
+
+    private static final ResourceLocation ATLAS_LOCATION = new ResourceLocation(MmdSkin.MOD_ID, "impostor_atlas");
+
+    private static TextureTarget atlas;
+    private static final ImpostorState[] slotOwner = new ImpostorState[SLOTS_PER_ROW * SLOTS_PER_ROW];
+    private static final long[] slotLastUsed = new long[SLOTS_PER_ROW * SLOTS_PER_ROW];
+
+    private static final Vector3f directionTmp = new Vector3f();
+    private static final int[] savedViewport = new int[4];
+    private static final float[] savedClearColor = new float[4];
+    private static int savedFramebuffer;
+
+    private static long frame;
+    private static int capturesThisFrame;
+    private static int drawnThisFrame;
+    private static int lastCaptures;
+    private static int lastDrawn;
+
+    private ModelImpostors() {
+    }
+
+    /**
+     * 判断模型是否处于替身距离。
+     *
+     * @param sphere 视图空间包围球（{@link ModelCulling#viewSphere}）
+     */
+    public static boolean isInRange(Vector4f sphere) {
+        int distance = ConfigManager.getImpostorDistance();
+        if (distance <= 0) {
+            if (atlas != null) releaseAtlas();
+            return false;
+        }
+        if (IrisCompat.isIrisShaderActive()) return false;
+        return sphere.x * sphere.x + sphere.y * sphere.y + sphere.z * sphere.z > (float) distance * distance;
+    }
+
+    /** 尚无图像、超过刷新间隔或观察角度变化较大时需要重新捕获 */
+    public static boolean needsCapture(ImpostorState state, ModelCullState cullState, Matrix4f modelPose) {
+        if (!state.hasImage()) return true;
+        long interval = 1000L / Math.max(1, ConfigManager.getImpostorUpdateRate());
+        if (System.currentTimeMillis() - state.captureTime >= interval) return true;
+        ModelCulling.viewDirection(cullState, modelPose, directionTmp);
+        return directionTmp.dot(state.captureDirection) < RECAPTURE_COS;
+    }
+
+    /** 是否已有可绘制的替身图像 */
+    public static boolean hasImage(ImpostorState state) {
+        return state.hasImage();
+    }
+
+    /** 占用本帧的一次捕获预算，必要时分配图集槽位；预算用尽或无槽位可回收时返回 false */
+    public static boolean reserveCapture(ImpostorState state) {
+        rollFrame();
+        if (capturesThisFrame >= ConfigManager.getImpostorCaptureBudget()) return false;
+        if (!state.hasImage() && !acquireSlot(state)) return false;
+        capturesThisFrame++;
+        return true;
+    }
+
+    /**
+     * 将渲染目标切换到模型的图集槽位，并以包围球为界设置正交投影。
+     *
+     * @param deliverStack 世界通道的姿态栈（模型绘制前）
+     * @return 以包围球中心为原点的姿态栈，交给模型绘制
+     */
+    public static PoseStack beginCapture(ImpostorState state, ModelCullState cullState, Matrix4f modelPose,
+                                         Vector4f sphere, PoseStack deliverStack) {
+        ensureAtlas();
+        state.captureTime = System.currentTimeMillis();
+        state.captureRadius = sphere.w;
+        ModelCulling.viewDirection(cullState, modelPose, state.captureDirection);
+
+        savedFramebuffer = GL46C.glGetInteger(GL46C.GL_DRAW_FRAMEBUFFER_BINDING);
+        GL46C.glGetIntegerv(GL46C.GL_VIEWPORT, savedViewport);
+        GL46C.glGetFloatv(GL46C.GL_COLOR_CLEAR_VALUE, savedClearColor);
+
+        int x = (state.slot % SLOTS_PER_ROW) * SLOT_SIZE;
+        int y = (state.slot / SLOTS_PER_ROW) * SLOT_SIZE;
+        atlas.bindWrite(false);
+        RenderSystem.viewport(x, y, SLOT_SIZE, SLOT_SIZE);
+        RenderSystem.enableScissor(x, y, SLOT_SIZE, SLOT_SIZE);
+        RenderSystem.clearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        RenderSystem.clear(GL46C.GL_COLOR_BUFFER_BIT | GL46C.GL_DEPTH_BUFFER_BIT, Minecraft.ON_OSX);
+        RenderSystem.disableScissor();
+
+        float r = sphere.w;
+        RenderSystem.backupProjectionMatrix();
+        RenderSystem.setProjectionMatrix(new Matrix4f().setOrtho(-r, r, -r, r, -r, r), VertexSorting.ORTHOGRAPHIC_Z);
+        LightingHelper.setFullBright(true);
+
+        PoseStack captureStack = new PoseStack();
+        captureStack.last().pose().translation(-sphere.x, -sphere.y, -sphere.z).mul(deliverStack.last().pose());
+        captureStack.last().normal().set(deliverStack.last().normal());
+        return captureStack;
+    }
+
+    /** 恢复捕获前的渲染目标、视口与投影 */
+    public static void endCapture() {
+        LightingHelper.setFullBright(false);
+        RenderSystem.restoreProjectionMatrix();
+        GlStateManager._glBindFramebuffer(GL46C.GL_FRAMEBUFFER, savedFramebuffer);
+        RenderSystem.viewport(savedViewport[0], savedViewport[1], savedViewport[2], savedViewport[3]);
+        RenderSystem.clearColor(savedClearColor[0], savedClearColor[1], savedClearColor[2], savedClearColor[3]);
+    }
+
+    /** 在包围球中心绘制朝向相机的替身面片 */
+    public static void draw(ImpostorState state, Vector4f sphere, int packedLight) {
+        if (!state.hasImage() || atlas == null) return;
+        rollFrame();
+        drawnThisFrame++;
+        slotLastUsed[state.slot] = frame;
+
+        float r = state.captureRadius;
+        float u0 = (float) ((state.slot % SLOTS_PER_ROW) * SLOT_SIZE) / ATLAS_SIZE;
+        float v0 = (float) ((state.slot / SLOTS_PER_ROW) * SLOT_SIZE) / ATLAS_SIZE;
+        float u1 = u0 + (float) SLOT_SIZE / ATLAS_SIZE;
+        float v1 = v0 + (float) SLOT_SIZE / ATLAS_SIZE;
+
+        RenderType type = RenderType.entityTranslucent(ATLAS_LOCATION);
+        BufferBuilder buf = Tesselator.getInstance().getBuilder();
+        buf.begin(type.mode(), type.format());
+        vertex(buf, sphere.x - r, sphere.y - r, sphere.z, u0, v0, packedLight);
+        vertex(buf, sphere.x + r, sphere.y - r, sphere.z, u1, v0, packedLight);
+        vertex(buf, sphere.x + r, sphere.y + r, sphere.z, u1, v1, packedLight);
+        vertex(buf, sphere.x - r, sphere.y + r, sphere.z, u0, v1, packedLight);
+        type.end(buf, RenderSystem.getVertexSorting());
+    }
+
+    /** 上一帧以替身绘制的模型数 */
+    public static int getImpostorCount() {
+        rollFrame();
+        return lastDrawn;
+    }
+
+    /** 上一帧重新捕获的替身数 */
+    public static int getCaptureCount() {
+        rollFrame();
+        return lastCaptures;
+    }
+
+    static void releaseSlot(ImpostorState state) {
+        if (state.slot >= 0 && slotOwner[state.slot] == state) {
+            slotOwner[state.slot] = null;
+        }
+        state.slot = -1;
+    }
+
+    private static void vertex(BufferBuilder buf, float x, float y, float z, float u, float v, int packedLight) {
+        buf.vertex(x, y, z)
+                .color(1.0f, 1.0f, 1.0f, 1.0f)
+                .uv(u, v)
+                .overlayCoords(OverlayTexture.NO_OVERLAY)
+                .uv2(packedLight)
+                .normal(0.0f, 0.0f, 1.0f)
+                .endVertex();
+    }
+
+    /** 优先使用空槽位，否则回收最久未绘制的槽位（本帧已绘制的不回收） */
+    private static boolean acquireSlot(ImpostorState state) {
+        int victim = -1;
+        for (int i = 0; i < slotOwner.length; i++) {
+            if (slotOwner[i] == null) {
+                victim = i;
+                break;
+            }
+            if (slotLastUsed[i] < frame && (victim < 0 || slotLastUsed[i] < slotLastUsed[victim])) {
+                victim = i;
+            }
+        }
+        if (victim < 0) return false;
+        if (slotOwner[victim] != null) slotOwner[victim].slot = -1;
+        slotOwner[victim] = state;
+        slotLastUsed[victim] = frame;
+        state.slot = victim;
+        return true;
+    }
+
+    private static void ensureAtlas() {
+        if (atlas != null) return;
+        atlas = new TextureTarget(ATLAS_SIZE, ATLAS_SIZE, true, Minecraft.ON_OSX);
+        atlas.setFilterMode(GL46C.GL_LINEAR);
+        Minecraft.getInstance().getTextureManager().register(ATLAS_LOCATION, new AtlasTexture());
+    }
+
+    private static void releaseAtlas() {
+        Minecraft.getInstance().getTextureManager().release(ATLAS_LOCATION);
+        atlas.destroyBuffers();
+        atlas = null;
+        for (int i = 0; i < slotOwner.length; i++) {
+            if (slotOwner[i] != null) slotOwner[i].slot = -1;
+            slotOwner[i] = null;
+        }
+    }
+
+    private static void rollFrame() {
+        long current = RenderFrameClock.current();
+        if (current == frame) return;
+        boolean consecutive = current == frame + 1;
+        lastCaptures = consecutive ? capturesThisFrame : 0;
+        lastDrawn = consecutive ? drawnThisFrame : 0;
+        capturesThisFrame = 0;
+        drawnThisFrame = 0;
+        frame = current;
+    }
+
+    /** 将图集颜色附件注册为纹理，供实体渲染类型采样；纹理对象归图集所有 */
+    private static final class AtlasTexture extends AbstractTexture {
+
+        @Override
+        public void load(ResourceManager resourceManager) {
+        }
+
+        @Override
+        public int getId() {
+            return atlas != null ? atlas.getColorTextureId() : 0;
+        }
+
+        @Override
+        public void releaseId() {
+        }
+    }
+}
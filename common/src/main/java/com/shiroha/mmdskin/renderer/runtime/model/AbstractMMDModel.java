@@ -1,10 +1,19 @@
 package com.shiroha.mmdskin.renderer.runtime.model;
 
 import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.debug.jfr.NativeUpdateBatch;
 import com.shiroha.mmdskin.renderer.api.IMMDModel;
 import com.shiroha.mmdskin.renderer.api.RenderContext;
 import com.shiroha.mmdskin.renderer.runtime.bridge.ModelRuntimeBridgeHolder;
+import com.shiroha.mmdskin.renderer.runtime.culling.ModelCullState;
+import com.shiroha.mmdskin.renderer.runtime.culling.ModelCulling;
+import com.shiroha.mmdskin.renderer.runtime.impostor.ImpostorState;
+import com.shiroha.mmdskin.renderer.runtime.impostor.ModelImpostors;
 import com.shiroha.mmdskin.renderer.runtime.model.helper.LivingEntityModelStateHelper;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.MeshLod;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderProfiler;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderStage;
 import com.shiroha.mmdskin.stage.client.camera.MMDCameraController;
 import com.mojang.blaze3d.platform.Window;
 import com.mojang.blaze3d.systems.RenderSystem;
@@ -15,8 +24,10 @@ import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.joml.Matrix4f;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
+import org.joml.Vector4f;
 import org.lwjgl.system.MemoryUtil;
 
 import java.nio.ByteBuffer;
@@ -40,6 +51,22 @@ public abstract class AbstractMMDModel implements IMMDModel {
 
     protected long lastUpdateTime = -1;
 
+    private long poseFrame = 0;
+    private boolean poseReused;
+
+    private final ModelCullState cullState = new ModelCullState();
+    private final Matrix4f cullPose = new Matrix4f();
+    private boolean culledSinceUpdate;
+
+    private final ImpostorState impostor = new ImpostorState();
+    private final Vector4f impostorSphere = new Vector4f();
+    private boolean useImpostor;
+
+    protected MeshLod meshLod = MeshLod.NONE;
+    private int lodLevel;
+    private int requestedLodLevel;
+    private int nativeLodLevel;
+
     protected final Quaternionf tempQuat = new Quaternionf();
 
     protected ByteBuffer materialMorphResultsByteBuffer;
@@ -63,13 +90,13 @@ public abstract class AbstractMMDModel implements IMMDModel {
                        Vector3f entityTrans, float tickDelta, PoseStack mat,
                        int packedLight, RenderContext context) {
         if (model == 0 || !isReady()) return;
+        if (cullPass(entityIn, entityYaw, entityPitch, entityTrans, mat, context)) return;
+        if (impostorPass(entityIn, entityYaw, entityPitch, entityTrans, tickDelta, mat, packedLight, context)) return;
 
-        if (entityIn instanceof LivingEntity living) {
-            handleLivingEntity(living, entityYaw, entityPitch, entityTrans,
-                    tickDelta, mat, packedLight, context);
-            return;
+        beginRenderPass();
+        if (!poseReused) {
+            syncAndUpdate(entityIn, entityYaw, tickDelta, context);
         }
-        update();
         doRenderModel(entityIn, entityYaw, entityPitch, entityTrans, mat, packedLight);
     }
 
@@ -138,24 +165,126 @@ public abstract class AbstractMMDModel implements IMMDModel {
         }
     }
 
-    private void handleLivingEntity(LivingEntity entityIn, float entityYaw, float entityPitch,
-                                     Vector3f entityTrans, float tickDelta, PoseStack mat,
-                                     int packedLight, RenderContext context) {
-        boolean stagePlaying = MMDCameraController.getInstance().isStagePlayingModel(model);
-
-        LivingEntityModelStateHelper.syncModelState(
-                getNf(),
-                model,
-                entityIn,
-                entityYaw,
-                tickDelta,
-                context,
-                getModelName(),
-                stagePlaying,
-                vrActive);
-
+    private void syncAndUpdate(Entity entityIn, float entityYaw, float tickDelta, RenderContext context) {
+        if (entityIn instanceof LivingEntity living) {
+            boolean stagePlaying = MMDCameraController.getInstance().isStagePlayingModel(model);
+
+            LivingEntityModelStateHelper.syncModelState(
+                    getNf(),
+                    model,
+                    living,
+                    entityYaw,
+                    tickDelta,
+                    context,
+                    getModelName(),
+                    stagePlaying,
+                    vrActive);
+        }
         update();
-        doRenderModel(entityIn, entityYaw, entityPitch, entityTrans, mat, packedLight);
+    }
+
+    /**
+     * 世界通道内按模型包围盒做视锥 / 遮挡剔除（在原生更新之前）。
+     * 不可见时跳过状态同步、更新与绘制，剔除期间的时间在重新可见时只推进动画时钟。
+     */
+    private boolean cullPass(Entity entityIn, float entityYaw, float entityPitch, Vector3f entityTrans,
+                             PoseStack mat, RenderContext context) {
+        requestedLodLevel = 0;
+        useImpostor = false;
+        if (!context.isWorldScene() || context.isFirstPerson()) return false;
+        if (MMDCameraController.getInstance().isStagePlayingModel(model)) return false;
+
+        float scale = getModelScale();
+        cullPose.set(mat.last().pose())
+                .rotateY(-entityYaw * ((float) Math.PI / 180F))
+                .rotateX(entityPitch * ((float) Math.PI / 180F))
+                .translate(entityTrans)
+                .scale(scale);
+        ModelCulling.recordEntityRadius(entityIn, cullState, cullPose, scale);
+        if (ModelCulling.isVisible(cullState, cullPose, true)) {
+            requestedLodLevel = ModelCulling.selectLodLevel(cullState, cullPose, lodLevel, meshLod.levelCount());
+            useImpostor = ModelCulling.viewSphere(cullState, cullPose, impostorSphere)
+                    && ModelImpostors.isInRange(impostorSphere);
+            return false;
+        }
+
+        culledSinceUpdate = true;
+        if (cullState.markCulled(RenderFrameClock.current())) refreshCulledBounds();
+        return true;
+    }
+
+    /**
+     * 持续被剔除的模型补上流逝的动画时间，只评估一次姿态（不蒙皮）后刷新包围盒，
+     * 避免根运动把模型带出旧包围盒后再也不可见。
+     */
+    private void refreshCulledBounds() {
+        if (lastUpdateTime < 0) return;
+        long currentTime = System.currentTimeMillis();
+        float elapsed = (currentTime - lastUpdateTime) / 1000.0f;
+        lastUpdateTime = currentTime;
+        if (elapsed > 0.0f) getNf().AdvanceAnimationClock(model, elapsed);
+        getNf().EvaluateAnimationOnly(model, 0.0f);
+        cullState.refreshBoundsNow(getNf(), model);
+    }
+
+    /**
+     * 远距离模型按刷新间隔与每帧预算重新捕获替身图像，其余帧只绘制替身面片，跳过同步、更新与蒙皮。
+     * 首次捕获排不进预算时照常绘制完整模型。
+     */
+    private boolean impostorPass(Entity entityIn, float entityYaw, float entityPitch, Vector3f entityTrans,
+                                 float tickDelta, PoseStack mat, int packedLight, RenderContext context) {
+        if (!useImpostor) return false;
+
+        boolean captured = false;
+        if (ModelImpostors.needsCapture(impostor, cullState, cullPose)) {
+            if (ModelImpostors.reserveCapture(impostor)) {
+                beginRenderPass();
+                if (!poseReused) {
+                    syncAndUpdate(entityIn, entityYaw, tickDelta, context);
+                }
+                PoseStack captureStack = ModelImpostors.beginCapture(impostor, cullState, cullPose, impostorSphere, mat);
+                try {
+                    doRenderModel(entityIn, entityYaw, entityPitch, entityTrans, captureStack, packedLight);
+                } finally {
+                    ModelImpostors.endCapture();
+                }
+                captured = true;
+            } else if (!ModelImpostors.hasImage(impostor)) {
+                return false;
+            }
+        }
+        // 未捕获的帧与剔除一样不推进模型，恢复更新时只补动画时钟
+        if (!captured) culledSinceUpdate = true;
+        ModelImpostors.draw(impostor, impostorSphere, packedLight);
+        return true;
+    }
+
+    /**
+     * 同一帧内的首次渲染负责同步状态、推进动画并蒙皮；后续通道（阴影、物品栏、第一人称等）
+     * 复用已蒙皮的缓冲，只以各自的矩阵重新提交绘制。网格 LOD 级别也随首次渲染确定，后续通道沿用。
+     */
+    private void beginRenderPass() {
+        long frame = RenderFrameClock.current();
+        poseReused = frame != 0 && frame == poseFrame && ConfigManager.isFramePoseCacheEnabled();
+        poseFrame = frame;
+        if (!poseReused) {
+            lodLevel = requestedLodLevel;
+        }
+    }
+
+    /** 本次绘制是否复用本帧已完成的姿态与蒙皮结果 */
+    protected boolean isPoseReused() {
+        return poseReused;
+    }
+
+    /** 本帧使用的网格 LOD 级别（0 = 原始网格） */
+    protected int getLodLevel() {
+        return lodLevel;
+    }
+
+    /** 原生 CPU 蒙皮已应用的 LOD 级别（只在实际更新时同步，CPU 蒙皮路径按此绘制） */
+    protected int getNativeLodLevel() {
+        return nativeLodLevel;
     }
 
     protected void update() {
@@ -169,9 +298,23 @@ public abstract class AbstractMMDModel implements IMMDModel {
         lastUpdateTime = currentTime;
 
         if (deltaTime <= 0.0f) return;
-        if (deltaTime > MAX_DELTA_TIME) deltaTime = MAX_DELTA_TIME;
+        if (deltaTime > MAX_DELTA_TIME) {
+            // 剔除期间流逝的时间只推进动画时钟，保持动作与时间同步
+            if (culledSinceUpdate) getNf().AdvanceAnimationClock(model, deltaTime - MAX_DELTA_TIME);
+            deltaTime = MAX_DELTA_TIME;
+        }
+        culledSinceUpdate = false;
 
+        if (lodLevel != nativeLodLevel) {
+            getNf().SetMeshLodLevel(model, lodLevel);
+            nativeLodLevel = lodLevel;
+        }
+        long updateStart = RenderProfiler.startCpu();
+        long batchStart = NativeUpdateBatch.start();
         onUpdate(deltaTime);
+        NativeUpdateBatch.end(getModelName(), batchStart);
+        RenderProfiler.endCpu(RenderStage.NATIVE_UPDATE, getModelName(), updateStart);
+        cullState.refreshBounds(getNf(), model);
     }
 
     protected void fetchMaterialMorphResults() {
@@ -196,6 +339,8 @@ public abstract class AbstractMMDModel implements IMMDModel {
     }
 
     protected void disposeModelHandle() {
+        cullState.dispose();
+        impostor.dispose();
         if (model != 0) {
             ModelRuntimeBridgeHolder.get().deleteModel(model);
             model = 0;
@@ -2,6 +2,7 @@ package com.shiroha.mmdskin.renderer.runtime.model;
 
 import com.shiroha.mmdskin.config.ModelConfigData;
 import com.shiroha.mmdskin.config.ModelConfigManager;
+import com.shiroha.mmdskin.debug.jfr.ModelLoadPhaseEvent;
 import com.shiroha.mmdskin.renderer.runtime.animation.MMDAnimManager;
 import com.shiroha.mmdskin.player.runtime.EntityAnimState;
 import com.shiroha.mmdskin.renderer.api.IMMDModel;
@@ -12,6 +13,8 @@ import com.shiroha.mmdskin.renderer.runtime.model.loading.ModelLoadCoordinator;
 import com.shiroha.mmdskin.renderer.runtime.model.loading.ModelPropertiesLoader;
 import com.shiroha.mmdskin.renderer.runtime.mode.RenderModeManager;
 import com.shiroha.mmdskin.renderer.runtime.model.factory.ModelFactoryRegistry;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderProfiler;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderStage;
 import com.shiroha.mmdskin.renderer.runtime.texture.MMDTextureManager;
 import com.shiroha.mmdskin.maid.MaidMMDModelManager;
 
@@ -42,7 +45,7 @@ public class MMDModelManager {
     public static void Init() {
         ModelFactoryRegistry.registerAll();
 
-        modelCache = new ModelCache<>("MMDModel");
+        modelCache = new ModelCache<>("MMDModel", m -> m.model.getRamUsage() + m.model.getVramUsage());
         RenderModeManager.init();
     }
 
@@ -64,6 +67,9 @@ public class MMDModelManager {
 
     private static Model finalizeModelOnRenderThread(String fullCacheKey, ModelLoadCoordinator.AsyncLoadResult result) {
         long startTime = System.currentTimeMillis();
+        long profileStart = RenderProfiler.startCpu();
+        ModelLoadPhaseEvent finalizeEvent = new ModelLoadPhaseEvent();
+        finalizeEvent.begin();
 
         try {
             IMMDModel m = RenderModeManager.createModelFromHandle(
@@ -71,6 +77,8 @@ public class MMDModelManager {
 
             if (m == null) {
                 logger.error("[异步加载] GL 资源创建失败，释放模型句柄: {}", result.modelName);
+                ModelLoadCoordinator.commitPhase(finalizeEvent, ModelLoadPhaseEvent.GL_FINALIZE,
+                        result.modelName, result.modelInfo, false);
                 cleanupLoadedResult(result);
                 return null;
             }
@@ -80,6 +88,9 @@ public class MMDModelManager {
             modelCache.put(fullCacheKey, model);
             totalModelsLoaded.incrementAndGet();
 
+            RenderProfiler.endCpu(RenderStage.MODEL_FINALIZE, result.modelName, profileStart);
+            ModelLoadCoordinator.commitPhase(finalizeEvent, ModelLoadPhaseEvent.GL_FINALIZE,
+                    result.modelName, result.modelInfo, true);
             long elapsed = System.currentTimeMillis() - startTime;
             logger.info("[异步加载] GL 资源创建完成 ({}ms): {}", elapsed, fullCacheKey);
             return model;
@@ -0,0 +1,21 @@
+package com.shiroha.mmdskin.renderer.runtime.model;
+
+/**
+ * 渲染帧计数：每帧开始时递增，供同一帧内多个渲染通道（阴影、世界、物品栏、第一人称等）复用姿态与蒙皮结果。
+ * 仅在渲染线程访问；为 0 表示尚未进入任何帧，此时不做复用。
+ */
+public final class RenderFrameClock {
+
+    private static long frame = 0;
+
+    private RenderFrameClock() {
+    }
+
+    public static void beginFrame() {
+        frame++;
+    }
+
+    public static long current() {
+        return frame;
+    }
+}
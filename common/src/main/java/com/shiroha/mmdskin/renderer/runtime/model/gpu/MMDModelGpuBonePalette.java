@@ -0,0 +1,133 @@
+package com.shiroha.mmdskin.renderer.runtime.model.gpu;
+
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.renderer.pipeline.shader.BonePaletteComputeShader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL46C;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 模型级 GPU 骨骼调色板：持有烘焙轨道的 SSBO，按帧在 GPU 上计算无 IK/物理骨骼的蒙皮矩阵。
+ * 其余骨骼仍由 CPU 评估并照常上传。
+ */
+final class MMDModelGpuBonePalette {
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int BONE_BYTES = 28 * 4;
+    private static final int BONE_INFO_BYTES = 4 * 4;
+    private static final int SAMPLE_BYTES = 8 * 4;
+    private static final float NEEDS_REBAKE = -2.0f;
+
+    private static BonePaletteComputeShader shader;
+    private static boolean shaderFailed = false;
+
+    private int bonesSSBO;
+    private int boneInfoSSBO;
+    private int tracksSSBO;
+    private int boneCount;
+    private int sampleCount;
+    private long vramSize;
+    private float frame = -1.0f;
+
+    static boolean ensureShader() {
+        if (shader != null) return true;
+        if (shaderFailed) return false;
+
+        shader = new BonePaletteComputeShader();
+        if (!shader.init()) {
+            logger.error("骨骼调色板 Compute Shader 初始化失败，保持 CPU 骨骼评估");
+            shader = null;
+            shaderFailed = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 推进动画时钟后、评估姿态前调用；动画切换时请求烘焙，原生侧在后台线程重采样轨道（同一动画的实例共用），
+     * 就绪前本帧走 CPU 路径，就绪后再次返回 NEEDS_REBAKE 时上传。
+     * 返回本帧是否由 GPU 计算调色板骨骼。
+     */
+    boolean prepare(NativeFunc nf, long model) {
+        frame = nf.PrepareBonePalette(model);
+        if (frame == NEEDS_REBAKE) {
+            releaseBuffers();
+            if (bake(nf, model)) {
+                frame = nf.PrepareBonePalette(model);
+            } else {
+                frame = -1.0f;
+            }
+        }
+        return frame >= 0.0f;
+    }
+
+    private boolean bake(NativeFunc nf, long model) {
+        int samples = nf.BakeBonePalette(model);
+        if (samples <= 0) {
+            return false;
+        }
+
+        int bones = nf.GetBoneCount(model);
+        int tracks = nf.GetBonePaletteTrackCount(model);
+        long trackBytes = (long) tracks * samples * SAMPLE_BYTES;
+        if (trackBytes > Integer.MAX_VALUE) {
+            nf.ReleaseBonePalette(model);
+            return false;
+        }
+
+        ByteBuffer boneData = MemoryUtil.memAlloc(bones * BONE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer infoData = MemoryUtil.memAlloc(bones * BONE_INFO_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer trackData = MemoryUtil.memAlloc((int) Math.max(trackBytes, SAMPLE_BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (!nf.CopyBonePaletteToBuffers(model, boneData, infoData, trackData)) {
+                nf.ReleaseBonePalette(model);
+                return false;
+            }
+            bonesSSBO = BonePaletteComputeShader.createStaticBuffer(boneData);
+            boneInfoSSBO = BonePaletteComputeShader.createStaticBuffer(infoData);
+            tracksSSBO = BonePaletteComputeShader.createStaticBuffer(trackData);
+        } finally {
+            MemoryUtil.memFree(boneData);
+            MemoryUtil.memFree(infoData);
+            MemoryUtil.memFree(trackData);
+        }
+
+        boneCount = bones;
+        sampleCount = samples;
+        vramSize = (long) bones * (BONE_BYTES + BONE_INFO_BYTES) + Math.max(trackBytes, SAMPLE_BYTES);
+        return true;
+    }
+
+    /** 覆盖蒙皮矩阵 SSBO 中的调色板骨骼；本帧未启用时不做任何事。 */
+    void dispatch(int boneMatrixSSBO) {
+        if (frame < 0.0f || bonesSSBO == 0 || shader == null) {
+            return;
+        }
+        shader.dispatch(bonesSSBO, boneInfoSSBO, tracksSSBO, boneMatrixSSBO, boneCount, sampleCount, frame);
+    }
+
+    long getVramSize() {
+        return vramSize;
+    }
+
+    /** 释放 GPU 缓冲并恢复原生侧的 CPU 完整评估（模型句柄仍有效时调用）。 */
+    void dispose(NativeFunc nf, long model) {
+        releaseBuffers();
+        nf.ReleaseBonePalette(model);
+        frame = -1.0f;
+    }
+
+    private void releaseBuffers() {
+        if (bonesSSBO > 0) GL46C.glDeleteBuffers(bonesSSBO);
+        if (boneInfoSSBO > 0) GL46C.glDeleteBuffers(boneInfoSSBO);
+        if (tracksSSBO > 0) GL46C.glDeleteBuffers(tracksSSBO);
+        bonesSSBO = 0;
+        boneInfoSSBO = 0;
+        tracksSSBO = 0;
+        vramSize = 0;
+    }
+}
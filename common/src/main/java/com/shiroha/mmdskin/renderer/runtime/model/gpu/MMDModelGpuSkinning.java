@@ -1,6 +1,8 @@
 package com.shiroha.mmdskin.renderer.runtime.model.gpu;
 
 import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.renderer.runtime.texture.MMDTextureAtlas;
 import com.shiroha.mmdskin.renderer.runtime.texture.MMDTextureManager;
 import com.shiroha.mmdskin.renderer.pipeline.shader.ShaderConstants;
 import com.shiroha.mmdskin.renderer.pipeline.shader.SkinningComputeShader;
@@ -8,6 +10,9 @@ import com.shiroha.mmdskin.renderer.pipeline.shader.ToonShaderCpu;
 import com.shiroha.mmdskin.renderer.pipeline.shader.ToonConfig;
 import com.shiroha.mmdskin.renderer.runtime.model.AbstractMMDModel;
 import com.shiroha.mmdskin.renderer.runtime.model.shared.MMDMaterial;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.MeshLod;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.SubMeshOrder;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.VertexArrayCache;
 import com.mojang.blaze3d.platform.GlStateManager;
 import com.mojang.blaze3d.vertex.BufferUploader;
 import com.mojang.blaze3d.vertex.PoseStack;
@@ -33,10 +38,15 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     static SkinningComputeShader computeShader;
     static ToonShaderCpu toonShaderCpu;
     static final ToonConfig toonConfig = ToonConfig.getInstance();
+    static final PoseShareRegistry<MMDModelGpuSkinning> poseShareRegistry = new PoseShareRegistry<>();
 
     int vertexCount;
 
     int vertexArrayObject;
+    /** 绘制用的预烘焙 VAO（按着色器程序与数据来源） */
+    final VertexArrayCache vertexArrays = new VertexArrayCache();
+    /** 已烘焙 VAO 引用的蒙皮数据来源；姿态共享的首领变化时整体重建，避免缓冲名被回收复用后指向旧数据 */
+    MMDModelGpuSkinning vertexArraySource;
     int indexBufferObject;
 
     int positionBufferObject;
@@ -65,6 +75,9 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     @SuppressWarnings("unused")
     ByteBuffer uv1Buffer;
     ByteBuffer uv2Buffer;
+    /** uv2 缓冲当前内容对应的亮度，未变化时跳过重新上传 */
+    int uv2BlockBrightness = -1;
+    int uv2SkyBrightness = -1;
     FloatBuffer boneMatricesBuffer;
     FloatBuffer modelViewMatBuff;
     FloatBuffer projMatBuff;
@@ -75,6 +88,8 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     boolean morphDataUploaded = false;
     FloatBuffer morphWeightsBuffer;
     ByteBuffer morphWeightsByteBuffer;
+    /** 已上传的顶点 Morph 权重版本，与原生侧一致时跳过上传 */
+    long uploadedMorphWeightsVersion = -1;
     int morphOffsetsSSBO = 0;
     int morphWeightsSSBO = 0;
 
@@ -82,14 +97,23 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     boolean uvMorphDataUploaded = false;
     FloatBuffer uvMorphWeightsBuffer;
     ByteBuffer uvMorphWeightsByteBuffer;
+    long uploadedUvMorphWeightsVersion = -1;
     int uvMorphOffsetsSSBO = 0;
     int uvMorphWeightsSSBO = 0;
     int skinnedUvBuffer = 0;
 
+    /** Compute 描边模式：外扩壳位置与每子网格一条的间接绘制命令，首次使用时创建 */
+    int outlineShellBuffer = 0;
+    int outlineIndirectBuffer = 0;
+    ByteBuffer outlineCommandBuf;
+    /** 最近一次蒙皮是否同时写出了外扩壳 */
+    boolean outlineShellSkinned = false;
+
     int indexElementSize;
     int indexType;
     MMDMaterial[] mats;
     MMDMaterial lightMapMaterial;
+    MMDTextureAtlas textureAtlas;
 
     final Vector3f light0Direction = new Vector3f();
     final Vector3f light1Direction = new Vector3f();
@@ -106,11 +130,20 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
     int subMeshCount;
 
     ByteBuffer subMeshDataBuf;
+    SubMeshOrder subMeshOrder;
 
     PoseStack currentDeliverStack;
 
+    long poseShareKey;
+    MMDModelGpuSkinning poseSource;
+
+    MMDModelGpuBonePalette bonePalette;
+
     boolean initialized = false;
 
+    /** 最近一次计算着色器实际蒙皮的 LOD 级别（跟随者绘制不能比它更精细） */
+    int skinnedLodLevel = 0;
+
     private MMDModelGpuSkinning() {}
 
     public static MMDModelGpuSkinning Create(String modelFilename, String modelDir, boolean isPMD, long layerCount) {
@@ -174,6 +207,7 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
         ByteBuffer matMorphResultsByteBuf = null;
         ByteBuffer subMeshDataBufLocal = null;
         MMDMaterial lightMapMaterial = null;
+        MMDTextureAtlas textureAtlas = null;
 
         try {
 
@@ -206,8 +240,13 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
             int indexCount = (int) nf.GetIndexCount(model);
             int indexSize = indexCount * indexElementSize;
             long indexData = nf.GetIndices(model);
-            ByteBuffer indexBuffer = ByteBuffer.allocateDirect(indexSize);
+            // LOD 索引固定为 u32，仅在原始索引同为 u32 时追加到同一缓冲
+            MeshLod meshLod = indexElementSize == 4
+                    ? MeshLod.load(nf, model, (int) nf.GetSubMeshCount(model), indexCount)
+                    : MeshLod.NONE;
+            ByteBuffer indexBuffer = ByteBuffer.allocateDirect(indexSize + meshLod.indexCount() * 4);
             nf.CopyDataToByteBuffer(indexBuffer, indexData, indexSize);
+            meshLod.copyIndices(nf, model, indexBuffer, indexSize);
             indexBuffer.position(0);
             GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexVbo);
             GL46C.glBufferData(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL46C.GL_STATIC_DRAW);
@@ -295,6 +334,7 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
 
             List<String> texKeys = new ArrayList<>();
             MMDMaterial[] mats = new MMDMaterial[(int) nf.GetMaterialCount(model)];
+            String[] matTexNames = new String[mats.length];
             for (int i = 0; i < mats.length; ++i) {
                 mats[i] = new MMDMaterial();
                 String texFilename = nf.GetMaterialTex(model, i);
@@ -303,8 +343,10 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
                     if (mgrTex != null) {
                         mats[i].tex = mgrTex.tex;
                         mats[i].hasAlpha = mgrTex.hasAlpha;
+                        mats[i].alphaMode = mgrTex.alphaMode;
                         MMDTextureManager.addRef(texFilename);
                         texKeys.add(texFilename);
+                        matTexNames[i] = texFilename;
                     }
                 }
             }
@@ -367,6 +409,17 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
                 skinnedUvBuf = SkinningComputeShader.createSkinnedUvBuffer(vertexCount);
             }
 
+            if (ConfigManager.isTextureAtlasEnabled() && uvMorphCnt == 0) {
+                textureAtlas = MMDTextureAtlas.tryBuild(nf, model, mats, matTexNames, texKeys,
+                        indexBuffer, indexElementSize, indexCount, uv0Buffer, vertexCount);
+                if (textureAtlas != null) {
+                    GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, uv0Vbo);
+                    GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, uv0Buffer);
+                    GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, 0);
+                    nf.SetUvLayoutKey(model, textureAtlas.getUvLayoutKey());
+                }
+            }
+
             int matMorphCount = nf.GetMaterialMorphResultCount(model);
             if (matMorphCount > 0) {
                 int floatCount = matMorphCount * 56;
@@ -401,8 +454,10 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
             result.boneMatricesByteBuffer = boneMatricesByteBuffer;
             result.indexElementSize = indexElementSize;
             result.indexType = indexType;
+            result.meshLod = meshLod;
             result.mats = mats;
             result.lightMapMaterial = lightMapMaterial;
+            result.textureAtlas = textureAtlas;
             result.textureKeys = texKeys;
             result.modelViewMatBuff = modelViewMatBuff;
             result.projMatBuff = projMatBuff;
@@ -431,6 +486,8 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
             subMeshDataBufLocal = MemoryUtil.memAlloc(result.subMeshCount * 20);
             subMeshDataBufLocal.order(ByteOrder.LITTLE_ENDIAN);
             result.subMeshDataBuf = subMeshDataBufLocal;
+            result.subMeshOrder = SubMeshOrder.create(nf, model, mats,
+                    SubMeshOrder.centers(nf, model, result.subMeshCount, posBuffer, indexBuffer, indexElementSize));
             result.initialized = true;
 
             nf.SetAutoBlinkEnabled(model, true);
@@ -469,6 +526,7 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
             if (lightMapMaterial != null && lightMapMaterial.ownsTexture && lightMapMaterial.tex > 0) {
                 GL46C.glDeleteTextures(lightMapMaterial.tex);
             }
+            if (textureAtlas != null) textureAtlas.dispose();
 
             if (boneMatricesBuffer != null) MemoryUtil.memFree(boneMatricesBuffer);
             if (boneMatricesByteBuffer != null) MemoryUtil.memFree(boneMatricesByteBuffer);
@@ -490,7 +548,63 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
 
     @Override
     protected void onUpdate(float deltaTime) {
-        getNf().UpdateAnimationOnly(model, deltaTime);
+        NativeFunc nf = getNf();
+        boolean poseSharing = ConfigManager.isPoseSharingEnabled();
+        boolean palette = ConfigManager.isGpuBonePaletteEnabled() && MMDModelGpuBonePalette.ensureShader();
+        if (!palette) {
+            releaseBonePalette();
+        }
+        if (!poseSharing) {
+            releasePoseShare();
+            if (!palette) {
+                nf.UpdateAnimationOnly(model, deltaTime);
+                return;
+            }
+        }
+
+        nf.AdvanceAnimationClock(model, deltaTime);
+        if (palette) {
+            if (bonePalette == null) {
+                bonePalette = new MMDModelGpuBonePalette();
+            }
+            bonePalette.prepare(nf, model);
+        }
+        if (poseSharing) {
+            poseShareKey = nf.GetPoseShareKey(model);
+            poseSource = poseShareRegistry.acquire(modelDir, poseShareKey, this);
+            if (poseSource != null) {
+                return;
+            }
+        }
+        nf.EvaluateAnimationOnly(model, deltaTime);
+    }
+
+    /**
+     * 本次绘制的蒙皮数据来源：跟随实例返回首领；首领已失效时就地评估自身姿态并回退。
+     */
+    MMDModelGpuSkinning resolvePoseSource() {
+        if (poseSource == null) {
+            return this;
+        }
+        if (poseSource.initialized && poseShareRegistry.isLeading(poseSource, modelDir, poseShareKey)) {
+            return poseSource;
+        }
+        poseSource = null;
+        getNf().EvaluateAnimationOnly(model, 0.0f);
+        return this;
+    }
+
+    void releaseBonePalette() {
+        if (bonePalette != null) {
+            bonePalette.dispose(getNf(), model);
+            bonePalette = null;
+        }
+    }
+
+    void releasePoseShare() {
+        poseShareRegistry.release(this);
+        poseSource = null;
+        poseShareKey = 0;
     }
 
     @Override
@@ -533,10 +647,22 @@ public class MMDModelGpuSkinning extends AbstractMMDModel {
         return tempQuat;
     }
 
+    boolean poseReusedThisPass() {
+        return isPoseReused();
+    }
+
     float modelScaleValue() {
         return getModelScale();
     }
 
+    int lodLevelValue() {
+        return getLodLevel();
+    }
+
+    MeshLod meshLod() {
+        return meshLod;
+    }
+
     int materialMorphResultCountValue() {
         return materialMorphResultCount;
     }
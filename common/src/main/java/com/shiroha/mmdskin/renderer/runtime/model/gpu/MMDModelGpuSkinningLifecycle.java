@@ -2,6 +2,8 @@ package com.shiroha.mmdskin.renderer.runtime.model.gpu;
 
 import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.renderer.pipeline.shader.ShaderConstants;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.GlStateCache;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.SubMeshDrawHelper;
 import org.lwjgl.opengl.GL46C;
 import org.lwjgl.system.MemoryUtil;
 
@@ -36,6 +38,16 @@ final class MMDModelGpuSkinningLifecycle {
         if (target.skinnedUvBuffer > 0) {
             total += (long) target.vertexCount * 8;
         }
+        if (target.outlineShellBuffer > 0) {
+            total += (long) target.vertexCount * 12;
+            total += (long) target.subMeshCount * SubMeshDrawHelper.INDIRECT_COMMAND_STRIDE;
+        }
+        if (target.textureAtlas != null) {
+            total += target.textureAtlas.getVramSize();
+        }
+        if (target.bonePalette != null) {
+            total += target.bonePalette.getVramSize();
+        }
         return total;
     }
 
@@ -71,6 +83,9 @@ final class MMDModelGpuSkinningLifecycle {
         if (target.subMeshDataBuf != null) {
             javaRam += target.subMeshDataBuf.capacity();
         }
+        if (target.outlineCommandBuf != null) {
+            javaRam += target.outlineCommandBuf.capacity();
+        }
         return rustRam + javaRam;
     }
 
@@ -80,8 +95,12 @@ final class MMDModelGpuSkinningLifecycle {
         }
 
         target.initialized = false;
+        target.releasePoseShare();
+        target.releaseBonePalette();
         target.releaseBaseResources();
 
+        target.vertexArrays.dispose(GlStateCache.MMD);
+        target.vertexArraySource = null;
         GL46C.glDeleteVertexArrays(target.vertexArrayObject);
         GL46C.glDeleteBuffers(target.indexBufferObject);
         GL46C.glDeleteBuffers(target.positionBufferObject);
@@ -107,11 +126,20 @@ final class MMDModelGpuSkinningLifecycle {
         target.uvMorphOffsetsSSBO = 0;
         target.uvMorphWeightsSSBO = 0;
         target.skinnedUvBuffer = 0;
+        if (target.outlineShellBuffer > 0) GL46C.glDeleteBuffers(target.outlineShellBuffer);
+        if (target.outlineIndirectBuffer > 0) GL46C.glDeleteBuffers(target.outlineIndirectBuffer);
+        target.outlineShellBuffer = 0;
+        target.outlineIndirectBuffer = 0;
+        target.outlineShellSkinned = false;
 
         if (target.lightMapMaterial != null && target.lightMapMaterial.ownsTexture && target.lightMapMaterial.tex > 0) {
             GL46C.glDeleteTextures(target.lightMapMaterial.tex);
             target.lightMapMaterial.tex = 0;
         }
+        if (target.textureAtlas != null) {
+            target.textureAtlas.dispose();
+            target.textureAtlas = null;
+        }
 
         if (target.boneMatricesBuffer != null) { MemoryUtil.memFree(target.boneMatricesBuffer); target.boneMatricesBuffer = null; }
         if (target.boneMatricesByteBuffer != null) { MemoryUtil.memFree(target.boneMatricesByteBuffer); target.boneMatricesByteBuffer = null; }
@@ -122,5 +150,6 @@ final class MMDModelGpuSkinningLifecycle {
         if (target.modelViewMatBuff != null) { MemoryUtil.memFree(target.modelViewMatBuff); target.modelViewMatBuff = null; }
         if (target.projMatBuff != null) { MemoryUtil.memFree(target.projMatBuff); target.projMatBuff = null; }
         if (target.subMeshDataBuf != null) { MemoryUtil.memFree(target.subMeshDataBuf); target.subMeshDataBuf = null; }
+        if (target.outlineCommandBuf != null) { MemoryUtil.memFree(target.outlineCommandBuf); target.outlineCommandBuf = null; }
     }
 }
@@ -4,13 +4,18 @@ import com.mojang.blaze3d.platform.GlStateManager;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.BufferUploader;
 import com.mojang.blaze3d.vertex.PoseStack;
+import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.config.ConfigManager;
 import com.shiroha.mmdskin.renderer.compat.IrisCompat;
 import com.shiroha.mmdskin.renderer.pipeline.shader.SkinningComputeShader;
 import com.shiroha.mmdskin.renderer.pipeline.shader.ToonShaderCpu;
 import com.shiroha.mmdskin.renderer.pipeline.shader.ToonRenderHelper;
 import com.shiroha.mmdskin.renderer.runtime.model.helper.LightingHelper;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.GlStateCache;
 import com.shiroha.mmdskin.renderer.runtime.model.shared.SubMeshDrawHelper;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.VertexArrayCache;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderProfiler;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderStage;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.ShaderInstance;
 import net.minecraft.client.renderer.texture.TextureManager;
@@ -33,6 +38,8 @@ final class MMDModelGpuSkinningRenderer {
         var workingQuat = target.workingQuaternion();
         var nativeFunc = target.nativeFunc();
         long modelHandle = target.nativeModelHandle();
+        GlStateCache state = GlStateCache.MMD;
+        state.invalidate();
 
         target.light0Direction.set(1.0f, 0.75f, 0.0f).normalize();
         target.light1Direction.set(-1.0f, 0.75f, 0.0f).normalize();
@@ -46,35 +53,27 @@ final class MMDModelGpuSkinningRenderer {
         float baseScale = target.modelScaleValue();
         deliverStack.scale(baseScale, baseScale, baseScale);
 
-        MMDModelGpuSkinningUploader.uploadBoneMatrices(target);
-        if (target.vertexMorphCount > 0) {
-            MMDModelGpuSkinningUploader.uploadMorphData(target);
+        // 姿态共享的跟随实例直接复用首领本帧的蒙皮结果，只提交自身的变换与光照；
+        // 同帧的后续渲染通道复用自身已蒙皮的缓冲
+        MMDModelGpuSkinning skin = target.resolvePoseSource();
+        if (skin == target && !target.poseReusedThisPass()) {
+            skinModel(target, nativeFunc, modelHandle);
+        } else if (skin != target && !target.poseReusedThisPass()) {
+            // 材质可见性（隐藏材质、第一人称）与基础 alpha 属于实例自身，子网格表不随姿态共享
+            target.subMeshDataBuf.clear();
+            nativeFunc.BatchGetSubMeshData(modelHandle, target.subMeshDataBuf);
         }
-        if (target.uvMorphCount > 0) {
-            MMDModelGpuSkinningUploader.uploadUvMorphData(target);
+        // 只有已蒙皮的顶点前缀可用：跟随者的 LOD 不能比首领实际蒙皮的级别更精细
+        int[] lodRanges = skin.meshLod().ranges(Math.max(target.lodLevelValue(), skin.skinnedLodLevel));
+        if (target.vertexArraySource != skin) {
+            target.vertexArrays.dispose(state);
+            target.vertexArraySource = skin;
         }
-        if (target.materialMorphResultCountValue() > 0) {
-            target.loadMaterialMorphResults();
-        }
-
-        MMDModelGpuSkinning.computeShader.dispatch(new SkinningComputeShader.DispatchParams(
-                target.positionBufferObject, target.normalBufferObject,
-                target.boneIndicesBufferObject, target.boneWeightsBufferObject, target.uv0BufferObject,
-                target.skinnedPositionsBuffer, target.skinnedNormalsBuffer, target.skinnedUvBuffer,
-                target.boneMatrixSSBO,
-                target.morphOffsetsSSBO, target.morphWeightsSSBO, target.vertexMorphCount,
-                target.uvMorphOffsetsSSBO, target.uvMorphWeightsSSBO, target.uvMorphCount,
-                target.vertexCount
-        ));
-
-        target.subMeshDataBuf.clear();
-        nativeFunc.BatchGetSubMeshData(modelHandle, target.subMeshDataBuf);
 
         boolean useToon = initializeToonShaderIfNeeded();
 
         BufferUploader.reset();
-        GL46C.glBindVertexArray(target.vertexArrayObject);
-        RenderSystem.enableBlend();
+        state.setBlend(true);
         RenderSystem.enableDepthTest();
         RenderSystem.blendEquation(GL46C.GL_FUNC_ADD);
         RenderSystem.blendFunc(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
@@ -84,20 +83,17 @@ final class MMDModelGpuSkinningRenderer {
         deliverStack.last().pose().get(target.modelViewMatBuff);
         RenderSystem.getProjectionMatrix().get(target.projMatBuff);
 
-        GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, target.indexBufferObject);
         target.currentDeliverStack = deliverStack;
 
         if (useToon && MMDModelGpuSkinning.toonShaderCpu != null && MMDModelGpuSkinning.toonShaderCpu.isInitialized()) {
-            renderToon(target, minecraft, light.intensity());
+            renderToon(target, skin, lodRanges, minecraft, light.intensity());
         } else {
-            renderNormal(target, minecraft, light.intensity(), light.blockLight(), light.skyLight(), light.skyDarken());
+            renderNormal(target, skin, lodRanges, minecraft, light.intensity(), light.blockLight(), light.skyLight(), light.skyDarken());
         }
 
-        cleanupVertexAttributes(target);
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, 0);
-        GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, 0);
-        GL46C.glBindVertexArray(0);
-        RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
+        state.bindArrayBuffer(0);
+        state.bindVertexArray(0);
+        state.activeTexture(0);
 
         ShaderInstance currentShader = RenderSystem.getShader();
         if (currentShader != null) {
@@ -107,6 +103,56 @@ final class MMDModelGpuSkinningRenderer {
         RenderSystem.setShaderColor(1.0f, 1.0f, 1.0f, 1.0f);
     }
 
+    private static void skinModel(MMDModelGpuSkinning target, NativeFunc nativeFunc, long modelHandle) {
+        int lodLevel = target.lodLevelValue();
+        String modelName = target.getModelName();
+        long copyStart = RenderProfiler.startCpu();
+        RenderProfiler.beginGpu(RenderStage.UPLOAD, modelName);
+        MMDModelGpuSkinningUploader.uploadBoneMatrices(target);
+        if (target.vertexMorphCount > 0) {
+            MMDModelGpuSkinningUploader.uploadMorphData(target);
+        }
+        if (target.uvMorphCount > 0) {
+            MMDModelGpuSkinningUploader.uploadUvMorphData(target);
+        }
+        RenderProfiler.endGpu(RenderStage.UPLOAD);
+        if (target.materialMorphResultCountValue() > 0) {
+            target.loadMaterialMorphResults();
+        }
+        target.subMeshDataBuf.clear();
+        nativeFunc.BatchGetSubMeshData(modelHandle, target.subMeshDataBuf);
+        RenderProfiler.endCpu(RenderStage.JNI_COPY, modelName, copyStart);
+
+        // Compute 描边：蒙皮时顺带写出沿法线外扩的壳，描边直接以其为位置绘制
+        boolean writeShell = ConfigManager.isToonRenderingEnabled()
+                && MMDModelGpuSkinning.toonConfig.isOutlineEnabled()
+                && MMDModelGpuSkinning.toonConfig.isComputeShellOutline();
+        if (writeShell) {
+            MMDModelGpuSkinningUploader.ensureOutlineShell(target);
+        }
+        float outlineExtrude = writeShell
+                ? MMDModelGpuSkinning.toonConfig.getOutlineWidth() / target.modelScaleValue()
+                : 0.0f;
+
+        RenderProfiler.beginGpu(RenderStage.SKINNING, modelName);
+        if (target.bonePalette != null) {
+            target.bonePalette.dispatch(target.boneMatrixSSBO);
+        }
+        MMDModelGpuSkinning.computeShader.dispatch(new SkinningComputeShader.DispatchParams(
+                target.positionBufferObject, target.normalBufferObject,
+                target.boneIndicesBufferObject, target.boneWeightsBufferObject, target.uv0BufferObject,
+                target.skinnedPositionsBuffer, target.skinnedNormalsBuffer, target.skinnedUvBuffer,
+                target.boneMatrixSSBO,
+                target.morphOffsetsSSBO, target.morphWeightsSSBO, target.vertexMorphCount,
+                target.uvMorphOffsetsSSBO, target.uvMorphWeightsSSBO, target.uvMorphCount,
+                target.vertexCount,
+                writeShell ? target.outlineShellBuffer : 0, outlineExtrude
+        ), target.meshLod().vertexCount(lodLevel, target.vertexCount));
+        RenderProfiler.endGpu(RenderStage.SKINNING);
+        target.skinnedLodLevel = lodLevel;
+        target.outlineShellSkinned = writeShell;
+    }
+
     private static boolean initializeToonShaderIfNeeded() {
         if (!ConfigManager.isToonRenderingEnabled()) {
             return false;
@@ -122,22 +168,8 @@ final class MMDModelGpuSkinningRenderer {
         return true;
     }
 
-    private static void cleanupVertexAttributes(MMDModelGpuSkinning target) {
-        if (target.positionLocation != -1) GL46C.glDisableVertexAttribArray(target.positionLocation);
-        if (target.normalLocation != -1) GL46C.glDisableVertexAttribArray(target.normalLocation);
-        if (target.uv0Location != -1) GL46C.glDisableVertexAttribArray(target.uv0Location);
-        if (target.uv1Location != -1) GL46C.glDisableVertexAttribArray(target.uv1Location);
-        if (target.uv2Location != -1) GL46C.glDisableVertexAttribArray(target.uv2Location);
-        if (target.colorLocation != -1) GL46C.glDisableVertexAttribArray(target.colorLocation);
-        if (target.I_positionLocation != -1) GL46C.glDisableVertexAttribArray(target.I_positionLocation);
-        if (target.I_normalLocation != -1) GL46C.glDisableVertexAttribArray(target.I_normalLocation);
-        if (target.I_uv0Location != -1) GL46C.glDisableVertexAttribArray(target.I_uv0Location);
-        if (target.I_uv2Location != -1) GL46C.glDisableVertexAttribArray(target.I_uv2Location);
-        if (target.I_colorLocation != -1) GL46C.glDisableVertexAttribArray(target.I_colorLocation);
-    }
-
-    private static void renderNormal(MMDModelGpuSkinning target, Minecraft minecraft,
-                                     float lightIntensity, int blockLight, int skyLight, float skyDarken) {
+    private static void renderNormal(MMDModelGpuSkinning target, MMDModelGpuSkinning skin, int[] lodRanges,
+                                     Minecraft minecraft, float lightIntensity, int blockLight, int skyLight, float skyDarken) {
         ShaderInstance shader = RenderSystem.getShader();
         if (shader == null) {
             logger.error("[GPU蒙皮] RenderSystem.getShader() 返回 null，跳过渲染");
@@ -152,168 +184,190 @@ final class MMDModelGpuSkinningRenderer {
         target.setUniforms(shader, target.currentDeliverStack);
         shader.apply();
 
-        GL46C.glUseProgram(target.shaderProgram);
+        GlStateCache state = GlStateCache.MMD;
+        state.markShaderApplied(target.shaderProgram);
         target.updateLocation(target.shaderProgram);
 
         int blockBrightness = 16 * blockLight;
         int skyBrightness = irisActive ? (16 * skyLight) : Math.round((15.0f - skyDarken) * (skyLight / 15.0f) * 16);
-        target.uv2Buffer.clear();
-        for (int i = 0; i < target.vertexCount; i++) {
-            target.uv2Buffer.putInt(blockBrightness);
-            target.uv2Buffer.putInt(skyBrightness);
-        }
-        target.uv2Buffer.flip();
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.uv2BufferObject);
-        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, target.uv2Buffer);
-
-        if (target.uv2Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.uv2Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.uv2BufferObject);
-            GL46C.glVertexAttribIPointer(target.uv2Location, 2, GL46C.GL_INT, 0, 0);
-        }
-        if (target.I_uv2Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.I_uv2Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.uv2BufferObject);
-            GL46C.glVertexAttribIPointer(target.I_uv2Location, 2, GL46C.GL_INT, 0, 0);
-        }
-        if (target.colorLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.colorLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.colorBufferObject);
-            GL46C.glVertexAttribPointer(target.colorLocation, 4, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.I_colorLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.I_colorLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.colorBufferObject);
-            GL46C.glVertexAttribPointer(target.I_colorLocation, 4, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.positionLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.positionLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.skinnedPositionsBuffer);
-            GL46C.glVertexAttribPointer(target.positionLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.normalLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.normalLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.skinnedNormalsBuffer);
-            GL46C.glVertexAttribPointer(target.normalLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        int activeUvBuffer = target.skinnedUvBuffer > 0 ? target.skinnedUvBuffer : target.uv0BufferObject;
-        if (target.uv0Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.uv0Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, activeUvBuffer);
-            GL46C.glVertexAttribPointer(target.uv0Location, 2, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.uv1Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.uv1Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.uv1BufferObject);
-            GL46C.glVertexAttribIPointer(target.uv1Location, 2, GL46C.GL_INT, 0, 0);
-        }
-        if (target.I_positionLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.I_positionLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.skinnedPositionsBuffer);
-            GL46C.glVertexAttribPointer(target.I_positionLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.I_normalLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.I_normalLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.skinnedNormalsBuffer);
-            GL46C.glVertexAttribPointer(target.I_normalLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.I_uv0Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.I_uv0Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, activeUvBuffer);
-            GL46C.glVertexAttribPointer(target.I_uv0Location, 2, GL46C.GL_FLOAT, false, 0, 0);
+        if (blockBrightness != target.uv2BlockBrightness || skyBrightness != target.uv2SkyBrightness) {
+            target.uv2Buffer.clear();
+            for (int i = 0; i < target.vertexCount; i++) {
+                target.uv2Buffer.putInt(blockBrightness);
+                target.uv2Buffer.putInt(skyBrightness);
+            }
+            target.uv2Buffer.flip();
+            state.bindArrayBuffer(target.uv2BufferObject);
+            GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, target.uv2Buffer);
+            target.uv2BlockBrightness = blockBrightness;
+            target.uv2SkyBrightness = skyBrightness;
         }
 
-        drawAllSubMeshes(target, minecraft);
+        int activeUvBuffer = skin.skinnedUvBuffer > 0 ? skin.skinnedUvBuffer : skin.uv0BufferObject;
+        target.vertexArrays.bind(state, target.shaderProgram,
+                skin.skinnedPositionsBuffer, skin.skinnedNormalsBuffer, activeUvBuffer, skin.indexBufferObject, () -> {
+                    VertexArrayCache.intAttribute(state, target.uv2Location, target.uv2BufferObject, 2);
+                    VertexArrayCache.intAttribute(state, target.I_uv2Location, target.uv2BufferObject, 2);
+                    VertexArrayCache.floatAttribute(state, target.colorLocation, target.colorBufferObject, 4);
+                    VertexArrayCache.floatAttribute(state, target.I_colorLocation, target.colorBufferObject, 4);
+                    VertexArrayCache.floatAttribute(state, target.positionLocation, skin.skinnedPositionsBuffer, 3);
+                    VertexArrayCache.floatAttribute(state, target.normalLocation, skin.skinnedNormalsBuffer, 3);
+                    VertexArrayCache.floatAttribute(state, target.uv0Location, activeUvBuffer, 2);
+                    VertexArrayCache.intAttribute(state, target.uv1Location, target.uv1BufferObject, 2);
+                    VertexArrayCache.floatAttribute(state, target.I_positionLocation, skin.skinnedPositionsBuffer, 3);
+                    VertexArrayCache.floatAttribute(state, target.I_normalLocation, skin.skinnedNormalsBuffer, 3);
+                    VertexArrayCache.floatAttribute(state, target.I_uv0Location, activeUvBuffer, 2);
+                    VertexArrayCache.indexBuffer(skin.indexBufferObject);
+                });
+
+        drawAllSubMeshes(target, skin, lodRanges, minecraft, false);
     }
 
-    private static void renderToon(MMDModelGpuSkinning target, Minecraft minecraft, float lightIntensity) {
+    private static void renderToon(MMDModelGpuSkinning target, MMDModelGpuSkinning skin, int[] lodRanges,
+                                   Minecraft minecraft, float lightIntensity) {
         boolean irisActive = IrisCompat.isIrisShaderActive();
         if (irisActive) {
             ShaderInstance irisShader = RenderSystem.getShader();
             if (irisShader != null) {
                 target.setUniforms(irisShader, target.currentDeliverStack);
                 irisShader.apply();
+                GlStateCache.MMD.markShaderApplied(irisShader.getId());
             }
         }
 
+        GlStateCache state = GlStateCache.MMD;
         if (MMDModelGpuSkinning.toonConfig.isOutlineEnabled()) {
-            MMDModelGpuSkinning.toonShaderCpu.useOutline();
+            int outlineProgram = MMDModelGpuSkinning.toonShaderCpu.getOutlineProgram();
+            state.useProgram(outlineProgram);
 
+            // 首领本帧未写出外扩壳（刚切换模式等）时回退到顶点着色器外扩
+            boolean useShell = MMDModelGpuSkinning.toonConfig.isComputeShellOutline() && skin.outlineShellSkinned;
             int posLoc = MMDModelGpuSkinning.toonShaderCpu.getOutlinePositionLocation();
             int norLoc = MMDModelGpuSkinning.toonShaderCpu.getOutlineNormalLocation();
 
-            if (posLoc != -1) {
-                GL46C.glEnableVertexAttribArray(posLoc);
-                GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.skinnedPositionsBuffer);
-                GL46C.glVertexAttribPointer(posLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
-            }
-            if (norLoc != -1) {
-                GL46C.glEnableVertexAttribArray(norLoc);
-                GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.skinnedNormalsBuffer);
-                GL46C.glVertexAttribPointer(norLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
-            }
+            int outlinePosBuffer = useShell ? skin.outlineShellBuffer : skin.skinnedPositionsBuffer;
+            target.vertexArrays.bind(state, outlineProgram,
+                    outlinePosBuffer, skin.skinnedNormalsBuffer, 0, skin.indexBufferObject, () -> {
+                        VertexArrayCache.floatAttribute(state, posLoc, outlinePosBuffer, 3);
+                        VertexArrayCache.floatAttribute(state, norLoc, skin.skinnedNormalsBuffer, 3);
+                        VertexArrayCache.indexBuffer(skin.indexBufferObject);
+                    });
 
             MMDModelGpuSkinning.toonShaderCpu.setOutlineProjectionMatrix(target.projMatBuff);
             MMDModelGpuSkinning.toonShaderCpu.setOutlineModelViewMatrix(target.modelViewMatBuff);
             ToonRenderHelper.setupOutlineUniforms(MMDModelGpuSkinning.toonShaderCpu);
 
-            GL46C.glCullFace(GL46C.GL_FRONT);
-            RenderSystem.enableCull();
-            SubMeshDrawHelper.drawOutline(
-                    target.subMeshDataBuf,
-                    target.subMeshCount,
-                    target.indexElementSize,
-                    target.indexType,
-                    target::effectiveMaterialAlpha);
-            GL46C.glCullFace(GL46C.GL_BACK);
-            if (posLoc != -1) GL46C.glDisableVertexAttribArray(posLoc);
-            if (norLoc != -1) GL46C.glDisableVertexAttribArray(norLoc);
+            state.cullFace(GL46C.GL_FRONT);
+            state.setCull(true);
+            RenderProfiler.beginGpu(RenderStage.OUTLINE, target.getModelName());
+            if (useShell) {
+                MMDModelGpuSkinning.toonShaderCpu.setOutlineWidth(0.0f);
+                // 间接命令缓冲只在本次绘制内写入并提交，沿用外扩壳所属实例的缓冲
+                SubMeshDrawHelper.drawOutlineIndirect(
+                        target.subMeshDataBuf,
+                        target.subMeshCount,
+                        skin.indexType,
+                        lodRanges,
+                        skin::effectiveMaterialAlpha,
+                        skin.outlineCommandBuf,
+                        skin.outlineIndirectBuffer);
+            } else {
+                SubMeshDrawHelper.drawOutline(
+                        target.subMeshDataBuf,
+                        target.subMeshCount,
+                        skin.indexElementSize,
+                        skin.indexType,
+                        lodRanges,
+                        skin::effectiveMaterialAlpha);
+            }
+            RenderProfiler.endGpu(RenderStage.OUTLINE);
+            state.cullFace(GL46C.GL_BACK);
         }
 
-        MMDModelGpuSkinning.toonShaderCpu.useMain();
+        boolean depthPrepared = renderDepthPrepass(target, skin, lodRanges);
+
+        int mainProgram = MMDModelGpuSkinning.toonShaderCpu.getMainProgram();
+        state.useProgram(mainProgram);
         int toonPosLoc = MMDModelGpuSkinning.toonShaderCpu.getPositionLocation();
         int toonNorLoc = MMDModelGpuSkinning.toonShaderCpu.getNormalLocation();
         int uvLoc = MMDModelGpuSkinning.toonShaderCpu.getUv0Location();
 
-        if (toonPosLoc != -1) {
-            GL46C.glEnableVertexAttribArray(toonPosLoc);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.skinnedPositionsBuffer);
-            GL46C.glVertexAttribPointer(toonPosLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (toonNorLoc != -1) {
-            GL46C.glEnableVertexAttribArray(toonNorLoc);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.skinnedNormalsBuffer);
-            GL46C.glVertexAttribPointer(toonNorLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (uvLoc != -1) {
-            GL46C.glEnableVertexAttribArray(uvLoc);
-            int toonUvBuffer = target.skinnedUvBuffer > 0 ? target.skinnedUvBuffer : target.uv0BufferObject;
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, toonUvBuffer);
-            GL46C.glVertexAttribPointer(uvLoc, 2, GL46C.GL_FLOAT, false, 0, 0);
-        }
+        int toonUvBuffer = skin.skinnedUvBuffer > 0 ? skin.skinnedUvBuffer : skin.uv0BufferObject;
+        target.vertexArrays.bind(state, mainProgram,
+                skin.skinnedPositionsBuffer, skin.skinnedNormalsBuffer, toonUvBuffer, skin.indexBufferObject, () -> {
+                    VertexArrayCache.floatAttribute(state, toonPosLoc, skin.skinnedPositionsBuffer, 3);
+                    VertexArrayCache.floatAttribute(state, toonNorLoc, skin.skinnedNormalsBuffer, 3);
+                    VertexArrayCache.floatAttribute(state, uvLoc, toonUvBuffer, 2);
+                    VertexArrayCache.indexBuffer(skin.indexBufferObject);
+                });
 
         MMDModelGpuSkinning.toonShaderCpu.setProjectionMatrix(target.projMatBuff);
         MMDModelGpuSkinning.toonShaderCpu.setModelViewMatrix(target.modelViewMatBuff);
         ToonRenderHelper.setupToonUniforms(MMDModelGpuSkinning.toonShaderCpu, lightIntensity);
 
-        drawAllSubMeshes(target, minecraft);
+        drawAllSubMeshes(target, skin, lodRanges, minecraft, depthPrepared);
+        state.useProgram(0);
+    }
+
+    /**
+     * 深度预通道：以仅写深度的程序按蒙皮后的位置先画不透明子网格，主通道对这些子网格以 GL_EQUAL 着色。
+     * 依赖半透明排序的分桶结果；未开启或深度程序不可用时跳过。
+     */
+    private static boolean renderDepthPrepass(MMDModelGpuSkinning target, MMDModelGpuSkinning skin, int[] lodRanges) {
+        ToonShaderCpu shader = MMDModelGpuSkinning.toonShaderCpu;
+        int program = shader.getDepthProgram();
+        if (!ConfigManager.isDepthPrepassEnabled() || !ConfigManager.isTransparencySortEnabled()
+                || target.subMeshOrder == null || program == 0) {
+            return false;
+        }
 
-        if (toonPosLoc != -1) GL46C.glDisableVertexAttribArray(toonPosLoc);
-        if (toonNorLoc != -1) GL46C.glDisableVertexAttribArray(toonNorLoc);
-        if (uvLoc != -1) GL46C.glDisableVertexAttribArray(uvLoc);
-        GL46C.glUseProgram(0);
+        GlStateCache state = GlStateCache.MMD;
+        state.useProgram(program);
+        int posLoc = shader.getDepthPositionLocation();
+        target.vertexArrays.bind(state, program,
+                skin.skinnedPositionsBuffer, 0, 0, skin.indexBufferObject, () -> {
+                    VertexArrayCache.floatAttribute(state, posLoc, skin.skinnedPositionsBuffer, 3);
+                    VertexArrayCache.indexBuffer(skin.indexBufferObject);
+                });
+        shader.setDepthProjectionMatrix(target.projMatBuff);
+        shader.setDepthModelViewMatrix(target.modelViewMatBuff);
+
+        RenderProfiler.beginGpu(RenderStage.DEPTH_PREPASS, target.getModelName());
+        RenderSystem.colorMask(false, false, false, false);
+        boolean drawn = SubMeshDrawHelper.drawDepthPrepass(
+                target.subMeshDataBuf,
+                target.subMeshCount,
+                skin.indexElementSize,
+                skin.indexType,
+                lodRanges,
+                skin::effectiveMaterialAlpha,
+                target.subMeshOrder);
+        RenderSystem.colorMask(true, true, true, true);
+        RenderProfiler.endGpu(RenderStage.DEPTH_PREPASS);
+        return drawn;
     }
 
-    private static void drawAllSubMeshes(MMDModelGpuSkinning target, Minecraft minecraft) {
+    /**
+     * 子网格表、材质与绘制顺序取自本实例，索引与蒙皮顶点取自蒙皮来源 skin。
+     * 材质 Morph 的 alpha 随姿态变化，共享键相同时与首领一致，取自 skin。
+     */
+    private static void drawAllSubMeshes(MMDModelGpuSkinning target, MMDModelGpuSkinning skin, int[] lodRanges,
+                                         Minecraft minecraft, boolean opaqueDepthPrepared) {
         int missingTextureId = minecraft.getTextureManager()
                 .getTexture(TextureManager.INTENTIONAL_MISSING_TEXTURE)
                 .getId();
+        RenderProfiler.beginGpu(RenderStage.COLOR_PASS, target.getModelName());
         SubMeshDrawHelper.draw(
                 target.subMeshDataBuf,
                 target.subMeshCount,
-                target.indexElementSize,
-                target.indexType,
+                skin.indexElementSize,
+                skin.indexType,
+                lodRanges,
                 materialId -> target.mats[materialId].tex == 0 ? missingTextureId : target.mats[materialId].tex,
-                target::effectiveMaterialAlpha);
+                skin::effectiveMaterialAlpha,
+                ConfigManager.isTransparencySortEnabled() ? target.subMeshOrder : null,
+                target.modelViewMatBuff,
+                opaqueDepthPrepared);
+        RenderProfiler.endGpu(RenderStage.COLOR_PASS);
     }
 }
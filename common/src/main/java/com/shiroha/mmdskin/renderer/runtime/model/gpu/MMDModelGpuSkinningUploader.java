@@ -1,7 +1,10 @@
 package com.shiroha.mmdskin.renderer.runtime.model.gpu;
 
+import com.shiroha.mmdskin.renderer.pipeline.shader.SkinningComputeShader;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.SubMeshDrawHelper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL46C;
 import org.lwjgl.system.MemoryUtil;
 
 import java.nio.ByteBuffer;
@@ -60,6 +63,12 @@ final class MMDModelGpuSkinningUploader {
         }
 
         if (target.morphWeightsBuffer != null && target.morphWeightsByteBuffer != null) {
+            // 权重未变化时跳过复制与 SSBO 上传
+            long version = nativeFunc.GetGpuMorphWeightsVersion(target.nativeModelHandle());
+            if (version == target.uploadedMorphWeightsVersion) {
+                return;
+            }
+            target.uploadedMorphWeightsVersion = version;
             target.morphWeightsByteBuffer.clear();
             nativeFunc.CopyGpuMorphWeightsToBuffer(target.nativeModelHandle(), target.morphWeightsByteBuffer);
             target.morphWeightsBuffer.clear();
@@ -92,6 +101,11 @@ final class MMDModelGpuSkinningUploader {
         }
 
         if (target.uvMorphWeightsBuffer != null && target.uvMorphWeightsByteBuffer != null) {
+            long version = nativeFunc.GetGpuUvMorphWeightsVersion(target.nativeModelHandle());
+            if (version == target.uploadedUvMorphWeightsVersion) {
+                return;
+            }
+            target.uploadedUvMorphWeightsVersion = version;
             target.uvMorphWeightsByteBuffer.clear();
             nativeFunc.CopyGpuUvMorphWeightsToBuffer(target.nativeModelHandle(), target.uvMorphWeightsByteBuffer);
             target.uvMorphWeightsBuffer.clear();
@@ -101,4 +115,18 @@ final class MMDModelGpuSkinningUploader {
             MMDModelGpuSkinning.computeShader.updateUvMorphWeights(target.uvMorphWeightsSSBO, target.uvMorphWeightsBuffer);
         }
     }
+
+    /** 首次启用 Compute 描边时创建外扩壳缓冲与间接命令缓冲 */
+    static void ensureOutlineShell(MMDModelGpuSkinning target) {
+        if (target.outlineShellBuffer > 0) {
+            return;
+        }
+        target.outlineShellBuffer = SkinningComputeShader.createOutlineShellBuffer(target.vertexCount);
+        target.outlineCommandBuf = MemoryUtil.memAlloc(target.subMeshCount * SubMeshDrawHelper.INDIRECT_COMMAND_STRIDE);
+        target.outlineCommandBuf.order(ByteOrder.LITTLE_ENDIAN);
+        target.outlineIndirectBuffer = GL46C.glGenBuffers();
+        GL46C.glBindBuffer(GL46C.GL_DRAW_INDIRECT_BUFFER, target.outlineIndirectBuffer);
+        GL46C.glBufferData(GL46C.GL_DRAW_INDIRECT_BUFFER, target.outlineCommandBuf.capacity(), GL46C.GL_DYNAMIC_DRAW);
+        GL46C.glBindBuffer(GL46C.GL_DRAW_INDIRECT_BUFFER, 0);
+    }
 }
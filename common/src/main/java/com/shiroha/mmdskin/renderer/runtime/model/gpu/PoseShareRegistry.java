@@ -0,0 +1,55 @@
+package com.shiroha.mmdskin.renderer.runtime.model.gpu;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 姿态共享登记表：同一模型资源、同一姿态键的实例只由首领评估与蒙皮一次，其余实例复用其结果。
+ * 仅在渲染线程访问。
+ */
+final class PoseShareRegistry<T> {
+
+    private record Key(String asset, long poseKey) {
+    }
+
+    private final Map<Key, T> leaders = new HashMap<>();
+    private final Map<T, Key> leaderKeys = new IdentityHashMap<>();
+
+    /**
+     * 解析实例本帧应复用的首领；返回 null 表示实例需自行评估姿态，并已登记为该姿态的首领。
+     * poseKey 为 0 表示姿态不可共享。
+     */
+    T acquire(String asset, long poseKey, T instance) {
+        release(instance);
+        if (asset == null || poseKey == 0) {
+            return null;
+        }
+
+        Key key = new Key(asset, poseKey);
+        T leader = leaders.get(key);
+        if (leader != null) {
+            return leader;
+        }
+        leaders.put(key, instance);
+        leaderKeys.put(instance, key);
+        return null;
+    }
+
+    /** 首领是否仍持有该姿态（首领推进到其他姿态或被释放后返回 false）。 */
+    boolean isLeading(T leader, String asset, long poseKey) {
+        return leader != null && poseKey != 0 && leaders.get(new Key(asset, poseKey)) == leader;
+    }
+
+    /** 撤销实例的首领身份。 */
+    void release(T instance) {
+        Key key = leaderKeys.remove(instance);
+        if (key != null) {
+            leaders.remove(key, instance);
+        }
+    }
+
+    int getLeaderCount() {
+        return leaders.size();
+    }
+}
@@ -14,8 +14,17 @@ public final class LightingHelper {
     public record LightData(int blockLight, int skyLight, float skyDarken, float intensity) {}
 
     private static final LightData DEFAULT_LIGHT = new LightData(0, 15, 0, 1.0f);
+    private static final LightData FULL_LIGHT = new LightData(15, 15, 0, 1.0f);
+
+    private static boolean fullBright;
+
+    /** 替身捕获期间按满亮度着色，实际光照由替身面片绘制时施加（仅渲染线程） */
+    public static void setFullBright(boolean value) {
+        fullBright = value;
+    }
 
     public static LightData sampleLight(Entity entity, Minecraft mc) {
+        if (fullBright) return FULL_LIGHT;
         if (mc.level == null) return DEFAULT_LIGHT;
         mc.level.updateSkyBrightness();
         int eyeHeight = (int) (entity.getEyeY() - entity.getBlockY());
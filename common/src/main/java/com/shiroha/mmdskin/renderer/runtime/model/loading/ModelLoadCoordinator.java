@@ -2,6 +2,7 @@ package com.shiroha.mmdskin.renderer.runtime.model.loading;
 
 import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.asset.catalog.ModelInfo;
+import com.shiroha.mmdskin.debug.jfr.ModelLoadPhaseEvent;
 import com.shiroha.mmdskin.renderer.runtime.texture.MMDTextureManager;
 import com.shiroha.mmdskin.renderer.runtime.model.MMDModelManager;
 import org.apache.logging.log4j.LogManager;
@@ -152,6 +153,8 @@ public final class ModelLoadCoordinator {
         long handle = 0;
         try {
             NativeFunc nativeFunc = NativeFunc.GetInst();
+            ModelLoadPhaseEvent parseEvent = new ModelLoadPhaseEvent();
+            parseEvent.begin();
             if (modelInfo.isVRM()) {
                 handle = nativeFunc.LoadModelVRM(modelInfo.getModelFilePath(), modelInfo.getFolderPath(), 3);
             } else if (modelInfo.isPMD()) {
@@ -160,6 +163,8 @@ public final class ModelLoadCoordinator {
                 handle = nativeFunc.LoadModelPMX(modelInfo.getModelFilePath(), modelInfo.getFolderPath(), 3);
             }
 
+            commitPhase(parseEvent, ModelLoadPhaseEvent.PARSE, modelName, modelInfo, handle != 0);
+
             long elapsed = System.currentTimeMillis() - startTime;
             if (handle == 0) {
                 logger.error("[异步加载] 后台加载失败 ({}ms): {}", elapsed, modelName);
@@ -173,7 +178,10 @@ public final class ModelLoadCoordinator {
             }
 
             logger.info("[异步加载] 模型解析完成 ({}ms)，开始预解码纹理: {}", elapsed, modelName);
-            preloadModelTextures(nativeFunc, handle, modelInfo.getFolderPath());
+            ModelLoadPhaseEvent predecodeEvent = new ModelLoadPhaseEvent();
+            predecodeEvent.begin();
+            preloadModelTextures(nativeFunc, handle, modelInfo.getFolderPath(), predecodeEvent);
+            commitPhase(predecodeEvent, ModelLoadPhaseEvent.TEXTURE_PREDECODE, modelName, modelInfo, true);
 
             if (!pendingLoads.containsKey(fullCacheKey) || Thread.interrupted()) {
                 logger.info("[异步加载] 后台任务已被取消（纹理预解码后），释放句柄: {}", modelName);
@@ -197,7 +205,8 @@ public final class ModelLoadCoordinator {
         }
     }
 
-    private void preloadModelTextures(NativeFunc nativeFunc, long modelHandle, String modelDir) {
+    private void preloadModelTextures(NativeFunc nativeFunc, long modelHandle, String modelDir,
+                                      ModelLoadPhaseEvent event) {
         try {
             int materialCount = (int) nativeFunc.GetMaterialCount(modelHandle);
             for (int i = 0; i < materialCount; i++) {
@@ -205,15 +214,32 @@ public final class ModelLoadCoordinator {
                 if (texturePath == null || texturePath.isEmpty()) {
                     continue;
                 }
-                MMDTextureManager.preloadTexture(texturePath);
+                countDecoded(event, MMDTextureManager.preloadTexture(texturePath));
             }
 
-            MMDTextureManager.preloadTexture(modelDir + "/lightMap.png");
+            countDecoded(event, MMDTextureManager.preloadTexture(modelDir + "/lightMap.png"));
         } catch (Exception e) {
             logger.warn("[异步加载] 纹理预解码部分失败（不影响后续加载）", e);
         }
     }
 
+    private static void countDecoded(ModelLoadPhaseEvent event, long bytes) {
+        if (bytes > 0) {
+            event.textures++;
+            event.textureBytes += bytes;
+        }
+    }
+
+    /** 补全并提交加载阶段事件；JFR 未录制时不做任何事 */
+    public static void commitPhase(ModelLoadPhaseEvent event, String phase, String modelName, ModelInfo modelInfo, boolean success) {
+        if (!event.shouldCommit()) return;
+        event.phase = phase;
+        event.model = modelName;
+        event.format = modelInfo.isVRM() ? "VRM" : modelInfo.isPMD() ? "PMD" : "PMX";
+        event.success = success;
+        event.commit();
+    }
+
     private void cleanupFutureResult(Future<AsyncLoadResult> future, Consumer<AsyncLoadResult> resultCleaner) {
         if (future.isDone()) {
             if (!future.isCancelled()) {
@@ -6,6 +6,9 @@ import com.shiroha.mmdskin.renderer.pipeline.shader.ToonShaderCpu;
 import com.shiroha.mmdskin.renderer.pipeline.shader.ToonConfig;
 import com.shiroha.mmdskin.renderer.runtime.model.AbstractMMDModel;
 import com.shiroha.mmdskin.renderer.runtime.model.shared.MMDMaterial;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.MeshLod;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.SubMeshOrder;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.VertexArrayCache;
 import com.mojang.blaze3d.platform.GlStateManager;
 import com.mojang.blaze3d.vertex.PoseStack;
 import java.nio.ByteBuffer;
@@ -52,7 +55,12 @@ public class MMDModelOpenGL extends AbstractMMDModel {
 
     int vertexCount;
     ByteBuffer posBuffer, colorBuffer, norBuffer, uv0Buffer, uv1Buffer, uv2Buffer;
+    /** uv2 缓冲当前内容对应的亮度，未变化时跳过重新上传 */
+    int uv2BlockBrightness = -1;
+    int uv2SkyBrightness = -1;
     int vertexArrayObject;
+    /** 绘制用的预烘焙 VAO（按着色器程序） */
+    final VertexArrayCache vertexArrays = new VertexArrayCache();
     int indexBufferObject;
     int vertexBufferObject;
     int colorBufferObject;
@@ -78,6 +86,7 @@ public class MMDModelOpenGL extends AbstractMMDModel {
 
     int subMeshCount;
     ByteBuffer subMeshDataBuf;
+    SubMeshOrder subMeshOrder;
 
     MMDModelOpenGL() {
     }
@@ -179,6 +188,10 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         return tempQuat;
     }
 
+    boolean poseReusedThisPass() {
+        return isPoseReused();
+    }
+
     float modelScaleValue() {
         return getModelScale();
     }
@@ -197,6 +210,14 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         disposeMaterialMorphBuffers();
     }
 
+    MeshLod meshLod() {
+        return meshLod;
+    }
+
+    int nativeLodLevelValue() {
+        return getNativeLodLevel();
+    }
+
     int materialMorphResultCountValue() {
         return materialMorphResultCount;
     }
@@ -207,6 +228,10 @@ public class MMDModelOpenGL extends AbstractMMDModel {
         this.textureKeys = loadedTextureKeys;
     }
 
+    void applyMeshLod(MeshLod lod) {
+        this.meshLod = lod;
+    }
+
     void applyMaterialMorphState(int resultCount, ByteBuffer resultBuffer) {
         this.materialMorphResultCount = resultCount;
         this.materialMorphResultsByteBuffer = resultBuffer;
@@ -1,9 +1,12 @@
 package com.shiroha.mmdskin.renderer.runtime.model.opengl;
 
 import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.config.ConfigManager;
 import com.mojang.blaze3d.vertex.BufferUploader;
 import com.shiroha.mmdskin.renderer.runtime.texture.MMDTextureManager;
 import com.shiroha.mmdskin.renderer.runtime.model.shared.MMDMaterial;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.MeshLod;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.SubMeshOrder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.lwjgl.opengl.GL46C;
@@ -51,6 +54,7 @@ final class MMDModelOpenGLFactory {
         }
 
         NativeFunc nf = NativeFunc.GetInst();
+        nf.SetSkinningThreadCount(ConfigManager.getCpuSkinningThreads());
         BufferUploader.reset();
 
         int vertexArrayObject = 0;
@@ -94,11 +98,20 @@ final class MMDModelOpenGLFactory {
             int indexCount = (int) nf.GetIndexCount(model);
             int indexSize = indexCount * indexElementSize;
             long indexData = nf.GetIndices(model);
-            ByteBuffer indexBuffer = MemoryUtil.memAlloc(indexSize);
+            // LOD 索引固定为 u32，仅在原始索引同为 u32 时追加到同一缓冲
+            MeshLod meshLod = indexElementSize == 4
+                    ? MeshLod.load(nf, model, (int) nf.GetSubMeshCount(model), indexCount)
+                    : MeshLod.NONE;
+            ByteBuffer indexBuffer = MemoryUtil.memAlloc(indexSize + meshLod.indexCount() * 4);
             nf.CopyDataToByteBuffer(indexBuffer, indexData, indexSize);
+            meshLod.copyIndices(nf, model, indexBuffer, indexSize);
             indexBuffer.position(0);
             GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexBufferObject);
             GL46C.glBufferData(GL46C.GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL46C.GL_STATIC_DRAW);
+            // 静止姿态的子网格中心：原始顶点暂存进 posBuffer（渲染时每帧覆盖）
+            nf.CopyOriginalPositionsToBuffer(model, posBuffer, vertexCount);
+            float[] subMeshCenters = SubMeshOrder.centers(nf, model, (int) nf.GetSubMeshCount(model),
+                    posBuffer, indexBuffer, indexElementSize);
             MemoryUtil.memFree(indexBuffer);
 
             int indexType = switch (indexElementSize) {
@@ -118,6 +131,7 @@ final class MMDModelOpenGLFactory {
                     if (mgrTex != null) {
                         mats[i].tex = mgrTex.tex;
                         mats[i].hasAlpha = mgrTex.hasAlpha;
+                        mats[i].alphaMode = mgrTex.alphaMode;
                         MMDTextureManager.addRef(texFilename);
                         texKeys.add(texFilename);
                     }
@@ -204,6 +218,7 @@ final class MMDModelOpenGLFactory {
             result.vertexArrayObject = vertexArrayObject;
             result.indexElementSize = indexElementSize;
             result.indexType = indexType;
+            result.applyMeshLod(meshLod);
             result.mats = mats;
             result.lightMapMaterial = lightMapMaterial;
             result.hasUvMorph = nf.GetUvMorphCount(model) > 0;
@@ -228,6 +243,7 @@ final class MMDModelOpenGLFactory {
             result.subMeshCount = (int) nf.GetSubMeshCount(model);
             result.subMeshDataBuf = MemoryUtil.memAlloc(result.subMeshCount * 20);
             result.subMeshDataBuf.order(ByteOrder.LITTLE_ENDIAN);
+            result.subMeshOrder = SubMeshOrder.create(nf, model, mats, subMeshCenters);
 
             nf.SetAutoBlinkEnabled(model, true);
             return result;
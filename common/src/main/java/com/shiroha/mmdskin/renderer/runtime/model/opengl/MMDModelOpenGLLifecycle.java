@@ -1,6 +1,7 @@
 package com.shiroha.mmdskin.renderer.runtime.model.opengl;
 
 import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.GlStateCache;
 import org.lwjgl.opengl.GL46C;
 import org.lwjgl.system.MemoryUtil;
 
@@ -29,6 +30,7 @@ final class MMDModelOpenGLLifecycle {
             target.lightMapMaterial.tex = 0;
         }
 
+        target.vertexArrays.dispose(GlStateCache.MMD);
         GL46C.glDeleteVertexArrays(target.vertexArrayObject);
         GL46C.glDeleteBuffers(target.indexBufferObject);
         GL46C.glDeleteBuffers(target.vertexBufferObject);
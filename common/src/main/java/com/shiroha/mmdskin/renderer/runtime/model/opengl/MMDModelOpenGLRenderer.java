@@ -10,7 +10,11 @@ import com.shiroha.mmdskin.renderer.compat.IrisCompat;
 import com.shiroha.mmdskin.renderer.pipeline.shader.ToonShaderCpu;
 import com.shiroha.mmdskin.renderer.pipeline.shader.ToonRenderHelper;
 import com.shiroha.mmdskin.renderer.runtime.model.helper.LightingHelper;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.GlStateCache;
 import com.shiroha.mmdskin.renderer.runtime.model.shared.SubMeshDrawHelper;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.VertexArrayCache;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderProfiler;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderStage;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.ShaderInstance;
 import net.minecraft.client.renderer.texture.TextureManager;
@@ -33,6 +37,7 @@ final class MMDModelOpenGLRenderer {
         var workingQuat = target.workingQuaternion();
         var nativeFunc = target.nativeFunc();
         long modelHandle = target.nativeModelHandle();
+        GlStateCache.MMD.invalidate();
 
         target.light0Direction.set(1.0f, 0.75f, 0.0f).normalize();
         target.light1Direction.set(-1.0f, 0.75f, 0.0f).normalize();
@@ -46,9 +51,13 @@ final class MMDModelOpenGLRenderer {
         float baseScale = target.modelScaleValue();
         deliverStack.scale(baseScale, baseScale, baseScale);
 
-        target.loadMaterialMorphResults();
-        target.subMeshDataBuf.clear();
-        nativeFunc.BatchGetSubMeshData(modelHandle, target.subMeshDataBuf);
+        if (!target.poseReusedThisPass()) {
+            long copyStart = RenderProfiler.startCpu();
+            target.loadMaterialMorphResults();
+            target.subMeshDataBuf.clear();
+            nativeFunc.BatchGetSubMeshData(modelHandle, target.subMeshDataBuf);
+            RenderProfiler.endCpu(RenderStage.JNI_COPY, target.getModelName(), copyStart);
+        }
 
         boolean useToon = initializeToonShaderIfNeeded();
         if (useToon) {
@@ -90,18 +99,18 @@ final class MMDModelOpenGLRenderer {
         target.updateLocation(target.shaderProgram);
 
         BufferUploader.reset();
-        GL46C.glBindVertexArray(target.vertexArrayObject);
-        RenderSystem.enableBlend();
+        GlStateCache.MMD.setBlend(true);
         RenderSystem.enableDepthTest();
         RenderSystem.blendEquation(GL46C.GL_FUNC_ADD);
         RenderSystem.blendFunc(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
 
         uploadDynamicBuffers(target, light.blockLight(), light.skyLight(), light.skyDarken(), irisActive);
         uploadMatrixUniforms(target, deliverStack);
-        bindStandardAttributes(target);
-        bindCustomShaderAttributes(target);
-        bindIrisAttributes(target);
-        drawSubMeshes(target, minecraft);
+        uploadCustomShaderUniforms(target);
+        target.vertexArrays.bind(GlStateCache.MMD, target.shaderProgram,
+                target.vertexBufferObject, target.normalBufferObject, target.texcoordBufferObject,
+                target.indexBufferObject, () -> bakeStandardLayout(target));
+        drawSubMeshes(target, minecraft, false);
         clearStandardRenderState(target);
     }
 
@@ -114,12 +123,13 @@ final class MMDModelOpenGLRenderer {
             target.shaderProgram = mcShader.getId();
             target.setUniforms(mcShader, deliverStack);
             mcShader.apply();
+            GlStateCache.MMD.markShaderApplied(target.shaderProgram);
             return true;
         }
 
         if (MmdSkinClient.usingMMDShader == 1) {
             target.shaderProgram = MMDModelOpenGL.MMDShaderProgram;
-            GlStateManager._glUseProgram(target.shaderProgram);
+            GlStateCache.MMD.useProgram(target.shaderProgram);
             return true;
         }
 
@@ -128,38 +138,57 @@ final class MMDModelOpenGLRenderer {
 
     private static void uploadDynamicBuffers(MMDModelOpenGL target, int blockLight, int skyLight,
                                              float skyDarken, boolean irisActive) {
+        uploadSkinnedVertices(target);
+
+        int blockBrightness = 16 * blockLight;
+        int skyBrightness = irisActive ? (16 * skyLight)
+                : Math.round((15.0f - skyDarken) * (skyLight / 15.0f) * 16);
+        if (blockBrightness == target.uv2BlockBrightness && skyBrightness == target.uv2SkyBrightness) {
+            return;
+        }
+        target.uv2Buffer.clear();
+        for (int i = 0; i < target.vertexCount; i++) {
+            target.uv2Buffer.putInt(blockBrightness);
+            target.uv2Buffer.putInt(skyBrightness);
+        }
+        target.uv2Buffer.flip();
+        GlStateCache.MMD.bindArrayBuffer(target.uv2BufferObject);
+        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, target.uv2Buffer);
+        target.uv2BlockBrightness = blockBrightness;
+        target.uv2SkyBrightness = skyBrightness;
+    }
+
+    /** 上传 CPU 蒙皮结果（只含当前 LOD 的顶点前缀）；同帧的后续渲染通道沿用已上传的顶点 */
+    private static void uploadSkinnedVertices(MMDModelOpenGL target) {
+        if (target.poseReusedThisPass()) {
+            return;
+        }
         var nativeFunc = target.nativeFunc();
         long modelHandle = target.nativeModelHandle();
-        int posAndNorSize = target.vertexCount * 12;
+        int uploadCount = target.meshLod().vertexCount(target.nativeLodLevelValue(), target.vertexCount);
+        int posAndNorSize = uploadCount * 12;
+        RenderProfiler.beginGpu(RenderStage.UPLOAD, target.getModelName());
         long posData = nativeFunc.GetPoss(modelHandle);
+        target.posBuffer.clear().limit(posAndNorSize);
         nativeFunc.CopyDataToByteBuffer(target.posBuffer, posData, posAndNorSize);
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.vertexBufferObject);
+        GlStateCache.MMD.bindArrayBuffer(target.vertexBufferObject);
         GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, target.posBuffer);
 
         long normalData = nativeFunc.GetNormals(modelHandle);
+        target.norBuffer.clear().limit(posAndNorSize);
         nativeFunc.CopyDataToByteBuffer(target.norBuffer, normalData, posAndNorSize);
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.normalBufferObject);
+        GlStateCache.MMD.bindArrayBuffer(target.normalBufferObject);
         GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, target.norBuffer);
 
         if (target.hasUvMorph) {
-            int uv0Size = target.vertexCount * 8;
+            int uv0Size = uploadCount * 8;
             long uv0Data = nativeFunc.GetUVs(modelHandle);
+            target.uv0Buffer.clear().limit(uv0Size);
             nativeFunc.CopyDataToByteBuffer(target.uv0Buffer, uv0Data, uv0Size);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.texcoordBufferObject);
+            GlStateCache.MMD.bindArrayBuffer(target.texcoordBufferObject);
             GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, target.uv0Buffer);
         }
-
-        int blockBrightness = 16 * blockLight;
-        int skyBrightness = irisActive ? (16 * skyLight)
-                : Math.round((15.0f - skyDarken) * (skyLight / 15.0f) * 16);
-        target.uv2Buffer.clear();
-        for (int i = 0; i < target.vertexCount; i++) {
-            target.uv2Buffer.putInt(blockBrightness);
-            target.uv2Buffer.putInt(skyBrightness);
-        }
-        target.uv2Buffer.flip();
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.uv2BufferObject);
-        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, target.uv2Buffer);
+        RenderProfiler.endGpu(RenderStage.UPLOAD);
     }
 
     private static void uploadMatrixUniforms(MMDModelOpenGL target, PoseStack deliverStack) {
@@ -195,73 +224,42 @@ final class MMDModelOpenGLRenderer {
             GL46C.glUniform1i(target.sampler0Location, 0);
         }
         if (target.sampler1Location != -1) {
-            RenderSystem.activeTexture(GL46C.GL_TEXTURE1);
+            GlStateCache.MMD.activeTexture(1);
             RenderSystem.bindTexture(target.lightMapMaterial.tex);
             GL46C.glUniform1i(target.sampler1Location, 1);
         }
         if (target.sampler2Location != -1) {
-            RenderSystem.activeTexture(GL46C.GL_TEXTURE2);
+            GlStateCache.MMD.activeTexture(2);
             RenderSystem.bindTexture(target.lightMapMaterial.tex);
             GL46C.glUniform1i(target.sampler2Location, 2);
         }
     }
 
-    private static void bindStandardAttributes(MMDModelOpenGL target) {
-        if (target.uv2Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.uv2Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.uv2BufferObject);
-            GL46C.glVertexAttribIPointer(target.uv2Location, 2, GL46C.GL_INT, 0, 0);
-        }
-        if (target.colorLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.colorLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.colorBufferObject);
-            GL46C.glVertexAttribPointer(target.colorLocation, 4, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.positionLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.positionLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.vertexBufferObject);
-            GL46C.glVertexAttribPointer(target.positionLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.normalLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.normalLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.normalBufferObject);
-            GL46C.glVertexAttribPointer(target.normalLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.uv0Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.uv0Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.texcoordBufferObject);
-            GL46C.glVertexAttribPointer(target.uv0Location, 2, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.uv1Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.uv1Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.uv1BufferObject);
-            GL46C.glVertexAttribIPointer(target.uv1Location, 2, GL46C.GL_INT, 0, 0);
-        }
-
-        GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, target.indexBufferObject);
+    /** 标准、K_ 与 iris_ 属性集合一并烘焙进当前程序的 VAO */
+    private static void bakeStandardLayout(MMDModelOpenGL target) {
+        GlStateCache state = GlStateCache.MMD;
+        VertexArrayCache.intAttribute(state, target.uv2Location, target.uv2BufferObject, 2);
+        VertexArrayCache.floatAttribute(state, target.colorLocation, target.colorBufferObject, 4);
+        VertexArrayCache.floatAttribute(state, target.positionLocation, target.vertexBufferObject, 3);
+        VertexArrayCache.floatAttribute(state, target.normalLocation, target.normalBufferObject, 3);
+        VertexArrayCache.floatAttribute(state, target.uv0Location, target.texcoordBufferObject, 2);
+        VertexArrayCache.intAttribute(state, target.uv1Location, target.uv1BufferObject, 2);
+
+        VertexArrayCache.intAttribute(state, target.K_uv2Location, target.uv2BufferObject, 2);
+        VertexArrayCache.floatAttribute(state, target.K_positionLocation, target.vertexBufferObject, 3);
+        VertexArrayCache.floatAttribute(state, target.K_normalLocation, target.normalBufferObject, 3);
+        VertexArrayCache.floatAttribute(state, target.K_uv0Location, target.texcoordBufferObject, 2);
+
+        VertexArrayCache.intAttribute(state, target.I_uv2Location, target.uv2BufferObject, 2);
+        VertexArrayCache.floatAttribute(state, target.I_colorLocation, target.colorBufferObject, 4);
+        VertexArrayCache.floatAttribute(state, target.I_positionLocation, target.vertexBufferObject, 3);
+        VertexArrayCache.floatAttribute(state, target.I_normalLocation, target.normalBufferObject, 3);
+        VertexArrayCache.floatAttribute(state, target.I_uv0Location, target.texcoordBufferObject, 2);
+
+        VertexArrayCache.indexBuffer(target.indexBufferObject);
     }
 
-    private static void bindCustomShaderAttributes(MMDModelOpenGL target) {
-        if (target.K_uv2Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.K_uv2Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.uv2BufferObject);
-            GL46C.glVertexAttribIPointer(target.K_uv2Location, 2, GL46C.GL_INT, 0, 0);
-        }
-        if (target.K_positionLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.K_positionLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.vertexBufferObject);
-            GL46C.glVertexAttribPointer(target.K_positionLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.K_normalLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.K_normalLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.normalBufferObject);
-            GL46C.glVertexAttribPointer(target.K_normalLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.K_uv0Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.K_uv0Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.texcoordBufferObject);
-            GL46C.glVertexAttribPointer(target.K_uv0Location, 2, GL46C.GL_FLOAT, false, 0, 0);
-        }
+    private static void uploadCustomShaderUniforms(MMDModelOpenGL target) {
         if (target.K_projMatLocation != -1) {
             target.projMatBuff.position(0);
             RenderSystem.glUniformMatrix4(target.K_projMatLocation, false, target.projMatBuff);
@@ -274,7 +272,7 @@ final class MMDModelOpenGLRenderer {
             GL46C.glUniform1i(target.K_sampler0Location, 0);
         }
         if (target.K_sampler2Location != -1) {
-            RenderSystem.activeTexture(GL46C.GL_TEXTURE2);
+            GlStateCache.MMD.activeTexture(2);
             RenderSystem.bindTexture(target.lightMapMaterial.tex);
             GL46C.glUniform1i(target.K_sampler2Location, 2);
         }
@@ -286,71 +284,33 @@ final class MMDModelOpenGLRenderer {
         }
     }
 
-    private static void bindIrisAttributes(MMDModelOpenGL target) {
-        if (target.I_uv2Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.I_uv2Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.uv2BufferObject);
-            GL46C.glVertexAttribIPointer(target.I_uv2Location, 2, GL46C.GL_INT, 0, 0);
-        }
-        if (target.I_colorLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.I_colorLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.colorBufferObject);
-            GL46C.glVertexAttribPointer(target.I_colorLocation, 4, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.I_positionLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.I_positionLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.vertexBufferObject);
-            GL46C.glVertexAttribPointer(target.I_positionLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.I_normalLocation != -1) {
-            GL46C.glEnableVertexAttribArray(target.I_normalLocation);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.normalBufferObject);
-            GL46C.glVertexAttribPointer(target.I_normalLocation, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (target.I_uv0Location != -1) {
-            GL46C.glEnableVertexAttribArray(target.I_uv0Location);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.texcoordBufferObject);
-            GL46C.glVertexAttribPointer(target.I_uv0Location, 2, GL46C.GL_FLOAT, false, 0, 0);
-        }
-    }
-
-    private static void drawSubMeshes(MMDModelOpenGL target, Minecraft minecraft) {
+    private static void drawSubMeshes(MMDModelOpenGL target, Minecraft minecraft, boolean opaqueDepthPrepared) {
         int missingTextureId = minecraft.getTextureManager()
                 .getTexture(TextureManager.INTENTIONAL_MISSING_TEXTURE)
                 .getId();
+        RenderProfiler.beginGpu(RenderStage.COLOR_PASS, target.getModelName());
         SubMeshDrawHelper.draw(
                 target.subMeshDataBuf,
                 target.subMeshCount,
                 target.indexElementSize,
                 target.indexType,
+                target.meshLod().ranges(target.nativeLodLevelValue()),
                 materialId -> target.mats[materialId].tex == 0 ? missingTextureId : target.mats[materialId].tex,
-                target::effectiveMaterialAlpha);
+                target::effectiveMaterialAlpha,
+                ConfigManager.isTransparencySortEnabled() ? target.subMeshOrder : null,
+                target.modelViewMatBuff,
+                opaqueDepthPrepared);
+        RenderProfiler.endGpu(RenderStage.COLOR_PASS);
     }
 
     private static void clearStandardRenderState(MMDModelOpenGL target) {
         if (target.KAIMyLocationV != -1) GL46C.glUniform1i(target.KAIMyLocationV, 0);
         if (target.KAIMyLocationF != -1) GL46C.glUniform1i(target.KAIMyLocationF, 0);
 
-        if (target.positionLocation != -1) GL46C.glDisableVertexAttribArray(target.positionLocation);
-        if (target.normalLocation != -1) GL46C.glDisableVertexAttribArray(target.normalLocation);
-        if (target.uv0Location != -1) GL46C.glDisableVertexAttribArray(target.uv0Location);
-        if (target.uv1Location != -1) GL46C.glDisableVertexAttribArray(target.uv1Location);
-        if (target.uv2Location != -1) GL46C.glDisableVertexAttribArray(target.uv2Location);
-        if (target.colorLocation != -1) GL46C.glDisableVertexAttribArray(target.colorLocation);
-        if (target.K_positionLocation != -1) GL46C.glDisableVertexAttribArray(target.K_positionLocation);
-        if (target.K_normalLocation != -1) GL46C.glDisableVertexAttribArray(target.K_normalLocation);
-        if (target.K_uv0Location != -1) GL46C.glDisableVertexAttribArray(target.K_uv0Location);
-        if (target.K_uv2Location != -1) GL46C.glDisableVertexAttribArray(target.K_uv2Location);
-        if (target.I_positionLocation != -1) GL46C.glDisableVertexAttribArray(target.I_positionLocation);
-        if (target.I_normalLocation != -1) GL46C.glDisableVertexAttribArray(target.I_normalLocation);
-        if (target.I_uv0Location != -1) GL46C.glDisableVertexAttribArray(target.I_uv0Location);
-        if (target.I_uv2Location != -1) GL46C.glDisableVertexAttribArray(target.I_uv2Location);
-        if (target.I_colorLocation != -1) GL46C.glDisableVertexAttribArray(target.I_colorLocation);
-
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, 0);
-        GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, 0);
-        GL46C.glBindVertexArray(0);
-        RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
+        GlStateCache state = GlStateCache.MMD;
+        state.bindArrayBuffer(0);
+        state.bindVertexArray(0);
+        state.activeTexture(0);
 
         ShaderInstance currentShader = RenderSystem.getShader();
         if (currentShader != null) {
@@ -362,8 +322,7 @@ final class MMDModelOpenGLRenderer {
 
     private static void renderToon(MMDModelOpenGL target, Minecraft minecraft, float lightIntensity, PoseStack deliverStack) {
         BufferUploader.reset();
-        GL46C.glBindVertexArray(target.vertexArrayObject);
-        RenderSystem.enableBlend();
+        GlStateCache.MMD.setBlend(true);
         RenderSystem.enableDepthTest();
         RenderSystem.blendEquation(GL46C.GL_FUNC_ADD);
         RenderSystem.blendFunc(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA);
@@ -373,34 +332,16 @@ final class MMDModelOpenGLRenderer {
             if (irisShader != null) {
                 target.setUniforms(irisShader, deliverStack);
                 irisShader.apply();
+                GlStateCache.MMD.markShaderApplied(irisShader.getId());
             }
         }
 
-        var nativeFunc = target.nativeFunc();
-        long modelHandle = target.nativeModelHandle();
-        int posAndNorSize = target.vertexCount * 12;
-        long posData = nativeFunc.GetPoss(modelHandle);
-        nativeFunc.CopyDataToByteBuffer(target.posBuffer, posData, posAndNorSize);
-        long normalData = nativeFunc.GetNormals(modelHandle);
-        nativeFunc.CopyDataToByteBuffer(target.norBuffer, normalData, posAndNorSize);
-
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.vertexBufferObject);
-        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, target.posBuffer);
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.normalBufferObject);
-        GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, target.norBuffer);
-        if (target.hasUvMorph) {
-            int uv0Size = target.vertexCount * 8;
-            long uv0Data = nativeFunc.GetUVs(modelHandle);
-            nativeFunc.CopyDataToByteBuffer(target.uv0Buffer, uv0Data, uv0Size);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.texcoordBufferObject);
-            GL46C.glBufferSubData(GL46C.GL_ARRAY_BUFFER, 0, target.uv0Buffer);
-        }
+        uploadSkinnedVertices(target);
 
         target.modelViewMatBuff.clear();
         target.projMatBuff.clear();
         deliverStack.last().pose().get(target.modelViewMatBuff);
         RenderSystem.getProjectionMatrix().get(target.projMatBuff);
-        GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, target.indexBufferObject);
 
         if (MMDModelOpenGL.toonConfig.isOutlineEnabled()) {
             renderOutlinePass(target);
@@ -408,78 +349,105 @@ final class MMDModelOpenGLRenderer {
 
         renderToonMainPass(target, minecraft, lightIntensity);
 
-        GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, 0);
-        GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, 0);
-        GL46C.glBindVertexArray(0);
-        GL46C.glUseProgram(0);
-        RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
+        GlStateCache state = GlStateCache.MMD;
+        state.bindArrayBuffer(0);
+        state.bindVertexArray(0);
+        state.useProgram(0);
+        state.activeTexture(0);
         BufferUploader.reset();
     }
 
     private static void renderOutlinePass(MMDModelOpenGL target) {
-        MMDModelOpenGL.toonShaderCpu.useOutline();
+        GlStateCache state = GlStateCache.MMD;
+        int program = MMDModelOpenGL.toonShaderCpu.getOutlineProgram();
+        state.useProgram(program);
         int posLoc = MMDModelOpenGL.toonShaderCpu.getOutlinePositionLocation();
         int norLoc = MMDModelOpenGL.toonShaderCpu.getOutlineNormalLocation();
-
-        if (posLoc != -1) {
-            GL46C.glEnableVertexAttribArray(posLoc);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.vertexBufferObject);
-            GL46C.glVertexAttribPointer(posLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (norLoc != -1) {
-            GL46C.glEnableVertexAttribArray(norLoc);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.normalBufferObject);
-            GL46C.glVertexAttribPointer(norLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
+        target.vertexArrays.bind(state, program,
+                target.vertexBufferObject, target.normalBufferObject, 0, target.indexBufferObject, () -> {
+                    VertexArrayCache.floatAttribute(state, posLoc, target.vertexBufferObject, 3);
+                    VertexArrayCache.floatAttribute(state, norLoc, target.normalBufferObject, 3);
+                    VertexArrayCache.indexBuffer(target.indexBufferObject);
+                });
 
         MMDModelOpenGL.toonShaderCpu.setOutlineProjectionMatrix(target.projMatBuff);
         MMDModelOpenGL.toonShaderCpu.setOutlineModelViewMatrix(target.modelViewMatBuff);
         ToonRenderHelper.setupOutlineUniforms(MMDModelOpenGL.toonShaderCpu);
 
-        GL46C.glCullFace(GL46C.GL_FRONT);
-        RenderSystem.enableCull();
+        state.cullFace(GL46C.GL_FRONT);
+        state.setCull(true);
+        RenderProfiler.beginGpu(RenderStage.OUTLINE, target.getModelName());
         SubMeshDrawHelper.drawOutline(
                 target.subMeshDataBuf,
                 target.subMeshCount,
                 target.indexElementSize,
                 target.indexType,
+                target.meshLod().ranges(target.nativeLodLevelValue()),
                 target::effectiveMaterialAlpha);
-        GL46C.glCullFace(GL46C.GL_BACK);
-
-        if (posLoc != -1) GL46C.glDisableVertexAttribArray(posLoc);
-        if (norLoc != -1) GL46C.glDisableVertexAttribArray(norLoc);
+        RenderProfiler.endGpu(RenderStage.OUTLINE);
+        state.cullFace(GL46C.GL_BACK);
     }
 
     private static void renderToonMainPass(MMDModelOpenGL target, Minecraft minecraft, float lightIntensity) {
-        MMDModelOpenGL.toonShaderCpu.useMain();
+        boolean depthPrepared = renderDepthPrepass(target);
+
+        GlStateCache state = GlStateCache.MMD;
+        int program = MMDModelOpenGL.toonShaderCpu.getMainProgram();
+        state.useProgram(program);
         int posLoc = MMDModelOpenGL.toonShaderCpu.getPositionLocation();
         int norLoc = MMDModelOpenGL.toonShaderCpu.getNormalLocation();
         int uvLoc = MMDModelOpenGL.toonShaderCpu.getUv0Location();
-
-        if (posLoc != -1) {
-            GL46C.glEnableVertexAttribArray(posLoc);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.vertexBufferObject);
-            GL46C.glVertexAttribPointer(posLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (norLoc != -1) {
-            GL46C.glEnableVertexAttribArray(norLoc);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.normalBufferObject);
-            GL46C.glVertexAttribPointer(norLoc, 3, GL46C.GL_FLOAT, false, 0, 0);
-        }
-        if (uvLoc != -1) {
-            GL46C.glEnableVertexAttribArray(uvLoc);
-            GL46C.glBindBuffer(GL46C.GL_ARRAY_BUFFER, target.texcoordBufferObject);
-            GL46C.glVertexAttribPointer(uvLoc, 2, GL46C.GL_FLOAT, false, 0, 0);
-        }
+        target.vertexArrays.bind(state, program,
+                target.vertexBufferObject, target.normalBufferObject, target.texcoordBufferObject,
+                target.indexBufferObject, () -> {
+                    VertexArrayCache.floatAttribute(state, posLoc, target.vertexBufferObject, 3);
+                    VertexArrayCache.floatAttribute(state, norLoc, target.normalBufferObject, 3);
+                    VertexArrayCache.floatAttribute(state, uvLoc, target.texcoordBufferObject, 2);
+                    VertexArrayCache.indexBuffer(target.indexBufferObject);
+                });
 
         MMDModelOpenGL.toonShaderCpu.setProjectionMatrix(target.projMatBuff);
         MMDModelOpenGL.toonShaderCpu.setModelViewMatrix(target.modelViewMatBuff);
         ToonRenderHelper.setupToonUniforms(MMDModelOpenGL.toonShaderCpu, lightIntensity);
 
-        drawSubMeshes(target, minecraft);
+        drawSubMeshes(target, minecraft, depthPrepared);
+    }
+
+    /**
+     * 深度预通道：以仅写深度的程序先画不透明子网格，主通道对这些子网格以 GL_EQUAL 着色，被遮挡的层不再执行片元着色。
+     * 依赖半透明排序的分桶结果；未开启或深度程序不可用时跳过。
+     */
+    private static boolean renderDepthPrepass(MMDModelOpenGL target) {
+        ToonShaderCpu shader = MMDModelOpenGL.toonShaderCpu;
+        int program = shader.getDepthProgram();
+        if (!ConfigManager.isDepthPrepassEnabled() || !ConfigManager.isTransparencySortEnabled()
+                || target.subMeshOrder == null || program == 0) {
+            return false;
+        }
 
-        if (posLoc != -1) GL46C.glDisableVertexAttribArray(posLoc);
-        if (norLoc != -1) GL46C.glDisableVertexAttribArray(norLoc);
-        if (uvLoc != -1) GL46C.glDisableVertexAttribArray(uvLoc);
+        GlStateCache state = GlStateCache.MMD;
+        state.useProgram(program);
+        int posLoc = shader.getDepthPositionLocation();
+        target.vertexArrays.bind(state, program,
+                target.vertexBufferObject, 0, 0, target.indexBufferObject, () -> {
+                    VertexArrayCache.floatAttribute(state, posLoc, target.vertexBufferObject, 3);
+                    VertexArrayCache.indexBuffer(target.indexBufferObject);
+                });
+        shader.setDepthProjectionMatrix(target.projMatBuff);
+        shader.setDepthModelViewMatrix(target.modelViewMatBuff);
+
+        RenderProfiler.beginGpu(RenderStage.DEPTH_PREPASS, target.getModelName());
+        RenderSystem.colorMask(false, false, false, false);
+        boolean drawn = SubMeshDrawHelper.drawDepthPrepass(
+                target.subMeshDataBuf,
+                target.subMeshCount,
+                target.indexElementSize,
+                target.indexType,
+                target.meshLod().ranges(target.nativeLodLevelValue()),
+                target::effectiveMaterialAlpha,
+                target.subMeshOrder);
+        RenderSystem.colorMask(true, true, true, true);
+        RenderProfiler.endGpu(RenderStage.DEPTH_PREPASS);
+        return drawn;
     }
 }
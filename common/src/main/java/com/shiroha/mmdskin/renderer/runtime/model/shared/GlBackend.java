@@ -0,0 +1,28 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+/**
+ * {@link GlStateCache} 实际发出的 GL 调用。生产环境为 {@link LwjglGlBackend}，测试中可替换为记录调用的实现。
+ */
+public interface GlBackend {
+
+    void bindVertexArray(int vertexArray);
+
+    void useProgram(int program);
+
+    void bindBuffer(int target, int buffer);
+
+    /** @param unit 纹理单元序号（0 对应 GL_TEXTURE0） */
+    void activeTexture(int unit);
+
+    void bindTexture2D(int texture);
+
+    void setCull(boolean enabled);
+
+    void cullFace(int face);
+
+    void setBlend(boolean enabled);
+
+    int createVertexArray();
+
+    void deleteVertexArray(int vertexArray);
+}
@@ -0,0 +1,193 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+import com.shiroha.mmdskin.renderer.runtime.model.RenderFrameClock;
+import org.lwjgl.opengl.GL46C;
+
+import java.util.Arrays;
+
+/**
+ * MMD 渲染路径的 GL 状态缓存：记录当前 VAO、程序、GL_ARRAY_BUFFER、纹理单元、面剔除与混合，省略重复调用。
+ * 原版与光影模组会在两次模型绘制之间改动状态，因此每个模型渲染开始时须先 {@link #invalidate()}；
+ * 外部代码（ShaderInstance.apply 等）改动程序或纹理后以 {@link #markShaderApplied} 同步。
+ * 仅在渲染线程访问。
+ */
+public final class GlStateCache {
+
+    public static final GlStateCache MMD = new GlStateCache(new LwjglGlBackend());
+
+    private static final int UNKNOWN = -1;
+    private static final int TEXTURE_UNITS = 8;
+
+    private final GlBackend gl;
+
+    private int vertexArray = UNKNOWN;
+    private int program = UNKNOWN;
+    private int arrayBuffer = UNKNOWN;
+    private int activeUnit = UNKNOWN;
+    private final int[] textures = new int[TEXTURE_UNITS];
+    private int cull = UNKNOWN;
+    private int cullFace = UNKNOWN;
+    private int blend = UNKNOWN;
+
+    private long frame;
+    private int issuedThisFrame;
+    private int elidedThisFrame;
+    private int lastIssued;
+    private int lastElided;
+
+    public GlStateCache(GlBackend gl) {
+        this.gl = gl;
+        Arrays.fill(textures, UNKNOWN);
+    }
+
+    /** 状态未知：下一次设置一定发出 */
+    public void invalidate() {
+        vertexArray = UNKNOWN;
+        program = UNKNOWN;
+        arrayBuffer = UNKNOWN;
+        activeUnit = UNKNOWN;
+        Arrays.fill(textures, UNKNOWN);
+        cull = UNKNOWN;
+        cullFace = UNKNOWN;
+        blend = UNKNOWN;
+    }
+
+    /** 外部着色器已绑定程序并可能改动了纹理单元 */
+    public void markShaderApplied(int program) {
+        this.program = program;
+        activeUnit = UNKNOWN;
+        Arrays.fill(textures, UNKNOWN);
+    }
+
+    public void bindVertexArray(int vertexArray) {
+        if (this.vertexArray == vertexArray) {
+            elide();
+            return;
+        }
+        this.vertexArray = vertexArray;
+        issue();
+        gl.bindVertexArray(vertexArray);
+    }
+
+    public void useProgram(int program) {
+        if (this.program == program) {
+            elide();
+            return;
+        }
+        this.program = program;
+        issue();
+        gl.useProgram(program);
+    }
+
+    public void bindArrayBuffer(int buffer) {
+        if (arrayBuffer == buffer) {
+            elide();
+            return;
+        }
+        arrayBuffer = buffer;
+        issue();
+        gl.bindBuffer(GL46C.GL_ARRAY_BUFFER, buffer);
+    }
+
+    public void activeTexture(int unit) {
+        if (activeUnit == unit) {
+            elide();
+            return;
+        }
+        activeUnit = unit;
+        issue();
+        gl.activeTexture(unit);
+    }
+
+    /** 绑定 2D 纹理到指定单元，并将其设为活动单元 */
+    public void bindTexture(int unit, int texture) {
+        activeTexture(unit);
+        if (unit < TEXTURE_UNITS && textures[unit] == texture) {
+            elide();
+            return;
+        }
+        if (unit < TEXTURE_UNITS) {
+            textures[unit] = texture;
+        }
+        issue();
+        gl.bindTexture2D(texture);
+    }
+
+    public void setCull(boolean enabled) {
+        int value = enabled ? 1 : 0;
+        if (cull == value) {
+            elide();
+            return;
+        }
+        cull = value;
+        issue();
+        gl.setCull(enabled);
+    }
+
+    public void cullFace(int face) {
+        if (cullFace == face) {
+            elide();
+            return;
+        }
+        cullFace = face;
+        issue();
+        gl.cullFace(face);
+    }
+
+    public void setBlend(boolean enabled) {
+        int value = enabled ? 1 : 0;
+        if (blend == value) {
+            elide();
+            return;
+        }
+        blend = value;
+        issue();
+        gl.setBlend(enabled);
+    }
+
+    int createVertexArray() {
+        issue();
+        return gl.createVertexArray();
+    }
+
+    void deleteVertexArray(int vertexArray) {
+        if (this.vertexArray == vertexArray) {
+            this.vertexArray = UNKNOWN;
+        }
+        issue();
+        gl.deleteVertexArray(vertexArray);
+    }
+
+    /** 上一帧经由缓存发出的 GL 调用数 */
+    public int getIssuedCount() {
+        rollFrame();
+        return lastIssued;
+    }
+
+    /** 上一帧因状态未变而省略的 GL 调用数 */
+    public int getElidedCount() {
+        rollFrame();
+        return lastElided;
+    }
+
+    private void issue() {
+        rollFrame();
+        issuedThisFrame++;
+    }
+
+    private void elide() {
+        rollFrame();
+        elidedThisFrame++;
+    }
+
+    private void rollFrame() {
+        long current = RenderFrameClock.current();
+        if (current == frame) return;
+        boolean consecutive = current == frame + 1;
+        lastIssued = consecutive ? issuedThisFrame : 0;
+        lastElided = consecutive ? elidedThisFrame : 0;
+        issuedThisFrame = 0;
+        elidedThisFrame = 0;
+        frame = current;
+    }
+}
@@ -0,0 +1,69 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import org.lwjgl.opengl.GL46C;
+
+/**
+ * 直接调用 LWJGL 的 GL 后端。面剔除、混合与活动纹理单元经由 RenderSystem，
+ * 保持原版 GlStateManager 的状态缓存一致。
+ */
+final class LwjglGlBackend implements GlBackend {
+
+    @Override
+    public void bindVertexArray(int vertexArray) {
+        GL46C.glBindVertexArray(vertexArray);
+    }
+
+    @Override
+    public void useProgram(int program) {
+        GL46C.glUseProgram(program);
+    }
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        GL46C.glBindBuffer(target, buffer);
+    }
+
+    @Override
+    public void activeTexture(int unit) {
+        RenderSystem.activeTexture(GL46C.GL_TEXTURE0 + unit);
+    }
+
+    @Override
+    public void bindTexture2D(int texture) {
+        GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, texture);
+    }
+
+    @Override
+    public void setCull(boolean enabled) {
+        if (enabled) {
+            RenderSystem.enableCull();
+        } else {
+            RenderSystem.disableCull();
+        }
+    }
+
+    @Override
+    public void cullFace(int face) {
+        GL46C.glCullFace(face);
+    }
+
+    @Override
+    public void setBlend(boolean enabled) {
+        if (enabled) {
+            RenderSystem.enableBlend();
+        } else {
+            RenderSystem.disableBlend();
+        }
+    }
+
+    @Override
+    public int createVertexArray() {
+        return GL46C.glGenVertexArrays();
+    }
+
+    @Override
+    public void deleteVertexArray(int vertexArray) {
+        GL46C.glDeleteVertexArrays(vertexArray);
+    }
+}
@@ -1,11 +1,15 @@
 package com.shiroha.mmdskin.renderer.runtime.model.shared;
 
+import com.shiroha.mmdskin.renderer.runtime.texture.TextureAlphaMode;
+
 /**
  * MMD 模型材质（统一定义，避免多个渲染器重复定义）。
  */
 public class MMDMaterial {
     public int tex = 0;
     public boolean hasAlpha = false;
+    /** 纹理的透明度类别，决定子网格的绘制桶 */
+    public TextureAlphaMode alphaMode = TextureAlphaMode.OPAQUE;
 
     public boolean ownsTexture = false;
 }
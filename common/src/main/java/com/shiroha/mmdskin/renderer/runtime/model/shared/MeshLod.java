@@ -0,0 +1,87 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+import com.shiroha.mmdskin.NativeFunc;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 网格 LOD 元数据（加载时由原生层生成）。
+ * LOD 索引追加在原始索引之后、共用同一个索引缓冲；顶点按 LOD 前缀排列，粗糙级别只需蒙皮前若干个顶点。
+ */
+public final class MeshLod {
+
+    public static final MeshLod NONE = new MeshLod(new int[0][], new int[0], 0);
+
+    /** ranges[level - 1][subMesh * 2] = 起始索引（已计入原始索引偏移），[subMesh * 2 + 1] = 索引数 */
+    private final int[][] ranges;
+    private final int[] vertexCounts;
+    private final int indexCount;
+
+    private MeshLod(int[][] ranges, int[] vertexCounts, int indexCount) {
+        this.ranges = ranges;
+        this.vertexCounts = vertexCounts;
+        this.indexCount = indexCount;
+    }
+
+    /**
+     * 读取模型的 LOD 元数据。
+     *
+     * @param baseIndexCount 原始索引数（LOD 索引紧随其后上传）
+     */
+    public static MeshLod load(NativeFunc nf, long model, int subMeshCount, int baseIndexCount) {
+        int levels = nf.GetMeshLodLevelCount(model);
+        if (levels <= 0 || subMeshCount <= 0) return NONE;
+
+        ByteBuffer buf = MemoryUtil.memAlloc((levels * subMeshCount * 2 + levels) * 4);
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (nf.CopyMeshLodRangesToBuffer(model, buf) != levels) return NONE;
+            int[][] ranges = new int[levels][subMeshCount * 2];
+            int pos = 0;
+            for (int level = 0; level < levels; level++) {
+                for (int i = 0; i < subMeshCount; i++) {
+                    ranges[level][i * 2] = baseIndexCount + buf.getInt(pos);
+                    ranges[level][i * 2 + 1] = buf.getInt(pos + 4);
+                    pos += 8;
+                }
+            }
+            int[] vertexCounts = new int[levels];
+            for (int level = 0; level < levels; level++) {
+                vertexCounts[level] = buf.getInt(pos);
+                pos += 4;
+            }
+            return new MeshLod(ranges, vertexCounts, nf.GetMeshLodIndexCount(model));
+        } finally {
+            MemoryUtil.memFree(buf);
+        }
+    }
+
+    /** 级别总数（含原始网格） */
+    public int levelCount() {
+        return ranges.length + 1;
+    }
+
+    /** 追加的 LOD 索引数（u32） */
+    public int indexCount() {
+        return indexCount;
+    }
+
+    /** 将 LOD 索引写入 buffer 的 byteOffset 处（紧随原始索引） */
+    public void copyIndices(NativeFunc nf, long model, ByteBuffer buffer, int byteOffset) {
+        if (indexCount > 0) {
+            nf.CopyMeshLodIndicesToBuffer(model, buffer, byteOffset);
+        }
+    }
+
+    /** 第 level 级各子网格的索引范围；0 级（原始网格）返回 null */
+    public int[] ranges(int level) {
+        return level <= 0 || level > ranges.length ? null : ranges[level - 1];
+    }
+
+    /** 第 level 级需要蒙皮的顶点数 */
+    public int vertexCount(int level, int fullVertexCount) {
+        return level <= 0 || level > vertexCounts.length ? fullVertexCount : vertexCounts[level - 1];
+    }
+}
@@ -1,9 +1,11 @@
 package com.shiroha.mmdskin.renderer.runtime.model.shared;
 
 import com.mojang.blaze3d.systems.RenderSystem;
+import com.shiroha.mmdskin.renderer.runtime.texture.TextureAlphaMode;
 import org.lwjgl.opengl.GL46C;
 
 import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 
 /**
  * 子网格绘制公共逻辑。
@@ -11,6 +13,8 @@ import java.nio.ByteBuffer;
 public final class SubMeshDrawHelper {
 
     private static final int SUB_MESH_STRIDE = 20;
+    /** DrawElementsIndirectCommand：count, instanceCount, firstIndex, baseVertex, baseInstance */
+    public static final int INDIRECT_COMMAND_STRIDE = 20;
 
     private SubMeshDrawHelper() {
     }
@@ -31,50 +35,182 @@ public final class SubMeshDrawHelper {
                             int indexType,
                             TextureResolver textureResolver,
                             AlphaResolver alphaResolver) {
-        RenderSystem.activeTexture(GL46C.GL_TEXTURE0);
+        draw(subMeshDataBuf, subMeshCount, indexElementSize, indexType, null, textureResolver, alphaResolver);
+    }
+
+    /**
+     * @param lodRanges 网格 LOD 的子网格索引范围（{@link MeshLod#ranges}），为 null 时绘制原始网格
+     */
+    public static void draw(ByteBuffer subMeshDataBuf,
+                            int subMeshCount,
+                            int indexElementSize,
+                            int indexType,
+                            int[] lodRanges,
+                            TextureResolver textureResolver,
+                            AlphaResolver alphaResolver) {
+        draw(subMeshDataBuf, subMeshCount, indexElementSize, indexType, lodRanges,
+                textureResolver, alphaResolver, null, null, false);
+    }
+
+    /**
+     * 按 {@link SubMeshOrder} 分桶绘制：不透明子网格按材质顺序先画，镂空随后，半透明最后由远到近。
+     * 各桶均保持深度写入——半透明由远到近提交后，近处不会被远处遮挡，子网格内部的自遮挡也与原先一致。
+     *
+     * @param order 绘制顺序，为 null 时按材质顺序逐个绘制
+     * @param modelView 本次绘制的模型视图矩阵，用于半透明排序
+     * @param opaqueDepthPrepared 不透明桶的深度已由 {@link #drawDepthPrepass} 写入：该桶以 GL_EQUAL 测试、不再写深度
+     */
+    public static void draw(ByteBuffer subMeshDataBuf,
+                            int subMeshCount,
+                            int indexElementSize,
+                            int indexType,
+                            int[] lodRanges,
+                            TextureResolver textureResolver,
+                            AlphaResolver alphaResolver,
+                            SubMeshOrder order,
+                            FloatBuffer modelView,
+                            boolean opaqueDepthPrepared) {
+        GlStateCache state = GlStateCache.MMD;
+        state.activeTexture(0);
+        int boundTexture = -1;
+        if (order != null) {
+            order.begin();
+        }
+        boolean depthEqual = opaqueDepthPrepared && order != null;
+        if (depthEqual) {
+            RenderSystem.depthFunc(GL46C.GL_EQUAL);
+            RenderSystem.depthMask(false);
+        }
 
         for (int i = 0; i < subMeshCount; ++i) {
             int base = i * SUB_MESH_STRIDE;
             int materialId = subMeshDataBuf.getInt(base);
-            int beginIndex = subMeshDataBuf.getInt(base + 4);
-            int vertexCount = subMeshDataBuf.getInt(base + 8);
-            float alpha = subMeshDataBuf.getFloat(base + 12);
+            int vertexCount = lodRanges != null ? lodRanges[i * 2 + 1] : subMeshDataBuf.getInt(base + 8);
+            float alpha = alphaResolver.resolve(materialId, subMeshDataBuf.getFloat(base + 12));
             boolean visible = subMeshDataBuf.get(base + 16) != 0;
-            boolean bothFace = subMeshDataBuf.get(base + 17) != 0;
 
-            if (!visible || alphaResolver.resolve(materialId, alpha) < 0.001f) {
+            if (!visible || vertexCount <= 0 || alpha < 0.001f) {
                 continue;
             }
 
-            if (bothFace) {
-                RenderSystem.disableCull();
+            TextureAlphaMode bucket = order != null ? order.bucket(i, alpha) : TextureAlphaMode.OPAQUE;
+            if (bucket == TextureAlphaMode.CUTOUT) {
+                order.addCutout(i);
+            } else if (bucket == TextureAlphaMode.BLEND) {
+                order.addBlend(i);
             } else {
-                RenderSystem.enableCull();
+                boundTexture = drawSubMesh(subMeshDataBuf, i, indexElementSize, indexType, lodRanges,
+                        textureResolver, boundTexture);
             }
+        }
+        if (order == null) {
+            return;
+        }
+        if (depthEqual) {
+            RenderSystem.depthFunc(GL46C.GL_LEQUAL);
+            RenderSystem.depthMask(true);
+        }
 
-            int textureId = textureResolver.resolve(materialId);
-            RenderSystem.setShaderTexture(0, textureId);
-            GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, textureId);
+        for (int k = 0; k < order.cutoutCount(); ++k) {
+            boundTexture = drawSubMesh(subMeshDataBuf, order.cutout(k), indexElementSize, indexType, lodRanges,
+                    textureResolver, boundTexture);
+        }
+        if (order.blendCount() > 0) {
+            order.sortBlend(modelView);
+            for (int k = 0; k < order.blendCount(); ++k) {
+                boundTexture = drawSubMesh(subMeshDataBuf, order.blend(k), indexElementSize, indexType, lodRanges,
+                        textureResolver, boundTexture);
+            }
+        }
+    }
+
+    /**
+     * 深度预通道：只绘制本帧落在不透明桶的子网格。
+     * 调用前需绑定仅写深度的程序与 VAO，并关闭颜色写入；面剔除与着色通道一致，避免预通道写入着色通道会剔除的背面。
+     *
+     * @return 是否绘制了任何子网格
+     */
+    public static boolean drawDepthPrepass(ByteBuffer subMeshDataBuf,
+                                           int subMeshCount,
+                                           int indexElementSize,
+                                           int indexType,
+                                           int[] lodRanges,
+                                           AlphaResolver alphaResolver,
+                                           SubMeshOrder order) {
+        GlStateCache state = GlStateCache.MMD;
+        boolean drawn = false;
+        for (int i = 0; i < subMeshCount; ++i) {
+            int base = i * SUB_MESH_STRIDE;
+            int materialId = subMeshDataBuf.getInt(base);
+            int beginIndex = lodRanges != null ? lodRanges[i * 2] : subMeshDataBuf.getInt(base + 4);
+            int vertexCount = lodRanges != null ? lodRanges[i * 2 + 1] : subMeshDataBuf.getInt(base + 8);
+            float alpha = alphaResolver.resolve(materialId, subMeshDataBuf.getFloat(base + 12));
+            boolean visible = subMeshDataBuf.get(base + 16) != 0;
+            boolean bothFace = subMeshDataBuf.get(base + 17) != 0;
 
+            if (!visible || vertexCount <= 0 || order.bucket(i, alpha) != TextureAlphaMode.OPAQUE) {
+                continue;
+            }
+
+            state.setCull(!bothFace);
             long startPos = (long) beginIndex * indexElementSize;
             GL46C.glDrawElements(GL46C.GL_TRIANGLES, vertexCount, indexType, startPos);
+            drawn = true;
+        }
+        return drawn;
+    }
+
+    /** @return 绘制后绑定在 0 号单元的纹理 */
+    private static int drawSubMesh(ByteBuffer subMeshDataBuf,
+                                   int subMesh,
+                                   int indexElementSize,
+                                   int indexType,
+                                   int[] lodRanges,
+                                   TextureResolver textureResolver,
+                                   int boundTexture) {
+        GlStateCache state = GlStateCache.MMD;
+        int base = subMesh * SUB_MESH_STRIDE;
+        int materialId = subMeshDataBuf.getInt(base);
+        int beginIndex = lodRanges != null ? lodRanges[subMesh * 2] : subMeshDataBuf.getInt(base + 4);
+        int vertexCount = lodRanges != null ? lodRanges[subMesh * 2 + 1] : subMeshDataBuf.getInt(base + 8);
+        boolean bothFace = subMeshDataBuf.get(base + 17) != 0;
+
+        state.setCull(!bothFace);
+
+        int textureId = textureResolver.resolve(materialId);
+        if (textureId != boundTexture) {
+            RenderSystem.setShaderTexture(0, textureId);
+            state.bindTexture(0, textureId);
         }
+
+        long startPos = (long) beginIndex * indexElementSize;
+        GL46C.glDrawElements(GL46C.GL_TRIANGLES, vertexCount, indexType, startPos);
+        return textureId;
+    }
+
+    public static void drawOutline(ByteBuffer subMeshDataBuf,
+                                   int subMeshCount,
+                                   int indexElementSize,
+                                   int indexType,
+                                   AlphaResolver alphaResolver) {
+        drawOutline(subMeshDataBuf, subMeshCount, indexElementSize, indexType, null, alphaResolver);
     }
 
     public static void drawOutline(ByteBuffer subMeshDataBuf,
                                    int subMeshCount,
                                    int indexElementSize,
                                    int indexType,
+                                   int[] lodRanges,
                                    AlphaResolver alphaResolver) {
         for (int i = 0; i < subMeshCount; ++i) {
             int base = i * SUB_MESH_STRIDE;
             int materialId = subMeshDataBuf.getInt(base);
-            int beginIndex = subMeshDataBuf.getInt(base + 4);
-            int vertexCount = subMeshDataBuf.getInt(base + 8);
+            int beginIndex = lodRanges != null ? lodRanges[i * 2] : subMeshDataBuf.getInt(base + 4);
+            int vertexCount = lodRanges != null ? lodRanges[i * 2 + 1] : subMeshDataBuf.getInt(base + 8);
             float alpha = subMeshDataBuf.getFloat(base + 12);
             boolean visible = subMeshDataBuf.get(base + 16) != 0;
 
-            if (!visible || alphaResolver.resolve(materialId, alpha) < 0.001f) {
+            if (!visible || vertexCount <= 0 || alphaResolver.resolve(materialId, alpha) < 0.001f) {
                 continue;
             }
 
@@ -82,4 +218,44 @@ public final class SubMeshDrawHelper {
             GL46C.glDrawElements(GL46C.GL_TRIANGLES, vertexCount, indexType, startPos);
         }
     }
+
+    /**
+     * 将可见子网格的描边写成间接绘制命令，以一次 glMultiDrawElementsIndirect 提交。
+     * 调用前需绑定 VAO 与索引缓冲。
+     *
+     * @param commandBuf 至少 subMeshCount * {@link #INDIRECT_COMMAND_STRIDE} 字节（小端）
+     * @param indirectBuffer 间接命令 GL 缓冲
+     */
+    public static void drawOutlineIndirect(ByteBuffer subMeshDataBuf,
+                                           int subMeshCount,
+                                           int indexType,
+                                           int[] lodRanges,
+                                           AlphaResolver alphaResolver,
+                                           ByteBuffer commandBuf,
+                                           int indirectBuffer) {
+        commandBuf.clear();
+        int drawCount = 0;
+        for (int i = 0; i < subMeshCount; ++i) {
+            int base = i * SUB_MESH_STRIDE;
+            int materialId = subMeshDataBuf.getInt(base);
+            int beginIndex = lodRanges != null ? lodRanges[i * 2] : subMeshDataBuf.getInt(base + 4);
+            int vertexCount = lodRanges != null ? lodRanges[i * 2 + 1] : subMeshDataBuf.getInt(base + 8);
+            float alpha = subMeshDataBuf.getFloat(base + 12);
+            boolean visible = subMeshDataBuf.get(base + 16) != 0;
+
+            if (!visible || vertexCount <= 0 || alphaResolver.resolve(materialId, alpha) < 0.001f) {
+                continue;
+            }
+
+            commandBuf.putInt(vertexCount).putInt(1).putInt(beginIndex).putInt(0).putInt(0);
+            drawCount++;
+        }
+        if (drawCount == 0) return;
+        commandBuf.flip();
+
+        GL46C.glBindBuffer(GL46C.GL_DRAW_INDIRECT_BUFFER, indirectBuffer);
+        GL46C.glBufferSubData(GL46C.GL_DRAW_INDIRECT_BUFFER, 0, commandBuf);
+        GL46C.glMultiDrawElementsIndirect(GL46C.GL_TRIANGLES, indexType, 0L, drawCount, 0);
+        GL46C.glBindBuffer(GL46C.GL_DRAW_INDIRECT_BUFFER, 0);
+    }
 }
@@ -0,0 +1,163 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.renderer.runtime.texture.TextureAlphaMode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * 子网格的分桶绘制顺序：不透明 → 镂空 → 半透明（按子网格中心的视图深度由远到近）。
+ * 各子网格的类别取自材质纹理的 alpha 统计，中心取静止姿态下索引所引用顶点的包围盒中心，均在加载时求出。
+ * 桶与排序的临时数组随实例复用，仅在渲染线程访问。
+ */
+public final class SubMeshOrder {
+
+    /** 材质 alpha（含材质变形）低于此值时按半透明处理 */
+    private static final float BLEND_ALPHA = 0.999f;
+
+    private final TextureAlphaMode[] modes;
+    /** centers[subMesh * 3 .. + 2] = 模型空间中心 */
+    private final float[] centers;
+
+    private final int[] cutout;
+    private final int[] blend;
+    private final float[] blendDepth;
+    private int cutoutCount;
+    private int blendCount;
+
+    SubMeshOrder(TextureAlphaMode[] modes, float[] centers) {
+        this.modes = modes;
+        this.centers = centers;
+        this.cutout = new int[modes.length];
+        this.blend = new int[modes.length];
+        this.blendDepth = new float[modes.length];
+    }
+
+    /**
+     * 读取静止姿态的子网格中心。须在索引缓冲释放前调用。
+     *
+     * @param positions 原始顶点位置（float3，小端）
+     * @param indices 原始索引（小端，元素大小为 indexElementSize）
+     */
+    public static float[] centers(NativeFunc nf, long model, int subMeshCount,
+                                  ByteBuffer positions, ByteBuffer indices, int indexElementSize) {
+        int[] begins = new int[subMeshCount];
+        int[] counts = new int[subMeshCount];
+        for (int i = 0; i < subMeshCount; i++) {
+            begins[i] = nf.GetSubMeshBeginIndex(model, i);
+            counts[i] = nf.GetSubMeshVertexCount(model, i);
+        }
+        return centers(begins, counts, positions, indices, indexElementSize);
+    }
+
+    static float[] centers(int[] begins, int[] counts, ByteBuffer positions, ByteBuffer indices, int indexElementSize) {
+        ByteBuffer pos = positions.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer idx = indices.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int vertexCount = pos.capacity() / 12;
+        float[] result = new float[begins.length * 3];
+        for (int i = 0; i < begins.length; i++) {
+            float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+            for (int k = begins[i], end = begins[i] + counts[i]; k < end; k++) {
+                int v = readIndex(idx, k, indexElementSize);
+                if (v < 0 || v >= vertexCount) continue;
+                float x = pos.getFloat(v * 12);
+                float y = pos.getFloat(v * 12 + 4);
+                float z = pos.getFloat(v * 12 + 8);
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                minZ = Math.min(minZ, z);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+                maxZ = Math.max(maxZ, z);
+            }
+            if (minX <= maxX) {
+                result[i * 3] = (minX + maxX) * 0.5f;
+                result[i * 3 + 1] = (minY + maxY) * 0.5f;
+                result[i * 3 + 2] = (minZ + maxZ) * 0.5f;
+            }
+        }
+        return result;
+    }
+
+    /** 按子网格所用材质的 alpha 类别建立绘制顺序 */
+    public static SubMeshOrder create(NativeFunc nf, long model, MMDMaterial[] mats, float[] centers) {
+        TextureAlphaMode[] modes = new TextureAlphaMode[centers.length / 3];
+        for (int i = 0; i < modes.length; i++) {
+            int materialId = nf.GetSubMeshMaterialID(model, i);
+            modes[i] = materialId >= 0 && materialId < mats.length ? mats[materialId].alphaMode : TextureAlphaMode.OPAQUE;
+        }
+        return new SubMeshOrder(modes, centers);
+    }
+
+    /** 子网格本帧所属的桶；材质 alpha 低于 1 的一律按半透明处理 */
+    public TextureAlphaMode bucket(int subMesh, float alpha) {
+        if (alpha < BLEND_ALPHA) return TextureAlphaMode.BLEND;
+        return subMesh < modes.length ? modes[subMesh] : TextureAlphaMode.OPAQUE;
+    }
+
+    void begin() {
+        cutoutCount = 0;
+        blendCount = 0;
+    }
+
+    void addCutout(int subMesh) {
+        cutout[cutoutCount++] = subMesh;
+    }
+
+    void addBlend(int subMesh) {
+        blend[blendCount++] = subMesh;
+    }
+
+    int cutoutCount() {
+        return cutoutCount;
+    }
+
+    int cutout(int k) {
+        return cutout[k];
+    }
+
+    int blendCount() {
+        return blendCount;
+    }
+
+    int blend(int k) {
+        return blend[k];
+    }
+
+    /**
+     * 将半透明桶按视图空间深度由远到近排列（视线沿 -Z，越远 z 越小）。
+     *
+     * @param modelView 列主序模型视图矩阵（绝对下标读取）
+     */
+    void sortBlend(FloatBuffer modelView) {
+        float m02 = modelView.get(2), m12 = modelView.get(6), m22 = modelView.get(10), m32 = modelView.get(14);
+        for (int k = 0; k < blendCount; k++) {
+            int c = blend[k] * 3;
+            blendDepth[k] = m02 * centers[c] + m12 * centers[c + 1] + m22 * centers[c + 2] + m32;
+        }
+        // 半透明子网格通常只有十几个，插入排序即可，且相同深度保持材质顺序
+        for (int k = 1; k < blendCount; k++) {
+            int subMesh = blend[k];
+            float depth = blendDepth[k];
+            int j = k - 1;
+            while (j >= 0 && blendDepth[j] > depth) {
+                blend[j + 1] = blend[j];
+                blendDepth[j + 1] = blendDepth[j];
+                j--;
+            }
+            blend[j + 1] = subMesh;
+            blendDepth[j + 1] = depth;
+        }
+    }
+
+    private static int readIndex(ByteBuffer idx, int k, int indexElementSize) {
+        return switch (indexElementSize) {
+            case 1 -> idx.get(k) & 0xFF;
+            case 2 -> idx.getShort(k * 2) & 0xFFFF;
+            default -> idx.getInt(k * 4);
+        };
+    }
+}
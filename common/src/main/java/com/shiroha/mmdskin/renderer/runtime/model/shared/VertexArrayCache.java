@@ -0,0 +1,102 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+import org.lwjgl.opengl.GL46C;
+
+/**
+ * 每个模型的预烘焙 VAO：按（着色器程序, 位置/法线/UV/索引缓冲）缓存一个已设置好全部顶点属性与索引缓冲的 VAO，
+ * 绘制时只需一次绑定，不再逐属性启用、设置指针并在绘制后禁用。
+ * 程序决定属性位置，缓冲组合区分姿态共享的首领与 Compute 描边壳等数据来源。容量满时替换最久未用的条目。
+ */
+public final class VertexArrayCache {
+
+    /** 在新建并已绑定的 VAO 上启用属性、设置指针并绑定索引缓冲 */
+    @FunctionalInterface
+    public interface Layout {
+        void bake();
+    }
+
+    private static final int CAPACITY = 6;
+    private static final int KEY_SIZE = 5;
+
+    private final int[] keys = new int[CAPACITY * KEY_SIZE];
+    private final int[] arrays = new int[CAPACITY];
+    private final long[] lastUse = new long[CAPACITY];
+    private int size;
+    private long useCounter;
+
+    /**
+     * 绑定与 key 对应的 VAO，不存在时新建并调用 layout 烘焙。
+     *
+     * @return 已绑定的 VAO
+     */
+    public int bind(GlStateCache state, int program, int positionBuffer, int normalBuffer, int uvBuffer,
+                    int indexBuffer, Layout layout) {
+        useCounter++;
+        for (int i = 0; i < size; i++) {
+            int base = i * KEY_SIZE;
+            if (keys[base] == program && keys[base + 1] == positionBuffer && keys[base + 2] == normalBuffer
+                    && keys[base + 3] == uvBuffer && keys[base + 4] == indexBuffer) {
+                lastUse[i] = useCounter;
+                state.bindVertexArray(arrays[i]);
+                return arrays[i];
+            }
+        }
+
+        int slot;
+        if (size < CAPACITY) {
+            slot = size++;
+        } else {
+            slot = 0;
+            for (int i = 1; i < CAPACITY; i++) {
+                if (lastUse[i] < lastUse[slot]) slot = i;
+            }
+            state.deleteVertexArray(arrays[slot]);
+        }
+
+        int base = slot * KEY_SIZE;
+        keys[base] = program;
+        keys[base + 1] = positionBuffer;
+        keys[base + 2] = normalBuffer;
+        keys[base + 3] = uvBuffer;
+        keys[base + 4] = indexBuffer;
+        arrays[slot] = state.createVertexArray();
+        lastUse[slot] = useCounter;
+        state.bindVertexArray(arrays[slot]);
+        layout.bake();
+        return arrays[slot];
+    }
+
+    /** 烘焙浮点顶点属性；location 为 -1（程序无此属性）时跳过 */
+    public static void floatAttribute(GlStateCache state, int location, int buffer, int size) {
+        if (location == -1) return;
+        GL46C.glEnableVertexAttribArray(location);
+        state.bindArrayBuffer(buffer);
+        GL46C.glVertexAttribPointer(location, size, GL46C.GL_FLOAT, false, 0, 0);
+    }
+
+    /** 烘焙整数顶点属性；location 为 -1 时跳过 */
+    public static void intAttribute(GlStateCache state, int location, int buffer, int size) {
+        if (location == -1) return;
+        GL46C.glEnableVertexAttribArray(location);
+        state.bindArrayBuffer(buffer);
+        GL46C.glVertexAttribIPointer(location, size, GL46C.GL_INT, 0, 0);
+    }
+
+    /** 烘焙索引缓冲（属于 VAO 状态） */
+    public static void indexBuffer(int buffer) {
+        GL46C.glBindBuffer(GL46C.GL_ELEMENT_ARRAY_BUFFER, buffer);
+    }
+
+    /** 已烘焙的 VAO 数 */
+    public int size() {
+        return size;
+    }
+
+    /** 删除全部 VAO（模型释放时调用） */
+    public void dispose(GlStateCache state) {
+        for (int i = 0; i < size; i++) {
+            state.deleteVertexArray(arrays[i]);
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,101 @@
+package com.shiroha.mmdskin.renderer.runtime.profiling;
+
+import org.lwjgl.opengl.GL46C;
+
+import java.util.Arrays;
+
+/**
+ * GPU 阶段耗时（GL_TIME_ELAPSED 查询），由 {@link RenderProfiler} 驱动。
+ * 每帧的查询放在环形帧槽中，槽位在 {@link #FRAMES} 帧后复用时才读取结果，不等待 GPU；届时仍未就绪的查询直接放弃。
+ * 阶段不可嵌套：已有查询进行中时新的 begin 及其对应的 end 被忽略。仅在渲染线程访问。
+ */
+final class GpuStageTimer {
+
+    private static final int FRAMES = 3;
+    private static final RenderStage[] STAGES = RenderStage.values();
+
+    /** 每个帧槽的查询对象池（按需扩容，跨帧复用）及各查询所属的阶段与模型 */
+    private final int[][] queries = new int[FRAMES][0];
+    private final RenderStage[][] queryStages = new RenderStage[FRAMES][0];
+    private final String[][] queryModels = new String[FRAMES][0];
+    private final int[] counts = new int[FRAMES];
+    private final long[] lastNanos = new long[STAGES.length];
+
+    private RenderStage active;
+    private int suppressed;
+
+    GpuStageTimer() {
+        Arrays.fill(lastNanos, -1L);
+    }
+
+    void begin(int slot, RenderStage stage, String model) {
+        if (active != null) {
+            suppressed++;
+            return;
+        }
+        int n = counts[slot];
+        if (n == queries[slot].length) {
+            int capacity = Math.max(8, n * 2);
+            queries[slot] = Arrays.copyOf(queries[slot], capacity);
+            queryStages[slot] = Arrays.copyOf(queryStages[slot], capacity);
+            queryModels[slot] = Arrays.copyOf(queryModels[slot], capacity);
+        }
+        if (queries[slot][n] == 0) {
+            queries[slot][n] = GL46C.glGenQueries();
+        }
+        GL46C.glBeginQuery(GL46C.GL_TIME_ELAPSED, queries[slot][n]);
+        queryStages[slot][n] = stage;
+        queryModels[slot][n] = model;
+        counts[slot] = n + 1;
+        active = stage;
+    }
+
+    void end(RenderStage stage) {
+        if (suppressed > 0) {
+            suppressed--;
+            return;
+        }
+        if (active != stage) return;
+        GL46C.glEndQuery(GL46C.GL_TIME_ELAPSED);
+        active = null;
+    }
+
+    /**
+     * 读回帧槽中的查询：逐条记入统计，并汇总为各阶段的整帧耗时。读回后清空该槽供本帧复用。
+     */
+    void collect(int slot, StageStatistics statistics) {
+        long[] totals = new long[STAGES.length];
+        Arrays.fill(totals, -1L);
+        int[] pool = queries[slot];
+        for (int i = 0, n = counts[slot]; i < n; i++) {
+            if (GL46C.glGetQueryObjecti(pool[i], GL46C.GL_QUERY_RESULT_AVAILABLE) == 0) continue;
+            long nanos = GL46C.glGetQueryObjecti64(pool[i], GL46C.GL_QUERY_RESULT);
+            int s = queryStages[slot][i].ordinal();
+            totals[s] = Math.max(totals[s], 0L) + nanos;
+            statistics.record(queryModels[slot][i], queryStages[slot][i], nanos);
+            queryModels[slot][i] = null;
+        }
+        System.arraycopy(totals, 0, lastNanos, 0, totals.length);
+        counts[slot] = 0;
+    }
+
+    /** 最近一次读回的该阶段整帧耗时合计（纳秒）；无样本时为 -1 */
+    long getNanos(RenderStage stage) {
+        return lastNanos[stage.ordinal()];
+    }
+
+    int frames() {
+        return FRAMES;
+    }
+
+    /** 关闭分析器时丢弃进行中的状态与未读回的查询（查询对象保留复用） */
+    void reset() {
+        if (active != null) {
+            GL46C.glEndQuery(GL46C.GL_TIME_ELAPSED);
+            active = null;
+        }
+        suppressed = 0;
+        Arrays.fill(counts, 0);
+        Arrays.fill(lastNanos, -1L);
+    }
+}
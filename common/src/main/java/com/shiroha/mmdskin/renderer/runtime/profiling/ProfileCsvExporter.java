@@ -0,0 +1,98 @@
+package com.shiroha.mmdskin.renderer.runtime.profiling;
+
+import com.shiroha.mmdskin.config.PathConstants;
+import com.shiroha.mmdskin.debug.jfr.RenderStageTimingEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 将分位数快照追加写入本次会话的 CSV（3d-skin/profiler/render_profile_*.csv），并提交对应的 JFR 汇总事件。
+ * 写文件在后台线程进行，不阻塞渲染线程。
+ */
+final class ProfileCsvExporter {
+
+    private static final Logger logger = LogManager.getLogger();
+
+    static final String HEADER = "time_ms,model,stage,kind,samples,p50_us,p95_us,p99_us";
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "MMD-ProfilerExport");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private File sessionFile;
+    private boolean failed;
+
+    void export(long timeMillis, List<StageTiming> rows) {
+        if (rows.isEmpty()) return;
+        for (StageTiming row : rows) {
+            RenderStageTimingEvent event = new RenderStageTimingEvent();
+            if (!event.isEnabled()) break;
+            event.model = row.model();
+            event.stage = row.stage().name();
+            event.gpu = row.stage().isGpu();
+            event.samples = row.samples();
+            event.p50 = row.p50();
+            event.p95 = row.p95();
+            event.p99 = row.p99();
+            event.commit();
+        }
+        writer.execute(() -> write(timeMillis, rows));
+    }
+
+    /** 结束当前会话文件，下次导出时新建 */
+    void endSession() {
+        writer.execute(() -> {
+            sessionFile = null;
+            failed = false;
+        });
+    }
+
+    private void write(long timeMillis, List<StageTiming> rows) {
+        if (failed) return;
+        try {
+            if (sessionFile == null) {
+                File dir = PathConstants.getProfilerDir();
+                if (!dir.exists() && !dir.mkdirs()) throw new IOException("无法创建目录 " + dir);
+                String stamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.ROOT).format(new Date(timeMillis));
+                sessionFile = new File(dir, "render_profile_" + stamp + ".csv");
+                Files.writeString(sessionFile.toPath(), HEADER + "\n", StandardCharsets.UTF_8);
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(sessionFile.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.APPEND)) {
+                for (StageTiming row : rows) {
+                    out.write(formatRow(timeMillis, row));
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            failed = true;
+            logger.warn("渲染分析数据导出失败，本次会话不再写入: {}", e.getMessage());
+        }
+    }
+
+    static String formatRow(long timeMillis, StageTiming row) {
+        return String.format(Locale.ROOT, "%d,%s,%s,%s,%d,%.1f,%.1f,%.1f",
+                timeMillis, escape(row.model()), row.stage().name(), row.stage().isGpu() ? "gpu" : "cpu",
+                row.samples(), row.p50() / 1000.0, row.p95() / 1000.0, row.p99() / 1000.0);
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,107 @@
+package com.shiroha.mmdskin.renderer.runtime.profiling;
+
+import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.renderer.runtime.model.RenderFrameClock;
+
+import java.util.List;
+
+/**
+ * 渲染分析器：按模型与阶段统计 GPU / CPU 耗时的滚动 p50 / p95 / p99，
+ * 供性能 HUD 的耗时页显示，并定期导出为 CSV 与 JFR 事件。
+ * 关闭时各入口只做一次配置判断。计时入口仅在渲染线程调用。
+ */
+public final class RenderProfiler {
+
+    /** 全局（不属于某个模型）的耗时，如纹理上传 */
+    public static final String GLOBAL = "*";
+
+    private static final int WINDOW = 240;
+    private static final int MAX_MODELS = 32;
+    private static final long EXPORT_INTERVAL_MS = 5000;
+
+    private static final StageStatistics statistics = new StageStatistics(WINDOW, MAX_MODELS);
+    private static final GpuStageTimer gpu = new GpuStageTimer();
+    private static final ProfileCsvExporter exporter = new ProfileCsvExporter();
+
+    private static boolean running;
+    private static long frame;
+    private static long lastExport;
+
+    private RenderProfiler() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigManager.isRenderProfilerEnabled();
+    }
+
+    public static void beginGpu(RenderStage stage, String model) {
+        if (!active()) return;
+        gpu.begin(slot(), stage, model);
+    }
+
+    public static void endGpu(RenderStage stage) {
+        if (!running) return;
+        gpu.end(stage);
+    }
+
+    /** 开始一段 CPU 计时；未启用时返回 {@link Long#MIN_VALUE}，交给 {@link #endCpu} 后被忽略 */
+    public static long startCpu() {
+        return active() ? System.nanoTime() : Long.MIN_VALUE;
+    }
+
+    public static void endCpu(RenderStage stage, String model, long start) {
+        if (start == Long.MIN_VALUE) return;
+        statistics.record(model, stage, System.nanoTime() - start);
+    }
+
+    /** 最近一次读回的 GPU 阶段整帧耗时合计（纳秒，约滞后 3 帧）；无样本时为 -1 */
+    public static long getFrameNanos(RenderStage stage) {
+        if (!active()) return -1L;
+        return gpu.getNanos(stage);
+    }
+
+    /** 各模型各阶段当前的分位数（纳秒） */
+    public static List<StageTiming> snapshot() {
+        return statistics.snapshot();
+    }
+
+    private static int slot() {
+        return (int) (frame % gpu.frames());
+    }
+
+    /** 推进帧状态并返回是否启用；刚关闭时丢弃全部状态并结束本次会话的导出文件 */
+    private static boolean active() {
+        if (isEnabled()) {
+            rollFrame();
+            return true;
+        }
+        if (running) stop();
+        return false;
+    }
+
+    /** 进入新的一帧时读回即将复用的帧槽，并按间隔导出 */
+    private static void rollFrame() {
+        long current = RenderFrameClock.current();
+        if (!running) {
+            running = true;
+            frame = current;
+            lastExport = System.currentTimeMillis();
+            return;
+        }
+        if (current == frame) return;
+        frame = current;
+        gpu.collect(slot(), statistics);
+        long now = System.currentTimeMillis();
+        if (now - lastExport >= EXPORT_INTERVAL_MS) {
+            lastExport = now;
+            exporter.export(now, statistics.snapshot());
+        }
+    }
+
+    private static void stop() {
+        running = false;
+        gpu.reset();
+        statistics.clear();
+        exporter.endSession();
+    }
+}
@@ -0,0 +1,36 @@
+package com.shiroha.mmdskin.renderer.runtime.profiling;
+
+/**
+ * 性能分析器计时的渲染阶段。GPU 阶段以 GL_TIME_ELAPSED 查询计时、不可相互嵌套；CPU 阶段以纳秒时钟计时。
+ */
+public enum RenderStage {
+    /** Compute 蒙皮与骨骼调色板 */
+    SKINNING("蒙皮", true),
+    /** 骨骼矩阵与形变权重（GPU 蒙皮）或蒙皮顶点（CPU 蒙皮）的缓冲上传 */
+    UPLOAD("数据上传", true),
+    OUTLINE("描边", true),
+    DEPTH_PREPASS("预深度", true),
+    COLOR_PASS("着色", true),
+    TEXTURE_UPLOAD("纹理上传", true),
+    NATIVE_UPDATE("原生更新", false),
+    /** 从原生层复制姿态、形变与子网格数据 */
+    JNI_COPY("JNI复制", false),
+    /** 后台加载完成后在渲染线程创建 GL 资源 */
+    MODEL_FINALIZE("模型完成", false);
+
+    private final String label;
+    private final boolean gpu;
+
+    RenderStage(String label, boolean gpu) {
+        this.label = label;
+        this.gpu = gpu;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public boolean isGpu() {
+        return gpu;
+    }
+}
@@ -0,0 +1,47 @@
+package com.shiroha.mmdskin.renderer.runtime.profiling;
+
+import java.util.Arrays;
+
+/**
+ * 固定窗口的滚动样本，按需求分位数。新样本覆盖最旧的样本。
+ */
+final class RollingPercentiles {
+
+    private final long[] samples;
+    private final long[] sorted;
+    private int next;
+    private int size;
+
+    RollingPercentiles(int window) {
+        this.samples = new long[window];
+        this.sorted = new long[window];
+    }
+
+    void record(long value) {
+        samples[next] = value;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 窗口内样本的分位数（最近秩法），一次排序求出全部。
+     *
+     * @param quantiles 0..1 之间的分位
+     * @return 与 quantiles 一一对应；无样本时全为 0
+     */
+    long[] percentiles(double... quantiles) {
+        long[] result = new long[quantiles.length];
+        if (size == 0) return result;
+        System.arraycopy(samples, 0, sorted, 0, size);
+        Arrays.sort(sorted, 0, size);
+        for (int i = 0; i < quantiles.length; i++) {
+            int rank = (int) Math.ceil(quantiles[i] * size) - 1;
+            result[i] = sorted[Math.max(0, Math.min(size - 1, rank))];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.shiroha.mmdskin.renderer.runtime.profiling;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按模型与阶段聚合的滚动耗时分位数。
+ * 模型数超过上限时淘汰最久未记录的模型；记录来自渲染线程，快照可能来自导出线程，故方法同步。
+ */
+final class StageStatistics {
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private final int window;
+    private final int maxModels;
+    private final Map<String, RollingPercentiles[]> byModel;
+
+    StageStatistics(int window, int maxModels) {
+        this.window = window;
+        this.maxModels = maxModels;
+        this.byModel = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RollingPercentiles[]> eldest) {
+                return size() > StageStatistics.this.maxModels;
+            }
+        };
+    }
+
+    synchronized void record(String model, RenderStage stage, long nanos) {
+        RollingPercentiles[] stages = byModel.computeIfAbsent(model, k -> new RollingPercentiles[RenderStage.values().length]);
+        RollingPercentiles rolling = stages[stage.ordinal()];
+        if (rolling == null) {
+            rolling = new RollingPercentiles(window);
+            stages[stage.ordinal()] = rolling;
+        }
+        rolling.record(nanos);
+    }
+
+    /** 按模型（最近记录的在后）与阶段顺序列出有样本的组合 */
+    synchronized List<StageTiming> snapshot() {
+        List<StageTiming> rows = new ArrayList<>();
+        for (Map.Entry<String, RollingPercentiles[]> entry : byModel.entrySet()) {
+            RollingPercentiles[] stages = entry.getValue();
+            for (RenderStage stage : RenderStage.values()) {
+                RollingPercentiles rolling = stages[stage.ordinal()];
+                if (rolling == null || rolling.size() == 0) continue;
+                long[] p = rolling.percentiles(QUANTILES);
+                rows.add(new StageTiming(entry.getKey(), stage, rolling.size(), p[0], p[1], p[2]));
+            }
+        }
+        return rows;
+    }
+
+    synchronized void clear() {
+        byModel.clear();
+    }
+}
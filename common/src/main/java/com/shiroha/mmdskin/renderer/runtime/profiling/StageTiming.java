@@ -0,0 +1,7 @@
+package com.shiroha.mmdskin.renderer.runtime.profiling;
+
+/**
+ * 单个模型在某阶段的滚动分位数快照（纳秒）。
+ */
+public record StageTiming(String model, RenderStage stage, int samples, long p50, long p95, long p99) {
+}
@@ -0,0 +1,208 @@
+package com.shiroha.mmdskin.renderer.runtime.texture;
+
+import com.shiroha.mmdskin.NativeFunc;
+import com.shiroha.mmdskin.renderer.runtime.model.shared.MMDMaterial;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.GL46C;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 模型级纹理图集：加载期将小纹理合并为单张贴图，绘制时只需一次纹理绑定。
+ */
+public final class MMDTextureAtlas {
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int MAX_ENTRY_SIZE = 1024;
+    private static final int MIN_ATLAS_SIZE = 512;
+    private static final int MAX_ATLAS_SIZE = 4096;
+    private static final int PADDING = 4;
+
+    private int tex;
+    private final long vramSize;
+    private final int atlasedMaterialCount;
+    private final long uvLayoutKey;
+
+    private MMDTextureAtlas(int tex, long vramSize, int atlasedMaterialCount, long uvLayoutKey) {
+        this.tex = tex;
+        this.vramSize = vramSize;
+        this.atlasedMaterialCount = atlasedMaterialCount;
+        this.uvLayoutKey = uvLayoutKey;
+    }
+
+    /**
+     * 尝试为模型构建图集；成功时改写 uvBuffer 与 mats[].tex，并释放被替换纹理的引用。
+     * 不满足条件时返回 null，模型保持原状。
+     */
+    public static MMDTextureAtlas tryBuild(NativeFunc nf, long model,
+                                           MMDMaterial[] mats, String[] matTexNames, List<String> texKeys,
+                                           ByteBuffer indexBuffer, int indexElementSize, int indexCount,
+                                           ByteBuffer uvBuffer, int vertexCount) {
+        ByteBuffer indexView = indexBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int[] indices = TextureAtlasPacker.readIndices(indexView, indexElementSize, indexCount);
+        int subMeshCount = (int) nf.GetSubMeshCount(model);
+        int[][] subMeshes = new int[subMeshCount][];
+        for (int i = 0; i < subMeshCount; i++) {
+            subMeshes[i] = new int[]{
+                    nf.GetSubMeshMaterialID(model, i),
+                    nf.GetSubMeshBeginIndex(model, i),
+                    nf.GetSubMeshVertexCount(model, i)
+            };
+        }
+
+        int[] owners = TextureAtlasPacker.assignVertexOwners(indices, vertexCount, subMeshes);
+        boolean[] eligible = TextureAtlasPacker.findEligibleMaterials(mats.length, indices, subMeshes, owners, uvBuffer);
+
+        int[] materialKeys = new int[mats.length];
+        List<TextureAtlasPacker.Source> sources = new ArrayList<>();
+        for (int i = 0; i < mats.length; i++) {
+            materialKeys[i] = TextureAtlasPacker.UNASSIGNED;
+            if (!eligible[i] || mats[i].tex == 0) continue;
+
+            GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, mats[i].tex);
+            int w = GL46C.glGetTexLevelParameteri(GL46C.GL_TEXTURE_2D, 0, GL46C.GL_TEXTURE_WIDTH);
+            int h = GL46C.glGetTexLevelParameteri(GL46C.GL_TEXTURE_2D, 0, GL46C.GL_TEXTURE_HEIGHT);
+            if (w <= 0 || h <= 0 || w > MAX_ENTRY_SIZE || h > MAX_ENTRY_SIZE) continue;
+
+            materialKeys[i] = mats[i].tex;
+            sources.add(new TextureAtlasPacker.Source(mats[i].tex, w, h));
+        }
+        GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, 0);
+
+        if (sources.size() < 2) {
+            return null;
+        }
+
+        int maxSize = Math.min(MAX_ATLAS_SIZE, GL46C.glGetInteger(GL46C.GL_MAX_TEXTURE_SIZE));
+        TextureAtlasPacker.Layout layout = TextureAtlasPacker.packSmallest(sources, MIN_ATLAS_SIZE, maxSize, PADDING);
+        if (layout == null || layout.getRegionCount() < 2) {
+            return null;
+        }
+
+        int atlasTex = createAtlasTexture(layout);
+        if (atlasTex == 0) {
+            return null;
+        }
+
+        TextureAtlasPacker.remapUvs(uvBuffer, owners, materialKeys, layout);
+
+        int atlased = 0;
+        for (int i = 0; i < mats.length; i++) {
+            if (materialKeys[i] == TextureAtlasPacker.UNASSIGNED || !layout.contains(materialKeys[i])) continue;
+            mats[i].tex = atlasTex;
+            String name = matTexNames[i];
+            if (name != null && texKeys.remove(name)) {
+                MMDTextureManager.release(name);
+            }
+            atlased++;
+        }
+
+        long vram = (long) layout.getSize() * layout.getSize() * 4;
+        logger.info("纹理图集构建完成: {} 张纹理 / {} 个材质 -> {}x{}",
+                layout.getRegionCount(), atlased, layout.getSize(), layout.getSize());
+        return new MMDTextureAtlas(atlasTex, vram, atlased, uvLayoutKey(layout, materialKeys));
+    }
+
+    /** 改写后 UV 的布局标识：图集尺寸与各材质所在区域，不依赖纹理句柄；恒不为 0。 */
+    private static long uvLayoutKey(TextureAtlasPacker.Layout layout, int[] materialKeys) {
+        long key = layout.getSize();
+        for (int materialKey : materialKeys) {
+            TextureAtlasPacker.Region r = materialKey == TextureAtlasPacker.UNASSIGNED ? null : layout.getRegion(materialKey);
+            key = key * 31 + (r == null ? -1 : Objects.hash(r.x(), r.y(), r.width(), r.height()));
+        }
+        return key == 0 ? 1 : key;
+    }
+
+    private static int createAtlasTexture(TextureAtlasPacker.Layout layout) {
+        int size = layout.getSize();
+        int savedRead = GL46C.glGetInteger(GL46C.GL_READ_FRAMEBUFFER_BINDING);
+        int savedDraw = GL46C.glGetInteger(GL46C.GL_DRAW_FRAMEBUFFER_BINDING);
+
+        int atlasTex = GL46C.glGenTextures();
+        GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, atlasTex);
+        GL46C.glTexImage2D(GL46C.GL_TEXTURE_2D, 0, GL46C.GL_RGBA8, size, size, 0,
+                GL46C.GL_RGBA, GL46C.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAX_LEVEL, 0);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MIN_FILTER, GL46C.GL_LINEAR);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAG_FILTER, GL46C.GL_LINEAR);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_WRAP_S, GL46C.GL_CLAMP_TO_EDGE);
+        GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_WRAP_T, GL46C.GL_CLAMP_TO_EDGE);
+        GL46C.glClearTexImage(atlasTex, 0, GL46C.GL_RGBA, GL46C.GL_UNSIGNED_BYTE, new int[]{0});
+        GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, 0);
+
+        boolean scissor = GL46C.glIsEnabled(GL46C.GL_SCISSOR_TEST);
+        GL46C.glDisable(GL46C.GL_SCISSOR_TEST);
+        int readFbo = GL46C.glGenFramebuffers();
+        int drawFbo = GL46C.glGenFramebuffers();
+        try {
+            GL46C.glBindFramebuffer(GL46C.GL_DRAW_FRAMEBUFFER, drawFbo);
+            GL46C.glFramebufferTexture2D(GL46C.GL_DRAW_FRAMEBUFFER, GL46C.GL_COLOR_ATTACHMENT0,
+                    GL46C.GL_TEXTURE_2D, atlasTex, 0);
+            GL46C.glBindFramebuffer(GL46C.GL_READ_FRAMEBUFFER, readFbo);
+
+            int pad = layout.getPadding();
+            for (TextureAtlasPacker.Region r : layout.getRegions()) {
+                GL46C.glFramebufferTexture2D(GL46C.GL_READ_FRAMEBUFFER, GL46C.GL_COLOR_ATTACHMENT0,
+                        GL46C.GL_TEXTURE_2D, r.key(), 0);
+                if (GL46C.glCheckFramebufferStatus(GL46C.GL_READ_FRAMEBUFFER) != GL46C.GL_FRAMEBUFFER_COMPLETE) {
+                    logger.warn("纹理图集拷贝失败，放弃图集: tex={}", r.key());
+                    GL46C.glDeleteTextures(atlasTex);
+                    return 0;
+                }
+                int x0 = r.x(), y0 = r.y(), x1 = r.x() + r.width(), y1 = r.y() + r.height();
+                int w = r.width(), h = r.height();
+                blit(0, 0, w, h, x0, y0, x1, y1);
+                // padding 以边缘像素拉伸填充，避免线性过滤采样到相邻纹理
+                blit(0, 0, 1, h, x0 - pad, y0, x0, y1);
+                blit(w - 1, 0, w, h, x1, y0, x1 + pad, y1);
+                blit(0, 0, w, 1, x0, y0 - pad, x1, y0);
+                blit(0, h - 1, w, h, x0, y1, x1, y1 + pad);
+                blit(0, 0, 1, 1, x0 - pad, y0 - pad, x0, y0);
+                blit(w - 1, 0, w, 1, x1, y0 - pad, x1 + pad, y0);
+                blit(0, h - 1, 1, h, x0 - pad, y1, x0, y1 + pad);
+                blit(w - 1, h - 1, w, h, x1, y1, x1 + pad, y1 + pad);
+            }
+            return atlasTex;
+        } finally {
+            GL46C.glBindFramebuffer(GL46C.GL_READ_FRAMEBUFFER, savedRead);
+            GL46C.glBindFramebuffer(GL46C.GL_DRAW_FRAMEBUFFER, savedDraw);
+            GL46C.glDeleteFramebuffers(readFbo);
+            GL46C.glDeleteFramebuffers(drawFbo);
+            if (scissor) GL46C.glEnable(GL46C.GL_SCISSOR_TEST);
+        }
+    }
+
+    private static void blit(int sx0, int sy0, int sx1, int sy1, int dx0, int dy0, int dx1, int dy1) {
+        GL46C.glBlitFramebuffer(sx0, sy0, sx1, sy1, dx0, dy0, dx1, dy1,
+                GL46C.GL_COLOR_BUFFER_BIT, GL46C.GL_NEAREST);
+    }
+
+    public int getTexture() {
+        return tex;
+    }
+
+    public long getVramSize() {
+        return tex > 0 ? vramSize : 0;
+    }
+
+    public int getAtlasedMaterialCount() {
+        return atlasedMaterialCount;
+    }
+
+    /** 参与姿态共享键：跟随实例绑定首领的 UV 缓冲，图集布局不同的实例不能共享。 */
+    public long getUvLayoutKey() {
+        return uvLayoutKey;
+    }
+
+    public void dispose() {
+        if (tex > 0) {
+            GL46C.glDeleteTextures(tex);
+            tex = 0;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.shiroha.mmdskin.renderer.runtime.texture;
 
 import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.config.ConfigManager;
+import com.shiroha.mmdskin.debug.jfr.CacheEvictionEvent;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderProfiler;
+import com.shiroha.mmdskin.renderer.runtime.profiling.RenderStage;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -36,19 +39,24 @@ public class MMDTextureManager {
         pendingRelease.clear();
     }
 
-    public static void preloadTexture(String filename) {
+    /**
+     * 后台线程预解码纹理，上传留给渲染线程。
+     *
+     * @return 本次解码的像素字节数；已缓存或解码失败时为 0
+     */
+    public static long preloadTexture(String filename) {
 
         Map<String, Texture> localTextures = textures;
-        if (localTextures == null) return;
+        if (localTextures == null) return 0;
         if (localTextures.containsKey(filename) || pendingRelease.containsKey(filename)
                 || predecodedTextures.containsKey(filename)) {
-            return;
+            return 0;
         }
 
         NativeFunc localNf = NativeFunc.GetInst();
         long nfTex = localNf.LoadTexture(filename);
         if (nfTex == 0) {
-            return;
+            return 0;
         }
 
         try {
@@ -67,11 +75,14 @@ public class MMDTextureManager {
             predecoded.width = x;
             predecoded.height = y;
             predecoded.hasAlpha = hasAlpha;
+            predecoded.alphaMode = hasAlpha ? TextureAlphaMode.classify(pixelBuffer, x * y) : TextureAlphaMode.OPAQUE;
 
             PredecodedTexture existing = predecodedTextures.putIfAbsent(filename, predecoded);
             if (existing != null) {
                 MemoryUtil.memFree(pixelBuffer);
+                return 0;
             }
+            return texSize;
         } finally {
             localNf.DeleteTexture(nfTex);
         }
@@ -122,9 +133,14 @@ public class MMDTextureManager {
         GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, tex);
         int texSize = x * y * (hasAlpha ? 4 : 3);
         ByteBuffer texBuffer = MemoryUtil.memAlloc(texSize);
+        TextureAlphaMode alphaMode = TextureAlphaMode.OPAQUE;
         try {
             nf.CopyDataToByteBuffer(texBuffer, texData, texSize);
             texBuffer.rewind();
+            if (hasAlpha) {
+                alphaMode = TextureAlphaMode.classify(texBuffer, x * y);
+            }
+            RenderProfiler.beginGpu(RenderStage.TEXTURE_UPLOAD, RenderProfiler.GLOBAL);
             if (hasAlpha) {
                 GL46C.glPixelStorei(GL46C.GL_UNPACK_ALIGNMENT, 4);
                 GL46C.glTexImage2D(GL46C.GL_TEXTURE_2D, 0, GL46C.GL_RGBA, x, y, 0, GL46C.GL_RGBA, GL46C.GL_UNSIGNED_BYTE, texBuffer);
@@ -132,6 +148,7 @@ public class MMDTextureManager {
                 GL46C.glPixelStorei(GL46C.GL_UNPACK_ALIGNMENT, 1);
                 GL46C.glTexImage2D(GL46C.GL_TEXTURE_2D, 0, GL46C.GL_RGB, x, y, 0, GL46C.GL_RGB, GL46C.GL_UNSIGNED_BYTE, texBuffer);
             }
+            RenderProfiler.endGpu(RenderStage.TEXTURE_UPLOAD);
         } finally {
             MemoryUtil.memFree(texBuffer);
         }
@@ -145,6 +162,7 @@ public class MMDTextureManager {
         result = new Texture();
         result.tex = tex;
         result.hasAlpha = hasAlpha;
+        result.alphaMode = alphaMode;
         result.vramSize = (long) x * y * (hasAlpha ? 4 : 3);
         textures.put(filename, result);
         return result;
@@ -154,6 +172,7 @@ public class MMDTextureManager {
         int tex = GL46C.glGenTextures();
         GL46C.glBindTexture(GL46C.GL_TEXTURE_2D, tex);
 
+        RenderProfiler.beginGpu(RenderStage.TEXTURE_UPLOAD, RenderProfiler.GLOBAL);
         if (predecoded.hasAlpha) {
             GL46C.glPixelStorei(GL46C.GL_UNPACK_ALIGNMENT, 4);
             GL46C.glTexImage2D(GL46C.GL_TEXTURE_2D, 0, GL46C.GL_RGBA,
@@ -165,6 +184,7 @@ public class MMDTextureManager {
                 predecoded.width, predecoded.height, 0,
                 GL46C.GL_RGB, GL46C.GL_UNSIGNED_BYTE, predecoded.pixelData);
         }
+        RenderProfiler.endGpu(RenderStage.TEXTURE_UPLOAD);
 
         GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MAX_LEVEL, 0);
         GL46C.glTexParameteri(GL46C.GL_TEXTURE_2D, GL46C.GL_TEXTURE_MIN_FILTER, GL46C.GL_LINEAR);
@@ -179,6 +199,7 @@ public class MMDTextureManager {
         Texture result = new Texture();
         result.tex = tex;
         result.hasAlpha = predecoded.hasAlpha;
+        result.alphaMode = predecoded.alphaMode;
         result.vramSize = (long) predecoded.width * predecoded.height * (predecoded.hasAlpha ? 4 : 3);
         return result;
     }
@@ -227,7 +248,7 @@ public class MMDTextureManager {
         for (String key : expired) {
             Texture tex = pendingRelease.remove(key);
             if (tex != null) {
-                deleteGlTexture(tex);
+                evict(key, tex, CacheEvictionEvent.TTL, now);
             }
         }
 
@@ -243,6 +264,7 @@ public class MMDTextureManager {
         List<Map.Entry<String, Texture>> sorted = new ArrayList<>(pendingRelease.entrySet());
         sorted.sort((a, b) -> Long.compare(a.getValue().lastReleaseTime, b.getValue().lastReleaseTime));
 
+        long now = System.currentTimeMillis();
         long remaining = currentVram;
         int evicted = 0;
         for (var entry : sorted) {
@@ -250,7 +272,7 @@ public class MMDTextureManager {
             Texture tex = pendingRelease.remove(entry.getKey());
             if (tex != null) {
                 remaining -= tex.vramSize;
-                deleteGlTexture(tex);
+                evict(entry.getKey(), tex, CacheEvictionEvent.LRU, now);
                 evicted++;
             }
         }
@@ -258,6 +280,20 @@ public class MMDTextureManager {
         }
     }
 
+    private static void evict(String key, Texture tex, String reason, long now) {
+        CacheEvictionEvent event = new CacheEvictionEvent();
+        event.begin();
+        deleteGlTexture(tex);
+        if (event.shouldCommit()) {
+            event.cache = "texture";
+            event.key = key;
+            event.reason = reason;
+            event.bytes = tex.vramSize;
+            event.idle = now - tex.lastReleaseTime;
+            event.commit();
+        }
+    }
+
     private static void deleteGlTexture(Texture tex) {
         if (tex != null && tex.tex > 0) {
             GL46C.glDeleteTextures(tex.tex);
@@ -292,6 +328,8 @@ public class MMDTextureManager {
     public static class Texture {
         public int tex;
         public boolean hasAlpha;
+        /** 加载时由 alpha 通道统计得出 */
+        public TextureAlphaMode alphaMode = TextureAlphaMode.OPAQUE;
 
         public long vramSize;
 
@@ -330,5 +368,6 @@ public class MMDTextureManager {
         int width;
         int height;
         boolean hasAlpha;
+        TextureAlphaMode alphaMode;
     }
 }
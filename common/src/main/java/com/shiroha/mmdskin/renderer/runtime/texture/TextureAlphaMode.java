@@ -0,0 +1,44 @@
+package com.shiroha.mmdskin.renderer.runtime.texture;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 纹理的透明度类别，加载时由 alpha 通道统计得出，决定材质的绘制顺序。
+ */
+public enum TextureAlphaMode {
+    /** 不透明 */
+    OPAQUE,
+    /** 镂空：alpha 基本只有全透明与全不透明两档（仅抗锯齿边缘有过渡） */
+    CUTOUT,
+    /** 半透明：存在成片的中间 alpha，需要由远到近混合 */
+    BLEND;
+
+    /** 低于此值视为全透明 */
+    private static final int TRANSPARENT_MAX = 8;
+    /** 高于此值视为不透明 */
+    private static final int OPAQUE_MIN = 247;
+    /** 中间 alpha 像素占比超过 1/128 时视为半透明，低于此比例的过渡视为镂空的抗锯齿边缘 */
+    private static final int BLEND_RATIO_SHIFT = 7;
+
+    /**
+     * 统计 RGBA8 像素的 alpha 分布。
+     *
+     * @param rgba 紧密排列的 RGBA8 像素（绝对下标读取，不改变 position）
+     */
+    public static TextureAlphaMode classify(ByteBuffer rgba, int pixelCount) {
+        int transparent = 0;
+        int partial = 0;
+        for (int i = 0; i < pixelCount; i++) {
+            int a = rgba.get(i * 4 + 3) & 0xFF;
+            if (a <= TRANSPARENT_MAX) {
+                transparent++;
+            } else if (a < OPAQUE_MIN) {
+                partial++;
+            }
+        }
+        if ((long) partial << BLEND_RATIO_SHIFT > pixelCount) {
+            return BLEND;
+        }
+        return transparent + partial > 0 ? CUTOUT : OPAQUE;
+    }
+}
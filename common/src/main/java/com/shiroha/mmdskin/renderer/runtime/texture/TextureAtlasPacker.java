@@ -0,0 +1,224 @@
+package com.shiroha.mmdskin.renderer.runtime.texture;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模型纹理图集打包器（纯 CPU 逻辑，不依赖 GL）。
+ */
+public final class TextureAtlasPacker {
+
+    public static final int UNASSIGNED = -1;
+
+    public static final int SHARED = -2;
+
+    private static final float UV_EPSILON = 1.0e-3f;
+
+    private TextureAtlasPacker() {
+    }
+
+    /** 待打包的纹理，key 通常为 GL 纹理 ID，多个材质共用同一纹理时只占一个区域。 */
+    public record Source(int key, int width, int height) {
+    }
+
+    /** 纹理在图集中的位置（不含 padding）。 */
+    public record Region(int key, int x, int y, int width, int height) {
+    }
+
+    /** 打包结果。 */
+    public static final class Layout {
+        private final int size;
+        private final int padding;
+        private final Map<Integer, Region> regions;
+
+        Layout(int size, int padding, Map<Integer, Region> regions) {
+            this.size = size;
+            this.padding = padding;
+            this.regions = regions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getPadding() {
+            return padding;
+        }
+
+        public Region getRegion(int key) {
+            return regions.get(key);
+        }
+
+        public boolean contains(int key) {
+            return regions.containsKey(key);
+        }
+
+        public int getRegionCount() {
+            return regions.size();
+        }
+
+        public List<Region> getRegions() {
+            return new ArrayList<>(regions.values());
+        }
+    }
+
+    /**
+     * 在 [minSize, maxSize] 范围内选择能容纳全部纹理的最小 2 的幂尺寸；
+     * 若最大尺寸仍放不下，则返回最大尺寸下的部分结果。
+     */
+    public static Layout packSmallest(List<Source> sources, int minSize, int maxSize, int padding) {
+        Layout layout = null;
+        for (int size = Math.max(1, minSize); size <= maxSize; size <<= 1) {
+            layout = pack(sources, size, padding);
+            if (layout.getRegionCount() == countDistinct(sources)) {
+                return layout;
+            }
+        }
+        return layout != null ? layout : pack(sources, maxSize, padding);
+    }
+
+    /** 单页 Shelf 打包：按高度降序逐行摆放，放不下的纹理不进入图集。 */
+    public static Layout pack(List<Source> sources, int size, int padding) {
+        List<Source> sorted = new ArrayList<>(dedupe(sources));
+        sorted.sort(Comparator.comparingInt(Source::height).reversed()
+                .thenComparing(Comparator.comparingInt(Source::width).reversed())
+                .thenComparingInt(Source::key));
+
+        Map<Integer, Region> regions = new HashMap<>();
+        int shelfX = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        for (Source src : sorted) {
+            int w = src.width() + padding * 2;
+            int h = src.height() + padding * 2;
+            if (src.width() <= 0 || src.height() <= 0 || w > size || h > size) {
+                continue;
+            }
+            if (shelfX + w > size) {
+                shelfY += shelfHeight;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            if (shelfY + h > size) {
+                continue;
+            }
+            regions.put(src.key(), new Region(src.key(), shelfX + padding, shelfY + padding, src.width(), src.height()));
+            shelfX += w;
+            shelfHeight = Math.max(shelfHeight, h);
+        }
+        return new Layout(size, padding, regions);
+    }
+
+    /** 按索引缓冲元素宽度读取为 int 数组。 */
+    public static int[] readIndices(ByteBuffer indexBuffer, int elementSize, int indexCount) {
+        int[] result = new int[indexCount];
+        for (int i = 0; i < indexCount; i++) {
+            int offset = i * elementSize;
+            result[i] = switch (elementSize) {
+                case 1 -> indexBuffer.get(offset) & 0xFF;
+                case 2 -> indexBuffer.getShort(offset) & 0xFFFF;
+                default -> indexBuffer.getInt(offset);
+            };
+        }
+        return result;
+    }
+
+    /**
+     * 计算每个顶点所属材质；被多个材质共用的顶点标记为 {@link #SHARED}。
+     * subMeshes 每项为 {materialId, beginIndex, indexCount}。
+     */
+    public static int[] assignVertexOwners(int[] indices, int vertexCount, int[][] subMeshes) {
+        int[] owners = new int[vertexCount];
+        Arrays.fill(owners, UNASSIGNED);
+        for (int[] subMesh : subMeshes) {
+            int materialId = subMesh[0];
+            int end = Math.min(indices.length, subMesh[1] + subMesh[2]);
+            for (int i = Math.max(0, subMesh[1]); i < end; i++) {
+                int v = indices[i];
+                if (v < 0 || v >= vertexCount) continue;
+                if (owners[v] == UNASSIGNED) {
+                    owners[v] = materialId;
+                } else if (owners[v] != materialId) {
+                    owners[v] = SHARED;
+                }
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * 判定可进入图集的材质：UV 必须落在 [0,1]（图集无法表达 REPEAT），且不与其他材质共用顶点。
+     */
+    public static boolean[] findEligibleMaterials(int materialCount, int[] indices, int[][] subMeshes,
+                                                  int[] owners, ByteBuffer uvs) {
+        boolean[] eligible = new boolean[materialCount];
+        for (int[] subMesh : subMeshes) {
+            if (subMesh[0] >= 0 && subMesh[0] < materialCount) {
+                eligible[subMesh[0]] = true;
+            }
+        }
+
+        for (int[] subMesh : subMeshes) {
+            int materialId = subMesh[0];
+            if (materialId < 0 || materialId >= materialCount || !eligible[materialId]) continue;
+            int end = Math.min(indices.length, subMesh[1] + subMesh[2]);
+            for (int i = Math.max(0, subMesh[1]); i < end; i++) {
+                int v = indices[i];
+                if (v < 0 || v >= owners.length || owners[v] == SHARED) {
+                    eligible[materialId] = false;
+                    break;
+                }
+                float u = uvs.getFloat(v * 8);
+                float t = uvs.getFloat(v * 8 + 4);
+                if (u < -UV_EPSILON || u > 1.0f + UV_EPSILON || t < -UV_EPSILON || t > 1.0f + UV_EPSILON) {
+                    eligible[materialId] = false;
+                    break;
+                }
+            }
+        }
+        return eligible;
+    }
+
+    /**
+     * 将已入图集材质的顶点 UV 改写到图集空间，返回改写的顶点数。
+     * materialKeys[materialId] 为该材质对应的 Source key，未入图集的材质不做修改。
+     */
+    public static int remapUvs(ByteBuffer uvs, int[] owners, int[] materialKeys, Layout layout) {
+        float size = layout.getSize();
+        int remapped = 0;
+        for (int v = 0; v < owners.length; v++) {
+            int materialId = owners[v];
+            if (materialId < 0 || materialId >= materialKeys.length) continue;
+            Region region = layout.getRegion(materialKeys[materialId]);
+            if (region == null) continue;
+
+            float u = clamp01(uvs.getFloat(v * 8));
+            float t = clamp01(uvs.getFloat(v * 8 + 4));
+            uvs.putFloat(v * 8, (region.x() + u * region.width()) / size);
+            uvs.putFloat(v * 8 + 4, (region.y() + t * region.height()) / size);
+            remapped++;
+        }
+        return remapped;
+    }
+
+    private static float clamp01(float value) {
+        return Math.max(0.0f, Math.min(1.0f, value));
+    }
+
+    private static List<Source> dedupe(List<Source> sources) {
+        Map<Integer, Source> unique = new HashMap<>();
+        for (Source src : sources) {
+            unique.putIfAbsent(src.key(), src);
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private static int countDistinct(List<Source> sources) {
+        return dedupe(sources).size();
+    }
+}
@@ -1,5 +1,6 @@
 package com.shiroha.mmdskin.stage.client;
 
+import com.shiroha.mmdskin.debug.jfr.StagePacketEvent;
 import com.shiroha.mmdskin.stage.application.StageSessionService;
 import com.shiroha.mmdskin.stage.client.sync.StageAnimSyncHelper;
 import com.shiroha.mmdskin.stage.domain.model.StageCameraMode;
@@ -28,12 +29,26 @@ public final class StageClientPacketHandler {
     }
 
     public void handle(UUID senderUUID, String rawData) {
+        StagePacketEvent event = new StagePacketEvent();
+        event.begin();
+        long decodeStart = System.nanoTime();
         StagePacket packet = StagePacketCodec.decode(rawData);
+        long decodeTime = System.nanoTime() - decodeStart;
         if (packet == null) {
             LOGGER.warn("[多人舞台] 收到无法识别的新协议数据包");
-            return;
+        } else {
+            dispatch(senderUUID, packet);
+        }
+        if (event.shouldCommit()) {
+            event.side = StagePacketEvent.CLIENT;
+            event.packetType = packet != null ? String.valueOf(packet.type) : "INVALID";
+            event.bytes = rawData != null ? rawData.length() : 0;
+            event.decodeTime = decodeTime;
+            event.commit();
         }
+    }
 
+    private void dispatch(UUID senderUUID, StagePacket packet) {
         Minecraft mc = Minecraft.getInstance();
         if (mc.player == null) {
             return;
@@ -677,6 +677,14 @@ public class MMDCameraController {
         return state == StageState.PLAYING && modelHandle != 0 && modelHandle == handle;
     }
 
+    public long getMotionAnimHandle() {
+        return motionAnimHandle;
+    }
+
+    public long getCameraAnimHandle() {
+        return cameraAnimHandle;
+    }
+
     public float getAnchorYaw() {
         return anchorYaw;
     }
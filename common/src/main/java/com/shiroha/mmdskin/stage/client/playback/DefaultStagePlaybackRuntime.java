@@ -4,6 +4,7 @@ import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.config.PathConstants;
 import com.shiroha.mmdskin.config.StageConfig;
 import com.shiroha.mmdskin.config.StagePack;
+import com.shiroha.mmdskin.renderer.runtime.animation.MMDAnimManager;
 import com.shiroha.mmdskin.stage.client.camera.MMDCameraController;
 import com.shiroha.mmdskin.stage.client.playback.port.StageLocalModelBindingPort;
 import com.shiroha.mmdskin.stage.client.playback.port.StagePlaybackRuntimePort;
@@ -144,6 +145,7 @@ public final class DefaultStagePlaybackRuntime implements StagePlaybackRuntimePo
         for (long handle : tempHandles) {
             nativeFunc.DeleteAnimation(handle);
         }
+        MMDAnimManager.compactIfEnabled(mergedAnim);
 
         long cameraAnim = 0;
         if (cameraFile != null) {
@@ -221,6 +223,8 @@ public final class DefaultStagePlaybackRuntime implements StagePlaybackRuntimePo
                 }
             }
 
+            MMDAnimManager.compactIfEnabled(mergedAnim);
+
             if (effectiveDescriptor.getCameraFile() != null && !effectiveDescriptor.getCameraFile().isEmpty()) {
                 cameraAnim = nativeFunc.LoadAnimation(
                         0,
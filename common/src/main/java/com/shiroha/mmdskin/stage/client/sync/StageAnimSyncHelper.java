@@ -3,6 +3,7 @@ package com.shiroha.mmdskin.stage.client.sync;
 import com.shiroha.mmdskin.NativeFunc;
 import com.shiroha.mmdskin.config.PathConstants;
 import com.shiroha.mmdskin.stage.client.camera.MMDCameraController;
+import com.shiroha.mmdskin.renderer.runtime.animation.MMDAnimManager;
 import com.shiroha.mmdskin.renderer.runtime.model.MMDModelManager;
 import com.shiroha.mmdskin.player.runtime.MmdSkinRendererPlayerHelper;
 import com.shiroha.mmdskin.player.model.PlayerModelResolver;
@@ -213,6 +214,7 @@ public final class StageAnimSyncHelper {
         for (int i = 1; i < loadedAnims.size(); i++) {
             nf.DeleteAnimation(loadedAnims.get(i));
         }
+        MMDAnimManager.compactIfEnabled(mergedAnim);
 
         return mergedAnim;
     }
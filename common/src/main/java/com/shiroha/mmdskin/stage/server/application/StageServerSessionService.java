@@ -1,5 +1,6 @@
 package com.shiroha.mmdskin.stage.server.application;
 
+import com.shiroha.mmdskin.debug.jfr.StagePacketEvent;
 import com.shiroha.mmdskin.stage.domain.model.StageCameraMode;
 import com.shiroha.mmdskin.stage.domain.model.StageDescriptor;
 import com.shiroha.mmdskin.stage.domain.model.StageMemberState;
@@ -38,12 +39,26 @@ public final class StageServerSessionService {
     }
 
     public synchronized void handlePacket(StageServerPlatformPort platform, StageServerPlayer sender, String rawData) {
+        StagePacketEvent event = new StagePacketEvent();
+        event.begin();
+        long decodeStart = System.nanoTime();
         StagePacket packet = StagePacketCodec.decode(rawData);
+        long decodeTime = System.nanoTime() - decodeStart;
         if (packet == null) {
             LOGGER.warn("[多人舞台] 服务端收到无效协议数据包");
-            return;
+        } else {
+            dispatch(platform, sender, packet);
+        }
+        if (event.shouldCommit()) {
+            event.side = StagePacketEvent.SERVER;
+            event.packetType = packet != null ? String.valueOf(packet.type) : "INVALID";
+            event.bytes = rawData != null ? rawData.length() : 0;
+            event.decodeTime = decodeTime;
+            event.commit();
         }
+    }
 
+    private void dispatch(StageServerPlatformPort platform, StageServerPlayer sender, StagePacket packet) {
         switch (packet.type) {
             case INVITE_REQUEST -> handleInviteRequest(platform, sender, packet);
             case INVITE_CANCEL -> handleInviteCancel(platform, sender, packet);
@@ -0,0 +1,87 @@
+#version 430 core
+layout(local_size_x = 64) in;
+
+// 骨骼静态数据：local = T(bodyShift + t) * R(preRotation * q * postRotation)
+struct PaletteBone {
+    vec4 bodyShift;
+    vec4 preRotation;
+    vec4 postRotation;
+    mat4 inverseInit;
+};
+
+// 整数帧采样：xyz 平移 / xyzw 四元数
+struct PaletteSample {
+    vec4 translation;
+    vec4 rotation;
+};
+
+layout(std430, binding = 0) readonly buffer PaletteBones {
+    PaletteBone bones[];
+};
+// x = 父骨骼, y = 轨道索引（-1 无轨道）, z = 是否由调色板计算
+layout(std430, binding = 1) readonly buffer PaletteBoneInfo {
+    ivec4 boneInfo[];
+};
+layout(std430, binding = 2) readonly buffer PaletteTracks {
+    PaletteSample samples[];
+};
+// 已由 CPU 上传的蒙皮矩阵，仅覆盖调色板骨骼
+layout(std430, binding = 3) buffer BoneMatrices {
+    mat4 boneMatrices[];
+};
+
+uniform int BoneCount;
+uniform int SampleCount;
+uniform float Frame;
+
+vec4 quatMul(vec4 a, vec4 b) {
+    return vec4(a.w * b.xyz + b.w * a.xyz + cross(a.xyz, b.xyz), a.w * b.w - dot(a.xyz, b.xyz));
+}
+
+mat4 rotationTranslation(vec4 q, vec3 t) {
+    vec3 q2 = q.xyz * 2.0;
+    float xx = q.x * q2.x, yy = q.y * q2.y, zz = q.z * q2.z;
+    float xy = q.x * q2.y, xz = q.x * q2.z, yz = q.y * q2.z;
+    float wx = q.w * q2.x, wy = q.w * q2.y, wz = q.w * q2.z;
+    return mat4(
+        vec4(1.0 - (yy + zz), xy + wz, xz - wy, 0.0),
+        vec4(xy - wz, 1.0 - (xx + zz), yz + wx, 0.0),
+        vec4(xz + wy, yz - wx, 1.0 - (xx + yy), 0.0),
+        vec4(t, 1.0));
+}
+
+mat4 localMatrix(int bone, int s0, int s1, float t) {
+    vec3 translation = vec3(0.0);
+    vec4 rotation = vec4(0.0, 0.0, 0.0, 1.0);
+    int track = boneInfo[bone].y;
+    if (track >= 0) {
+        int base = track * SampleCount;
+        PaletteSample a = samples[base + s0];
+        PaletteSample b = samples[base + s1];
+        vec4 q1 = dot(a.rotation, b.rotation) < 0.0 ? -b.rotation : b.rotation;
+        translation = mix(a.translation.xyz, b.translation.xyz, t);
+        rotation = normalize(mix(a.rotation, q1, t));
+    }
+    vec4 q = quatMul(quatMul(bones[bone].preRotation, rotation), bones[bone].postRotation);
+    return rotationTranslation(q, bones[bone].bodyShift.xyz + translation);
+}
+
+void main() {
+    int index = int(gl_GlobalInvocationID.x);
+    if (index >= BoneCount || boneInfo[index].z == 0) return;
+
+    float frame = clamp(Frame, 0.0, float(SampleCount - 1));
+    int s0 = int(floor(frame));
+    int s1 = min(s0 + 1, SampleCount - 1);
+    float t = frame - float(s0);
+
+    // 每个线程独立沿父链累乘，无需跨线程同步
+    mat4 global = localMatrix(index, s0, s1, t);
+    int parent = boneInfo[index].x;
+    int total = boneInfo.length();
+    for (int depth = 0; parent >= 0 && depth < total; depth++) {
+        global = localMatrix(parent, s0, s1, t) * global;
+        parent = boneInfo[parent].x;
+    }
+    boneMatrices[index] = global * bones[index].inverseInit;
+}
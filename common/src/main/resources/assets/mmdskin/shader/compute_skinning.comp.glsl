@@ -45,10 +45,15 @@ layout(std430, binding = 11) readonly buffer UvMorphWeights {
 layout(std430, binding = 12) writeonly buffer SkinnedUVs {
     float skinnedUVs[];
 };
+// 描边外扩壳位置（写入，OutlineExtrude <= 0 时不写）
+layout(std430, binding = 13) writeonly buffer OutlineShell {
+    float outlineShell[];
+};
 uniform int VertexCount;
 uniform int MorphCount;
 uniform int MaxBones;
 uniform int UvMorphCount;
+uniform float OutlineExtrude;    // 描边外扩距离（模型空间）
 
 void main() {
     uint vid = gl_GlobalInvocationID.x;
@@ -119,6 +124,14 @@ void main() {
     skinnedNormals[base3 + 1] = skinnedNor.y;
     skinnedNormals[base3 + 2] = skinnedNor.z;
 
+    // 沿蒙皮后法线外扩，描边绘制时顶点着色器无需再外扩
+    if (OutlineExtrude > 0.0) {
+        vec3 shellPos = skinnedPos.xyz + skinnedNor * OutlineExtrude;
+        outlineShell[base3] = shellPos.x;
+        outlineShell[base3 + 1] = shellPos.y;
+        outlineShell[base3 + 2] = shellPos.z;
+    }
+
     // 应用 UV Morph 偏移并写入输出（UvMorphCount < 0 表示无 UV 处理）
     if (UvMorphCount >= 0) {
         float u = origUVs[base2];
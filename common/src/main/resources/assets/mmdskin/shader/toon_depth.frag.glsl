@@ -0,0 +1,5 @@
+#version 330 core
+
+// 仅写深度，颜色写入在预通道期间关闭
+void main() {
+}
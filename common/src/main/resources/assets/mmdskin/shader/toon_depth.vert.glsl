@@ -0,0 +1,14 @@
+#version 330 core
+
+layout(location = 0) in vec3 Position;
+
+uniform mat4 ProjMat;
+uniform mat4 ModelViewMat;
+
+// 深度预通道：变换写法与 toon_main_body.vert.glsl 一致，主通道以 GL_EQUAL 复用此深度
+invariant gl_Position;
+
+void main() {
+    vec4 viewPosition = ModelViewMat * vec4(Position, 1.0);
+    gl_Position = ProjMat * viewPosition;
+}
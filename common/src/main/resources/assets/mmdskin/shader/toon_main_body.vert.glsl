@@ -7,6 +7,9 @@ layout(location = 2) in vec2 UV0;
 uniform mat4 ProjMat;
 uniform mat4 ModelViewMat;
 
+// 与深度预通道（toon_depth.vert.glsl）写法一致，保证两者深度逐位相同
+invariant gl_Position;
+
 out vec2 texCoord0;
 out vec3 viewNormal;
 out vec3 viewPos;
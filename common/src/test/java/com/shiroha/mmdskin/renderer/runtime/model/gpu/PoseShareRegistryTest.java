@@ -0,0 +1,74 @@
+package com.shiroha.mmdskin.renderer.runtime.model.gpu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PoseShareRegistryTest {
+
+    @Test
+    void shouldShareLeaderForSameAssetAndPose() {
+        PoseShareRegistry<Object> registry = new PoseShareRegistry<>();
+        Object leader = new Object();
+        Object follower = new Object();
+
+        assertNull(registry.acquire("miku", 42L, leader));
+        assertSame(leader, registry.acquire("miku", 42L, follower));
+        assertTrue(registry.isLeading(leader, "miku", 42L));
+        assertEquals(1, registry.getLeaderCount());
+    }
+
+    @Test
+    void shouldNotShareAcrossAssetsOrPoses() {
+        PoseShareRegistry<Object> registry = new PoseShareRegistry<>();
+        Object a = new Object();
+
+        assertNull(registry.acquire("miku", 42L, a));
+        assertNull(registry.acquire("luka", 42L, new Object()));
+        assertNull(registry.acquire("miku", 43L, new Object()));
+        assertEquals(3, registry.getLeaderCount());
+    }
+
+    @Test
+    void shouldNeverShareUnshareablePose() {
+        PoseShareRegistry<Object> registry = new PoseShareRegistry<>();
+        Object a = new Object();
+        Object b = new Object();
+
+        assertNull(registry.acquire("miku", 0L, a));
+        assertNull(registry.acquire("miku", 0L, b));
+        assertFalse(registry.isLeading(a, "miku", 0L));
+        assertEquals(0, registry.getLeaderCount());
+    }
+
+    @Test
+    void shouldDropStaleLeadershipWhenLeaderMovesOn() {
+        PoseShareRegistry<Object> registry = new PoseShareRegistry<>();
+        Object leader = new Object();
+        Object follower = new Object();
+        registry.acquire("miku", 1L, leader);
+        assertSame(leader, registry.acquire("miku", 1L, follower));
+
+        assertNull(registry.acquire("miku", 2L, leader));
+
+        assertFalse(registry.isLeading(leader, "miku", 1L));
+        assertNull(registry.acquire("miku", 1L, follower));
+        assertTrue(registry.isLeading(follower, "miku", 1L));
+    }
+
+    @Test
+    void shouldReleaseLeaderOnDispose() {
+        PoseShareRegistry<Object> registry = new PoseShareRegistry<>();
+        Object leader = new Object();
+        registry.acquire("miku", 7L, leader);
+
+        registry.release(leader);
+
+        assertFalse(registry.isLeading(leader, "miku", 7L));
+        assertEquals(0, registry.getLeaderCount());
+    }
+}
@@ -0,0 +1,87 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GlStateCacheTest {
+
+    @Test
+    void shouldElideRepeatedBinds() {
+        RecordingGlBackend gl = new RecordingGlBackend();
+        GlStateCache state = new GlStateCache(gl);
+
+        state.bindVertexArray(3);
+        state.bindVertexArray(3);
+        state.useProgram(7);
+        state.useProgram(7);
+        state.bindArrayBuffer(5);
+        state.bindArrayBuffer(5);
+        state.setBlend(true);
+        state.setBlend(true);
+
+        assertEquals(1, gl.count("bindVertexArray"));
+        assertEquals(1, gl.count("useProgram"));
+        assertEquals(1, gl.count("bindBuffer"));
+        assertEquals(1, gl.count("setBlend"));
+    }
+
+    @Test
+    void shouldReissueEverythingAfterInvalidate() {
+        RecordingGlBackend gl = new RecordingGlBackend();
+        GlStateCache state = new GlStateCache(gl);
+        state.bindVertexArray(3);
+        state.useProgram(7);
+        state.setCull(true);
+
+        state.invalidate();
+        state.bindVertexArray(3);
+        state.useProgram(7);
+        state.setCull(true);
+
+        assertEquals(2, gl.count("bindVertexArray"));
+        assertEquals(2, gl.count("useProgram"));
+        assertEquals(2, gl.count("setCull"));
+    }
+
+    @Test
+    void shouldTrackTexturesPerUnit() {
+        RecordingGlBackend gl = new RecordingGlBackend();
+        GlStateCache state = new GlStateCache(gl);
+
+        state.bindTexture(0, 10);
+        state.bindTexture(1, 11);
+        state.bindTexture(0, 10);
+        state.bindTexture(0, 12);
+
+        assertEquals(3, gl.count("activeTexture"));
+        assertEquals(3, gl.count("bindTexture2D"));
+    }
+
+    @Test
+    void shouldForgetTexturesButKeepProgramAfterExternalShaderApply() {
+        RecordingGlBackend gl = new RecordingGlBackend();
+        GlStateCache state = new GlStateCache(gl);
+        state.bindTexture(0, 10);
+
+        state.markShaderApplied(4);
+        state.useProgram(4);
+        state.bindTexture(0, 10);
+
+        assertEquals(0, gl.count("useProgram"));
+        assertEquals(2, gl.count("bindTexture2D"));
+    }
+
+    @Test
+    void shouldIssueCullOnlyWhenFaceModeChangesAcrossSubMeshes() {
+        RecordingGlBackend gl = new RecordingGlBackend();
+        GlStateCache state = new GlStateCache(gl);
+        boolean[] bothFace = {false, false, false, true, true, false, false};
+
+        for (boolean face : bothFace) {
+            state.setCull(!face);
+        }
+
+        assertEquals(3, gl.count("setCull"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** 只记录调用次数的 GL 后端，用于在 CPU 上验证状态缓存省略了哪些调用 */
+final class RecordingGlBackend implements GlBackend {
+
+    private final Map<String, Integer> counts = new HashMap<>();
+    final List<Integer> deletedVertexArrays = new ArrayList<>();
+    private int nextVertexArray = 1;
+
+    int count(String call) {
+        return counts.getOrDefault(call, 0);
+    }
+
+    private void record(String call) {
+        counts.merge(call, 1, Integer::sum);
+    }
+
+    @Override
+    public void bindVertexArray(int vertexArray) {
+        record("bindVertexArray");
+    }
+
+    @Override
+    public void useProgram(int program) {
+        record("useProgram");
+    }
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        record("bindBuffer");
+    }
+
+    @Override
+    public void activeTexture(int unit) {
+        record("activeTexture");
+    }
+
+    @Override
+    public void bindTexture2D(int texture) {
+        record("bindTexture2D");
+    }
+
+    @Override
+    public void setCull(boolean enabled) {
+        record("setCull");
+    }
+
+    @Override
+    public void cullFace(int face) {
+        record("cullFace");
+    }
+
+    @Override
+    public void setBlend(boolean enabled) {
+        record("setBlend");
+    }
+
+    @Override
+    public int createVertexArray() {
+        record("createVertexArray");
+        return nextVertexArray++;
+    }
+
+    @Override
+    public void deleteVertexArray(int vertexArray) {
+        record("deleteVertexArray");
+        deletedVertexArrays.add(vertexArray);
+    }
+}
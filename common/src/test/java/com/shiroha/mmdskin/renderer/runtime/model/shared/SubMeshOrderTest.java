@@ -0,0 +1,79 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+import com.shiroha.mmdskin.renderer.runtime.texture.TextureAlphaMode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SubMeshOrderTest {
+
+    @Test
+    void shouldComputeBoundingBoxCentersFromIndices() {
+        ByteBuffer positions = ByteBuffer.allocate(4 * 12).order(ByteOrder.LITTLE_ENDIAN);
+        putVertex(positions, 0, 0, 0);
+        putVertex(positions, 2, 4, 0);
+        putVertex(positions, 0, 0, -6);
+        putVertex(positions, 10, 10, 10);
+        ByteBuffer indices = ByteBuffer.allocate(6 * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i : new int[]{0, 1, 2, 3, 3, 3}) {
+            indices.putShort((short) i);
+        }
+
+        float[] centers = SubMeshOrder.centers(new int[]{0, 3}, new int[]{3, 3}, positions, indices, 2);
+
+        assertArrayEquals(new float[]{1, 2, -3, 10, 10, 10}, centers, 1e-6f);
+    }
+
+    @Test
+    void shouldTreatTranslucentMaterialAlphaAsBlend() {
+        SubMeshOrder order = new SubMeshOrder(
+                new TextureAlphaMode[]{TextureAlphaMode.OPAQUE, TextureAlphaMode.CUTOUT}, new float[6]);
+
+        assertEquals(TextureAlphaMode.OPAQUE, order.bucket(0, 1.0f));
+        assertEquals(TextureAlphaMode.CUTOUT, order.bucket(1, 1.0f));
+        assertEquals(TextureAlphaMode.BLEND, order.bucket(0, 0.5f));
+    }
+
+    @Test
+    void shouldSortBlendBackToFront() {
+        TextureAlphaMode[] modes = {TextureAlphaMode.BLEND, TextureAlphaMode.BLEND, TextureAlphaMode.BLEND};
+        float[] centers = {0, 0, -2, 0, 0, -8, 0, 0, -5};
+        SubMeshOrder order = new SubMeshOrder(modes, centers);
+        order.begin();
+        order.addBlend(0);
+        order.addBlend(1);
+        order.addBlend(2);
+
+        order.sortBlend(identity());
+
+        assertEquals(1, order.blend(0));
+        assertEquals(2, order.blend(1));
+        assertEquals(0, order.blend(2));
+    }
+
+    @Test
+    void shouldResetBucketsPerDraw() {
+        SubMeshOrder order = new SubMeshOrder(new TextureAlphaMode[]{TextureAlphaMode.CUTOUT}, new float[3]);
+        order.begin();
+        order.addCutout(0);
+        order.begin();
+
+        assertEquals(0, order.cutoutCount());
+        assertEquals(0, order.blendCount());
+    }
+
+    private static void putVertex(ByteBuffer buf, float x, float y, float z) {
+        buf.putFloat(x).putFloat(y).putFloat(z);
+    }
+
+    private static FloatBuffer identity() {
+        FloatBuffer m = FloatBuffer.allocate(16);
+        m.put(0, 1).put(5, 1).put(10, 1).put(15, 1);
+        return m;
+    }
+}
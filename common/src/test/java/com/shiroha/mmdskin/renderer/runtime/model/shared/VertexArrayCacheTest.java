@@ -0,0 +1,74 @@
+package com.shiroha.mmdskin.renderer.runtime.model.shared;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class VertexArrayCacheTest {
+
+    @Test
+    void shouldBakeOncePerProgramAndSources() {
+        RecordingGlBackend gl = new RecordingGlBackend();
+        GlStateCache state = new GlStateCache(gl);
+        VertexArrayCache cache = new VertexArrayCache();
+        int[] bakes = {0};
+
+        int first = cache.bind(state, 1, 10, 11, 12, 13, () -> bakes[0]++);
+        state.invalidate();
+        int second = cache.bind(state, 1, 10, 11, 12, 13, () -> bakes[0]++);
+
+        assertEquals(first, second);
+        assertEquals(1, bakes[0]);
+        assertEquals(1, gl.count("createVertexArray"));
+        assertEquals(2, gl.count("bindVertexArray"));
+    }
+
+    @Test
+    void shouldBakeSeparateArraysForProgramsAndSources() {
+        RecordingGlBackend gl = new RecordingGlBackend();
+        GlStateCache state = new GlStateCache(gl);
+        VertexArrayCache cache = new VertexArrayCache();
+
+        int standard = cache.bind(state, 1, 10, 11, 12, 13, () -> { });
+        int outline = cache.bind(state, 2, 10, 11, 0, 13, () -> { });
+        int shell = cache.bind(state, 2, 20, 11, 0, 13, () -> { });
+
+        assertNotEquals(standard, outline);
+        assertNotEquals(outline, shell);
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedWhenFull() {
+        RecordingGlBackend gl = new RecordingGlBackend();
+        GlStateCache state = new GlStateCache(gl);
+        VertexArrayCache cache = new VertexArrayCache();
+        int[] arrays = new int[7];
+        for (int program = 1; program <= 6; program++) {
+            arrays[program] = cache.bind(state, program, 10, 11, 12, 13, () -> { });
+        }
+
+        cache.bind(state, 1, 10, 11, 12, 13, () -> { });
+        cache.bind(state, 7, 10, 11, 12, 13, () -> { });
+
+        assertEquals(List.of(arrays[2]), gl.deletedVertexArrays);
+        assertEquals(6, cache.size());
+    }
+
+    @Test
+    void shouldDeleteAllArraysOnDispose() {
+        RecordingGlBackend gl = new RecordingGlBackend();
+        GlStateCache state = new GlStateCache(gl);
+        VertexArrayCache cache = new VertexArrayCache();
+        cache.bind(state, 1, 10, 11, 12, 13, () -> { });
+        cache.bind(state, 2, 10, 11, 12, 13, () -> { });
+
+        cache.dispose(state);
+
+        assertEquals(2, gl.deletedVertexArrays.size());
+        assertEquals(0, cache.size());
+    }
+}
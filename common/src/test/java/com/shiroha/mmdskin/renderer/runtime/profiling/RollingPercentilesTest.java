@@ -0,0 +1,36 @@
+package com.shiroha.mmdskin.renderer.runtime.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollingPercentilesTest {
+
+    @Test
+    void shouldReturnNearestRankPercentiles() {
+        RollingPercentiles rolling = new RollingPercentiles(100);
+        for (int i = 100; i >= 1; i--) {
+            rolling.record(i);
+        }
+        assertArrayEquals(new long[]{50, 95, 99}, rolling.percentiles(0.5, 0.95, 0.99));
+    }
+
+    @Test
+    void shouldOnlyKeepLatestWindow() {
+        RollingPercentiles rolling = new RollingPercentiles(4);
+        for (int i = 0; i < 4; i++) {
+            rolling.record(1000);
+        }
+        for (int i = 0; i < 4; i++) {
+            rolling.record(i + 1);
+        }
+        assertEquals(4, rolling.size());
+        assertArrayEquals(new long[]{2, 4}, rolling.percentiles(0.5, 0.99));
+    }
+
+    @Test
+    void shouldReturnZeroWithoutSamples() {
+        assertArrayEquals(new long[]{0, 0}, new RollingPercentiles(8).percentiles(0.5, 0.99));
+    }
+}
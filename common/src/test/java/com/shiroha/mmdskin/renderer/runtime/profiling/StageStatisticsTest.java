@@ -0,0 +1,46 @@
+package com.shiroha.mmdskin.renderer.runtime.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StageStatisticsTest {
+
+    @Test
+    void shouldListStagesPerModelInStageOrder() {
+        StageStatistics statistics = new StageStatistics(16, 4);
+        statistics.record("miku", RenderStage.COLOR_PASS, 300);
+        statistics.record("miku", RenderStage.SKINNING, 100);
+        statistics.record("miku", RenderStage.SKINNING, 200);
+
+        List<StageTiming> rows = statistics.snapshot();
+        assertEquals(2, rows.size());
+        assertEquals(RenderStage.SKINNING, rows.get(0).stage());
+        assertEquals(2, rows.get(0).samples());
+        assertEquals(200, rows.get(0).p99());
+        assertEquals(RenderStage.COLOR_PASS, rows.get(1).stage());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyRecordedModel() {
+        StageStatistics statistics = new StageStatistics(16, 2);
+        statistics.record("a", RenderStage.COLOR_PASS, 1);
+        statistics.record("b", RenderStage.COLOR_PASS, 1);
+        statistics.record("a", RenderStage.COLOR_PASS, 1);
+        statistics.record("c", RenderStage.COLOR_PASS, 1);
+
+        List<StageTiming> rows = statistics.snapshot();
+        assertEquals(2, rows.size());
+        assertTrue(rows.stream().noneMatch(row -> row.model().equals("b")));
+        assertEquals("c", rows.get(1).model());
+    }
+
+    @Test
+    void shouldFormatCsvRowInMicroseconds() {
+        StageTiming row = new StageTiming("a,b", RenderStage.NATIVE_UPDATE, 3, 1500, 2000, 2500);
+        assertEquals("42,\"a,b\",NATIVE_UPDATE,cpu,3,1.5,2.0,2.5", ProfileCsvExporter.formatRow(42, row));
+    }
+}
@@ -0,0 +1,35 @@
+package com.shiroha.mmdskin.renderer.runtime.texture;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextureAlphaModeTest {
+
+    @Test
+    void shouldClassifyFullyOpaqueAsOpaque() {
+        assertEquals(TextureAlphaMode.OPAQUE, TextureAlphaMode.classify(pixels(256, 0, 0), 256));
+    }
+
+    @Test
+    void shouldClassifyHardEdgesWithFewTransitionsAsCutout() {
+        assertEquals(TextureAlphaMode.CUTOUT, TextureAlphaMode.classify(pixels(1024, 300, 2), 1024));
+    }
+
+    @Test
+    void shouldClassifyGradientsAsBlend() {
+        assertEquals(TextureAlphaMode.BLEND, TextureAlphaMode.classify(pixels(1024, 0, 64), 1024));
+    }
+
+    /** 前 transparent 个像素全透明，随后 partial 个像素半透明，其余不透明 */
+    private static ByteBuffer pixels(int count, int transparent, int partial) {
+        ByteBuffer buf = ByteBuffer.allocate(count * 4);
+        for (int i = 0; i < count; i++) {
+            int a = i < transparent ? 0 : i < transparent + partial ? 128 : 255;
+            buf.put((byte) 255).put((byte) 255).put((byte) 255).put((byte) a);
+        }
+        return buf;
+    }
+}
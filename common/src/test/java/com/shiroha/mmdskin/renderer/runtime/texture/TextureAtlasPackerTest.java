@@ -0,0 +1,149 @@
+package com.shiroha.mmdskin.renderer.runtime.texture;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextureAtlasPackerTest {
+
+    @Test
+    void shouldPackWithoutOverlapAndKeepPadding() {
+        List<TextureAtlasPacker.Source> sources = List.of(
+                new TextureAtlasPacker.Source(1, 256, 256),
+                new TextureAtlasPacker.Source(2, 128, 64),
+                new TextureAtlasPacker.Source(3, 64, 128),
+                new TextureAtlasPacker.Source(4, 200, 100));
+
+        TextureAtlasPacker.Layout layout = TextureAtlasPacker.pack(sources, 512, 4);
+
+        assertEquals(4, layout.getRegionCount());
+        List<TextureAtlasPacker.Region> regions = layout.getRegions();
+        for (TextureAtlasPacker.Region r : regions) {
+            assertTrue(r.x() >= 4 && r.y() >= 4);
+            assertTrue(r.x() + r.width() + 4 <= 512 && r.y() + r.height() + 4 <= 512);
+        }
+        for (int i = 0; i < regions.size(); i++) {
+            for (int j = i + 1; j < regions.size(); j++) {
+                assertFalse(overlapsWithPadding(regions.get(i), regions.get(j), 4));
+            }
+        }
+    }
+
+    @Test
+    void shouldShareRegionForDuplicateTextureKey() {
+        TextureAtlasPacker.Layout layout = TextureAtlasPacker.pack(List.of(
+                new TextureAtlasPacker.Source(7, 64, 64),
+                new TextureAtlasPacker.Source(7, 64, 64)), 512, 2);
+
+        assertEquals(1, layout.getRegionCount());
+    }
+
+    @Test
+    void shouldPickSmallestSizeThatFitsAll() {
+        List<TextureAtlasPacker.Source> sources = List.of(
+                new TextureAtlasPacker.Source(1, 512, 512),
+                new TextureAtlasPacker.Source(2, 512, 512));
+
+        TextureAtlasPacker.Layout layout = TextureAtlasPacker.packSmallest(sources, 512, 4096, 4);
+
+        assertEquals(2048, layout.getSize());
+        assertEquals(2, layout.getRegionCount());
+    }
+
+    @Test
+    void shouldSkipTexturesLargerThanPage() {
+        TextureAtlasPacker.Layout layout = TextureAtlasPacker.pack(List.of(
+                new TextureAtlasPacker.Source(1, 1024, 16),
+                new TextureAtlasPacker.Source(2, 32, 32)), 512, 4);
+
+        assertFalse(layout.contains(1));
+        assertTrue(layout.contains(2));
+    }
+
+    @Test
+    void shouldMarkVerticesSharedBetweenMaterials() {
+        int[] indices = {0, 1, 2, 2, 3, 4};
+        int[][] subMeshes = {{0, 0, 3}, {1, 3, 3}};
+
+        int[] owners = TextureAtlasPacker.assignVertexOwners(indices, 6, subMeshes);
+
+        assertArrayEquals(new int[]{0, 0, TextureAtlasPacker.SHARED, 1, 1, TextureAtlasPacker.UNASSIGNED}, owners);
+    }
+
+    @Test
+    void shouldRejectTiledOrSharedMaterials() {
+        int[] indices = {0, 1, 2, 3, 4, 5, 5, 6, 7};
+        int[][] subMeshes = {{0, 0, 3}, {1, 3, 3}, {2, 6, 3}};
+        ByteBuffer uvs = uvBuffer(
+                0.0f, 0.0f, 1.0f, 0.0f, 0.0f, 1.0f,
+                0.0f, 0.0f, 2.0f, 0.0f, 0.5f, 0.5f,
+                0.2f, 0.2f, 0.3f, 0.3f);
+        int[] owners = TextureAtlasPacker.assignVertexOwners(indices, 8, subMeshes);
+
+        boolean[] eligible = TextureAtlasPacker.findEligibleMaterials(4, indices, subMeshes, owners, uvs);
+
+        assertTrue(eligible[0]);
+        assertFalse(eligible[1]);
+        assertFalse(eligible[2]);
+        assertFalse(eligible[3]);
+    }
+
+    @Test
+    void shouldRemapUvsIntoRegion() {
+        TextureAtlasPacker.Layout layout = TextureAtlasPacker.pack(List.of(
+                new TextureAtlasPacker.Source(10, 128, 128),
+                new TextureAtlasPacker.Source(20, 64, 64)), 512, 4);
+        ByteBuffer uvs = uvBuffer(0.0f, 0.0f, 1.0f, 1.0f, 0.5f, 0.5f);
+        int[] owners = {0, 1, 2};
+        int[] materialKeys = {10, 20, TextureAtlasPacker.UNASSIGNED};
+
+        int remapped = TextureAtlasPacker.remapUvs(uvs, owners, materialKeys, layout);
+
+        TextureAtlasPacker.Region a = layout.getRegion(10);
+        TextureAtlasPacker.Region b = layout.getRegion(20);
+        assertNotNull(a);
+        assertNotNull(b);
+        assertNull(layout.getRegion(TextureAtlasPacker.UNASSIGNED));
+        assertEquals(2, remapped);
+        assertEquals(a.x() / 512.0f, uvs.getFloat(0), 1e-6f);
+        assertEquals(a.y() / 512.0f, uvs.getFloat(4), 1e-6f);
+        assertEquals((b.x() + 64) / 512.0f, uvs.getFloat(8), 1e-6f);
+        assertEquals((b.y() + 64) / 512.0f, uvs.getFloat(12), 1e-6f);
+        assertEquals(0.5f, uvs.getFloat(16));
+        assertEquals(0.5f, uvs.getFloat(20));
+    }
+
+    @Test
+    void shouldReadIndicesOfEveryElementSize() {
+        ByteBuffer bytes = ByteBuffer.wrap(new byte[]{1, (byte) 200, 3});
+        ByteBuffer shorts = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putShort((short) 60000).putShort((short) 2);
+        ByteBuffer ints = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt(70000).putInt(5);
+
+        assertArrayEquals(new int[]{1, 200, 3}, TextureAtlasPacker.readIndices(bytes, 1, 3));
+        assertArrayEquals(new int[]{60000, 2}, TextureAtlasPacker.readIndices(shorts, 2, 2));
+        assertArrayEquals(new int[]{70000, 5}, TextureAtlasPacker.readIndices(ints, 4, 2));
+    }
+
+    private static boolean overlapsWithPadding(TextureAtlasPacker.Region a, TextureAtlasPacker.Region b, int pad) {
+        return a.x() - pad < b.x() + b.width() + pad && b.x() - pad < a.x() + a.width() + pad
+                && a.y() - pad < b.y() + b.height() + pad && b.y() - pad < a.y() + a.height() + pad;
+    }
+
+    private static ByteBuffer uvBuffer(float... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (float v : values) {
+            buffer.putFloat(v);
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -75,6 +75,15 @@ public class ModConfigScreen {
             .setSaveConsumer(value -> data.firstPersonCameraVerticalOffset = value.intValue() / 1000.0F)
             .build());
 
+        renderCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.transparency_sort"),
+                data.transparencySortEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.transparency_sort.tooltip"))
+            .setSaveConsumer(value -> data.transparencySortEnabled = value)
+            .build());
+
         ConfigCategory performanceCategory = builder.getOrCreateCategory(
             Component.translatable("gui.mmdskin.mod_settings.category.performance"));
 
@@ -124,6 +133,154 @@ public class ModConfigScreen {
             .setSaveConsumer(value -> data.textureCacheBudgetMB = value)
             .build());
 
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.texture_atlas"),
+                data.textureAtlasEnabled)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.texture_atlas.tooltip"))
+            .setSaveConsumer(value -> data.textureAtlasEnabled = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.pose_sharing"),
+                data.poseSharingEnabled)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.pose_sharing.tooltip"))
+            .setSaveConsumer(value -> data.poseSharingEnabled = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.gpu_bone_palette"),
+                data.gpuBonePaletteEnabled)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.gpu_bone_palette.tooltip"))
+            .setSaveConsumer(value -> data.gpuBonePaletteEnabled = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.animation_bake_mode"),
+                data.animationBakeMode, 0, 2)
+            .setDefaultValue(0)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.animation_bake_mode.tooltip"))
+            .setTextGetter(value -> Component.literal(value == 0 ? "OFF" : (value * 30) + " Hz"))
+            .setSaveConsumer(value -> data.animationBakeMode = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.animation_bake_quantize"),
+                data.animationBakeQuantize)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.animation_bake_quantize.tooltip"))
+            .setSaveConsumer(value -> data.animationBakeQuantize = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.animation_compact_storage"),
+                data.animationCompactStorage)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.animation_compact_storage.tooltip"))
+            .setSaveConsumer(value -> data.animationCompactStorage = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.frame_pose_cache"),
+                data.framePoseCacheEnabled)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.frame_pose_cache.tooltip"))
+            .setSaveConsumer(value -> data.framePoseCacheEnabled = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.cpu_skinning_threads"),
+                data.cpuSkinningThreads, 0, 16)
+            .setDefaultValue(0)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.cpu_skinning_threads.tooltip"))
+            .setTextGetter(value -> Component.literal(value == 0 ? "AUTO" : String.valueOf(value)))
+            .setSaveConsumer(value -> data.cpuSkinningThreads = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.model_culling"),
+                data.modelCullingEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.model_culling.tooltip"))
+            .setSaveConsumer(value -> data.modelCullingEnabled = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.occlusion_culling"),
+                data.occlusionCullingEnabled)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.occlusion_culling.tooltip"))
+            .setSaveConsumer(value -> data.occlusionCullingEnabled = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.mesh_lod"),
+                data.meshLodEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.mesh_lod.tooltip"))
+            .setSaveConsumer(value -> data.meshLodEnabled = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.impostor_distance"),
+                data.impostorDistance, 0, 256)
+            .setDefaultValue(0)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.impostor_distance.tooltip"))
+            .setTextGetter(value -> Component.literal(value == 0 ? "OFF" : value + " m"))
+            .setSaveConsumer(value -> data.impostorDistance = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.impostor_update_rate"),
+                data.impostorUpdateRate, 1, 20)
+            .setDefaultValue(4)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.impostor_update_rate.tooltip"))
+            .setTextGetter(value -> Component.literal(value + " Hz"))
+            .setSaveConsumer(value -> data.impostorUpdateRate = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.impostor_capture_budget"),
+                data.impostorCaptureBudget, 1, 16)
+            .setDefaultValue(4)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.impostor_capture_budget.tooltip"))
+            .setSaveConsumer(value -> data.impostorCaptureBudget = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.shader_binary_cache"),
+                data.shaderBinaryCacheEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.shader_binary_cache.tooltip"))
+            .setSaveConsumer(value -> data.shaderBinaryCacheEnabled = value)
+            .build());
+
+        performanceCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.depth_prepass"),
+                data.depthPrepassEnabled)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.depth_prepass.tooltip"))
+            .setSaveConsumer(value -> data.depthPrepassEnabled = value)
+            .build());
+
         ConfigCategory toonCategory = builder.getOrCreateCategory(
             Component.translatable("gui.mmdskin.mod_settings.category.toon"));
 
@@ -249,6 +406,16 @@ public class ModConfigScreen {
             .setSaveConsumer(value -> data.toonOutlineB = value / 100.0f)
             .build());
 
+        toonCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.toon_outline_mode"),
+                data.toonOutlineMode, 0, 1)
+            .setDefaultValue(0)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.toon_outline_mode.tooltip"))
+            .setTextGetter(value -> Component.literal(value == 0 ? "Vertex Shader" : "Compute Shell"))
+            .setSaveConsumer(value -> data.toonOutlineMode = value)
+            .build());
+
         ConfigCategory physicsCategory = builder.getOrCreateCategory(
             Component.translatable("gui.mmdskin.mod_settings.category.physics"));
 
@@ -342,6 +509,43 @@ public class ModConfigScreen {
             .setSaveConsumer(value -> data.physicsDebugLog = value)
             .build());
 
+        physicsCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.physics_threaded"),
+                data.physicsThreaded)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_threaded.tooltip"))
+            .setSaveConsumer(value -> data.physicsThreaded = value)
+            .build());
+
+        physicsCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.physics_world_pool"),
+                data.physicsWorldPool)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_world_pool.tooltip"))
+            .setSaveConsumer(value -> data.physicsWorldPool = value)
+            .build());
+
+        physicsCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.physics_sleep"),
+                data.physicsSleepEnabled)
+            .setDefaultValue(true)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_sleep.tooltip"))
+            .setSaveConsumer(value -> data.physicsSleepEnabled = value)
+            .build());
+
+        physicsCategory.addEntry(entryBuilder
+            .startIntSlider(
+                Component.translatable("gui.mmdskin.mod_settings.physics_sleep_idle_frames"),
+                data.physicsSleepIdleFrames, 30, 600)
+            .setDefaultValue(180)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.physics_sleep_idle_frames.tooltip"))
+            .setTextGetter(value -> Component.literal(String.valueOf(value)))
+            .setSaveConsumer(value -> data.physicsSleepIdleFrames = value)
+            .build());
+
         ConfigCategory debugCategory = builder.getOrCreateCategory(
             Component.translatable("gui.mmdskin.mod_settings.category.debug"));
 
@@ -354,6 +558,15 @@ public class ModConfigScreen {
             .setSaveConsumer(value -> data.debugHudEnabled = value)
             .build());
 
+        debugCategory.addEntry(entryBuilder
+            .startBooleanToggle(
+                Component.translatable("gui.mmdskin.mod_settings.render_profiler"),
+                data.renderProfilerEnabled)
+            .setDefaultValue(false)
+            .setTooltip(Component.translatable("gui.mmdskin.mod_settings.render_profiler.tooltip"))
+            .setSaveConsumer(value -> data.renderProfilerEnabled = value)
+            .build());
+
         builder.setSavingRunnable(() -> {
             MmdSkinConfig.save();
 
@@ -374,6 +587,10 @@ public class ModConfigScreen {
                     data.physicsKinematicFilter,
                     data.physicsDebugLog
                 );
+                com.shiroha.mmdskin.NativeFunc.GetInst().SetPhysicsThreaded(data.physicsThreaded);
+                com.shiroha.mmdskin.NativeFunc.GetInst().SetPhysicsWorldPool(data.physicsWorldPool);
+                com.shiroha.mmdskin.NativeFunc.GetInst().SetPhysicsSleep(data.physicsSleepEnabled, data.physicsSleepIdleFrames);
+                com.shiroha.mmdskin.NativeFunc.GetInst().SetMeshLodEnabled(data.meshLodEnabled);
             } catch (UnsatisfiedLinkError e) {
                 org.apache.logging.log4j.LogManager.getLogger().warn("物理配置 JNI 方法未找到，请重新编译 Rust 库");
             }
@@ -1,19 +1,26 @@
 package com.shiroha.mmdskin.mixin.fabric;
 
+import com.shiroha.mmdskin.renderer.runtime.model.RenderFrameClock;
 import com.shiroha.mmdskin.stage.client.camera.MMDCameraController;
 import net.minecraft.client.Camera;
 import net.minecraft.client.renderer.GameRenderer;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 /**
- * GameRenderer Mixin — 舞台模式 FOV 覆盖
+ * GameRenderer Mixin — 舞台模式 FOV 覆盖、渲染帧计数
  */
 @Mixin(GameRenderer.class)
 public abstract class GameRendererMixin {
 
+    @Inject(method = "render", at = @At("HEAD"))
+    private void onRenderHead(float partialTick, long nanoTime, boolean renderLevel, CallbackInfo ci) {
+        RenderFrameClock.beginFrame();
+    }
+
     @Inject(method = "getFov", at = @At("RETURN"), cancellable = true)
     private void onGetFov(Camera camera, float partialTick, boolean useFovSetting, CallbackInfoReturnable<Double> cir) {
         MMDCameraController controller = MMDCameraController.getInstance();
@@ -0,0 +1,23 @@
+package com.shiroha.mmdskin.mixin.forge;
+
+import com.shiroha.mmdskin.renderer.runtime.culling.ModelCulling;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.client.renderer.entity.EntityRenderDispatcher;
+import net.minecraft.world.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/** 实体渲染分发 Mixin，原版按碰撞箱剔除后再按 MMD 模型包围半径复查。 */
+@Mixin(EntityRenderDispatcher.class)
+public abstract class EntityRenderDispatcherMixin {
+
+    @Inject(method = "shouldRender", at = @At("RETURN"), cancellable = true)
+    private <E extends Entity> void onShouldRender(E entity, Frustum frustum, double camX, double camY, double camZ,
+                                                   CallbackInfoReturnable<Boolean> cir) {
+        if (!cir.getReturnValueZ() && ModelCulling.shouldRenderEntity(entity, frustum, camX, camY, camZ)) {
+            cir.setReturnValue(true);
+        }
+    }
+}
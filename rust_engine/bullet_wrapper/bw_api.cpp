@@ -88,8 +88,13 @@ static void bt_to_mat4(const btTransform& t, float* m) {
 
 /* ===== 物理世界 ===== */
 
-// 运动学-动态碰撞过滤回调（宽相阶段拦截，解决头发穿透胸部抖动）
-struct KinematicDynamicFilter : public btOverlapFilterCallback {
+// 宽相碰撞过滤回调：
+// - 运动学-动态过滤（解决头发穿透胸部抖动）
+// - 所有者隔离（共享世界中不同模型的刚体互不碰撞，所有者存于 userIndex2）
+struct MmdOverlapFilter : public btOverlapFilterCallback {
+    bool kinematic = false;
+    bool isolateOwners = false;
+
     bool needBroadphaseCollision(btBroadphaseProxy* proxy0, btBroadphaseProxy* proxy1) const override {
         bool collides = (proxy0->m_collisionFilterGroup & proxy1->m_collisionFilterMask) != 0;
         collides = collides && (proxy1->m_collisionFilterGroup & proxy0->m_collisionFilterMask) != 0;
@@ -99,9 +104,13 @@ struct KinematicDynamicFilter : public btOverlapFilterCallback {
         auto* obj1 = static_cast<btCollisionObject*>(proxy1->m_clientObject);
         if (!obj0 || !obj1) return true;
 
-        bool k0 = obj0->isKinematicObject();
-        bool k1 = obj1->isKinematicObject();
-        if (k0 != k1) return false;
+        if (isolateOwners) {
+            int owner0 = obj0->getUserIndex2();
+            int owner1 = obj1->getUserIndex2();
+            if (owner0 != 0 && owner1 != 0 && owner0 != owner1) return false;
+        }
+
+        if (kinematic && obj0->isKinematicObject() != obj1->isKinematicObject()) return false;
 
         return true;
     }
@@ -113,9 +122,18 @@ struct BW_World {
     btDbvtBroadphase* broadphase;
     btSequentialImpulseConstraintSolver* solver;
     btDiscreteDynamicsWorld* world;
-    KinematicDynamicFilter* kinematicFilter;
+    MmdOverlapFilter* filter;
 };
 
+// 任一过滤开启时安装回调，全部关闭时卸载
+static void bw_world_apply_filter(BW_World* w) {
+    if (w->filter->kinematic || w->filter->isolateOwners) {
+        w->world->getPairCache()->setOverlapFilterCallback(w->filter);
+    } else {
+        w->world->getPairCache()->setOverlapFilterCallback(nullptr);
+    }
+}
+
 BW_World* bw_world_create(float gravity_x, float gravity_y, float gravity_z) {
     BW_TRY
     BW_World* w = new BW_World();
@@ -126,7 +144,7 @@ BW_World* bw_world_create(float gravity_x, float gravity_y, float gravity_z) {
     w->world      = new btDiscreteDynamicsWorld(
         w->dispatcher, w->broadphase, w->solver, w->config);
     w->world->setGravity(btVector3(gravity_x, gravity_y, gravity_z));
-    w->kinematicFilter = nullptr;
+    w->filter     = new MmdOverlapFilter();
     g_alloc_worlds.fetch_add(1, std::memory_order_relaxed);
     return w;
     BW_CATCH_NULL
@@ -134,8 +152,8 @@ BW_World* bw_world_create(float gravity_x, float gravity_y, float gravity_z) {
 
 void bw_world_destroy(BW_World* w) {
     if (!w) return;
-    delete w->kinematicFilter;
     delete w->world;
+    delete w->filter;
     delete w->solver;
     delete w->broadphase;
     delete w->dispatcher;
@@ -180,16 +198,19 @@ void bw_world_remove_constraint(BW_World* w, BW_Constraint* c) {
 
 void bw_world_set_kinematic_filter(BW_World* w, bool enabled) {
     if (!w) return;
-    if (enabled) {
-        if (!w->kinematicFilter) {
-            w->kinematicFilter = new KinematicDynamicFilter();
-        }
-        w->world->getPairCache()->setOverlapFilterCallback(w->kinematicFilter);
-    } else {
-        w->world->getPairCache()->setOverlapFilterCallback(nullptr);
-        delete w->kinematicFilter;
-        w->kinematicFilter = nullptr;
-    }
+    w->filter->kinematic = enabled;
+    bw_world_apply_filter(w);
+}
+
+void bw_world_set_owner_isolation(BW_World* w, bool enabled) {
+    if (!w) return;
+    w->filter->isolateOwners = enabled;
+    bw_world_apply_filter(w);
+}
+
+int bw_world_get_rigid_body_count(BW_World* w) {
+    if (!w) return 0;
+    return w->world->getNumCollisionObjects();
 }
 
 /* ===== 碰撞形状 ===== */
@@ -372,6 +393,12 @@ void bw_rigid_body_set_activation_state(BW_RigidBody* rb, int state) {
     body->setActivationState(state);
 }
 
+void bw_rigid_body_set_owner(BW_RigidBody* rb, int owner) {
+    if (!rb) return;
+    btRigidBody* body = (btRigidBody*)rb;
+    body->setUserIndex2(owner);
+}
+
 void bw_rigid_body_force_activation_state(BW_RigidBody* rb, int state) {
     if (!rb) return;
     btRigidBody* body = (btRigidBody*)rb;
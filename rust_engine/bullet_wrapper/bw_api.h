@@ -68,6 +68,9 @@ void bw_world_remove_rigid_body(BW_World* world, BW_RigidBody* rb);
 void bw_world_add_constraint(BW_World* world, BW_Constraint* c, bool disable_collision);
 void bw_world_remove_constraint(BW_World* world, BW_Constraint* c);
 void bw_world_set_kinematic_filter(BW_World* world, bool enabled);
+/* 共享世界：不同所有者（刚体 owner 非 0 且不同）的刚体互不碰撞 */
+void bw_world_set_owner_isolation(BW_World* world, bool enabled);
+int bw_world_get_rigid_body_count(BW_World* world);
 
 /* ===== 碰撞形状 ===== */
 BW_Shape* bw_shape_sphere(float radius);
@@ -95,6 +98,8 @@ void bw_rigid_body_set_kinematic(BW_RigidBody* rb, bool kinematic);
 float bw_rigid_body_get_mass(BW_RigidBody* rb);
 void bw_rigid_body_clear_forces(BW_RigidBody* rb);
 void bw_rigid_body_apply_central_force(BW_RigidBody* rb, float x, float y, float z);
+/* 设置刚体所有者（0 = 无所有者，与任何刚体按碰撞组正常过滤） */
+void bw_rigid_body_set_owner(BW_RigidBody* rb, int owner);
 
 /* ===== 6DOF 弹簧约束 ===== */
 BW_Constraint* bw_6dof_spring_create(
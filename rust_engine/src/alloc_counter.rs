@@ -0,0 +1,74 @@
+//! 堆分配计数（仅测试与 alloc_counter 特性）
+//!
+//! 测试构建或启用 `alloc_counter` 特性时以计数分配器包装系统分配器，统计 alloc / alloc_zeroed / realloc 次数，
+//! 用于验证每帧热路径不再分配。其余构建（含普通调试构建）不安装，查询返回 None。
+
+#[cfg(any(test, feature = "alloc_counter"))]
+mod counting {
+    use std::alloc::{GlobalAlloc, Layout, System};
+    use std::cell::Cell;
+    use std::sync::atomic::{AtomicU64, Ordering};
+
+    pub static TOTAL: AtomicU64 = AtomicU64::new(0);
+
+    thread_local! {
+        // const 初始化且无析构，分配器内访问不会引发递归分配
+        pub static THREAD: Cell<u64> = const { Cell::new(0) };
+    }
+
+    #[inline]
+    fn record() {
+        TOTAL.fetch_add(1, Ordering::Relaxed);
+        let _ = THREAD.try_with(|c| c.set(c.get() + 1));
+    }
+
+    pub struct CountingAllocator;
+
+    unsafe impl GlobalAlloc for CountingAllocator {
+        unsafe fn alloc(&self, layout: Layout) -> *mut u8 {
+            record();
+            System.alloc(layout)
+        }
+
+        unsafe fn alloc_zeroed(&self, layout: Layout) -> *mut u8 {
+            record();
+            System.alloc_zeroed(layout)
+        }
+
+        unsafe fn realloc(&self, ptr: *mut u8, layout: Layout, new_size: usize) -> *mut u8 {
+            record();
+            System.realloc(ptr, layout, new_size)
+        }
+
+        unsafe fn dealloc(&self, ptr: *mut u8, layout: Layout) {
+            System.dealloc(ptr, layout)
+        }
+    }
+
+    #[global_allocator]
+    static GLOBAL: CountingAllocator = CountingAllocator;
+}
+
+/// 进程累计分配次数（所有线程）
+pub fn allocation_count() -> Option<u64> {
+    #[cfg(any(test, feature = "alloc_counter"))]
+    {
+        Some(counting::TOTAL.load(std::sync::atomic::Ordering::Relaxed))
+    }
+    #[cfg(not(any(test, feature = "alloc_counter")))]
+    {
+        None
+    }
+}
+
+/// 当前线程累计分配次数（测试中不受其他线程干扰）
+pub fn thread_allocation_count() -> Option<u64> {
+    #[cfg(any(test, feature = "alloc_counter"))]
+    {
+        counting::THREAD.try_with(|c| c.get()).ok()
+    }
+    #[cfg(not(any(test, feature = "alloc_counter")))]
+    {
+        None
+    }
+}
@@ -1,6 +1,7 @@
 //! 动画层系统 - 复刻 mdanceio 实现
 
-use std::collections::{HashMap, HashSet};
+use std::collections::HashSet;
+use std::hash::{Hash, Hasher};
 use std::sync::Arc;
 
 use glam::{Vec3, Quat};
@@ -11,6 +12,9 @@ use crate::morph::MorphManager;
 use super::VmdAnimation;
 
 
+/// 姿态共享判定时每帧的量化步数
+const POSE_SHARE_FRAME_STEPS: f32 = 4.0;
+
 /// 单个骨骼的姿态数据
 #[derive(Clone, Debug)]
 pub struct BonePose {
@@ -28,36 +32,48 @@ impl Default for BonePose {
 }
 
 /// 姿态快照 - 存储切换动画时的骨骼和 Morph 状态
+///
+/// 按骨骼索引稠密存储；层内复用同一份快照，重复过渡不再重新分配。
 #[derive(Clone, Debug, Default)]
 pub struct PoseSnapshot {
-    /// 骨骼姿态（索引 -> 姿态）
-    pub bone_poses: HashMap<usize, BonePose>,
-    /// Morph 权重（索引 -> 权重）
-    pub morph_weights: HashMap<usize, f32>,
+    /// 骨骼姿态（下标即骨骼索引）
+    pub bone_poses: Vec<BonePose>,
+    /// 非零 Morph 权重（索引, 权重）
+    pub morph_weights: Vec<(usize, f32)>,
 }
 
 impl PoseSnapshot {
     pub fn capture(bone_manager: &BoneManager, morph_manager: &MorphManager) -> Self {
-        let mut bone_poses = HashMap::new();
-        let mut morph_weights = HashMap::new();
+        let mut snapshot = Self::default();
+        snapshot.capture_into(bone_manager, morph_manager);
+        snapshot
+    }
+
+    /// 覆盖捕获当前姿态，保留已有容量
+    pub fn capture_into(&mut self, bone_manager: &BoneManager, morph_manager: &MorphManager) {
+        self.capture_bones_into(bone_manager);
         
+        for i in 0..morph_manager.morph_count() {
+            let weight = morph_manager.get_morph_weight(i);
+            if weight.abs() > 0.001 {
+                self.morph_weights.push((i, weight));
+            }
+        }
+    }
+    
+    /// 仅捕获骨骼局部姿态（清空 Morph 部分）
+    pub fn capture_bones_into(&mut self, bone_manager: &BoneManager) {
+        self.bone_poses.clear();
+        self.morph_weights.clear();
+
         for i in 0..bone_manager.bone_count() {
             if let Some(bone) = bone_manager.get_bone(i) {
-                bone_poses.insert(i, BonePose {
+                self.bone_poses.push(BonePose {
                     translation: bone.animation_translate,
                     rotation: bone.animation_rotate,
                 });
             }
         }
-        
-        for i in 0..morph_manager.morph_count() {
-            let weight = morph_manager.get_morph_weight(i);
-            if weight.abs() > 0.001 {
-                morph_weights.insert(i, weight);
-            }
-        }
-        
-        Self { bone_poses, morph_weights }
     }
     
     pub fn is_empty(&self) -> bool {
@@ -111,6 +127,8 @@ pub struct AnimationLayer {
     
     
     transition_snapshot: Option<PoseSnapshot>,
+    /// 过渡结束后回收的快照（保留容量供下次过渡）
+    spare_snapshot: Option<PoseSnapshot>,
     transition_duration: f32,
     transition_progress: f32,
     bone_mask: Option<HashSet<usize>>,
@@ -131,6 +149,7 @@ impl AnimationLayer {
             fade_progress: 0.0,
             enabled: true,
             transition_snapshot: None,
+            spare_snapshot: None,
             transition_duration: 0.0,
             transition_progress: 0.0,
             bone_mask: None,
@@ -145,10 +164,17 @@ impl AnimationLayer {
         self.state = AnimationLayerState::Stopped;
         self.effective_weight = 0.0;
         self.fade_progress = 0.0;
-        self.transition_snapshot = None;
+        self.release_snapshot();
         self.transition_progress = 0.0;
     }
     
+    /// 把引用的动画实例换成内容等价的新实例，保留播放进度与状态
+    pub fn replace_animation(&mut self, old: &Arc<VmdAnimation>, new: &Arc<VmdAnimation>) {
+        if self.animation.as_ref().map_or(false, |a| Arc::ptr_eq(a, old)) {
+            self.animation = Some(Arc::clone(new));
+        }
+    }
+
     /// 带过渡地切换动画（姿态缓存过渡）
     pub fn transition_to(
         &mut self,
@@ -157,8 +183,10 @@ impl AnimationLayer {
         bone_manager: &BoneManager,
         morph_manager: &MorphManager,
     ) {
-        // 捕获当前姿态
-        let snapshot = PoseSnapshot::capture(bone_manager, morph_manager);
+        // 捕获当前姿态（复用回收的快照缓冲）
+        self.release_snapshot();
+        let mut snapshot = self.spare_snapshot.take().unwrap_or_default();
+        snapshot.capture_into(bone_manager, morph_manager);
         
         // 设置新动画
         self.animation = animation;
@@ -173,13 +201,20 @@ impl AnimationLayer {
             self.effective_weight = self.config.weight;
         } else {
             // 无过渡，直接播放
-            self.transition_snapshot = None;
+            self.spare_snapshot = Some(snapshot);
             self.state = AnimationLayerState::Playing;
             self.effective_weight = self.config.weight;
         }
         
     }
 
+    /// 结束过渡并回收快照
+    fn release_snapshot(&mut self) {
+        if let Some(snapshot) = self.transition_snapshot.take() {
+            self.spare_snapshot = Some(snapshot);
+        }
+    }
+
     /// 播放动画
     pub fn play(&mut self) {
         if self.animation.is_some() {
@@ -225,7 +260,7 @@ impl AnimationLayer {
         self.state = AnimationLayerState::Stopped;
         self.effective_weight = 0.0;
         self.fade_progress = 0.0;
-        self.transition_snapshot = None;
+        self.release_snapshot();
         self.transition_progress = 0.0;
     }
 
@@ -344,41 +379,40 @@ impl AnimationLayer {
             if self.transition_progress >= 1.0 {
                 self.transition_progress = 1.0;
                 self.state = AnimationLayerState::Playing;
-                self.transition_snapshot = None; // 过渡完成，清除快照
+                self.release_snapshot(); // 过渡完成，回收快照
             }
         } else {
             self.transition_progress = 1.0;
             self.state = AnimationLayerState::Playing;
-            self.transition_snapshot = None;
+            self.release_snapshot();
         }
     }
 
     /// 评估动画并应用到骨骼管理器
-    pub fn evaluate(&self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
+    ///
+    /// `saved` 为调用方持有的暂存区，用于保存遮罩外/排除骨骼的姿态，跨帧复用。
+    pub fn evaluate(
+        &self,
+        bone_manager: &mut BoneManager,
+        morph_manager: &mut MorphManager,
+        saved: &mut Vec<(usize, Vec3, Quat)>,
+    ) {
         if !self.enabled { return; }
 
         // 有骨骼遮罩/排除时，保存需保护的骨骼姿态
-        let saved = {
-            let need_save = |i: &usize| -> bool {
-                if let Some(ref mask) = self.bone_mask {
-                    if !mask.contains(i) { return true; }
-                }
-                if let Some(ref excl) = self.bone_exclude {
-                    if excl.contains(i) { return true; }
+        let masked = self.bone_mask.is_some() || self.bone_exclude.is_some();
+        saved.clear();
+        if masked {
+            for i in 0..bone_manager.bone_count() {
+                let outside_mask = self.bone_mask.as_ref().map_or(false, |mask| !mask.contains(&i));
+                let excluded = self.bone_exclude.as_ref().map_or(false, |excl| excl.contains(&i));
+                if outside_mask || excluded {
+                    if let Some(b) = bone_manager.get_bone(i) {
+                        saved.push((i, b.animation_translate, b.animation_rotate));
+                    }
                 }
-                false
-            };
-            if self.bone_mask.is_some() || self.bone_exclude.is_some() {
-                Some((0..bone_manager.bone_count())
-                    .filter(|i| need_save(i))
-                    .filter_map(|i| {
-                        bone_manager.get_bone(i).map(|b| (i, b.animation_translate, b.animation_rotate))
-                    })
-                    .collect::<Vec<_>>())
-            } else {
-                None
             }
-        };
+        }
 
         if self.state == AnimationLayerState::Transitioning {
             self.evaluate_transition(bone_manager, morph_manager);
@@ -394,11 +428,9 @@ impl AnimationLayer {
         }
 
         // 恢复非遮罩骨骼
-        if let Some(saved_bones) = saved {
-            for (idx, trans, rot) in saved_bones {
-                bone_manager.set_bone_translation(idx, trans);
-                bone_manager.set_bone_rotation(idx, rot);
-            }
+        for &(idx, trans, rot) in saved.iter() {
+            bone_manager.set_bone_translation(idx, trans);
+            bone_manager.set_bone_rotation(idx, rot);
         }
     }
     
@@ -423,7 +455,7 @@ impl AnimationLayer {
         if let Some(ref snapshot) = self.transition_snapshot {
             let snapshot_weight = 1.0 - smooth_t;
             
-            for (&bone_idx, pose) in &snapshot.bone_poses {
+            for (bone_idx, pose) in snapshot.bone_poses.iter().enumerate() {
                 if let Some(bone) = bone_manager.get_bone(bone_idx) {
                     // 混合：当前骨骼动画值（新动画）与快照值
                     let blended_translation = bone.animation_translate.lerp(pose.translation, snapshot_weight);
@@ -433,7 +465,7 @@ impl AnimationLayer {
                 }
             }
             
-            for (&morph_idx, &snapshot_morph_weight) in &snapshot.morph_weights {
+            for &(morph_idx, snapshot_morph_weight) in &snapshot.morph_weights {
                 let new_anim_weight = morph_manager.get_morph_weight(morph_idx);
                 // 手动线性插值: new_anim_weight * (1 - snapshot_weight) + snapshot_morph_weight * snapshot_weight
                 let blended = new_anim_weight + (snapshot_morph_weight - new_anim_weight) * snapshot_weight;
@@ -491,12 +523,66 @@ impl AnimationLayer {
     pub fn is_playing(&self) -> bool {
         matches!(self.state, AnimationLayerState::Playing | AnimationLayerState::FadingIn)
     }
+
+    /// 是否参与姿态评估（与 evaluate_normalized 的筛选条件一致）
+    fn contributes_to_pose(&self) -> bool {
+        self.enabled && self.animation.is_some()
+            && (self.effective_weight > 0.001 || self.state == AnimationLayerState::Transitioning)
+    }
+
+    /// 以满权重、无遮罩方式播放的动画及当前帧（可整体交给 GPU 骨骼调色板）
+    pub fn full_weight_clip(&self) -> Option<(&Arc<VmdAnimation>, f32)> {
+        if self.transition_snapshot.is_some()
+            || self.state == AnimationLayerState::Transitioning
+            || self.effective_weight < 1.0
+            || self.bone_mask.is_some()
+            || self.bone_exclude.is_some()
+        {
+            return None;
+        }
+        self.animation.as_ref().map(|a| (a, self.current_frame))
+    }
+
+    /// 将影响姿态的层状态写入 hasher；过渡中或动画来源未知时返回 false
+    pub fn hash_pose_state<H: Hasher>(&self, hasher: &mut H) -> bool {
+        if !self.contributes_to_pose() {
+            return true;
+        }
+        if self.transition_snapshot.is_some() || self.state == AnimationLayerState::Transitioning {
+            return false;
+        }
+        let source_key = self.animation.as_ref().map(|a| a.source_key()).unwrap_or(0);
+        if source_key == 0 {
+            return false;
+        }
+        self.id.hash(hasher);
+        source_key.hash(hasher);
+        // 各实例按自身时间步累加帧号，量化后比较，1/4 帧以内视为同一姿态
+        ((self.current_frame * POSE_SHARE_FRAME_STEPS).round() as i64).hash(hasher);
+        ((self.effective_weight * 256.0).round() as i32).hash(hasher);
+        hash_bone_set(&self.bone_mask, hasher);
+        hash_bone_set(&self.bone_exclude, hasher);
+        true
+    }
+}
+
+/// 与顺序无关地写入骨骼集合
+fn hash_bone_set<H: Hasher>(set: &Option<HashSet<usize>>, hasher: &mut H) {
+    match set {
+        Some(bones) => {
+            bones.len().hash(hasher);
+            bones.iter().fold(0usize, |acc, &b| acc ^ b.wrapping_mul(0x9E37_79B9)).hash(hasher);
+        }
+        None => usize::MAX.hash(hasher),
+    }
 }
 
 /// 动画层管理器
 pub struct AnimationLayerManager {
     /// 所有层
     layers: Vec<AnimationLayer>,
+    /// 骨骼遮罩评估的暂存区（跨帧复用）
+    mask_scratch: Vec<(usize, Vec3, Quat)>,
 }
 
 impl AnimationLayerManager {
@@ -507,7 +593,7 @@ impl AnimationLayerManager {
             layers.push(AnimationLayer::new(i, format!("Layer_{}", i)));
         }
         
-        Self { layers }
+        Self { layers, mask_scratch: Vec::new() }
     }
 
     /// 获取层（可变）
@@ -527,6 +613,13 @@ impl AnimationLayerManager {
         }
     }
 
+    /// 所有层中的 old 实例替换为 new（动画压缩后换入）
+    pub fn replace_animation(&mut self, old: &Arc<VmdAnimation>, new: &Arc<VmdAnimation>) {
+        for layer in &mut self.layers {
+            layer.replace_animation(old, new);
+        }
+    }
+
     /// 播放指定层
     pub fn play_layer(&mut self, layer_id: usize) {
         if let Some(layer) = self.layers.get_mut(layer_id) {
@@ -620,28 +713,27 @@ impl AnimationLayerManager {
     }
 
     /// 评估所有层（带权重归一化）
-    pub fn evaluate_normalized(&self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
-        // 收集所有活跃层（包括过渡中的层）
-        let active_layers: Vec<usize> = self.layers
-            .iter()
-            .enumerate()
-            .filter(|(_, l)| {
-                l.is_enabled() && l.animation.is_some() && 
-                (l.effective_weight() > 0.001 || l.state() == AnimationLayerState::Transitioning)
-            })
-            .map(|(i, _)| i)
-            .collect();
-
-        if active_layers.is_empty() {
-            return;
-        }
-
-        // 对每个活跃层进行评估（使用 layer.evaluate 以支持过渡）
-        for layer_idx in active_layers {
-            if let Some(layer) = self.layers.get(layer_idx) {
-                layer.evaluate(bone_manager, morph_manager);
-            }
+    pub fn evaluate_normalized(&mut self, bone_manager: &mut BoneManager, morph_manager: &mut MorphManager) {
+        // 对每个活跃层（包括过渡中的层）进行评估（使用 layer.evaluate 以支持过渡）
+        let scratch = &mut self.mask_scratch;
+        for layer in self.layers.iter().filter(|l| l.contributes_to_pose()) {
+            layer.evaluate(bone_manager, morph_manager, scratch);
+        }
+    }
+
+    /// 写入全部层的姿态状态；任一层不可共享时返回 false
+    pub fn hash_pose_state<H: Hasher>(&self, hasher: &mut H) -> bool {
+        self.layers.iter().all(|layer| layer.hash_pose_state(hasher))
+    }
+
+    /// 仅有一个参与评估的层且为满权重播放时，返回其动画与当前帧
+    pub fn single_full_weight_clip(&self) -> Option<(Arc<VmdAnimation>, f32)> {
+        let mut contributing = self.layers.iter().filter(|l| l.contributes_to_pose());
+        let layer = contributing.next()?;
+        if contributing.next().is_some() {
+            return None;
         }
+        layer.full_weight_clip().map(|(a, frame)| (a.clone(), frame))
     }
 
     /// 获取层数量
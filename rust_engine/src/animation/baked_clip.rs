@@ -0,0 +1,356 @@
+//! 预烘焙动画片段 - 按固定采样率重采样，运行时常数时间采样
+//!
+//! 每条骨骼/Morph 轨道在加载时按固定频率采样，分量以 SoA 平面连续存放
+//! （平面内按 `track * sample_count + sample` 排列），运行时只需定位索引再做线性插值，
+//! 不再逐帧查找关键帧与求值贝塞尔曲线。
+
+use glam::{Quat, Vec3, Vec4};
+
+use super::motion::Motion;
+
+/// VMD 原生帧率
+const VMD_FRAME_RATE: f32 = 30.0;
+
+/// 16 位四元数分量的量化刻度
+const QUAT_QUANT_SCALE: f32 = i16::MAX as f32;
+
+/// 烘焙选项
+#[derive(Debug, Clone, Copy, Default, PartialEq, Eq, Hash)]
+pub struct BakeOptions {
+    /// 采样率（Hz），0 表示不烘焙
+    pub sample_rate: u32,
+    /// 是否将旋转量化为 16 位
+    pub quantize_rotations: bool,
+}
+
+impl BakeOptions {
+    pub fn new(sample_rate: u32, quantize_rotations: bool) -> Self {
+        Self { sample_rate, quantize_rotations }
+    }
+
+    #[inline]
+    pub fn is_enabled(&self) -> bool {
+        self.sample_rate > 0
+    }
+}
+
+/// 旋转分量平面（x, y, z, w）
+#[derive(Debug, Clone)]
+enum RotationPlanes {
+    Full([Vec<f32>; 4]),
+    Quantized([Vec<i16>; 4]),
+}
+
+impl RotationPlanes {
+    /// 只分配所选精度的平面
+    fn new(quantized: bool, len: usize) -> Self {
+        if quantized {
+            RotationPlanes::Quantized(std::array::from_fn(|_| vec![0i16; len]))
+        } else {
+            RotationPlanes::Full(std::array::from_fn(|_| vec![0.0f32; len]))
+        }
+    }
+
+    #[inline]
+    fn set(&mut self, index: usize, q: Vec4) {
+        match self {
+            RotationPlanes::Full(p) => {
+                for c in 0..4 {
+                    p[c][index] = q[c];
+                }
+            }
+            RotationPlanes::Quantized(p) => {
+                for c in 0..4 {
+                    p[c][index] = (q[c].clamp(-1.0, 1.0) * QUAT_QUANT_SCALE).round() as i16;
+                }
+            }
+        }
+    }
+
+    #[inline]
+    fn get(&self, index: usize) -> Vec4 {
+        match self {
+            RotationPlanes::Full(p) => Vec4::new(p[0][index], p[1][index], p[2][index], p[3][index]),
+            RotationPlanes::Quantized(p) => Vec4::new(
+                p[0][index] as f32,
+                p[1][index] as f32,
+                p[2][index] as f32,
+                p[3][index] as f32,
+            ) / QUAT_QUANT_SCALE,
+        }
+    }
+
+    fn memory_usage(&self) -> usize {
+        match self {
+            RotationPlanes::Full(p) => p.iter().map(|v| v.capacity() * 4).sum(),
+            RotationPlanes::Quantized(p) => p.iter().map(|v| v.capacity() * 2).sum(),
+        }
+    }
+}
+
+/// 预烘焙动画片段
+#[derive(Debug, Clone)]
+pub struct BakedClip {
+    options: BakeOptions,
+    /// 每个 VMD 帧对应的采样数
+    samples_per_frame: f32,
+    sample_count: usize,
+    bone_names: Vec<String>,
+    translations: [Vec<f32>; 3],
+    rotations: RotationPlanes,
+    morph_names: Vec<String>,
+    morph_weights: Vec<f32>,
+}
+
+impl BakedClip {
+    /// 按选项重采样 Motion 中的全部骨骼与 Morph 轨道
+    pub fn bake(motion: &Motion, options: BakeOptions) -> Self {
+        let samples_per_frame = options.sample_rate.max(1) as f32 / VMD_FRAME_RATE;
+        let sample_count = (motion.duration() as f32 * samples_per_frame).ceil() as usize + 1;
+
+        let mut bone_names: Vec<String> = motion.bone_track_names().cloned().collect();
+        bone_names.sort();
+        let mut morph_names: Vec<String> = motion.morph_track_names().cloned().collect();
+        morph_names.sort();
+
+        let bone_len = bone_names.len() * sample_count;
+        let mut translations = [vec![0.0f32; bone_len], vec![0.0f32; bone_len], vec![0.0f32; bone_len]];
+        let mut rotations = RotationPlanes::new(options.quantize_rotations, bone_len);
+
+        for (track, name) in bone_names.iter().enumerate() {
+            let mut prev = Vec4::W;
+            for s in 0..sample_count {
+                let (frame_index, amount) = sample_frame(s, samples_per_frame);
+                let raw = motion.find_bone_transform(name, frame_index, amount);
+                let i = track * sample_count + s;
+                translations[0][i] = raw.translation.x;
+                translations[1][i] = raw.translation.y;
+                translations[2][i] = raw.translation.z;
+
+                // 相邻采样保持同一半球，运行时插值无需再做符号修正
+                let mut q = Vec4::from(raw.orientation.normalize());
+                if q.dot(prev) < 0.0 {
+                    q = -q;
+                }
+                prev = q;
+                rotations.set(i, q);
+            }
+        }
+
+        let mut morph_weights = vec![0.0f32; morph_names.len() * sample_count];
+        for (track, name) in morph_names.iter().enumerate() {
+            for s in 0..sample_count {
+                let (frame_index, amount) = sample_frame(s, samples_per_frame);
+                morph_weights[track * sample_count + s] = motion.find_morph_weight(name, frame_index, amount);
+            }
+        }
+
+        Self {
+            options,
+            samples_per_frame,
+            sample_count,
+            bone_names,
+            translations,
+            rotations,
+            morph_names,
+            morph_weights,
+        }
+    }
+
+    pub fn options(&self) -> BakeOptions {
+        self.options
+    }
+
+    pub fn sample_count(&self) -> usize {
+        self.sample_count
+    }
+
+    /// 骨骼轨道名称（下标即轨道索引）
+    pub fn bone_names(&self) -> &[String] {
+        &self.bone_names
+    }
+
+    /// Morph 轨道名称（下标即轨道索引）
+    pub fn morph_names(&self) -> &[String] {
+        &self.morph_names
+    }
+
+    /// 采样骨骼轨道：平移线性插值，旋转归一化线性插值
+    pub fn bone_transform(&self, track: usize, frame: f32) -> (Vec3, Quat) {
+        let (i0, i1, t) = self.locate(track, frame);
+        let [px, py, pz] = &self.translations;
+        let t0 = Vec3::new(px[i0], py[i0], pz[i0]);
+        let t1 = Vec3::new(px[i1], py[i1], pz[i1]);
+        let q = self.rotations.get(i0).lerp(self.rotations.get(i1), t);
+        (t0.lerp(t1, t), Quat::from_vec4(q.normalize()))
+    }
+
+    /// 采样 Morph 轨道
+    pub fn morph_weight(&self, track: usize, frame: f32) -> f32 {
+        let (i0, i1, t) = self.locate(track, frame);
+        let w0 = self.morph_weights[i0];
+        w0 + (self.morph_weights[i1] - w0) * t
+    }
+
+    #[inline]
+    fn locate(&self, track: usize, frame: f32) -> (usize, usize, f32) {
+        let last = self.sample_count - 1;
+        let s = (frame.max(0.0) * self.samples_per_frame).min(last as f32);
+        let s0 = s.floor() as usize;
+        let s1 = (s0 + 1).min(last);
+        let base = track * self.sample_count;
+        (base + s0, base + s1, s - s0 as f32)
+    }
+
+    /// 常驻内存（字节）
+    pub fn memory_usage(&self) -> u64 {
+        let names: usize = self.bone_names.iter().chain(self.morph_names.iter()).map(|n| n.capacity()).sum();
+        (self.translations.iter().map(|v| v.capacity() * 4).sum::<usize>()
+            + self.rotations.memory_usage()
+            + self.morph_weights.capacity() * 4
+            + names) as u64
+    }
+}
+
+#[inline]
+fn sample_frame(sample: usize, samples_per_frame: f32) -> (u32, f32) {
+    let frame = sample as f32 / samples_per_frame;
+    let frame_index = frame.floor();
+    (frame_index as u32, frame - frame_index)
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::animation::keyframe::{BoneKeyframe, MorphKeyframe};
+    use std::time::Instant;
+
+    /// 带非线性贝塞尔插值的测试动作
+    fn build_motion(bone_tracks: usize) -> Motion {
+        let mut motion = Motion::new();
+        for b in 0..bone_tracks {
+            let name = format!("bone{}", b);
+            for k in 0..8u32 {
+                let angle = (b as f32 * 0.37 + k as f32 * 0.9).sin();
+                let mut kf = BoneKeyframe::with_transform(
+                    k * 15,
+                    Vec3::new(angle, (k as f32).cos(), b as f32 * 0.1),
+                    Quat::from_euler(glam::EulerRot::YXZ, angle * 2.0, angle, -angle * 0.5),
+                );
+                kf.interpolation_r = [20, 20, 107, 107];
+                kf.interpolation_x = [64, 0, 64, 127];
+                motion.insert_bone_keyframe(&name, kf);
+            }
+        }
+        for k in 0..5u32 {
+            motion.insert_morph_keyframe("まばたき", MorphKeyframe::new(k * 20, (k % 2) as f32));
+        }
+        motion
+    }
+
+    fn quat_angle(a: Quat, b: Quat) -> f32 {
+        2.0 * a.dot(b).abs().min(1.0).acos()
+    }
+
+    fn max_error(motion: &Motion, clip: &BakedClip) -> (f32, f32, f32) {
+        let (mut t_err, mut r_err, mut m_err) = (0.0f32, 0.0f32, 0.0f32);
+        let duration = motion.duration() as f32;
+        let mut frame = 0.0f32;
+        while frame <= duration {
+            for (track, name) in clip.bone_names().iter().enumerate() {
+                let raw = motion.find_bone_transform(name, frame.floor() as u32, frame.fract());
+                let (t, r) = clip.bone_transform(track, frame);
+                t_err = t_err.max((raw.translation - t).length());
+                r_err = r_err.max(quat_angle(raw.orientation, r));
+            }
+            let w = motion.find_morph_weight("まばたき", frame.floor() as u32, frame.fract());
+            m_err = m_err.max((w - clip.morph_weight(0, frame)).abs());
+            frame += 0.13;
+        }
+        (t_err, r_err, m_err)
+    }
+
+    #[test]
+    fn test_samples_match_keyframes_exactly() {
+        let motion = build_motion(4);
+        let clip = BakedClip::bake(&motion, BakeOptions::new(30, false));
+        assert_eq!(clip.sample_count(), 106);
+        for (track, name) in clip.bone_names().iter().enumerate() {
+            for frame in [0u32, 15, 37, 105] {
+                let raw = motion.find_bone_transform(name, frame, 0.0);
+                let (t, r) = clip.bone_transform(track, frame as f32);
+                assert!((raw.translation - t).length() < 1e-6);
+                assert!(quat_angle(raw.orientation, r) < 1e-3);
+            }
+        }
+    }
+
+    #[test]
+    fn test_accuracy_within_tolerance() {
+        let motion = build_motion(4);
+        for (options, max_rot) in [
+            (BakeOptions::new(30, false), 0.02f32),
+            (BakeOptions::new(60, false), 0.006),
+            (BakeOptions::new(30, true), 0.02),
+        ] {
+            let clip = BakedClip::bake(&motion, options);
+            let (t_err, r_err, m_err) = max_error(&motion, &clip);
+            assert!(t_err < 0.02, "{:?} translation error {}", options, t_err);
+            assert!(r_err < max_rot, "{:?} rotation error {} rad", options, r_err);
+            assert!(m_err < 1e-5, "{:?} morph error {}", options, m_err);
+        }
+    }
+
+    #[test]
+    fn test_quantized_rotation_is_smaller() {
+        let motion = build_motion(8);
+        let full = BakedClip::bake(&motion, BakeOptions::new(30, false));
+        let quantized = BakedClip::bake(&motion, BakeOptions::new(30, true));
+        assert!(quantized.memory_usage() < full.memory_usage());
+    }
+
+    #[test]
+    fn test_frame_clamped_to_clip_range() {
+        let motion = build_motion(1);
+        let clip = BakedClip::bake(&motion, BakeOptions::new(60, false));
+        let end = clip.bone_transform(0, motion.duration() as f32);
+        let past = clip.bone_transform(0, motion.duration() as f32 + 50.0);
+        let before = clip.bone_transform(0, -3.0);
+        assert_eq!(end.0, past.0);
+        assert_eq!(before.0, clip.bone_transform(0, 0.0).0);
+    }
+
+    /// 速度对比：cargo test --release baked_clip -- --ignored --nocapture
+    #[test]
+    #[ignore]
+    fn bench_baked_vs_interpolated() {
+        let motion = build_motion(120);
+        let clip = BakedClip::bake(&motion, BakeOptions::new(30, false));
+        let names: Vec<String> = clip.bone_names().to_vec();
+        let frames: Vec<f32> = (0..2000).map(|i| i as f32 * 0.0537).collect();
+
+        let start = Instant::now();
+        let mut sink = Vec3::ZERO;
+        for &frame in &frames {
+            for name in &names {
+                sink += motion.find_bone_transform(name, frame.floor() as u32, frame.fract()).translation;
+            }
+        }
+        let interpolated = start.elapsed();
+
+        let start = Instant::now();
+        for &frame in &frames {
+            for track in 0..names.len() {
+                sink += clip.bone_transform(track, frame).0;
+            }
+        }
+        let baked = start.elapsed();
+
+        let (t_err, r_err, _) = max_error(&motion, &clip);
+        println!(
+            "{} 轨道 × {} 帧: 插值 {:?}, 烘焙 {:?} ({:.1}x), 最大误差 平移 {:.5} 旋转 {:.5} rad (sink {:?})",
+            names.len(), frames.len(), interpolated, baked,
+            interpolated.as_secs_f64() / baked.as_secs_f64().max(1e-9), t_err, r_err, sink
+        );
+    }
+}
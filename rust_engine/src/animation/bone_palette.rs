@@ -0,0 +1,667 @@
+//! GPU 骨骼调色板烘焙
+//!
+//! 对无物理、无 IK、无附加变换的骨骼子集，把当前动画按整数帧重采样为平铺轨道，
+//! 由计算着色器按帧插值局部变换并沿父链累乘得到蒙皮矩阵。
+//! `evaluate` 为着色器的 CPU 镜像，用于与 BoneSet 参考路径做容差校验；
+//! `bone_position` 为 CPU 跳过的骨骼提供位置查询。
+
+use std::collections::HashMap;
+use std::hash::{Hash, Hasher};
+use std::sync::{Arc, Mutex, Weak};
+
+use glam::{Mat4, Quat, Vec3, Vec4};
+use once_cell::sync::{Lazy, OnceCell};
+
+use crate::morph::MorphManager;
+use crate::skeleton::{BoneFlags, BoneManager};
+
+use super::VmdAnimation;
+
+/// 每根骨骼的静态 float 数：bodyShift(4) + preRotation(4) + postRotation(4) + inverseInit(16)
+pub const PALETTE_BONE_FLOATS: usize = 28;
+/// 每根骨骼的 int 数：parent, trackIndex, eligible, reserved
+pub const PALETTE_BONE_INTS: usize = 4;
+/// 每个采样的 float 数：translation(xyz + pad) + rotation(xyzw)
+pub const PALETTE_SAMPLE_FLOATS: usize = 8;
+
+/// 烘焙轨道数据上限（字节），超出时放弃 GPU 调色板
+const MAX_TRACK_BYTES: usize = 64 * 1024 * 1024;
+
+/// 重采样轨道：按（动画, 轨道集合）在模型实例间共享，异步烘焙完成前为空
+struct SharedTracks {
+    /// 持有 Weak 使动画地址在缓存项存活期间不被复用，缓存键因此可用指针
+    animation: Weak<VmdAnimation>,
+    data: OnceCell<Vec<f32>>,
+}
+
+impl SharedTracks {
+    fn is_ready(&self) -> bool {
+        self.data.get().is_some()
+    }
+
+    fn fill(&self, animation: &VmdAnimation, track_names: &[String], sample_count: u32) {
+        self.data.get_or_init(|| sample_tracks(animation, track_names, sample_count));
+    }
+}
+
+type TrackKey = (usize, u64);
+
+static TRACK_CACHE: Lazy<Mutex<HashMap<TrackKey, Weak<SharedTracks>>>> = Lazy::new(|| Mutex::new(HashMap::new()));
+
+/// 取得（动画, 轨道集合）的共享轨道；返回值第二项表示是否为新建（需要调用方烘焙）
+fn shared_tracks(animation: &Arc<VmdAnimation>, track_names: &[String]) -> (Arc<SharedTracks>, bool) {
+    let mut hasher = std::collections::hash_map::DefaultHasher::new();
+    track_names.hash(&mut hasher);
+    let key = (Arc::as_ptr(animation) as usize, hasher.finish());
+
+    let mut cache = TRACK_CACHE.lock().unwrap_or_else(|e| e.into_inner());
+    if let Some(tracks) = cache.get(&key).and_then(Weak::upgrade) {
+        if tracks.animation.ptr_eq(&Arc::downgrade(animation)) {
+            return (tracks, false);
+        }
+    }
+    cache.retain(|_, w| w.strong_count() > 0);
+    let tracks = Arc::new(SharedTracks { animation: Arc::downgrade(animation), data: OnceCell::new() });
+    cache.insert(key, Arc::downgrade(&tracks));
+    (tracks, true)
+}
+
+/// 按整数帧重采样轨道（convert_vmd_* 为恒等变换，无需骨骼管理器，可在后台线程执行）
+fn sample_tracks(animation: &VmdAnimation, track_names: &[String], sample_count: u32) -> Vec<f32> {
+    let mut tracks = vec![0.0f32; track_names.len() * sample_count as usize * PALETTE_SAMPLE_FLOATS];
+    for (t, name) in track_names.iter().enumerate() {
+        for s in 0..sample_count {
+            let raw = animation.get_bone_transform(name, s, 0.0);
+            let base = (t * sample_count as usize + s as usize) * PALETTE_SAMPLE_FLOATS;
+            tracks[base..base + 3].copy_from_slice(&raw.translation.to_array());
+            tracks[base + 4..base + 8].copy_from_slice(&raw.orientation.to_array());
+        }
+    }
+    tracks
+}
+
+/// 调色板的模型相关部分：静态骨骼数据、轨道映射与 CPU 跳过集合，开销与骨骼数成正比
+struct PaletteLayout {
+    animation: Arc<VmdAnimation>,
+    track_names: Vec<String>,
+    sample_count: u32,
+    eligible_count: usize,
+    bones: Vec<f32>,
+    bone_info: Vec<i32>,
+    cpu_skip: Vec<bool>,
+}
+
+impl PaletteLayout {
+    /// 没有可下放的骨骼或轨道过大时返回 None
+    fn build(
+        animation: Arc<VmdAnimation>,
+        bone_manager: &BoneManager,
+        morph_manager: &MorphManager,
+        cpu_bones: &[usize],
+    ) -> Option<Self> {
+        let bone_count = bone_manager.bone_count();
+        let eligible = compute_eligible_bones(bone_manager, morph_manager);
+        let eligible_count = eligible.iter().filter(|&&e| e).count();
+        if eligible_count == 0 {
+            return None;
+        }
+
+        let sample_count = animation.max_frame() + 1;
+        let mut track_names: Vec<String> = Vec::new();
+        let mut bone_info = vec![0i32; bone_count * PALETTE_BONE_INTS];
+        let mut bones = vec![0.0f32; bone_count * PALETTE_BONE_FLOATS];
+
+        for i in 0..bone_count {
+            let bone = bone_manager.get_bone(i)?;
+            let mut track = -1;
+            // 与 evaluate_with_weight 一致：同名骨骼只有名称映射到的那一根受动画驱动
+            if eligible[i]
+                && bone_manager.find_bone_by_name(&bone.name) == Some(i)
+                && animation.contains_bone_track(&bone.name)
+            {
+                track = track_names.len() as i32;
+                track_names.push(bone.name.clone());
+            }
+
+            let info = &mut bone_info[i * PALETTE_BONE_INTS..(i + 1) * PALETTE_BONE_INTS];
+            info[0] = bone.parent_index;
+            info[1] = track;
+            info[2] = eligible[i] as i32;
+
+            let p = bone.parent_rest_rotation;
+            let pre = p.inverse();
+            let post = p * bone.rest_rotation;
+            let dst = &mut bones[i * PALETTE_BONE_FLOATS..(i + 1) * PALETTE_BONE_FLOATS];
+            dst[0..3].copy_from_slice(&bone.body_shift.to_array());
+            dst[4..8].copy_from_slice(&pre.to_array());
+            dst[8..12].copy_from_slice(&post.to_array());
+            dst[12..28].copy_from_slice(&bone.inverse_init.to_cols_array());
+        }
+
+        let track_floats = track_names.len() * sample_count as usize * PALETTE_SAMPLE_FLOATS;
+        if track_floats * 4 > MAX_TRACK_BYTES {
+            log::warn!("骨骼调色板轨道过大 ({} 字节)，回退 CPU 评估", track_floats * 4);
+            return None;
+        }
+
+        let cpu_skip = compute_cpu_skip(bone_manager, &eligible, cpu_bones);
+        Some(Self { animation, track_names, sample_count, eligible_count, bones, bone_info, cpu_skip })
+    }
+
+    fn finish(self, tracks: Arc<SharedTracks>) -> BakedBonePalette {
+        BakedBonePalette {
+            animation: self.animation,
+            sample_count: self.sample_count,
+            track_count: self.track_names.len(),
+            eligible_count: self.eligible_count,
+            bones: self.bones,
+            bone_info: self.bone_info,
+            tracks,
+            cpu_skip: self.cpu_skip,
+        }
+    }
+}
+
+/// 轨道仍在后台烘焙的调色板
+pub struct PendingPalette {
+    layout: PaletteLayout,
+    tracks: Arc<SharedTracks>,
+}
+
+impl PendingPalette {
+    #[inline]
+    pub fn is_for(&self, animation: &Arc<VmdAnimation>) -> bool {
+        Arc::ptr_eq(&self.layout.animation, animation)
+    }
+
+    pub fn is_ready(&self) -> bool {
+        self.tracks.is_ready()
+    }
+
+    /// 轨道就绪时完成烘焙；未就绪时原样返回
+    pub fn finish(self) -> Result<BakedBonePalette, Self> {
+        if self.tracks.is_ready() {
+            Ok(self.layout.finish(self.tracks))
+        } else {
+            Err(self)
+        }
+    }
+}
+
+/// 共享烘焙的结果
+pub enum PaletteBake {
+    Ready(BakedBonePalette),
+    Pending(PendingPalette),
+    Rejected,
+}
+
+/// 已烘焙的骨骼调色板
+pub struct BakedBonePalette {
+    animation: Arc<VmdAnimation>,
+    sample_count: u32,
+    track_count: usize,
+    eligible_count: usize,
+    bones: Vec<f32>,
+    bone_info: Vec<i32>,
+    tracks: Arc<SharedTracks>,
+    cpu_skip: Vec<bool>,
+}
+
+impl BakedBonePalette {
+    /// 为动画同步烘焙调色板（不经共享缓存）；没有可下放的骨骼或轨道过大时返回 None
+    ///
+    /// `cpu_bones` 为 CPU 侧仍需读取全局变换的骨骼（头、眼、手等），它们及其祖先保留在 CPU 评估
+    pub fn bake(
+        animation: Arc<VmdAnimation>,
+        bone_manager: &BoneManager,
+        morph_manager: &MorphManager,
+        cpu_bones: &[usize],
+    ) -> Option<Self> {
+        let layout = PaletteLayout::build(animation, bone_manager, morph_manager, cpu_bones)?;
+        let tracks = Arc::new(SharedTracks { animation: Arc::downgrade(&layout.animation), data: OnceCell::new() });
+        tracks.fill(&layout.animation, &layout.track_names, layout.sample_count);
+        Some(layout.finish(tracks))
+    }
+
+    /// 经共享缓存烘焙：同一动画与轨道集合的重采样轨道在实例间只烘焙一次，
+    /// 且在后台线程执行；调用线程只构建与骨骼数成正比的静态数据
+    pub fn bake_shared(
+        animation: Arc<VmdAnimation>,
+        bone_manager: &BoneManager,
+        morph_manager: &MorphManager,
+        cpu_bones: &[usize],
+    ) -> PaletteBake {
+        let layout = match PaletteLayout::build(animation, bone_manager, morph_manager, cpu_bones) {
+            Some(layout) => layout,
+            None => return PaletteBake::Rejected,
+        };
+        let (tracks, created) = shared_tracks(&layout.animation, &layout.track_names);
+        if created {
+            let job_tracks = Arc::clone(&tracks);
+            let animation = Arc::clone(&layout.animation);
+            let names = layout.track_names.clone();
+            let sample_count = layout.sample_count;
+            let spawned = std::thread::Builder::new()
+                .name("mmd-palette-bake".into())
+                .spawn(move || job_tracks.fill(&animation, &names, sample_count));
+            if spawned.is_err() {
+                tracks.fill(&layout.animation, &layout.track_names, layout.sample_count);
+            }
+        }
+        match (PendingPalette { layout, tracks }).finish() {
+            Ok(palette) => PaletteBake::Ready(palette),
+            Err(pending) => PaletteBake::Pending(pending),
+        }
+    }
+
+    /// 是否为该动画烘焙
+    #[inline]
+    pub fn is_for(&self, animation: &Arc<VmdAnimation>) -> bool {
+        Arc::ptr_eq(&self.animation, animation)
+    }
+
+    pub fn sample_count(&self) -> u32 {
+        self.sample_count
+    }
+
+    pub fn track_count(&self) -> usize {
+        self.track_count
+    }
+
+    pub fn eligible_count(&self) -> usize {
+        self.eligible_count
+    }
+
+    pub fn bone_data(&self) -> &[f32] {
+        &self.bones
+    }
+
+    pub fn bone_info(&self) -> &[i32] {
+        &self.bone_info
+    }
+
+    pub fn track_data(&self) -> &[f32] {
+        self.tracks.data.get().map(Vec::as_slice).unwrap_or(&[])
+    }
+
+    /// CPU 可跳过评估的骨骼（由 GPU 调色板全权负责，且 CPU 不读取其变换）
+    pub fn cpu_skip_mask(&self) -> &[bool] {
+        &self.cpu_skip
+    }
+
+    /// 着色器的 CPU 镜像：写出所有可下放骨骼在 frame 处的蒙皮矩阵，其余骨骼保持不变
+    pub fn evaluate(&self, frame: f32, out: &mut [Mat4]) {
+        let bone_count = self.bone_info.len() / PALETTE_BONE_INTS;
+        for i in 0..bone_count.min(out.len()) {
+            if self.bone_info[i * PALETTE_BONE_INTS + 2] == 0 {
+                continue;
+            }
+            out[i] = self.global_matrix(i, frame) * Mat4::from_cols_slice(self.bone_floats(i, 12, 16));
+        }
+    }
+
+    /// 可下放骨骼在 frame 处的模型空间位置（与 BoneLink::position 一致）。
+    /// CPU 跳过评估期间，位置查询（剔除包围盒、公共 API）由此读取。
+    pub fn bone_position(&self, bone: usize, frame: f32) -> Vec3 {
+        self.global_matrix(bone, frame).col(3).truncate()
+    }
+
+    fn global_matrix(&self, bone: usize, frame: f32) -> Mat4 {
+        let mut global = self.local_matrix(bone, frame);
+        let mut parent = self.bone_info[bone * PALETTE_BONE_INTS];
+        while parent >= 0 {
+            global = self.local_matrix(parent as usize, frame) * global;
+            parent = self.bone_info[parent as usize * PALETTE_BONE_INTS];
+        }
+        global
+    }
+
+    fn local_matrix(&self, bone: usize, frame: f32) -> Mat4 {
+        let (translation, rotation) = self.sample_track(self.bone_info[bone * PALETTE_BONE_INTS + 1], frame);
+        let body_shift = Vec3::from_slice(self.bone_floats(bone, 0, 3));
+        let pre = Quat::from_slice(self.bone_floats(bone, 4, 4));
+        let post = Quat::from_slice(self.bone_floats(bone, 8, 4));
+        Mat4::from_rotation_translation(pre * rotation * post, body_shift + translation)
+    }
+
+    /// 与着色器一致：整数帧采样之间平移线性插值、旋转归一化线性插值
+    fn sample_track(&self, track: i32, frame: f32) -> (Vec3, Quat) {
+        if track < 0 {
+            return (Vec3::ZERO, Quat::IDENTITY);
+        }
+        let last = self.sample_count - 1;
+        let f = frame.clamp(0.0, last as f32);
+        let i0 = f.floor() as u32;
+        let i1 = (i0 + 1).min(last);
+        let t = f - i0 as f32;
+
+        let base = track as usize * self.sample_count as usize;
+        let tracks = self.track_data();
+        let sample = |s: u32| {
+            let o = (base + s as usize) * PALETTE_SAMPLE_FLOATS;
+            (Vec3::from_slice(&tracks[o..o + 3]), Vec4::from_slice(&tracks[o + 4..o + 8]))
+        };
+        let (t0, q0) = sample(i0);
+        let (t1, mut q1) = sample(i1);
+        if q0.dot(q1) < 0.0 {
+            q1 = -q1;
+        }
+        (t0.lerp(t1, t), Quat::from_vec4(q0.lerp(q1, t).normalize()))
+    }
+
+    fn bone_floats(&self, bone: usize, offset: usize, len: usize) -> &[f32] {
+        let o = bone * PALETTE_BONE_FLOATS + offset;
+        &self.bones[o..o + len]
+    }
+
+    /// 常驻内存（字节），共享轨道按全量计入
+    pub fn memory_usage(&self) -> u64 {
+        ((self.bones.capacity() + self.tracks.data.get().map_or(0, Vec::capacity)) * 4
+            + self.bone_info.capacity() * 4
+            + self.cpu_skip.capacity()) as u64
+    }
+}
+
+/// 可下放骨骼：自身无 IK / 附加变换 / 物理 / 骨骼 Morph，且祖先全部可下放
+fn compute_eligible_bones(bone_manager: &BoneManager, morph_manager: &MorphManager) -> Vec<bool> {
+    let bone_count = bone_manager.bone_count();
+    let excluded_flags = BoneFlags::IK
+        | BoneFlags::IK_ENABLED
+        | BoneFlags::APPEND_ROTATE
+        | BoneFlags::APPEND_TRANSLATE;
+
+    let mut local_ok = vec![true; bone_count];
+    for (i, bone) in bone_manager.links().enumerate() {
+        if bone.flags.intersects(excluded_flags)
+            || bone.ik_config.is_some()
+            || bone.append_config.is_some()
+            || bone_manager.is_physics_bone(i)
+            || bone.parent_index >= bone_count as i32
+        {
+            local_ok[i] = false;
+        }
+        if let Some(ref ik) = bone.ik_config {
+            for link in &ik.links {
+                if link.bone_index >= 0 && (link.bone_index as usize) < bone_count {
+                    local_ok[link.bone_index as usize] = false;
+                }
+            }
+        }
+    }
+    for m in 0..morph_manager.morph_count() {
+        if let Some(morph) = morph_manager.get_morph(m) {
+            for offset in &morph.bone_offsets {
+                if let Some(ok) = local_ok.get_mut(offset.bone_index as usize) {
+                    *ok = false;
+                }
+            }
+        }
+    }
+
+    (0..bone_count)
+        .map(|i| {
+            let mut cur = i as i32;
+            let mut depth = 0;
+            while cur >= 0 {
+                if !local_ok[cur as usize] || depth > bone_count {
+                    return false;
+                }
+                cur = bone_manager.get_bone(cur as usize).map(|b| b.parent_index).unwrap_or(-1);
+                depth += 1;
+            }
+            true
+        })
+        .collect()
+}
+
+/// CPU 可跳过集合：可下放、不被其他骨骼读取（附加父、IK 目标、cpu_bones），且子孙全部可跳过
+fn compute_cpu_skip(bone_manager: &BoneManager, eligible: &[bool], cpu_bones: &[usize]) -> Vec<bool> {
+    let bone_count = eligible.len();
+    let mut pinned = vec![false; bone_count];
+    for bone in bone_manager.links() {
+        if let Some(ref append) = bone.append_config {
+            if append.parent >= 0 && (append.parent as usize) < bone_count {
+                pinned[append.parent as usize] = true;
+            }
+        }
+        if let Some(ref ik) = bone.ik_config {
+            if ik.target_bone >= 0 && (ik.target_bone as usize) < bone_count {
+                pinned[ik.target_bone as usize] = true;
+            }
+        }
+    }
+    for &i in cpu_bones {
+        if i < bone_count {
+            pinned[i] = true;
+        }
+    }
+
+    // 可跳过集合需对子孙封闭：被钉住的骨骼连同其祖先都留在 CPU
+    let mut skip: Vec<bool> = (0..bone_count).map(|i| eligible[i] && !pinned[i]).collect();
+    for i in 0..bone_count {
+        if eligible[i] && skip[i] {
+            continue;
+        }
+        let mut cur = bone_manager.get_bone(i).map(|b| b.parent_index).unwrap_or(-1);
+        let mut depth = 0;
+        while cur >= 0 && depth <= bone_count {
+            skip[cur as usize] = false;
+            cur = bone_manager.get_bone(cur as usize).map(|b| b.parent_index).unwrap_or(-1);
+            depth += 1;
+        }
+    }
+    skip
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::animation::{BoneKeyframe, Motion};
+    use crate::skeleton::{BoneLink, IkConfig, IkLink};
+
+    const TOLERANCE: f32 = 2e-3;
+
+    /// 根 → 躯干 → 左右臂链，另挂一条 IK 腿（左足 为 IK 链节点，左足首 为目标）
+    fn build_skeleton() -> BoneManager {
+        let specs: [(&str, i32, Vec3); 8] = [
+            ("センター", -1, Vec3::new(0.0, 8.0, 0.0)),
+            ("上半身", 0, Vec3::new(0.0, 10.0, 0.0)),
+            ("左腕", 1, Vec3::new(1.5, 14.0, 0.0)),
+            ("左ひじ", 2, Vec3::new(4.0, 12.0, 0.5)),
+            ("右腕", 1, Vec3::new(-1.5, 14.0, 0.0)),
+            ("左足", 0, Vec3::new(1.0, 7.0, 0.0)),
+            ("左足ＩＫ", -1, Vec3::new(1.0, 0.5, 0.0)),
+            ("左足首", 5, Vec3::new(1.0, 1.0, 0.0)),
+        ];
+        let mut bones = BoneManager::new();
+        for (name, parent, pos) in specs {
+            let mut bone = BoneLink::new(name.to_string());
+            bone.parent_index = parent;
+            bone.initial_position = pos;
+            bones.add_bone(bone);
+        }
+        if let Some(leg_ik) = bones.get_bone_mut(6) {
+            leg_ik.flags |= BoneFlags::IK;
+            leg_ik.ik_config = Some(IkConfig {
+                target_bone: 7,
+                iterations: 4,
+                limit_angle: 1.0,
+                links: vec![IkLink { bone_index: 5, has_limits: false, limit_min: Vec3::ZERO, limit_max: Vec3::ZERO }],
+            });
+        }
+        bones.build_hierarchy();
+        bones
+    }
+
+    fn build_animation() -> Arc<VmdAnimation> {
+        let mut motion = Motion::new();
+        let keys: [(&str, u32, Vec3, Quat); 6] = [
+            ("センター", 0, Vec3::ZERO, Quat::IDENTITY),
+            ("センター", 30, Vec3::new(0.5, -1.0, 2.0), Quat::from_rotation_y(0.6)),
+            ("上半身", 0, Vec3::ZERO, Quat::from_rotation_x(-0.2)),
+            ("上半身", 20, Vec3::ZERO, Quat::from_rotation_z(0.4)),
+            ("左腕", 10, Vec3::ZERO, Quat::from_euler(glam::EulerRot::XYZ, 0.3, -0.8, 0.5)),
+            ("左腕", 40, Vec3::ZERO, Quat::from_rotation_z(-1.1)),
+        ];
+        for (name, frame, translation, rotation) in keys {
+            motion.insert_bone_keyframe(name, BoneKeyframe::with_transform(frame, translation, rotation));
+        }
+        Arc::new(VmdAnimation::from_motion(motion))
+    }
+
+    fn cpu_reference(animation: &VmdAnimation, bones: &mut BoneManager, frame: f32) -> Vec<Mat4> {
+        let mut morphs = MorphManager::new();
+        bones.begin_update();
+        animation.evaluate(frame, bones, &mut morphs);
+        bones.update_transforms(false);
+        bones.update_transforms(true);
+        bones.end_update();
+        bones.get_skinning_matrices().to_vec()
+    }
+
+    fn max_abs_diff(a: &Mat4, b: &Mat4) -> f32 {
+        a.to_cols_array()
+            .iter()
+            .zip(b.to_cols_array().iter())
+            .map(|(x, y)| (x - y).abs())
+            .fold(0.0, f32::max)
+    }
+
+    #[test]
+    fn test_eligibility_excludes_ik_chain() {
+        let bones = build_skeleton();
+        let palette = BakedBonePalette::bake(build_animation(), &bones, &MorphManager::new(), &[]).unwrap();
+        let eligible: Vec<bool> = (0..8).map(|i| palette.bone_info()[i * PALETTE_BONE_INTS + 2] != 0).collect();
+        assert_eq!(eligible, vec![true, true, true, true, true, false, false, false]);
+        assert_eq!(palette.eligible_count(), 5);
+        assert_eq!(palette.track_count(), 3);
+        assert_eq!(palette.sample_count(), 41);
+    }
+
+    #[test]
+    fn test_cpu_skip_keeps_pinned_ancestors() {
+        let bones = build_skeleton();
+        // 左ひじ 被 CPU 读取：它与祖先留在 CPU，右腕 仍可跳过
+        let palette = BakedBonePalette::bake(build_animation(), &bones, &MorphManager::new(), &[3]).unwrap();
+        assert_eq!(palette.cpu_skip_mask(), &[false, false, false, false, true, false, false, false]);
+    }
+
+    #[test]
+    fn test_integer_frames_match_cpu() {
+        let mut bones = build_skeleton();
+        let animation = build_animation();
+        let palette = BakedBonePalette::bake(animation.clone(), &bones, &MorphManager::new(), &[]).unwrap();
+
+        for frame in [0.0f32, 7.0, 15.0, 30.0, 40.0, 55.0] {
+            let expected = cpu_reference(&animation, &mut bones, frame);
+            let mut actual = vec![Mat4::ZERO; expected.len()];
+            palette.evaluate(frame, &mut actual);
+            for i in 0..5 {
+                let diff = max_abs_diff(&expected[i], &actual[i]);
+                assert!(diff < 1e-4, "frame {} bone {} diff {}", frame, i, diff);
+            }
+            assert_eq!(actual[5], Mat4::ZERO);
+        }
+    }
+
+    #[test]
+    fn test_fractional_frames_within_tolerance() {
+        let mut bones = build_skeleton();
+        let animation = build_animation();
+        let palette = BakedBonePalette::bake(animation.clone(), &bones, &MorphManager::new(), &[]).unwrap();
+
+        for frame in [0.25f32, 3.5, 12.75, 29.5, 39.9] {
+            let expected = cpu_reference(&animation, &mut bones, frame);
+            let mut actual = vec![Mat4::ZERO; expected.len()];
+            palette.evaluate(frame, &mut actual);
+            for i in 0..5 {
+                let diff = max_abs_diff(&expected[i], &actual[i]);
+                assert!(diff < TOLERANCE, "frame {} bone {} diff {}", frame, i, diff);
+            }
+        }
+    }
+
+    #[test]
+    fn test_skipped_bones_do_not_disturb_cpu_bones() {
+        let mut bones = build_skeleton();
+        let animation = build_animation();
+        let palette = BakedBonePalette::bake(animation.clone(), &bones, &MorphManager::new(), &[3]).unwrap();
+        let expected = cpu_reference(&animation, &mut bones, 18.5);
+        cpu_reference(&animation, &mut bones, 0.0);
+
+        bones.set_palette_skip(Some(palette.cpu_skip_mask().to_vec()));
+        bones.set_palette_active(true);
+        let mut merged = cpu_reference(&animation, &mut bones, 18.5);
+        // 右腕 被跳过：CPU 结果仍停留在上一帧
+        assert!(max_abs_diff(&expected[4], &merged[4]) > TOLERANCE);
+        palette.evaluate(18.5, &mut merged);
+
+        for i in 0..expected.len() {
+            let diff = max_abs_diff(&expected[i], &merged[i]);
+            assert!(diff < TOLERANCE, "bone {} diff {}", i, diff);
+        }
+    }
+    #[test]
+    fn test_bone_position_matches_cpu() {
+        let mut bones = build_skeleton();
+        let animation = build_animation();
+        let palette = BakedBonePalette::bake(animation.clone(), &bones, &MorphManager::new(), &[]).unwrap();
+
+        for frame in [0.0f32, 12.0, 18.5, 40.0] {
+            cpu_reference(&animation, &mut bones, frame);
+            for i in 0..5 {
+                let expected = bones.get_bone(i).unwrap().position();
+                let actual = palette.bone_position(i, frame);
+                assert!((expected - actual).length() < TOLERANCE, "frame {} bone {} {:?} {:?}", frame, i, expected, actual);
+            }
+        }
+    }
+
+    fn wait_for_tracks(bake: PaletteBake) -> BakedBonePalette {
+        let mut pending = match bake {
+            PaletteBake::Ready(palette) => return palette,
+            PaletteBake::Pending(pending) => pending,
+            PaletteBake::Rejected => panic!("palette rejected"),
+        };
+        for _ in 0..500 {
+            pending = match pending.finish() {
+                Ok(palette) => return palette,
+                Err(pending) => pending,
+            };
+            std::thread::sleep(std::time::Duration::from_millis(2));
+        }
+        panic!("palette tracks not ready");
+    }
+
+    #[test]
+    fn test_shared_bake_reuses_tracks_across_instances() {
+        let mut bones = build_skeleton();
+        let other_instance = build_skeleton();
+        let animation = build_animation();
+
+        let first = wait_for_tracks(BakedBonePalette::bake_shared(animation.clone(), &bones, &MorphManager::new(), &[]));
+        // 第二个实例命中缓存：直接就绪，并与第一个实例共用同一份轨道
+        let second = match BakedBonePalette::bake_shared(animation.clone(), &other_instance, &MorphManager::new(), &[]) {
+            PaletteBake::Ready(palette) => palette,
+            _ => panic!("expected cached tracks"),
+        };
+        assert!(Arc::ptr_eq(&first.tracks, &second.tracks));
+
+        // 不同的 CPU 骨骼集合只影响跳过掩码，轨道仍然共用
+        let pinned = wait_for_tracks(BakedBonePalette::bake_shared(animation.clone(), &bones, &MorphManager::new(), &[3]));
+        assert!(Arc::ptr_eq(&first.tracks, &pinned.tracks));
+        assert_ne!(first.cpu_skip_mask(), pinned.cpu_skip_mask());
+
+        let expected = cpu_reference(&animation, &mut bones, 12.0);
+        let mut actual = vec![Mat4::ZERO; expected.len()];
+        second.evaluate(12.0, &mut actual);
+        for i in 0..5 {
+            let diff = max_abs_diff(&expected[i], &actual[i]);
+            assert!(diff < 1e-4, "bone {} diff {}", i, diff);
+        }
+
+        // 不同动画不命中
+        let other = wait_for_tracks(BakedBonePalette::bake_shared(build_animation(), &bones, &MorphManager::new(), &[]));
+        assert!(!Arc::ptr_eq(&first.tracks, &other.tracks));
+    }
+}
@@ -0,0 +1,668 @@
+//! 压缩关键帧存储 - 长动作常驻内存的紧凑表示
+//!
+//! 帧索引按块差分编码，平移按轨道范围量化为 16 位，旋转使用 smallest-three 48 位编码，
+//! 贝塞尔控制点在整个动作内去重为共享表。采样时按需解码，插值语义与 `BoneMotionTrack` 一致。
+
+use std::collections::HashMap;
+
+use glam::{Quat, Vec3};
+
+use super::bezier_curve::BezierCurveCache;
+use super::interpolation::{coefficient, lerp_element_wise, lerp_f32, BoneKeyframeInterpolation, KeyframeInterpolationPoint};
+use super::keyframe::{BoneKeyframe, MorphKeyframe};
+use super::motion::Motion;
+use super::motion_track::BoneFrameTransform;
+
+/// 每块关键帧数（块首存绝对帧号，块内存差分）
+const FRAME_BLOCK: usize = 16;
+
+/// 16 位量化刻度
+const U16_SCALE: f32 = u16::MAX as f32;
+
+/// smallest-three 每分量位数与范围
+const ROT_BITS: u32 = 15;
+const ROT_MASK: u64 = (1 << ROT_BITS) - 1;
+const ROT_SCALE: f32 = ROT_MASK as f32;
+const ROT_RANGE: f32 = std::f32::consts::FRAC_1_SQRT_2;
+
+/// 帧差分平面，按轨道内最大差分选择位宽
+#[derive(Debug, Clone)]
+enum DeltaPlane {
+    U8(Vec<u8>),
+    U16(Vec<u16>),
+    U32(Vec<u32>),
+}
+
+impl DeltaPlane {
+    #[inline]
+    fn get(&self, i: usize) -> u32 {
+        match self {
+            DeltaPlane::U8(v) => v[i] as u32,
+            DeltaPlane::U16(v) => v[i] as u32,
+            DeltaPlane::U32(v) => v[i],
+        }
+    }
+
+    fn len(&self) -> usize {
+        match self {
+            DeltaPlane::U8(v) => v.len(),
+            DeltaPlane::U16(v) => v.len(),
+            DeltaPlane::U32(v) => v.len(),
+        }
+    }
+
+    fn memory_usage(&self) -> usize {
+        match self {
+            DeltaPlane::U8(v) => v.capacity(),
+            DeltaPlane::U16(v) => v.capacity() * 2,
+            DeltaPlane::U32(v) => v.capacity() * 4,
+        }
+    }
+}
+
+/// 差分编码的有序帧索引
+#[derive(Debug, Clone)]
+struct FrameIndices {
+    anchors: Vec<u32>,
+    deltas: DeltaPlane,
+}
+
+impl FrameIndices {
+    /// `frames` 须严格递增
+    fn encode(frames: &[u32]) -> Self {
+        let anchors: Vec<u32> = frames.iter().step_by(FRAME_BLOCK).copied().collect();
+        let delta = |i: usize| if i % FRAME_BLOCK == 0 { 0 } else { frames[i] - frames[i - 1] };
+        let max_delta = (0..frames.len()).map(delta).max().unwrap_or(0);
+        let deltas = if max_delta <= u8::MAX as u32 {
+            DeltaPlane::U8((0..frames.len()).map(|i| delta(i) as u8).collect())
+        } else if max_delta <= u16::MAX as u32 {
+            DeltaPlane::U16((0..frames.len()).map(|i| delta(i) as u16).collect())
+        } else {
+            DeltaPlane::U32((0..frames.len()).map(delta).collect())
+        };
+        Self { anchors, deltas }
+    }
+
+    fn len(&self) -> usize {
+        self.deltas.len()
+    }
+
+    fn frame(&self, i: usize) -> u32 {
+        let start = i - i % FRAME_BLOCK;
+        let mut frame = self.anchors[i / FRAME_BLOCK];
+        for k in start + 1..=i {
+            frame += self.deltas.get(k);
+        }
+        frame
+    }
+
+    fn last_frame(&self) -> u32 {
+        match self.len() {
+            0 => 0,
+            n => self.frame(n - 1),
+        }
+    }
+
+    /// 查找最近的前后关键帧：前帧为最后一个 `<= frame_index` 的关键帧，返回 (下标, 帧号)
+    fn search(&self, frame_index: u32) -> (Option<(usize, u32)>, Option<(usize, u32)>) {
+        let len = self.len();
+        let block_end = self.anchors.partition_point(|&a| a <= frame_index);
+        if block_end == 0 {
+            return (None, self.anchors.first().map(|&a| (0, a)));
+        }
+        let block = block_end - 1;
+        let start = block * FRAME_BLOCK;
+        let end = (start + FRAME_BLOCK).min(len);
+
+        let mut prev = (start, self.anchors[block]);
+        for i in start + 1..end {
+            let frame = prev.1 + self.deltas.get(i);
+            if frame > frame_index {
+                return (Some(prev), Some((i, frame)));
+            }
+            prev = (i, frame);
+        }
+        let next = self.anchors.get(block + 1).map(|&a| (end, a));
+        (Some(prev), next)
+    }
+
+    fn memory_usage(&self) -> usize {
+        self.anchors.capacity() * 4 + self.deltas.memory_usage()
+    }
+}
+
+/// 解码后的骨骼关键帧
+struct DecodedBoneKey<'a> {
+    translation: Vec3,
+    orientation: Quat,
+    /// X / Y / Z / 旋转 的贝塞尔控制点
+    curves: &'a [[u8; 4]; 4],
+    physics: bool,
+}
+
+impl DecodedBoneKey<'_> {
+    fn interpolation(&self) -> BoneKeyframeInterpolation {
+        BoneKeyframeInterpolation::build(&self.curves[0], &self.curves[1], &self.curves[2], &self.curves[3])
+    }
+
+    fn transform(&self) -> BoneFrameTransform {
+        BoneFrameTransform {
+            translation: self.translation,
+            orientation: self.orientation,
+            interpolation: self.interpolation(),
+            local_transform_mix: None,
+            enable_physics: self.physics,
+            disable_physics: false,
+        }
+    }
+}
+
+/// 压缩骨骼轨道
+#[derive(Debug, Clone)]
+struct CompactBoneTrack {
+    frames: FrameIndices,
+    translation_min: Vec3,
+    translation_extent: Vec3,
+    translations: Vec<[u16; 3]>,
+    rotations: Vec<[u16; 3]>,
+    curves: Vec<u16>,
+    /// 物理开关位图
+    physics: Vec<u8>,
+}
+
+impl CompactBoneTrack {
+    fn decode<'a>(&self, i: usize, curve_table: &'a [[[u8; 4]; 4]]) -> DecodedBoneKey<'a> {
+        let [x, y, z] = self.translations[i];
+        let unit = Vec3::new(x as f32, y as f32, z as f32) / U16_SCALE;
+        DecodedBoneKey {
+            translation: self.translation_min + unit * self.translation_extent,
+            orientation: decode_rotation(self.rotations[i]),
+            curves: &curve_table[self.curves[i] as usize],
+            physics: self.physics[i / 8] & (1 << (i % 8)) != 0,
+        }
+    }
+
+    fn memory_usage(&self) -> usize {
+        self.frames.memory_usage()
+            + self.translations.capacity() * 6
+            + self.rotations.capacity() * 6
+            + self.curves.capacity() * 2
+            + self.physics.capacity()
+    }
+}
+
+/// 压缩 Morph 轨道
+#[derive(Debug, Clone)]
+struct CompactMorphTrack {
+    frames: FrameIndices,
+    weight_min: f32,
+    weight_extent: f32,
+    weights: Vec<u16>,
+}
+
+impl CompactMorphTrack {
+    #[inline]
+    fn weight(&self, i: usize) -> f32 {
+        self.weight_min + self.weights[i] as f32 / U16_SCALE * self.weight_extent
+    }
+
+    fn seek(&self, frame_index: u32) -> f32 {
+        match self.frames.search(frame_index) {
+            (Some((p, pf)), Some((n, nf))) if pf != frame_index => {
+                lerp_f32(self.weight(p), self.weight(n), coefficient(pf, nf, frame_index))
+            }
+            (Some((p, _)), _) => self.weight(p),
+            (None, Some((n, _))) => self.weight(n),
+            (None, None) => 0.0,
+        }
+    }
+
+    fn memory_usage(&self) -> usize {
+        self.frames.memory_usage() + self.weights.capacity() * 2
+    }
+}
+
+/// 压缩的骨骼/Morph 关键帧存储
+#[derive(Debug, Clone)]
+pub struct CompactMotion {
+    /// 按名称排序，便于二分查找
+    bone_names: Vec<String>,
+    bone_tracks: Vec<CompactBoneTrack>,
+    morph_names: Vec<String>,
+    morph_tracks: Vec<CompactMorphTrack>,
+    /// 共享贝塞尔控制点表
+    curve_table: Vec<[[u8; 4]; 4]>,
+    duration: u32,
+    bezier_cache: BezierCurveCache,
+}
+
+impl CompactMotion {
+    /// 压缩 Motion 的骨骼与 Morph 轨道；共享曲线表超出 16 位索引时返回 None
+    pub fn compress(motion: &Motion) -> Option<Self> {
+        let mut bone_names: Vec<String> = motion.bone_track_names().cloned().collect();
+        bone_names.sort();
+        let mut morph_names: Vec<String> = motion.morph_track_names().cloned().collect();
+        morph_names.sort();
+
+        let mut curve_table = Vec::new();
+        let mut curve_lookup: HashMap<[[u8; 4]; 4], u16> = HashMap::new();
+        let mut bone_tracks = Vec::with_capacity(bone_names.len());
+        for name in &bone_names {
+            let track = motion.get_bone_track(name)?;
+            let keys: Vec<&BoneKeyframe> = track.keyframes.values().collect();
+            let frames: Vec<u32> = keys.iter().map(|k| k.frame_index).collect();
+
+            let translation_min = keys.iter().fold(Vec3::splat(f32::MAX), |m, k| m.min(k.translation));
+            let translation_max = keys.iter().fold(Vec3::splat(f32::MIN), |m, k| m.max(k.translation));
+            let translation_extent = translation_max - translation_min;
+
+            let mut curves = Vec::with_capacity(keys.len());
+            for k in &keys {
+                let entry = [k.interpolation_x, k.interpolation_y, k.interpolation_z, k.interpolation_r];
+                let index = match curve_lookup.get(&entry) {
+                    Some(&index) => index,
+                    None => {
+                        if curve_table.len() > u16::MAX as usize {
+                            return None;
+                        }
+                        let index = curve_table.len() as u16;
+                        curve_table.push(entry);
+                        curve_lookup.insert(entry, index);
+                        index
+                    }
+                };
+                curves.push(index);
+            }
+
+            let mut physics = vec![0u8; (keys.len() + 7) / 8];
+            for (i, k) in keys.iter().enumerate() {
+                if k.is_physics_simulation_enabled {
+                    physics[i / 8] |= 1 << (i % 8);
+                }
+            }
+
+            bone_tracks.push(CompactBoneTrack {
+                frames: FrameIndices::encode(&frames),
+                translation_min,
+                translation_extent,
+                translations: keys
+                    .iter()
+                    .map(|k| quantize_vec3(k.translation, translation_min, translation_extent))
+                    .collect(),
+                rotations: keys.iter().map(|k| encode_rotation(k.orientation)).collect(),
+                curves,
+                physics,
+            });
+        }
+
+        let mut morph_tracks = Vec::with_capacity(morph_names.len());
+        for name in &morph_names {
+            let track = motion.get_morph_track(name)?;
+            let frames: Vec<u32> = track.keyframes.keys().copied().collect();
+            let weight_min = track.keyframes.values().fold(f32::MAX, |m, k| m.min(k.weight));
+            let weight_max = track.keyframes.values().fold(f32::MIN, |m, k| m.max(k.weight));
+            let weight_extent = weight_max - weight_min;
+            morph_tracks.push(CompactMorphTrack {
+                frames: FrameIndices::encode(&frames),
+                weight_min,
+                weight_extent,
+                weights: track
+                    .keyframes
+                    .values()
+                    .map(|k| quantize(k.weight, weight_min, weight_extent))
+                    .collect(),
+            });
+        }
+
+        let duration = bone_tracks
+            .iter()
+            .map(|t| t.frames.last_frame())
+            .chain(morph_tracks.iter().map(|t| t.frames.last_frame()))
+            .max()
+            .unwrap_or(0);
+
+        Some(Self {
+            bone_names,
+            bone_tracks,
+            morph_names,
+            morph_tracks,
+            curve_table,
+            duration,
+            bezier_cache: BezierCurveCache::new(),
+        })
+    }
+
+    /// 还原为展开的骨骼/Morph 轨道（量化后的值）
+    pub fn to_motion(&self) -> Motion {
+        let mut motion = Motion::new();
+        for (name, track) in self.bone_names.iter().zip(&self.bone_tracks) {
+            for i in 0..track.frames.len() {
+                let key = track.decode(i, &self.curve_table);
+                let mut kf = BoneKeyframe::with_transform(track.frames.frame(i), key.translation, key.orientation);
+                kf.interpolation_x = key.curves[0];
+                kf.interpolation_y = key.curves[1];
+                kf.interpolation_z = key.curves[2];
+                kf.interpolation_r = key.curves[3];
+                kf.is_physics_simulation_enabled = key.physics;
+                motion.insert_bone_keyframe(name, kf);
+            }
+        }
+        for (name, track) in self.morph_names.iter().zip(&self.morph_tracks) {
+            for i in 0..track.frames.len() {
+                motion.insert_morph_keyframe(name, MorphKeyframe::new(track.frames.frame(i), track.weight(i)));
+            }
+        }
+        motion
+    }
+
+    /// 骨骼/Morph 轨道的最大帧索引
+    pub fn duration(&self) -> u32 {
+        self.duration
+    }
+
+    /// 骨骼轨道名称（下标即轨道索引）
+    pub fn bone_names(&self) -> &[String] {
+        &self.bone_names
+    }
+
+    /// Morph 轨道名称（下标即轨道索引）
+    pub fn morph_names(&self) -> &[String] {
+        &self.morph_names
+    }
+
+    pub fn contains_bone_track(&self, name: &str) -> bool {
+        self.find_bone_track(name).is_some()
+    }
+
+    pub fn contains_morph_track(&self, name: &str) -> bool {
+        self.find_morph_track(name).is_some()
+    }
+
+    fn find_bone_track(&self, name: &str) -> Option<usize> {
+        self.bone_names.binary_search_by(|n| n.as_str().cmp(name)).ok()
+    }
+
+    fn find_morph_track(&self, name: &str) -> Option<usize> {
+        self.morph_names.binary_search_by(|n| n.as_str().cmp(name)).ok()
+    }
+
+    /// 按名称获取骨骼帧变换
+    pub fn find_bone_transform(&self, name: &str, frame_index: u32, amount: f32) -> BoneFrameTransform {
+        match self.find_bone_track(name) {
+            Some(track) => self.bone_transform(track, frame_index, amount),
+            None => BoneFrameTransform::default(),
+        }
+    }
+
+    /// 按名称获取 Morph 权重
+    pub fn find_morph_weight(&self, name: &str, frame_index: u32, amount: f32) -> f32 {
+        match self.find_morph_track(name) {
+            Some(track) => self.morph_weight(track, frame_index, amount),
+            None => 0.0,
+        }
+    }
+
+    /// 精确求值骨骼轨道（与 `BoneMotionTrack::seek_precisely` 语义一致）
+    pub fn bone_transform(&self, track: usize, frame_index: u32, amount: f32) -> BoneFrameTransform {
+        let f0 = self.seek_bone(track, frame_index);
+        if amount <= 0.0 {
+            return f0;
+        }
+        let f1 = self.seek_bone(track, frame_index.saturating_add(1));
+        let local_transform_mix = match (f0.local_transform_mix, f1.local_transform_mix) {
+            (Some(a0), Some(a1)) => Some(lerp_f32(a0, a1, amount)),
+            (None, Some(a1)) => Some(amount * a1),
+            (Some(a0), None) => Some((1.0 - amount) * a0),
+            _ => None,
+        };
+        BoneFrameTransform {
+            translation: f0.translation.lerp(f1.translation, amount),
+            orientation: f0.orientation.slerp(f1.orientation, amount),
+            interpolation: f0.interpolation.lerp(f1.interpolation, amount),
+            local_transform_mix,
+            enable_physics: f0.enable_physics && f1.enable_physics,
+            disable_physics: f0.disable_physics || f1.disable_physics,
+        }
+    }
+
+    /// 精确求值 Morph 轨道
+    pub fn morph_weight(&self, track: usize, frame_index: u32, amount: f32) -> f32 {
+        let track = &self.morph_tracks[track];
+        let w0 = track.seek(frame_index);
+        if amount > 0.0 {
+            lerp_f32(w0, track.seek(frame_index.saturating_add(1)), amount)
+        } else {
+            w0
+        }
+    }
+
+    fn seek_bone(&self, track: usize, frame_index: u32) -> BoneFrameTransform {
+        let track = &self.bone_tracks[track];
+        match track.frames.search(frame_index) {
+            (Some((p, pf)), Some((n, nf))) if pf != frame_index => {
+                let prev = track.decode(p, &self.curve_table);
+                let next = track.decode(n, &self.curve_table);
+                let interval = nf - pf;
+                let coef = coefficient(pf, nf, frame_index);
+
+                // 物理状态变化处理
+                if prev.physics && !next.physics {
+                    return BoneFrameTransform {
+                        local_transform_mix: Some(coef),
+                        enable_physics: false,
+                        disable_physics: true,
+                        ..next.transform()
+                    };
+                }
+
+                let curve = |c: usize| {
+                    KeyframeInterpolationPoint::new(&next.curves[c]).curve_value(interval, coef, &self.bezier_cache)
+                };
+                let amounts = Vec3::new(curve(0), curve(1), curve(2));
+                BoneFrameTransform {
+                    translation: lerp_element_wise(prev.translation, next.translation, amounts),
+                    orientation: prev.orientation.slerp(next.orientation, curve(3)),
+                    interpolation: next.interpolation(),
+                    local_transform_mix: None,
+                    enable_physics: prev.physics && next.physics,
+                    disable_physics: false,
+                }
+            }
+            (Some((p, _)), _) => track.decode(p, &self.curve_table).transform(),
+            (None, Some((n, _))) => track.decode(n, &self.curve_table).transform(),
+            (None, None) => BoneFrameTransform::default(),
+        }
+    }
+
+    /// 常驻内存（字节）
+    pub fn memory_usage(&self) -> u64 {
+        let names: usize = self.bone_names.iter().chain(self.morph_names.iter()).map(|n| n.capacity()).sum();
+        let bones: usize = self.bone_tracks.iter().map(|t| t.memory_usage()).sum();
+        let morphs: usize = self.morph_tracks.iter().map(|t| t.memory_usage()).sum();
+        (names
+            + bones
+            + morphs
+            + self.bone_tracks.capacity() * std::mem::size_of::<CompactBoneTrack>()
+            + self.morph_tracks.capacity() * std::mem::size_of::<CompactMorphTrack>()
+            + self.curve_table.capacity() * 16) as u64
+    }
+
+    /// 关键帧数量：(骨骼, Morph)
+    pub fn keyframe_counts(&self) -> (usize, usize) {
+        (
+            self.bone_tracks.iter().map(|t| t.frames.len()).sum(),
+            self.morph_tracks.iter().map(|t| t.frames.len()).sum(),
+        )
+    }
+}
+
+#[inline]
+fn quantize(v: f32, min: f32, extent: f32) -> u16 {
+    if extent > 0.0 {
+        ((v - min) / extent * U16_SCALE).round().clamp(0.0, U16_SCALE) as u16
+    } else {
+        0
+    }
+}
+
+#[inline]
+fn quantize_vec3(v: Vec3, min: Vec3, extent: Vec3) -> [u16; 3] {
+    [
+        quantize(v.x, min.x, extent.x),
+        quantize(v.y, min.y, extent.y),
+        quantize(v.z, min.z, extent.z),
+    ]
+}
+
+/// smallest-three：省略绝对值最大的分量（取正号），其余三个各 15 位，外加 2 位下标
+fn encode_rotation(q: Quat) -> [u16; 3] {
+    let v = q.normalize().to_array();
+    let mut largest = 0;
+    for i in 1..4 {
+        if v[i].abs() > v[largest].abs() {
+            largest = i;
+        }
+    }
+    let sign = if v[largest] < 0.0 { -1.0 } else { 1.0 };
+    let mut packed = largest as u64;
+    for (i, c) in v.iter().enumerate() {
+        if i == largest {
+            continue;
+        }
+        let unit = (c * sign / ROT_RANGE).clamp(-1.0, 1.0) * 0.5 + 0.5;
+        packed = (packed << ROT_BITS) | (unit * ROT_SCALE).round() as u64;
+    }
+    [(packed >> 32) as u16, (packed >> 16) as u16, packed as u16]
+}
+
+fn decode_rotation(p: [u16; 3]) -> Quat {
+    let mut packed = (p[0] as u64) << 32 | (p[1] as u64) << 16 | p[2] as u64;
+    let mut rest = [0.0f32; 3];
+    for c in rest.iter_mut().rev() {
+        *c = ((packed & ROT_MASK) as f32 / ROT_SCALE * 2.0 - 1.0) * ROT_RANGE;
+        packed >>= ROT_BITS;
+    }
+    let largest = (packed & 3) as usize;
+    let w = (1.0 - rest.iter().map(|c| c * c).sum::<f32>()).max(0.0).sqrt();
+
+    let mut v = [0.0f32; 4];
+    let mut r = 0;
+    for (i, c) in v.iter_mut().enumerate() {
+        if i == largest {
+            *c = w;
+        } else {
+            *c = rest[r];
+            r += 1;
+        }
+    }
+    Quat::from_array(v)
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::animation::motion_track::MotionTrack;
+
+    fn build_motion() -> Motion {
+        let mut motion = Motion::new();
+        for b in 0..6u32 {
+            let name = format!("bone{}", b);
+            // 含稀疏长间隔，覆盖多种差分位宽
+            for k in 0..40u32 {
+                let frame = k * 7 + if k > 30 { 300 * b } else { 0 };
+                let angle = (b as f32 * 0.41 + k as f32 * 0.7).sin();
+                let mut kf = BoneKeyframe::with_transform(
+                    frame,
+                    Vec3::new(angle * 10.0, (k as f32).cos() * 3.0, b as f32),
+                    Quat::from_euler(glam::EulerRot::YXZ, angle * 2.5, -angle, angle * 0.3),
+                );
+                if k % 3 == 0 {
+                    kf.interpolation_r = [20, 20, 107, 107];
+                    kf.interpolation_x = [64, 0, 64, 127];
+                } else {
+                    kf.interpolation_r = [30, 10, 90, 117];
+                }
+                kf.is_physics_simulation_enabled = k % 5 != 0;
+                motion.insert_bone_keyframe(&name, kf);
+            }
+        }
+        for k in 0..50u32 {
+            motion.insert_morph_keyframe("あ", MorphKeyframe::new(k * 4, (k % 3) as f32 * 0.5));
+        }
+        motion
+    }
+
+    fn quat_angle(a: Quat, b: Quat) -> f32 {
+        2.0 * a.dot(b).abs().min(1.0).acos()
+    }
+
+    #[test]
+    fn test_frame_indices_search() {
+        let frames: Vec<u32> = (0..40).map(|i| i * i).collect();
+        let indices = FrameIndices::encode(&frames);
+        assert!(matches!(indices.deltas, DeltaPlane::U8(_)));
+        for f in 0..1600u32 {
+            let prev = frames.iter().rposition(|&x| x <= f);
+            let next = frames.iter().position(|&x| x > f);
+            let (p, n) = indices.search(f);
+            assert_eq!(p.map(|(i, _)| i), prev);
+            assert_eq!(n.map(|(i, _)| i), next);
+            if let Some((i, frame)) = p {
+                assert_eq!(frame, frames[i]);
+            }
+        }
+        assert_eq!(indices.last_frame(), 39 * 39);
+
+        let wide = FrameIndices::encode(&[0, 1, 70_000]);
+        assert!(matches!(wide.deltas, DeltaPlane::U32(_)));
+        assert_eq!(wide.frame(2), 70_000);
+    }
+
+    #[test]
+    fn test_rotation_roundtrip() {
+        for i in 0..200 {
+            let t = i as f32 * 0.173;
+            let q = Quat::from_euler(glam::EulerRot::YXZ, t.sin() * 3.0, t.cos() * 1.5, t * 0.7);
+            let d = decode_rotation(encode_rotation(q));
+            assert!(quat_angle(q, d) < 2e-4, "angle {}", quat_angle(q, d));
+        }
+    }
+
+    #[test]
+    fn test_sampling_matches_expanded_motion() {
+        let motion = build_motion();
+        let compact = CompactMotion::compress(&motion).unwrap();
+        assert_eq!(compact.duration(), motion.duration());
+        assert_eq!(compact.curve_table.len(), 2);
+
+        let mut frame = 0.0f32;
+        while frame <= motion.duration() as f32 + 5.0 {
+            let (index, amount) = (frame.floor() as u32, frame.fract());
+            for name in compact.bone_names() {
+                let a = motion.find_bone_transform(name, index, amount);
+                let b = compact.find_bone_transform(name, index, amount);
+                assert!((a.translation - b.translation).length() < 1e-3);
+                assert!(quat_angle(a.orientation, b.orientation) < 1e-3);
+                assert_eq!(a.local_transform_mix.is_some(), b.local_transform_mix.is_some());
+                assert_eq!(a.enable_physics, b.enable_physics);
+            }
+            let w = motion.find_morph_weight("あ", index, amount);
+            assert!((w - compact.find_morph_weight("あ", index, amount)).abs() < 1e-4);
+            frame += 0.37;
+        }
+        assert_eq!(compact.find_bone_transform("missing", 3, 0.0).translation, Vec3::ZERO);
+    }
+
+    #[test]
+    fn test_roundtrip_and_memory() {
+        let motion = build_motion();
+        let compact = CompactMotion::compress(&motion).unwrap();
+        let restored = compact.to_motion();
+        assert_eq!(restored.duration(), motion.duration());
+        assert_eq!(compact.keyframe_counts(), (240, 50));
+        for name in compact.bone_names() {
+            assert_eq!(restored.get_bone_track(name).unwrap().len(), 40);
+        }
+        assert!(compact.memory_usage() * 2 < motion.memory_usage());
+    }
+}
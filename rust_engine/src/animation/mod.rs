@@ -8,6 +8,9 @@ mod motion;
 mod vmd_loader;
 mod vpd_file;
 mod animation_layer;
+mod bone_palette;
+mod baked_clip;
+mod compact_motion;
 pub(crate) mod fbx_parser;
 pub(crate) mod fbx_bone_mapping;
 pub mod fbx_loader;
@@ -22,3 +25,6 @@ pub use vmd_loader::{VmdFile, VmdAnimation};
 pub use vmd_writer::write_vmd;
 pub use vpd_file::{VpdFile, VpdBone, VpdMorph};
 pub use animation_layer::{AnimationLayer, AnimationLayerManager, AnimationLayerState, AnimationLayerConfig, PoseSnapshot, BonePose};
+pub use baked_clip::{BakedClip, BakeOptions};
+pub use compact_motion::CompactMotion;
+pub use bone_palette::{BakedBonePalette, PaletteBake, PendingPalette, PALETTE_BONE_FLOATS, PALETTE_BONE_INTS, PALETTE_SAMPLE_FLOATS};
@@ -39,6 +39,18 @@ impl Motion {
         }
     }
 
+    /// 复制除骨骼/Morph 轨道以外的数据（压缩存储另行保存这两类轨道）
+    pub fn clone_without_bone_morph_tracks(&self) -> Self {
+        Self {
+            bone_tracks: HashMap::new(),
+            morph_tracks: HashMap::new(),
+            ik_tracks: self.ik_tracks.clone(),
+            camera_track: self.camera_track.clone(),
+            bezier_cache: self.bezier_cache.clone(),
+            dirty: self.dirty,
+        }
+    }
+
     /// 获取动画持续时间（最大帧索引）
     pub fn duration(&self) -> u32 {
         let bone_max = self.bone_tracks
@@ -228,6 +240,28 @@ impl Motion {
         self.dirty
     }
 
+    /// 估算常驻内存（字节），BTreeMap 节点开销按每条目一个指针计
+    pub fn memory_usage(&self) -> u64 {
+        use std::mem::size_of;
+        let entry = |value: usize| size_of::<u32>() + value + size_of::<usize>();
+
+        let bones: usize = self.bone_tracks.iter()
+            .map(|(name, t)| name.capacity() + size_of::<BoneMotionTrack>() + t.keyframes.len() * entry(size_of::<BoneKeyframe>()))
+            .sum();
+        let morphs: usize = self.morph_tracks.iter()
+            .map(|(name, t)| name.capacity() + size_of::<MorphMotionTrack>() + t.keyframes.len() * entry(size_of::<MorphKeyframe>()))
+            .sum();
+        let iks: usize = self.ik_tracks.iter()
+            .map(|(name, t)| {
+                name.capacity() + size_of::<IkMotionTrack>()
+                    + t.keyframes.values().map(|k| entry(size_of::<IkKeyframe>()) + k.ik_name.capacity()).sum::<usize>()
+            })
+            .sum();
+        let camera = self.camera_track.keyframes.len() * entry(size_of::<CameraKeyframe>());
+
+        (size_of::<Self>() + bones + morphs + iks + camera) as u64
+    }
+
     /// 合并另一个 Motion
     pub fn merge(&mut self, other: &Motion) {
         // 合并骨骼轨道
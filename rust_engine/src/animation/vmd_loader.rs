@@ -14,6 +14,8 @@ use crate::morph::MorphManager;
 use super::motion::Motion;
 use super::keyframe::{BoneKeyframe, MorphKeyframe, IkKeyframe, CameraKeyframe, CameraInterpolation};
 use super::motion_track::{BoneFrameTransform, CameraFrameTransform};
+use super::baked_clip::{BakedClip, BakeOptions};
+use super::compact_motion::CompactMotion;
 
 /// VMD 文件头
 const VMD_HEADER_V1: &[u8] = b"Vocaloid Motion Data file";
@@ -344,6 +346,12 @@ fn decode_shift_jis(bytes: &[u8]) -> String {
 pub struct VmdAnimation {
     /// Motion 数据
     motion: Motion,
+    /// 来源标识（同一文件在不同模型上加载得到相同值，0 表示未知）
+    source_key: u64,
+    /// 预烘焙重采样轨道（存在时骨骼/Morph 评估走常数时间采样）
+    baked: Option<BakedClip>,
+    /// 压缩关键帧存储（存在时 motion 中不再保留骨骼/Morph 轨道）
+    compact: Option<CompactMotion>,
 }
 
 impl VmdAnimation {
@@ -351,19 +359,117 @@ impl VmdAnimation {
     pub fn from_vmd_file(vmd: VmdFile) -> Self {
         Self {
             motion: vmd.motion,
+            source_key: 0,
+            baked: None,
+            compact: None,
         }
     }
 
     /// 从 Motion 数据直接创建（供 FBX 等外部格式使用）
     pub fn from_motion(motion: Motion) -> Self {
-        Self { motion }
+        Self { motion, source_key: 0, baked: None, compact: None }
+    }
+
+    /// 设置来源标识
+    pub fn with_source_key(mut self, source_key: u64) -> Self {
+        self.source_key = source_key;
+        self
+    }
+
+    /// 来源标识（用于跨模型实例判定"同一段动画"）
+    pub fn source_key(&self) -> u64 {
+        self.source_key
     }
 
     /// 获取 Motion 可变引用（用于 FBX 重定向姿态校正等后处理）
+    ///
+    /// 修改后原烘焙结果失效，需要重新调用 `bake`
     pub fn motion_mut(&mut self) -> &mut Motion {
+        self.expand();
+        self.baked = None;
         &mut self.motion
     }
 
+    /// 将骨骼/Morph 轨道转为压缩存储，返回是否发生压缩
+    ///
+    /// 压缩后丢弃预烘焙轨道：二者同时常驻时烘焙轨道占大头，压缩失去意义
+    pub fn compact(&mut self) -> bool {
+        if !self.can_compact() {
+            return false;
+        }
+        match CompactMotion::compress(&self.motion) {
+            Some(compact) => {
+                self.motion.bone_tracks = Default::default();
+                self.motion.morph_tracks = Default::default();
+                self.compact = Some(compact);
+                self.baked = None;
+                true
+            }
+            None => false,
+        }
+    }
+
+    /// 从共享引用生成压缩后的新实例（不复制展开的关键帧），无可压缩内容时返回 None
+    pub fn compacted(&self) -> Option<Self> {
+        if !self.can_compact() {
+            return None;
+        }
+        let compact = CompactMotion::compress(&self.motion)?;
+        Some(Self {
+            motion: self.motion.clone_without_bone_morph_tracks(),
+            source_key: self.source_key,
+            baked: None,
+            compact: Some(compact),
+        })
+    }
+
+    fn can_compact(&self) -> bool {
+        self.compact.is_none() && !(self.motion.bone_tracks.is_empty() && self.motion.morph_tracks.is_empty())
+    }
+
+    /// 是否为压缩存储
+    pub fn is_compact(&self) -> bool {
+        self.compact.is_some()
+    }
+
+    /// 还原为展开的关键帧（合并、编辑前调用）
+    fn expand(&mut self) {
+        if let Some(compact) = self.compact.take() {
+            let expanded = compact.to_motion();
+            self.motion.bone_tracks = expanded.bone_tracks;
+            self.motion.morph_tracks = expanded.morph_tracks;
+        }
+    }
+
+    /// 常驻内存（字节）：关键帧 + 压缩存储 + 预烘焙轨道
+    pub fn memory_usage(&self) -> u64 {
+        self.motion.memory_usage()
+            + self.compact.as_ref().map_or(0, |c| c.memory_usage())
+            + self.baked_memory_usage()
+    }
+
+    /// 按固定采样率预烘焙骨骼/Morph 轨道，选项未启用时清除已有烘焙
+    pub fn bake(&mut self, options: BakeOptions) {
+        self.baked = if options.is_enabled() {
+            Some(match &self.compact {
+                Some(compact) => BakedClip::bake(&compact.to_motion(), options),
+                None => BakedClip::bake(&self.motion, options),
+            })
+        } else {
+            None
+        };
+    }
+
+    /// 是否已预烘焙
+    pub fn is_baked(&self) -> bool {
+        self.baked.is_some()
+    }
+
+    /// 预烘焙轨道占用内存（字节）
+    pub fn baked_memory_usage(&self) -> u64 {
+        self.baked.as_ref().map_or(0, |b| b.memory_usage())
+    }
+
     /// 是否包含相机数据
     pub fn has_camera(&self) -> bool {
         self.motion.has_camera_data()
@@ -371,17 +477,27 @@ impl VmdAnimation {
 
     /// 是否包含骨骼数据
     pub fn has_bones(&self) -> bool {
-        !self.motion.bone_tracks.is_empty()
+        !self.motion.bone_tracks.is_empty() || self.compact.as_ref().map_or(false, |c| !c.bone_names().is_empty())
     }
 
     /// 是否包含表情数据
     pub fn has_morphs(&self) -> bool {
-        !self.motion.morph_tracks.is_empty()
+        !self.motion.morph_tracks.is_empty() || self.compact.as_ref().map_or(false, |c| !c.morph_names().is_empty())
     }
 
     /// 合并另一个动画的骨骼和 Morph 数据
     pub fn merge(&mut self, other: &VmdAnimation) {
-        self.motion.merge(&other.motion);
+        self.expand();
+        match &other.compact {
+            Some(compact) => self.motion.merge(&compact.to_motion()),
+            None => self.motion.merge(&other.motion),
+        }
+        self.baked = None;
+        self.source_key = if self.source_key == 0 || other.source_key == 0 {
+            0
+        } else {
+            self.source_key.rotate_left(17) ^ other.source_key
+        };
     }
 
     /// 获取相机帧变换
@@ -409,19 +525,26 @@ impl VmdAnimation {
         Ok(Self::from_vmd_file(vmd))
     }
 
-    /// 获取最大帧数
+    /// 获取最大帧数（压缩后骨骼/Morph 轨道移入 compact，相机轨道仍在 motion 中）
     pub fn max_frame(&self) -> u32 {
-        self.motion.duration()
+        let compact_max = self.compact.as_ref().map_or(0, |c| c.duration());
+        self.motion.duration().max(compact_max)
     }
 
     /// 获取骨骼帧变换
     pub fn get_bone_transform(&self, name: &str, frame_index: u32, amount: f32) -> BoneFrameTransform {
-        self.motion.find_bone_transform(name, frame_index, amount)
+        match &self.compact {
+            Some(compact) => compact.find_bone_transform(name, frame_index, amount),
+            None => self.motion.find_bone_transform(name, frame_index, amount),
+        }
     }
 
     /// 获取 Morph 权重
     pub fn get_morph_weight(&self, name: &str, frame_index: u32, amount: f32) -> f32 {
-        self.motion.find_morph_weight(name, frame_index, amount)
+        match &self.compact {
+            Some(compact) => compact.find_morph_weight(name, frame_index, amount),
+            None => self.motion.find_morph_weight(name, frame_index, amount),
+        }
     }
 
     /// 评估动画并应用到骨骼和 Morph
@@ -457,43 +580,58 @@ impl VmdAnimation {
         let frame_index = frame.floor() as u32;
         let amount = frame.fract();
 
-        // 应用骨骼动画
-        for bone_name in self.motion.bone_track_names() {
-            if let Some(bone_idx) = bone_manager.find_bone_by_name(bone_name) {
-                let raw = self.motion.find_bone_transform(bone_name, frame_index, amount);
-                // VMD 数据经过左手→右手转换，VRM 需要额外做 Y 轴 180° 镜像
-                let translation = bone_manager.convert_vmd_translation(raw.translation);
-                let orientation = bone_manager.convert_vmd_rotation(raw.orientation);
-                
-                if weight >= 1.0 {
-                    bone_manager.set_bone_translation(bone_idx, translation);
-                    bone_manager.set_bone_rotation(bone_idx, orientation);
-                } else if weight > 0.0 {
-                    if let Some(bone) = bone_manager.get_bone(bone_idx) {
-                        let blended_translation = bone.animation_translate.lerp(translation, weight);
-                        let blended_rotation = bone.animation_rotate.slerp(orientation, weight);
-                        bone_manager.set_bone_translation(bone_idx, blended_translation);
-                        bone_manager.set_bone_rotation(bone_idx, blended_rotation);
+        if let Some(baked) = &self.baked {
+            for (track, bone_name) in baked.bone_names().iter().enumerate() {
+                if let Some(bone_idx) = bone_manager.find_bone_by_name(bone_name) {
+                    if bone_manager.is_palette_skipped(bone_idx) {
+                        continue;
                     }
+                    let (translation, orientation) = baked.bone_transform(track, frame);
+                    Self::apply_bone(bone_manager, bone_idx, translation, orientation, weight);
+                }
+            }
+            for (track, morph_name) in baked.morph_names().iter().enumerate() {
+                if let Some(morph_idx) = morph_manager.find_morph_by_name(morph_name) {
+                    Self::apply_morph(morph_manager, morph_idx, baked.morph_weight(track, frame), weight);
+                }
+            }
+        } else if let Some(compact) = &self.compact {
+            for (track, bone_name) in compact.bone_names().iter().enumerate() {
+                if let Some(bone_idx) = bone_manager.find_bone_by_name(bone_name) {
+                    if bone_manager.is_palette_skipped(bone_idx) {
+                        continue;
+                    }
+                    let raw = compact.bone_transform(track, frame_index, amount);
+                    Self::apply_bone(bone_manager, bone_idx, raw.translation, raw.orientation, weight);
+                }
+            }
+            for (track, morph_name) in compact.morph_names().iter().enumerate() {
+                if let Some(morph_idx) = morph_manager.find_morph_by_name(morph_name) {
+                    let morph_weight = compact.morph_weight(track, frame_index, amount);
+                    Self::apply_morph(morph_manager, morph_idx, morph_weight, weight);
+                }
+            }
+        } else {
+            // 应用骨骼动画
+            for bone_name in self.motion.bone_track_names() {
+                if let Some(bone_idx) = bone_manager.find_bone_by_name(bone_name) {
+                    if bone_manager.is_palette_skipped(bone_idx) {
+                        continue;
+                    }
+                    let raw = self.motion.find_bone_transform(bone_name, frame_index, amount);
+                    Self::apply_bone(bone_manager, bone_idx, raw.translation, raw.orientation, weight);
                 }
             }
-        }
 
-        // 应用 Morph 动画
-        for morph_name in self.motion.morph_track_names() {
-            if let Some(morph_idx) = morph_manager.find_morph_by_name(morph_name) {
-                let morph_weight = self.motion.find_morph_weight(morph_name, frame_index, amount);
-                
-                if weight >= 1.0 {
-                    morph_manager.set_morph_weight(morph_idx, morph_weight);
-                } else if weight > 0.0 {
-                    let current = morph_manager.get_morph_weight(morph_idx);
-                    let blended = current + (morph_weight - current) * weight;
-                    morph_manager.set_morph_weight(morph_idx, blended);
+            // 应用 Morph 动画
+            for morph_name in self.motion.morph_track_names() {
+                if let Some(morph_idx) = morph_manager.find_morph_by_name(morph_name) {
+                    let morph_weight = self.motion.find_morph_weight(morph_name, frame_index, amount);
+                    Self::apply_morph(morph_manager, morph_idx, morph_weight, weight);
                 }
             }
         }
-        
+
         // 应用 IK 启用/禁用状态
         for ik_name in self.motion.ik_track_names() {
             let enabled = self.motion.is_ik_enabled(ik_name, frame_index);
@@ -503,23 +641,122 @@ impl VmdAnimation {
         }
     }
 
+    fn apply_bone(bone_manager: &mut BoneManager, bone_idx: usize, translation: Vec3, orientation: Quat, weight: f32) {
+        // VMD 数据经过左手→右手转换，VRM 需要额外做 Y 轴 180° 镜像
+        let translation = bone_manager.convert_vmd_translation(translation);
+        let orientation = bone_manager.convert_vmd_rotation(orientation);
+
+        if weight >= 1.0 {
+            bone_manager.set_bone_translation(bone_idx, translation);
+            bone_manager.set_bone_rotation(bone_idx, orientation);
+        } else if weight > 0.0 {
+            if let Some(bone) = bone_manager.get_bone(bone_idx) {
+                let blended_translation = bone.animation_translate.lerp(translation, weight);
+                let blended_rotation = bone.animation_rotate.slerp(orientation, weight);
+                bone_manager.set_bone_translation(bone_idx, blended_translation);
+                bone_manager.set_bone_rotation(bone_idx, blended_rotation);
+            }
+        }
+    }
+
+    fn apply_morph(morph_manager: &mut MorphManager, morph_idx: usize, morph_weight: f32, weight: f32) {
+        if weight >= 1.0 {
+            morph_manager.set_morph_weight(morph_idx, morph_weight);
+        } else if weight > 0.0 {
+            let current = morph_manager.get_morph_weight(morph_idx);
+            let blended = current + (morph_weight - current) * weight;
+            morph_manager.set_morph_weight(morph_idx, blended);
+        }
+    }
+
     /// 检查是否包含骨骼轨道
     pub fn contains_bone_track(&self, name: &str) -> bool {
-        self.motion.contains_bone_track(name)
+        self.motion.contains_bone_track(name) || self.compact.as_ref().map_or(false, |c| c.contains_bone_track(name))
     }
 
     /// 检查是否包含 Morph 轨道
     pub fn contains_morph_track(&self, name: &str) -> bool {
-        self.motion.contains_morph_track(name)
+        self.motion.contains_morph_track(name) || self.compact.as_ref().map_or(false, |c| c.contains_morph_track(name))
     }
 
     /// 获取骨骼轨道名称列表
     pub fn bone_track_names(&self) -> Vec<String> {
-        self.motion.bone_track_names().cloned().collect()
+        match &self.compact {
+            Some(compact) => compact.bone_names().to_vec(),
+            None => self.motion.bone_track_names().cloned().collect(),
+        }
     }
 
     /// 获取 Morph 轨道名称列表
     pub fn morph_track_names(&self) -> Vec<String> {
-        self.motion.morph_track_names().cloned().collect()
+        match &self.compact {
+            Some(compact) => compact.morph_names().to_vec(),
+            None => self.motion.morph_track_names().cloned().collect(),
+        }
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use std::sync::Arc;
+
+    fn sample_motion() -> Motion {
+        let mut motion = Motion::new();
+        for k in 0..30u32 {
+            let angle = k as f32 * 0.2;
+            motion.insert_bone_keyframe("センター", BoneKeyframe::with_transform(
+                k * 4,
+                Vec3::new(angle.sin(), 0.0, angle.cos()),
+                Quat::from_rotation_y(angle),
+            ));
+        }
+        for k in 0..20u32 {
+            motion.insert_morph_keyframe("あ", MorphKeyframe::new(k * 9, (k % 2) as f32));
+        }
+        motion
+    }
+
+    #[test]
+    fn test_compact_keeps_max_frame() {
+        let mut animation = VmdAnimation::from_motion(sample_motion());
+        let expected = animation.max_frame();
+        assert_eq!(expected, 171);
+
+        assert!(animation.compact());
+        assert!(animation.is_compact());
+        assert_eq!(animation.max_frame(), expected);
+    }
+
+    #[test]
+    fn test_compact_drops_baked_tracks() {
+        let mut animation = VmdAnimation::from_motion(sample_motion());
+        animation.bake(BakeOptions::new(30, false));
+        assert!(animation.is_baked());
+
+        assert!(animation.compact());
+        assert!(!animation.is_baked());
+        assert_eq!(animation.baked_memory_usage(), 0);
+    }
+
+    #[test]
+    fn test_compacted_leaves_shared_original_intact() {
+        let mut original = VmdAnimation::from_motion(sample_motion()).with_source_key(7);
+        original.bake(BakeOptions::new(30, false));
+        let shared = Arc::new(original);
+        let holder = Arc::clone(&shared);
+
+        let compacted = shared.compacted().unwrap();
+        assert!(compacted.is_compact());
+        assert!(!compacted.is_baked());
+        assert_eq!(compacted.source_key(), 7);
+        assert_eq!(compacted.max_frame(), shared.max_frame());
+        assert!(compacted.contains_bone_track("センター"));
+        assert!(compacted.contains_morph_track("あ"));
+        assert!(compacted.memory_usage() < shared.memory_usage());
+
+        assert!(!holder.is_compact());
+        assert!(holder.is_baked());
+        assert!(compacted.compacted().is_none());
     }
 }
@@ -6,7 +6,7 @@ use jni::JNIEnv;
 use std::ptr;
 use std::sync::Arc;
 
-use crate::animation::{VmdAnimation, VmdFile};
+use crate::animation::{BakeOptions, VmdAnimation, VmdFile};
 use crate::animation::fbx_loader;
 use crate::model::{load_pmx, load_vrm};
 use crate::texture::load_texture;
@@ -739,22 +739,55 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadAnimation(
         Ok(s) => s.into(),
         Err(_) => return 0,
     };
+    load_animation_file(model_handle, &filename_str, BakeOptions::default())
+}
 
+/// 加载动画并按固定采样率预烘焙（bake_sample_rate 为 0 时等同 LoadAnimation）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadAnimationWithOptions(
+    mut env: JNIEnv,
+    _class: JClass,
+    model_handle: jlong,
+    filename: JString,
+    bake_sample_rate: jint,
+    quantize_rotations: jboolean,
+) -> jlong {
+    let filename_str: String = match env.get_string(&filename) {
+        Ok(s) => s.into(),
+        Err(_) => return 0,
+    };
+    let options = BakeOptions::new(bake_sample_rate.max(0) as u32, quantize_rotations != 0);
+    load_animation_file(model_handle, &filename_str, options)
+}
+
+fn load_animation_file(model_handle: jlong, filename_str: &str, options: BakeOptions) -> jlong {
     // 支持 "path.fbx#StackName" 语法选择指定 AnimationStack
     let (file_path, stack_name) = if let Some(pos) = filename_str.rfind('#') {
         let lower = filename_str[..pos].to_ascii_lowercase();
         if lower.ends_with(".fbx") {
             (&filename_str[..pos], Some(&filename_str[pos + 1..]))
         } else {
-            (filename_str.as_str(), None)
+            (filename_str, None)
         }
     } else {
-        (filename_str.as_str(), None)
+        (filename_str, None)
     };
 
     let lower = file_path.to_ascii_lowercase();
     let is_fbx = lower.ends_with(".fbx");
 
+    // 同一文件（含 FBX 栈名）在不同模型上得到相同来源标识，供姿态共享判定
+    let source_key = {
+        use std::hash::{Hash, Hasher};
+        let mut hasher = std::collections::hash_map::DefaultHasher::new();
+        filename_str.hash(&mut hasher);
+        // 烘焙结果与原始插值存在细微差异，不同选项不共享姿态
+        if options.is_enabled() {
+            options.hash(&mut hasher);
+        }
+        hasher.finish().max(1)
+    };
+
     // FBX 手臂校正需要模型骨骼位置，先提取后释放 MODELS 锁
     let arm_positions = if is_fbx {
         let models = MODELS.read().unwrap();
@@ -805,11 +838,15 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_LoadAnimation(
                 &arm_positions,
                 Some(cache.arm_reference_dirs()),
             );
-            register_animation(anim)
+            anim.bake(options);
+            register_animation(anim.with_source_key(source_key))
         })
     } else {
-        VmdFile::load(file_path)
-            .map(|vmd| register_animation(VmdAnimation::from_vmd_file(vmd)))
+        VmdFile::load(file_path).map(|vmd| {
+            let mut anim = VmdAnimation::from_vmd_file(vmd);
+            anim.bake(options);
+            register_animation(anim.with_source_key(source_key))
+        })
     };
 
     match result {
@@ -1033,6 +1070,55 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_MergeAnimation(
     }
 }
 
+/// 将动画的骨骼/Morph 关键帧转为压缩存储（帧差分 + 16 位量化 + 共享贝塞尔表）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CompactAnimation(
+    _env: JNIEnv,
+    _class: JClass,
+    anim: jlong,
+) -> jboolean {
+    // 从共享实例直接生成压缩副本，不先复制一份展开的关键帧
+    let (old, compacted) = {
+        let mut animations = ANIMATIONS.write().unwrap();
+        let old = match animations.get(&anim) {
+            Some(a) => Arc::clone(a),
+            None => return 0,
+        };
+        let compacted = match old.compacted() {
+            Some(c) => Arc::new(c),
+            None => return 0,
+        };
+        log::info!("动画关键帧压缩: {} -> {} 字节", old.memory_usage(), compacted.memory_usage());
+        animations.insert(anim, Arc::clone(&compacted));
+        (old, compacted)
+    };
+
+    // 已被模型图层/骨骼调色板引用时换入新实例，旧实例随最后一个持有者释放
+    // （释放 ANIMATIONS 锁后再访问 MODELS，避免同时持有两把锁）
+    if Arc::strong_count(&old) > 1 {
+        let models = MODELS.read().unwrap();
+        for model_arc in models.values() {
+            model_arc.lock().unwrap().replace_animation(&old, &compacted);
+        }
+    }
+    1
+}
+
+/// 获取动画常驻内存（字节）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetAnimationMemoryUsage(
+    _env: JNIEnv,
+    _class: JClass,
+    anim: jlong,
+) -> jlong {
+    let animations = ANIMATIONS.read().unwrap();
+    if let Some(animation) = animations.get(&anim) {
+        animation.memory_usage() as jlong
+    } else {
+        0
+    }
+}
+
 /// 设置模型全局变换（用于人物移动时传递位置给物理系统）
 /// 传入 4x4 矩阵的 16 个 float 值（列主序）
 #[no_mangle]
@@ -2295,6 +2381,167 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_UpdateAnimationOnly(
     }
 }
 
+/// 仅推进动画层时钟（姿态共享的跟随实例使用，不评估骨骼）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_AdvanceAnimationClock(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    delta_time: jfloat,
+) {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let mut model = model_arc.lock().unwrap();
+        model.advance_animation_clock(delta_time);
+    }
+}
+
+/// 在当前层时钟下评估姿态（配合 AdvanceAnimationClock 使用，等价于 UpdateAnimationOnly 的后半段）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_EvaluateAnimationOnly(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    delta_time: jfloat,
+) {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let mut model = model_arc.lock().unwrap();
+        model.evaluate_animation_no_skinning(delta_time);
+    }
+}
+
+/// 获取姿态共享键（0 表示不可共享）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPoseShareKey(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jlong {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let model = model_arc.lock().unwrap();
+        return model.pose_share_key() as jlong;
+    }
+    0
+}
+
+/// 设置渲染端 UV 布局标识（纹理图集改写 UV 时非 0），参与姿态共享键
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetUvLayoutKey(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    key: jlong,
+) {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        model_arc.lock().unwrap().set_uv_layout_key(key as u64);
+    }
+}
+
+/// 为当前单层满权重动画烘焙 GPU 骨骼调色板，返回采样帧数（0 表示不可烘焙）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_BakeBonePalette(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jint {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let mut model = model_arc.lock().unwrap();
+        return model.bake_bone_palette() as jint;
+    }
+    0
+}
+
+/// 判定本帧能否使用 GPU 骨骼调色板（须在评估姿态前调用）
+/// 返回采样帧；-1 表示走 CPU 完整路径，-2 表示需重新烘焙
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_PrepareBonePalette(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jfloat {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let mut model = model_arc.lock().unwrap();
+        return model.prepare_bone_palette();
+    }
+    -1.0
+}
+
+/// 获取调色板轨道数量
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetBonePaletteTrackCount(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jint {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let model = model_arc.lock().unwrap();
+        return model.bone_palette().map_or(0, |p| p.track_count() as jint);
+    }
+    0
+}
+
+/// 复制调色板数据到 DirectByteBuffer（骨骼静态数据、骨骼索引、烘焙轨道）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyBonePaletteToBuffers(
+    env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    bones: JByteBuffer,
+    info: JByteBuffer,
+    tracks: JByteBuffer,
+) -> jboolean {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let model = model_arc.lock().unwrap();
+        let palette = match model.bone_palette() {
+            Some(p) => p,
+            None => return 0,
+        };
+
+        let copy = |buffer: &JByteBuffer, src: *const u8, size: usize| -> bool {
+            let dst = match env.get_direct_buffer_address(buffer) {
+                Ok(p) => p,
+                Err(_) => return false,
+            };
+            let capacity = env.get_direct_buffer_capacity(buffer).unwrap_or(0);
+            if size > capacity {
+                log::error!("CopyBonePaletteToBuffers: 需要 {} 字节, 容量 {}", size, capacity);
+                return false;
+            }
+            unsafe {
+                ptr::copy_nonoverlapping(src, dst, size);
+            }
+            true
+        };
+
+        let ok = copy(&bones, palette.bone_data().as_ptr() as *const u8, palette.bone_data().len() * 4)
+            && copy(&info, palette.bone_info().as_ptr() as *const u8, palette.bone_info().len() * 4)
+            && copy(&tracks, palette.track_data().as_ptr() as *const u8, palette.track_data().len() * 4);
+        return ok as jboolean;
+    }
+    0
+}
+
+/// 释放 GPU 骨骼调色板并恢复 CPU 完整评估
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ReleaseBonePalette(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let mut model = model_arc.lock().unwrap();
+        model.release_bone_palette();
+    }
+}
+
 /// 初始化 GPU 蒙皮数据
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_InitGpuSkinningData(
@@ -2468,6 +2715,21 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuMorphWeightsTo
     0
 }
 
+/// 获取 GPU 顶点 Morph 权重版本（权重内容变化时递增）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuMorphWeightsVersion(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jlong {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let model = model_arc.lock().unwrap();
+        return model.gpu_morph_weights_version() as jlong;
+    }
+    0
+}
+
 /// 获取 GPU Morph 是否已初始化
 #[no_mangle]
 pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_IsGpuMorphInitialized(
@@ -2539,6 +2801,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ApplyVpdMorph(
                 
                 // 同步到 GPU 缓冲区（用于 GPU 蒙皮模式）
                 model.sync_gpu_morph_weights();
+                model.set_manual_morph_active(morph_count > 0 || bone_count > 0);
                 
                 // 返回编码值: 高16位骨骼数，低16位 Morph 数
                 return ((bone_count & 0xFFFF) << 16) | (morph_count & 0xFFFF);
@@ -2564,6 +2827,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_ResetAllMorphs(
         model.morph_manager.reset_all_weights();
         model.clear_vpd_bone_overrides();
         model.sync_gpu_morph_weights();
+        model.set_manual_morph_active(false);
     }
 }
 
@@ -2587,6 +2851,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMorphWeightByName(
         if let Some(idx) = model.morph_manager.find_morph_by_name(&name_str) {
             model.morph_manager.set_morph_weight(idx, weight);
             model.sync_gpu_morph_weights();
+            model.set_manual_morph_active(true);
             return 1;
         }
     }
@@ -2661,6 +2926,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMorphWeight(
     if let Some(model_arc) = models.get(&model) {
         let mut model = model_arc.lock().unwrap();
         model.morph_manager.set_morph_weight(index as usize, weight);
+        model.set_manual_morph_active(true);
     }
 }
 
@@ -2779,6 +3045,21 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyGpuUvMorphWeights
     0
 }
 
+/// 获取 GPU UV Morph 权重版本（权重内容变化时递增）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetGpuUvMorphWeightsVersion(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jlong {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let model = model_arc.lock().unwrap();
+        return model.gpu_uv_morph_weights_version() as jlong;
+    }
+    0
+}
+
 // ====================================================================
 // 材质 Morph 结果相关函数
 // ====================================================================
@@ -2857,8 +3138,9 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsConfig(
     kinematic_filter: jboolean,
     debug_log: jboolean,
 ) {
-    use crate::physics::config::{PhysicsConfig, set_config};
+    use crate::physics::config::{PhysicsConfig, get_config, set_config};
 
+    // 未由本接口下发的设置（线程模式、世界池、冻结）保持不变
     let config = PhysicsConfig {
         enabled: enabled != 0,
         gravity_y,
@@ -2870,6 +3152,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsConfig(
         joints_enabled: joints_enabled != 0,
         kinematic_filter: kinematic_filter != 0,
         debug_log: debug_log != 0,
+        ..get_config()
     };
 
     set_config(config);
@@ -2880,6 +3163,87 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsConfig(
     }
 }
 
+/// 设置 CPU 蒙皮线程数（0 = rayon 全局线程池，1 = 串行，N = 独立 N 线程池）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetSkinningThreadCount(
+    _env: JNIEnv,
+    _class: JClass,
+    count: jint,
+) {
+    crate::skinning::set_thread_count(count.max(0) as usize);
+}
+
+/// 设置是否在独立物理线程上步进（模型下次更新时切换）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsThreaded(
+    _env: JNIEnv,
+    _class: JClass,
+    threaded: jboolean,
+) {
+    use crate::physics::config::{get_config, set_config};
+
+    let mut config = get_config();
+    config.threaded = threaded != 0;
+    set_config(config);
+}
+
+/// 设置线程物理模式下是否将模型放入共享物理世界（模型下次更新时迁移）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsWorldPool(
+    _env: JNIEnv,
+    _class: JClass,
+    enabled: jboolean,
+) {
+    use crate::physics::config::{get_config, set_config};
+
+    let mut config = get_config();
+    config.world_pool = enabled != 0;
+    set_config(config);
+}
+
+/// 设置静止/剔除时的物理冻结（idle_frames：连续静止多少帧后冻结）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetPhysicsSleep(
+    _env: JNIEnv,
+    _class: JClass,
+    enabled: jboolean,
+    idle_frames: jint,
+) {
+    use crate::physics::config::{get_config, set_config};
+
+    let mut config = get_config();
+    config.sleep_enabled = enabled != 0;
+    config.sleep_idle_frames = idle_frames.max(1) as u32;
+    set_config(config);
+}
+
+/// 获取物理处于活动状态的模型数
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPhysicsActiveModelCount(
+    _env: JNIEnv,
+    _class: JClass,
+) -> jint {
+    crate::physics::activity_counts().0 as jint
+}
+
+/// 获取物理已冻结（静止或被剔除）的模型数
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetPhysicsFrozenModelCount(
+    _env: JNIEnv,
+    _class: JClass,
+) -> jint {
+    crate::physics::activity_counts().1 as jint
+}
+
+/// 获取原生堆累计分配次数（仅 alloc_counter 特性构建统计，否则返回 -1）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetNativeAllocationCount(
+    _env: JNIEnv,
+    _class: JClass,
+) -> jlong {
+    crate::alloc_counter::allocation_count().map_or(-1, |n| n as jlong)
+}
+
 // ========== 第一人称模式相关 ==========
 
 /// 设置第一人称模式（启用时自动隐藏头部子网格，禁用时恢复）
@@ -2983,6 +3347,146 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_BatchGetSubMeshData(
     }
 }
 
+// ============================================================================
+// 网格 LOD
+// ============================================================================
+
+/// 设置加载时是否生成网格 LOD（只影响之后加载的模型）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMeshLodEnabled(
+    _env: JNIEnv,
+    _class: JClass,
+    enabled: jboolean,
+) {
+    crate::model::set_mesh_lod_enabled(enabled != 0);
+}
+
+/// 获取网格 LOD 额外级别数（不含原始网格，未生成时为 0）
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMeshLodLevelCount(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jint {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let model = model_arc.lock().unwrap();
+        return model.mesh_lod().map_or(0, |l| l.level_count()) as jint;
+    }
+    0
+}
+
+/// 获取所有 LOD 级别拼接后的索引数量
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_GetMeshLodIndexCount(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+) -> jint {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let model = model_arc.lock().unwrap();
+        return model.mesh_lod().map_or(0, |l| l.indices().len()) as jint;
+    }
+    0
+}
+
+/// 将 LOD 索引（u32）复制到 ByteBuffer 的 byteOffset 处，返回复制的索引数
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyMeshLodIndicesToBuffer(
+    env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    buffer: JByteBuffer,
+    byte_offset: jint,
+) -> jint {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let model = model_arc.lock().unwrap();
+        let indices = match model.mesh_lod() {
+            Some(l) => l.indices(),
+            None => return 0,
+        };
+        let dst = match env.get_direct_buffer_address(&buffer) {
+            Ok(p) => p,
+            Err(_) => return 0,
+        };
+        let capacity = env.get_direct_buffer_capacity(&buffer).unwrap_or(0);
+        let offset = byte_offset.max(0) as usize;
+        let byte_size = indices.len() * 4;
+        if offset + byte_size > capacity {
+            log::error!("CopyMeshLodIndicesToBuffer: 需要 {} 字节, 容量 {}", offset + byte_size, capacity);
+            return 0;
+        }
+        unsafe {
+            ptr::copy_nonoverlapping(indices.as_ptr() as *const u8, dst.add(offset), byte_size);
+        }
+        return indices.len() as jint;
+    }
+    0
+}
+
+/// 复制 LOD 索引范围到 ByteBuffer：按级别（1 起）、子网格展开，每项 beginIndex(i32) + indexCount(i32)
+/// 另在末尾按级别写入需要蒙皮的顶点数(i32)；返回写入的级别数
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyMeshLodRangesToBuffer(
+    env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    buffer: JByteBuffer,
+) -> jint {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let model = model_arc.lock().unwrap();
+        let lod = match model.mesh_lod() {
+            Some(l) => l,
+            None => return 0,
+        };
+        let levels = lod.level_count();
+        let submeshes = model.submesh_count();
+        let int_count = levels * submeshes * 2 + levels;
+        let dst = match env.get_direct_buffer_address(&buffer) {
+            Ok(p) => p,
+            Err(_) => return 0,
+        };
+        let capacity = env.get_direct_buffer_capacity(&buffer).unwrap_or(0);
+        if int_count * 4 > capacity {
+            log::error!("CopyMeshLodRangesToBuffer: 需要 {} 字节, 容量 {}", int_count * 4, capacity);
+            return 0;
+        }
+        let out = unsafe { std::slice::from_raw_parts_mut(dst as *mut i32, int_count) };
+        let mut k = 0;
+        for level in 1..=levels {
+            for &(begin, count) in lod.ranges(level) {
+                out[k] = begin as i32;
+                out[k + 1] = count as i32;
+                k += 2;
+            }
+        }
+        for level in 1..=levels {
+            out[k] = lod.vertex_count(level).unwrap_or(0) as i32;
+            k += 1;
+        }
+        return levels as jint;
+    }
+    0
+}
+
+/// 设置模型当前 LOD 级别（0 = 原始网格），CPU 蒙皮只处理该级用到的顶点
+#[no_mangle]
+pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_SetMeshLodLevel(
+    _env: JNIEnv,
+    _class: JClass,
+    model: jlong,
+    level: jint,
+) {
+    let models = MODELS.read().unwrap();
+    if let Some(model_arc) = models.get(&model) {
+        let mut model = model_arc.lock().unwrap();
+        model.set_mesh_lod_level(level.max(0) as usize);
+    }
+}
+
 // ============================================================================
 // 公共 API 相关
 // ============================================================================
@@ -3045,8 +3549,7 @@ pub extern "system" fn Java_com_shiroha_mmdskin_NativeFunc_CopyBonePositionsToBu
         // 逐骨骼写入位置
         let dst_floats = unsafe { std::slice::from_raw_parts_mut(dst as *mut f32, bone_count * 3) };
         for i in 0..bone_count {
-            if let Some(bone) = model.bone_manager.get_bone(i) {
-                let pos = bone.position();
+            if let Some(pos) = model.bone_position(i) {
                 dst_floats[i * 3] = pos.x;
                 dst_floats[i * 3 + 1] = pos.y;
                 dst_floats[i * 3 + 2] = pos.z;
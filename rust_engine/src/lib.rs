@@ -1,5 +1,6 @@
 //! MMD Engine - Rust 实现的 MMD 运行时引擎
 
+pub mod alloc_counter;
 pub mod animation;
 pub mod jni_bridge;
 pub mod model;
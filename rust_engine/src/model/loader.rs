@@ -219,6 +219,9 @@ pub fn load_pmx<P: AsRef<Path>>(path: P) -> Result<MmdModel> {
     // 初始化材质可见性（默认全部可见）
     model.init_material_visibility();
 
+    // 网格 LOD 在加载线程生成，会重排顶点，须在首次蒙皮之前
+    model.generate_mesh_lod();
+
     // 初始化后立即计算一次蒙皮，确保顶点位置正确
     model.update();
 
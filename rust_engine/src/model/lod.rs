@@ -0,0 +1,569 @@
+//! 网格 LOD 生成
+//!
+//! 加载时按子网格做二次误差（QEM）半边折叠，生成至多两级粗糙索引。
+//! 顶点只并入相邻的已有顶点、不产生新顶点，各级共用同一份顶点与蒙皮数据。
+//! 子网格的开放边（UV 接缝、材质交界、网格边缘）、多个子网格共用的顶点与受 Morph 影响的顶点锁定不动，
+//! 折叠只在主骨骼相同的顶点之间进行，以保持接缝、材质边界与骨骼权重。
+//! 生成后顶点按"越粗的级别用到越靠前"重排，每一级只需蒙皮一段顶点前缀。
+
+use std::sync::atomic::{AtomicBool, Ordering};
+
+use glam::{DVec3, Vec3};
+use rayon::prelude::*;
+
+use super::{SubMesh, VertexWeight};
+
+/// 模型三角形数低于此值时不生成 LOD
+const MIN_TRIANGLES: usize = 8000;
+/// 各级相对上一级的目标三角形比例
+const LEVEL_RATIOS: [f64; 2] = [0.5, 0.5];
+/// 各级允许的几何误差（相对包围盒对角线的距离）
+const LEVEL_ERRORS: [f64; 2] = [0.01, 0.03];
+/// 一级至少减少的三角形比例，不足时丢弃该级且不再继续
+const MIN_REDUCTION: f64 = 0.1;
+/// 折叠后三角形法线与原法线的最小余弦（防止翻面）
+const MIN_NORMAL_DOT: f64 = 0.2;
+/// 单级简化的最大轮数
+const MAX_PASSES: usize = 32;
+
+static ENABLED: AtomicBool = AtomicBool::new(true);
+
+/// 设置加载时是否生成网格 LOD（只影响之后加载的模型）
+pub fn set_enabled(enabled: bool) {
+    ENABLED.store(enabled, Ordering::Relaxed);
+}
+
+pub fn is_enabled() -> bool {
+    ENABLED.load(Ordering::Relaxed)
+}
+
+/// 顶点的主骨骼（权重最大的骨骼）
+pub fn dominant_bone(weight: &VertexWeight) -> i32 {
+    match weight {
+        VertexWeight::Bdef1 { bone } => *bone,
+        VertexWeight::Bdef2 { bones, weight } | VertexWeight::Sdef { bones, weight, .. } => {
+            if *weight >= 0.5 { bones[0] } else { bones[1] }
+        }
+        VertexWeight::Bdef4 { bones, weights } | VertexWeight::Qdef { bones, weights } => {
+            let mut best = 0;
+            for j in 1..4 {
+                if weights[j] > weights[best] {
+                    best = j;
+                }
+            }
+            bones[best]
+        }
+    }
+}
+
+/// 预生成的网格 LOD（级别从 1 开始，0 为原始索引）
+pub struct MeshLod {
+    /// 各级索引依次拼接
+    indices: Vec<u32>,
+    /// 每级每子网格在 indices 中的 (起始, 数量)，按级别展开
+    ranges: Vec<(u32, u32)>,
+    /// 每级需要蒙皮的顶点前缀长度
+    vertex_counts: Vec<u32>,
+    submesh_count: usize,
+}
+
+impl MeshLod {
+    /// 额外级别数（不含原始网格）
+    pub fn level_count(&self) -> usize {
+        self.vertex_counts.len()
+    }
+
+    pub fn indices(&self) -> &[u32] {
+        &self.indices
+    }
+
+    /// 第 level 级（1 起）各子网格的索引范围
+    pub fn ranges(&self, level: usize) -> &[(u32, u32)] {
+        if level == 0 || level > self.level_count() {
+            return &[];
+        }
+        let start = (level - 1) * self.submesh_count;
+        &self.ranges[start..start + self.submesh_count]
+    }
+
+    /// 第 level 级（1 起）需要蒙皮的顶点数
+    pub fn vertex_count(&self, level: usize) -> Option<usize> {
+        if level == 0 {
+            return None;
+        }
+        self.vertex_counts.get(level - 1).map(|&c| c as usize)
+    }
+
+    pub fn memory_usage(&self) -> u64 {
+        use std::mem::size_of;
+        (self.indices.capacity() * size_of::<u32>()
+            + self.ranges.capacity() * size_of::<(u32, u32)>()
+            + self.vertex_counts.capacity() * size_of::<u32>()) as u64
+    }
+}
+
+/// 生成网格 LOD
+///
+/// `pinned` 标记必须保留的顶点（如 Morph 顶点）。返回 LOD 与新顶点顺序（order[新索引] = 旧索引），
+/// LOD 索引已按新顺序编号；三角形过少或简化收益不足时返回 None。
+pub fn generate(
+    positions: &[Vec3],
+    indices: &[u32],
+    submeshes: &[SubMesh],
+    dominant_bones: &[i32],
+    pinned: &[bool],
+) -> Option<(MeshLod, Vec<u32>)> {
+    let vertex_count = positions.len();
+    if indices.len() / 3 < MIN_TRIANGLES
+        || dominant_bones.len() != vertex_count
+        || pinned.len() != vertex_count
+        || indices.iter().any(|&i| i as usize >= vertex_count)
+    {
+        return None;
+    }
+
+    let (min, max) = positions.iter().fold((Vec3::splat(f32::MAX), Vec3::splat(f32::MIN)), |(lo, hi), p| {
+        (lo.min(*p), hi.max(*p))
+    });
+    let diagonal = (max - min).length() as f64;
+    if !diagonal.is_finite() || diagonal <= 0.0 {
+        return None;
+    }
+
+    // 多个子网格共用的顶点锁定（材质交界）
+    let mut locked = pinned.to_vec();
+    let mut owner = vec![u32::MAX; vertex_count];
+    for (s, submesh) in submeshes.iter().enumerate() {
+        for &v in submesh_indices(indices, submesh) {
+            let o = &mut owner[v as usize];
+            if *o == u32::MAX {
+                *o = s as u32;
+            } else if *o != s as u32 {
+                locked[v as usize] = true;
+            }
+        }
+    }
+
+    let context = Context { positions, dominant_bones, locked: &locked, diagonal };
+    // per_submesh[s][level]：各子网格逐级的三角形
+    let per_submesh: Vec<Vec<Vec<[u32; 3]>>> = submeshes
+        .par_iter()
+        .map(|submesh| context.simplify_submesh(submesh_indices(indices, submesh)))
+        .collect();
+
+    // 逐级检查收益，不足即截断
+    let mut previous = indices.len() / 3;
+    let mut level_count = 0;
+    for level in 0..LEVEL_RATIOS.len() {
+        let total: usize = per_submesh.iter().map(|levels| levels.get(level).map_or(0, |t| t.len())).sum();
+        if total as f64 > previous as f64 * (1.0 - MIN_REDUCTION) {
+            break;
+        }
+        previous = total;
+        level_count += 1;
+    }
+    if level_count == 0 {
+        return None;
+    }
+
+    // 顶点被引用的最粗级别：-1 未引用，0 仅原始网格
+    let mut rank = vec![-1i8; vertex_count];
+    for &v in indices {
+        rank[v as usize] = 0;
+    }
+    for levels in &per_submesh {
+        for (level, tris) in levels.iter().take(level_count).enumerate() {
+            for &v in tris.iter().flatten() {
+                let r = &mut rank[v as usize];
+                *r = (*r).max(level as i8 + 1);
+            }
+        }
+    }
+
+    let mut order = Vec::with_capacity(vertex_count);
+    let mut vertex_counts = vec![0u32; level_count];
+    for r in (-1..=level_count as i8).rev() {
+        order.extend((0..vertex_count as u32).filter(|&v| rank[v as usize] == r));
+        if r >= 1 {
+            vertex_counts[r as usize - 1] = order.len() as u32;
+        }
+    }
+    let mut new_of_old = vec![0u32; vertex_count];
+    for (new, &old) in order.iter().enumerate() {
+        new_of_old[old as usize] = new as u32;
+    }
+
+    let mut lod_indices = Vec::new();
+    let mut ranges = Vec::with_capacity(level_count * submeshes.len());
+    for level in 0..level_count {
+        for levels in &per_submesh {
+            let begin = lod_indices.len() as u32;
+            if let Some(tris) = levels.get(level) {
+                lod_indices.extend(tris.iter().flatten().map(|&v| new_of_old[v as usize]));
+            }
+            ranges.push((begin, lod_indices.len() as u32 - begin));
+        }
+    }
+
+    let lod = MeshLod {
+        indices: lod_indices,
+        ranges,
+        vertex_counts,
+        submesh_count: submeshes.len(),
+    };
+    Some((lod, order))
+}
+
+/// 按 order（order[新索引] = 旧索引）重排逐顶点数组，长度不符时不动
+pub fn apply_order<T: Clone>(data: &mut Vec<T>, order: &[u32]) {
+    if data.len() != order.len() {
+        return;
+    }
+    let reordered: Vec<T> = order.iter().map(|&old| data[old as usize].clone()).collect();
+    *data = reordered;
+}
+
+fn submesh_indices<'a>(indices: &'a [u32], submesh: &SubMesh) -> &'a [u32] {
+    let begin = (submesh.begin_index as usize).min(indices.len());
+    let end = (begin + submesh.index_count as usize).min(indices.len());
+    &indices[begin..begin + (end - begin) / 3 * 3]
+}
+
+/// 对称 4x4 二次误差矩阵（上三角 10 个元素）
+#[derive(Clone, Copy, Default)]
+struct Quadric([f64; 10]);
+
+impl Quadric {
+    fn from_plane(n: DVec3, d: f64) -> Self {
+        Quadric([
+            n.x * n.x, n.x * n.y, n.x * n.z, n.x * d,
+            n.y * n.y, n.y * n.z, n.y * d,
+            n.z * n.z, n.z * d,
+            d * d,
+        ])
+    }
+
+    fn add(&mut self, other: &Quadric) {
+        for (a, b) in self.0.iter_mut().zip(other.0.iter()) {
+            *a += b;
+        }
+    }
+
+    fn error(&self, p: DVec3) -> f64 {
+        let q = &self.0;
+        q[0] * p.x * p.x + 2.0 * q[1] * p.x * p.y + 2.0 * q[2] * p.x * p.z + 2.0 * q[3] * p.x
+            + q[4] * p.y * p.y + 2.0 * q[5] * p.y * p.z + 2.0 * q[6] * p.y
+            + q[7] * p.z * p.z + 2.0 * q[8] * p.z
+            + q[9]
+    }
+}
+
+struct Context<'a> {
+    positions: &'a [Vec3],
+    dominant_bones: &'a [i32],
+    locked: &'a [bool],
+    diagonal: f64,
+}
+
+/// 单个子网格的局部编号数据
+struct LocalMesh {
+    /// 局部索引 -> 全局顶点
+    vertices: Vec<u32>,
+    positions: Vec<DVec3>,
+    bones: Vec<i32>,
+    locked: Vec<bool>,
+    quadrics: Vec<Quadric>,
+}
+
+impl Context<'_> {
+    /// 逐级简化一个子网格，返回各级三角形（全局顶点编号）
+    fn simplify_submesh(&self, indices: &[u32]) -> Vec<Vec<[u32; 3]>> {
+        let mut vertices = indices.to_vec();
+        vertices.sort_unstable();
+        vertices.dedup();
+        let local = |v: u32| vertices.binary_search(&v).unwrap_or(0) as u32;
+        let mut tris: Vec<[u32; 3]> = indices
+            .chunks_exact(3)
+            .map(|t| [local(t[0]), local(t[1]), local(t[2])])
+            .filter(|t| t[0] != t[1] && t[1] != t[2] && t[0] != t[2])
+            .collect();
+
+        let mut mesh = LocalMesh {
+            positions: vertices.iter().map(|&v| self.positions[v as usize].as_dvec3()).collect(),
+            bones: vertices.iter().map(|&v| self.dominant_bones[v as usize]).collect(),
+            locked: vertices.iter().map(|&v| self.locked[v as usize]).collect(),
+            quadrics: vec![Quadric::default(); vertices.len()],
+            vertices,
+        };
+        mesh.lock_open_edges(&tris);
+        mesh.accumulate_quadrics(&tris);
+
+        let mut levels = Vec::with_capacity(LEVEL_RATIOS.len());
+        for (ratio, error) in LEVEL_RATIOS.iter().zip(LEVEL_ERRORS.iter()) {
+            let target = (tris.len() as f64 * ratio) as usize;
+            let max_error = (error * self.diagonal).powi(2);
+            tris = mesh.simplify(tris, target, max_error);
+            levels.push(tris.iter().map(|t| t.map(|v| mesh.vertices[v as usize])).collect());
+        }
+        levels
+    }
+}
+
+impl LocalMesh {
+    /// 只属于一个三角形（开放边界、UV 接缝）或超过两个三角形（非流形）的边，其端点锁定
+    fn lock_open_edges(&mut self, tris: &[[u32; 3]]) {
+        let mut edges: Vec<(u32, u32)> = tris
+            .iter()
+            .flat_map(|t| [(t[0], t[1]), (t[1], t[2]), (t[2], t[0])])
+            .map(|(a, b)| (a.min(b), a.max(b)))
+            .collect();
+        edges.sort_unstable();
+        let mut i = 0;
+        while i < edges.len() {
+            let mut j = i + 1;
+            while j < edges.len() && edges[j] == edges[i] {
+                j += 1;
+            }
+            if j - i != 2 {
+                self.locked[edges[i].0 as usize] = true;
+                self.locked[edges[i].1 as usize] = true;
+            }
+            i = j;
+        }
+    }
+
+    fn accumulate_quadrics(&mut self, tris: &[[u32; 3]]) {
+        for t in tris {
+            let [a, b, c] = t.map(|v| self.positions[v as usize]);
+            let n = (b - a).cross(c - a);
+            let len = n.length();
+            if len <= f64::EPSILON {
+                continue;
+            }
+            let n = n / len;
+            let q = Quadric::from_plane(n, -n.dot(a));
+            for &v in t {
+                self.quadrics[v as usize].add(&q);
+            }
+        }
+    }
+
+    fn normal(&self, t: [u32; 3]) -> DVec3 {
+        let [a, b, c] = t.map(|v| self.positions[v as usize]);
+        (b - a).cross(c - a)
+    }
+
+    /// 贪心半边折叠直到三角形数不超过 target 或没有误差允许范围内的折叠
+    ///
+    /// 每轮按代价升序处理候选，被改动三角形涉及的顶点本轮不再参与，保证翻面检查基于最新拓扑。
+    fn simplify(&mut self, mut tris: Vec<[u32; 3]>, target: usize, max_error: f64) -> Vec<[u32; 3]> {
+        let n = self.positions.len();
+        for _ in 0..MAX_PASSES {
+            if tris.len() <= target {
+                break;
+            }
+
+            // 顶点 -> 三角形邻接（CSR）
+            let mut offsets = vec![0u32; n + 1];
+            for t in &tris {
+                for &v in t {
+                    offsets[v as usize + 1] += 1;
+                }
+            }
+            for i in 0..n {
+                offsets[i + 1] += offsets[i];
+            }
+            let mut fill = offsets.clone();
+            let mut adjacency = vec![0u32; tris.len() * 3];
+            for (ti, t) in tris.iter().enumerate() {
+                for &v in t {
+                    adjacency[fill[v as usize] as usize] = ti as u32;
+                    fill[v as usize] += 1;
+                }
+            }
+            let faces = |v: u32| &adjacency[offsets[v as usize] as usize..offsets[v as usize + 1] as usize];
+
+            // 每个可移除顶点取代价最小的折叠目标
+            let mut candidates: Vec<(f64, u32, u32)> = Vec::new();
+            for u in 0..n as u32 {
+                if self.locked[u as usize] {
+                    continue;
+                }
+                let mut best: Option<(f64, u32)> = None;
+                for &f in faces(u) {
+                    for &v in &tris[f as usize] {
+                        if v == u || self.bones[v as usize] != self.bones[u as usize] {
+                            continue;
+                        }
+                        let mut q = self.quadrics[u as usize];
+                        q.add(&self.quadrics[v as usize]);
+                        let cost = q.error(self.positions[v as usize]);
+                        if best.map_or(true, |(c, _)| cost < c) {
+                            best = Some((cost, v));
+                        }
+                    }
+                }
+                if let Some((cost, v)) = best {
+                    if cost <= max_error {
+                        candidates.push((cost, u, v));
+                    }
+                }
+            }
+            if candidates.is_empty() {
+                break;
+            }
+            candidates.sort_unstable_by(|a, b| a.0.total_cmp(&b.0));
+
+            let mut remap: Vec<u32> = (0..n as u32).collect();
+            let mut touched = vec![false; n];
+            let mut remaining = tris.len();
+            let mut collapsed = 0usize;
+            for &(_, u, v) in &candidates {
+                if remaining <= target {
+                    break;
+                }
+                if touched[u as usize] || touched[v as usize] || !self.collapse_keeps_orientation(&tris, faces(u), u, v) {
+                    continue;
+                }
+                remap[u as usize] = v;
+                let q = self.quadrics[u as usize];
+                self.quadrics[v as usize].add(&q);
+                for &f in faces(u) {
+                    let t = tris[f as usize];
+                    if t.contains(&v) {
+                        remaining -= 1;
+                    }
+                    for &w in &t {
+                        touched[w as usize] = true;
+                    }
+                }
+                collapsed += 1;
+            }
+            if collapsed == 0 {
+                break;
+            }
+
+            tris = tris
+                .into_iter()
+                .map(|t| t.map(|v| remap[v as usize]))
+                .filter(|t| t[0] != t[1] && t[1] != t[2] && t[0] != t[2])
+                .collect();
+        }
+        tris
+    }
+
+    /// u 并入 v 后，不含 v 的相邻三角形不得退化或翻面
+    fn collapse_keeps_orientation(&self, tris: &[[u32; 3]], faces: &[u32], u: u32, v: u32) -> bool {
+        faces.iter().all(|&f| {
+            let t = tris[f as usize];
+            if t.contains(&v) {
+                return true;
+            }
+            let before = self.normal(t);
+            let after = self.normal(t.map(|w| if w == u { v } else { w }));
+            let (lb, la) = (before.length(), after.length());
+            if la <= f64::EPSILON || lb <= f64::EPSILON {
+                return false;
+            }
+            before.dot(after) >= MIN_NORMAL_DOT * lb * la
+        })
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    /// 细分平面网格：左半与右半分属两个子网格，中线两侧顶点各自独立（模拟 UV 接缝）
+    fn build_grid(size: u32) -> (Vec<Vec3>, Vec<u32>, Vec<SubMesh>) {
+        let half = size / 2;
+        let mut positions = Vec::new();
+        let mut ids = vec![[u32::MAX; 2]; ((size + 1) * (size + 1)) as usize];
+        let mut vertex = |x: u32, y: u32, side: usize, positions: &mut Vec<Vec3>| {
+            let slot = &mut ids[(y * (size + 1) + x) as usize][side];
+            if *slot == u32::MAX {
+                positions.push(Vec3::new(x as f32, y as f32, 0.0));
+                *slot = positions.len() as u32 - 1;
+            }
+            *slot
+        };
+
+        let mut submeshes = Vec::new();
+        let mut indices = Vec::new();
+        for side in 0..2usize {
+            let begin = indices.len() as u32;
+            let (x0, x1) = if side == 0 { (0, half) } else { (half, size) };
+            for y in 0..size {
+                for x in x0..x1 {
+                    let a = vertex(x, y, side, &mut positions);
+                    let b = vertex(x + 1, y, side, &mut positions);
+                    let c = vertex(x + 1, y + 1, side, &mut positions);
+                    let d = vertex(x, y + 1, side, &mut positions);
+                    indices.extend_from_slice(&[a, b, c, a, c, d]);
+                }
+            }
+            submeshes.push(SubMesh::new(begin, indices.len() as u32 - begin, side as i32));
+        }
+        (positions, indices, submeshes)
+    }
+
+    #[test]
+    fn simplifies_flat_mesh_and_keeps_borders() {
+        let (positions, indices, submeshes) = build_grid(80);
+        let bones = vec![0; positions.len()];
+        let pinned = vec![false; positions.len()];
+        let (lod, order) = generate(&positions, &indices, &submeshes, &bones, &pinned).expect("应生成 LOD");
+
+        assert!(lod.level_count() >= 1);
+        let full = indices.len() as u32;
+        let level1: u32 = lod.ranges(1).iter().map(|r| r.1).sum();
+        assert!(level1 * 2 <= full + 6, "一级应约减半: {} / {}", level1, full);
+
+        // 新顺序是一个排列
+        let mut sorted = order.clone();
+        sorted.sort_unstable();
+        assert!(sorted.iter().enumerate().all(|(i, &v)| i as u32 == v));
+
+        for level in 1..=lod.level_count() {
+            let limit = lod.vertex_count(level).unwrap() as u32;
+            let mut used = Vec::new();
+            for &(begin, count) in lod.ranges(level) {
+                let tris = &lod.indices()[begin as usize..(begin + count) as usize];
+                // 只引用该级顶点前缀
+                assert!(tris.iter().all(|&v| v < limit));
+                used.extend(tris.iter().map(|&v| positions[order[v as usize] as usize]));
+            }
+            // 网格外框与子网格交界线上的顶点全部保留
+            for p in &positions {
+                let border = p.x == 0.0 || p.y == 0.0 || p.x == 80.0 || p.y == 80.0 || p.x == 40.0;
+                if border {
+                    assert!(used.contains(p), "级别 {} 丢失边界顶点 {:?}", level, p);
+                }
+            }
+        }
+        if lod.level_count() >= 2 {
+            assert!(lod.vertex_count(2) <= lod.vertex_count(1));
+        }
+    }
+
+    #[test]
+    fn different_bones_and_pinned_vertices_are_not_collapsed() {
+        let (positions, indices, submeshes) = build_grid(80);
+        // 每个顶点主骨骼各不相同：任何折叠都不允许
+        let bones: Vec<i32> = (0..positions.len() as i32).collect();
+        let pinned = vec![false; positions.len()];
+        assert!(generate(&positions, &indices, &submeshes, &bones, &pinned).is_none());
+
+        let bones = vec![0; positions.len()];
+        let pinned = vec![true; positions.len()];
+        assert!(generate(&positions, &indices, &submeshes, &bones, &pinned).is_none());
+    }
+
+    #[test]
+    fn small_meshes_are_skipped() {
+        let (positions, indices, submeshes) = build_grid(20);
+        let bones = vec![0; positions.len()];
+        let pinned = vec![false; positions.len()];
+        assert!(generate(&positions, &indices, &submeshes, &bones, &pinned).is_none());
+    }
+}
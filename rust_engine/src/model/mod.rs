@@ -4,6 +4,7 @@ mod runtime;
 mod loader;
 mod material;
 mod submesh;
+mod lod;
 
 mod vrm_loader;
 mod vrm_mesh;
@@ -18,6 +19,7 @@ pub use loader::load_pmx;
 pub use vrm_loader::load_vrm;
 pub use material::MmdMaterial;
 pub use submesh::SubMesh;
+pub use lod::{MeshLod, set_enabled as set_mesh_lod_enabled};
 
 use glam::{Vec2, Vec3};
 
@@ -1,23 +1,33 @@
 //! MMD 运行时模型
 
-use crate::animation::{VmdAnimation, AnimationLayerManager};
+use crate::animation::{VmdAnimation, AnimationLayerManager, BakedBonePalette, BonePose, PaletteBake, PendingPalette, PoseSnapshot};
 use crate::morph::MorphManager;
-use crate::physics::MMDPhysics;
+use crate::physics::{MMDPhysics, ThreadedPhysics};
 use crate::skeleton::BoneManager;
+use crate::skinning::CpuSkinner;
 use crate::vr::VrIkSolver;
 use glam::{Mat4, Quat, Vec2, Vec3, Vec4};
 use rayon::prelude::*;
 use std::collections::HashMap;
-use std::sync::Arc;
+use std::sync::{Arc, Weak};
 use std::time::{SystemTime, UNIX_EPOCH};
 
-use super::{MmdMaterial, RuntimeVertex, SubMesh, VertexWeight};
+use super::{lod, MeshLod, MmdMaterial, RuntimeVertex, SubMesh, VertexWeight};
 
 thread_local! {
     /// 线程局部 PRNG 状态（xorshift32），避免多线程竞态
     static PRNG_STATE: std::cell::Cell<u32> = std::cell::Cell::new(0);
 }
 
+/// GPU 骨骼调色板模式下仍需 CPU 计算全局变换的骨骼（头部、眼睛、手部挂点）
+const PALETTE_CPU_BONE_NAMES: [&str; 17] = [
+    "頭", "head", "Head", "首", "neck", "Neck", "両目", "左目", "右目",
+    "右手首", "右腕", "right_hand", "RightHand", "左手首", "左腕", "left_hand", "LeftHand",
+];
+
+/// 过渡旋转插值改用 slerp 的四元数点积阈值（约 36° 以内 nlerp 误差可忽略）
+const TRANSITION_NLERP_DOT: f32 = 0.95;
+
 /// 线程安全的伪随机数生成（0.0 - 1.0），使用 xorshift32
 fn rand_float() -> f32 {
     PRNG_STATE.with(|cell| {
@@ -100,9 +110,29 @@ pub struct MmdModel {
     
     // 物理系统
     physics: Option<MMDPhysics>,
+    /// 交由独立物理线程步进时的共享状态（与 physics 二者至多其一）
+    physics_thread: Option<Arc<ThreadedPhysics>>,
+    /// 已应用的配置重力 Y（NaN 表示尚未同步）
+    physics_gravity_y: f32,
+    /// 物理线程结果插值缓冲区
+    physics_blend_buf: Vec<(usize, Mat4)>,
     physics_enabled: bool,
     /// 骨骼变换缓冲区（避免每帧堆分配）
     physics_bone_transforms_buf: Vec<Mat4>,
+    /// CPU 蒙皮的预排序数据
+    cpu_skinner: Option<CpuSkinner>,
+    /// 加载时生成的网格 LOD（顶点已按 LOD 前缀重排）
+    mesh_lod: Option<MeshLod>,
+    /// 当前 LOD 级别（0 = 原始网格），CPU 蒙皮只处理该级用到的顶点前缀
+    mesh_lod_level: usize,
+    /// 渲染端改写 UV 的布局标识（纹理图集，0 表示原始 UV）
+    uv_layout_key: u64,
+    /// 已应用顶点 Morph 的静止位置（CPU 蒙皮输入，按 Morph 权重变化稀疏更新）
+    morphed_positions: Vec<Vec3>,
+    /// update_uvs 已同步到的 Morph 版本
+    uv_morph_version: u64,
+    /// update_uvs_raw 已同步到的 Morph 版本
+    uv_raw_version: u64,
     
     // 材质可见性控制（用于脱外套等功能）
     material_visible: Vec<bool>,
@@ -143,6 +173,11 @@ pub struct MmdModel {
     
     /// Group/Flip Morph 递归展开后的有效权重缓冲区（每帧复用，避免分配）
     effective_weights_buf: Vec<f32>,
+    /// 有效权重缓冲对应的 Morph 权重版本
+    effective_weights_version: u64,
+    /// GPU 顶点 / UV Morph 权重内容版本（变化时递增，渲染侧据此跳过重复上传）
+    gpu_morph_weights_version: u64,
+    gpu_uv_morph_weights_version: u64,
     
     /// 材质 Morph 结果展平缓存（避免每帧分配）
     material_morph_results_flat_cache: Vec<f32>,
@@ -186,15 +221,29 @@ pub struct MmdModel {
     /// VR IK 求解器（缓存骨骼索引）
     vr_ik_solver: VrIkSolver,
     
-    // ======== 矩阵插值过渡 ========
-    /// 缓存的蒙皮矩阵（过渡开始时的状态）
-    transition_matrices: Vec<Mat4>,
+    // ======== 局部姿态过渡 ========
+    /// 过渡开始时缓存的骨骼局部姿态（跨过渡复用）
+    transition_pose: PoseSnapshot,
     /// 过渡进度（0.0 - 1.0）
     transition_progress: f32,
     /// 过渡时长（秒）
     transition_duration: f32,
     /// 是否正在过渡
     is_transitioning: bool,
+
+    // ======== 姿态共享 ========
+    /// 是否存在外部设置的 Morph（VPD 表情 / 手动权重），存在时姿态不可跨实例共享
+    manual_morph_active: bool,
+
+    // ======== GPU 骨骼调色板 ========
+    /// 当前动画的烘焙轨道（GPU 计算无 IK/物理骨骼的蒙皮矩阵）
+    bone_palette: Option<BakedBonePalette>,
+    /// 轨道仍在后台烘焙的调色板
+    bone_palette_pending: Option<PendingPalette>,
+    /// 烘焙失败的动画（避免每帧重试）
+    bone_palette_rejected: Option<Weak<VmdAnimation>>,
+    /// 本帧调色板采样帧（CPU 跳过的骨骼按此帧回答位置查询）
+    bone_palette_frame: f32,
 }
 
 impl MmdModel {
@@ -241,8 +290,18 @@ impl MmdModel {
             is_vrm: false,
             model_transform: Mat4::IDENTITY,
             physics: None,
+            physics_thread: None,
+            physics_gravity_y: f32::NAN,
+            physics_blend_buf: Vec::new(),
             physics_enabled: false,
             physics_bone_transforms_buf: Vec::new(),
+            cpu_skinner: None,
+            mesh_lod: None,
+            mesh_lod_level: 0,
+            uv_layout_key: 0,
+            morphed_positions: Vec::new(),
+            uv_morph_version: 0,
+            uv_raw_version: 0,
             material_visible: Vec::new(),
             bone_indices: Vec::new(),
             bone_weights: Vec::new(),
@@ -259,6 +318,9 @@ impl MmdModel {
             uv_morph_count: 0,
             gpu_uv_morph_initialized: false,
             effective_weights_buf: Vec::new(),
+            effective_weights_version: 0,
+            gpu_morph_weights_version: 0,
+            gpu_uv_morph_weights_version: 0,
             material_morph_results_flat_cache: Vec::new(),
             vpd_bone_overrides: HashMap::new(),
             vr_hand_mode: 0,
@@ -269,10 +331,15 @@ impl MmdModel {
             vr_tracking_data: [0.0; 21],
             vr_ik_strength: 1.0,
             vr_ik_solver: VrIkSolver::new(),
-            transition_matrices: Vec::new(),
+            transition_pose: PoseSnapshot::default(),
             transition_progress: 0.0,
             transition_duration: 0.0,
             is_transitioning: false,
+            manual_morph_active: false,
+            bone_palette: None,
+            bone_palette_pending: None,
+            bone_palette_rejected: None,
+            bone_palette_frame: 0.0,
             first_person_enabled: false,
             head_bone_index: None,
             head_submesh_flags: Vec::new(),
@@ -624,23 +691,21 @@ impl MmdModel {
     }
 
     /// 更新 Morph 动画
+    ///
+    /// 骨骼/材质/UV Morph 在此应用；顶点 Morph 仅 CPU 蒙皮需要，在 update 中稀疏应用。
     pub fn update_morph_animation(&mut self) {
-        // 先将 update_positions 重置为原始顶点位置（因为 apply_morphs 是累加操作）
-        for (i, vertex) in self.vertices.iter().enumerate() {
-            if i < self.update_positions.len() {
-                self.update_positions[i] = vertex.position;
-            }
-        }
-        // 应用所有 Morph 变形（顶点/骨骼/材质/UV/Group）
-        self.morph_manager
-            .apply_morphs(&mut self.bone_manager, &mut self.update_positions);
-        
-        // 将 UV Morph 偏移应用到 UV 缓冲区
-        let uv_deltas = self.morph_manager.get_uv_morph_deltas();
-        if !uv_deltas.is_empty() {
-            for (i, vertex) in self.vertices.iter().enumerate() {
-                if i < self.update_uvs.len() && i < uv_deltas.len() {
-                    self.update_uvs[i] = vertex.uv + uv_deltas[i];
+        self.morph_manager.apply_morphs(&mut self.bone_manager);
+        
+        // 将 UV Morph 偏移应用到 UV 缓冲区（仅权重变化时）
+        let version = self.morph_manager.applied_version();
+        if version != self.uv_morph_version {
+            self.uv_morph_version = version;
+            let uv_deltas = self.morph_manager.get_uv_morph_deltas();
+            if !uv_deltas.is_empty() {
+                for (i, vertex) in self.vertices.iter().enumerate() {
+                    if i < self.update_uvs.len() && i < uv_deltas.len() {
+                        self.update_uvs[i] = vertex.uv + uv_deltas[i];
+                    }
                 }
             }
         }
@@ -651,9 +716,8 @@ impl MmdModel {
         self.bone_manager.update_transforms(after_physics);
     }
 
-    /// 更新顶点（蒙皮计算）- 使用 rayon 并行加速
+    /// 更新顶点（蒙皮计算）- 分块并行，写入常驻输出缓冲区
     pub fn update(&mut self) {
-        let bone_matrices = self.bone_manager.get_skinning_matrices();
         let vertex_count = self.vertices.len();
         let raw_len = vertex_count * 3;
 
@@ -663,66 +727,61 @@ impl MmdModel {
         if self.update_normals_raw.len() != raw_len {
             self.update_normals_raw.resize(raw_len, 0.0);
         }
-        if self.update_uvs_raw.len() != self.update_uvs.len() * 2 {
+        let uv_resized = self.update_uvs_raw.len() != self.update_uvs.len() * 2;
+        if uv_resized {
             self.update_uvs_raw.resize(self.update_uvs.len() * 2, 0.0);
         }
         
-        // UV 拷贝（并行）
-        self.update_uvs_raw
-            .par_chunks_mut(2)
-            .zip(self.update_uvs.par_iter())
-            .for_each(|(chunk, uv)| {
-                chunk[0] = uv.x;
-                chunk[1] = uv.y;
-            });
+        // UV 拷贝（并行，仅 UV Morph 变化后）
+        if uv_resized || self.uv_raw_version != self.uv_morph_version {
+            self.uv_raw_version = self.uv_morph_version;
+            self.update_uvs_raw
+                .par_chunks_mut(2)
+                .zip(self.update_uvs.par_iter())
+                .for_each(|(chunk, uv)| {
+                    chunk[0] = uv.x;
+                    chunk[1] = uv.y;
+                });
+        }
 
-        // 并行蒙皮计算
+        // 顶点 Morph：稀疏写入常驻的 Morph 后静止位置，权重未变化时跳过
+        let reset = self.morphed_positions.len() != vertex_count;
+        if reset {
+            self.morphed_positions.clear();
+            self.morphed_positions.extend(self.vertices.iter().map(|v| v.position));
+        }
         let vertices = &self.vertices;
-        let weights = &self.weights;
-        
-        // 将输出切片分块，每个顶点对应 3 个 f32
-        let pos_raw = &mut self.update_positions_raw;
-        let norm_raw = &mut self.update_normals_raw;
-        let positions = &mut self.update_positions;
-        let normals = &mut self.update_normals;
-        
-        // 并行计算所有顶点（使用已应用 Morph 的 update_positions）
-        positions
-            .par_iter_mut()
-            .zip(normals.par_iter_mut())
-            .zip(pos_raw.par_chunks_mut(3))
-            .zip(norm_raw.par_chunks_mut(3))
-            .zip(vertices.par_iter())
-            .zip(weights.par_iter())
-            .for_each(|(((((pos_out, norm_out), pos_chunk), norm_chunk), vertex), weight)| {
-                // 使用 pos_out（即 update_positions，已应用 Morph）作为蒙皮输入
-                let morph_position = *pos_out;
-                let (pos, norm) = compute_vertex_skinning(
-                    morph_position,  // 使用已应用 Morph 的位置
-                    vertex.normal,
-                    weight,
-                    &bone_matrices,
-                );
-                
-                *pos_out = pos;
-                *norm_out = norm;
-                
-                pos_chunk[0] = pos.x;
-                pos_chunk[1] = pos.y;
-                pos_chunk[2] = pos.z;
-                norm_chunk[0] = norm.x;
-                norm_chunk[1] = norm.y;
-                norm_chunk[2] = norm.z;
-            });
+        self.morph_manager.apply_vertex_morphs(|i| vertices[i].position, &mut self.morphed_positions, reset);
+
+        // 按权重类型预排序的蒙皮数据，首次使用时构建
+        let expected = vertex_count.min(self.weights.len());
+        if self.cpu_skinner.as_ref().map_or(true, |s| s.vertex_count() != expected) {
+            self.cpu_skinner = Some(CpuSkinner::new(&self.vertices, &self.weights));
+        }
+        let vertex_limit = self.mesh_lod.as_ref()
+            .and_then(|l| l.vertex_count(self.mesh_lod_level))
+            .unwrap_or(usize::MAX);
+        if let Some(skinner) = &self.cpu_skinner {
+            skinner.skin(
+                vertex_limit,
+                self.bone_manager.get_skinning_matrices(),
+                &self.morphed_positions,
+                &mut self.update_positions,
+                &mut self.update_normals,
+                &mut self.update_positions_raw,
+                &mut self.update_normals_raw,
+            );
+        }
 
         // 调试日志（只在首次执行）
         if !self.debug_logged {
             self.debug_logged = true;
             log::info!(
-                "MMD Debug: vertex_count={}, pos_raw_len={}, uv_raw_len={} (rayon并行蒙皮)",
+                "MMD Debug: vertex_count={}, pos_raw_len={}, uv_raw_len={} (分块并行蒙皮, 线程设置 {})",
                 vertex_count,
                 self.update_positions_raw.len(),
                 self.update_uvs_raw.len(),
+                crate::skinning::thread_count(),
             );
         }
     }
@@ -809,7 +868,7 @@ impl MmdModel {
         self.animation_layer_manager.set_layer_fade_times(layer_id, fade_in, fade_out);
     }
     
-    /// 带过渡地切换层动画（矩阵插值过渡）
+    /// 带过渡地切换层动画（骨骼局部姿态过渡）
     /// 
     /// 从当前骨骼姿态平滑过渡到新动画的第一帧，避免动作切换时的突兀感。
     /// 
@@ -819,7 +878,14 @@ impl MmdModel {
     /// - `transition_time`: 过渡时间（秒），推荐 0.2 ~ 0.5 秒
     pub fn transition_layer_to(&mut self, layer_id: usize, animation: Option<Arc<VmdAnimation>>, transition_time: f32) {
         if transition_time > 0.0 {
-            self.transition_matrices = self.bone_manager.get_skinning_matrices().to_vec();
+            // 上一帧由 GPU 调色板计算的骨骼在 CPU 侧没有姿态，先补齐再缓存
+            if self.bone_manager.is_palette_active() {
+                self.bone_manager.set_palette_active(false);
+                if let Some((clip, frame)) = self.animation_layer_manager.single_full_weight_clip() {
+                    clip.evaluate(frame, &mut self.bone_manager, &mut self.morph_manager);
+                }
+            }
+            self.transition_pose.capture_bones_into(&self.bone_manager);
             self.transition_duration = transition_time;
             self.transition_progress = 0.0;
             self.is_transitioning = true;
@@ -916,6 +982,9 @@ impl MmdModel {
         }
         self.update_morph_animation();
         
+        // 过渡混合（局部姿态，随后的层级更新统一传播）
+        self.apply_transition_pose(elapsed);
+        
         // 骨骼更新（物理前）— 先计算当前帧全局变换
         self.update_node_animation(false);
         
@@ -937,28 +1006,21 @@ impl MmdModel {
 
         self.end_animation();
         
-        // 应用矩阵插值过渡
-        self.apply_transition_blend(elapsed);
-        
         self.update();
     }
     
-    /// 应用矩阵插值过渡
-    fn apply_transition_blend(&mut self, elapsed: f32) {
+    /// 在骨骼局部空间应用过渡混合（层级更新前调用）
+    ///
+    /// 以缓存的过渡前局部姿态为起点，逐骨骼平移 lerp、旋转 nlerp/slerp，
+    /// 全局矩阵与蒙皮矩阵由随后的一次层级更新得到，旋转差较大时网格也不会收缩。
+    fn apply_transition_pose(&mut self, elapsed: f32) {
         if !self.is_transitioning {
             return;
         }
         
-        // 检查过渡矩阵是否有效
-        if self.transition_matrices.is_empty() {
-            self.is_transitioning = false;
-            return;
-        }
-        
-        // 除零保护：duration <= 0 时直接结束过渡
-        if self.transition_duration <= 0.0 {
+        // 缓存无效或 duration <= 0（除零保护）时直接结束过渡
+        if self.transition_pose.bone_poses.is_empty() || self.transition_duration <= 0.0 {
             self.is_transitioning = false;
-            self.transition_matrices.clear();
             return;
         }
         
@@ -966,10 +1028,9 @@ impl MmdModel {
         self.transition_progress += elapsed / self.transition_duration;
         
         if self.transition_progress >= 1.0 {
-            // 过渡完成，不再修改矩阵
+            // 过渡完成，不再修改姿态（保留缓存容量供下次过渡）
             self.transition_progress = 1.0;
             self.is_transitioning = false;
-            self.transition_matrices.clear();
             return;
         }
         
@@ -977,31 +1038,22 @@ impl MmdModel {
         let t = self.transition_progress;
         let smooth_t = t * t * (3.0 - 2.0 * t);
         
-        // 先复制当前蒙皮矩阵（避免借用冲突）
-        let new_matrices: Vec<Mat4> = self.bone_manager.get_skinning_matrices().to_vec();
-        let bone_count = self.transition_matrices.len().min(new_matrices.len());
-        
-        for i in 0..bone_count {
-            let old_mat = self.transition_matrices[i];
-            let new_mat = new_matrices[i];
-            
-            // 简单的矩阵线性插值（LERP），避免分解失败导致的拉扯
-            // 对于蒙皮矩阵，直接插值通常比分解更稳定
-            let blended_mat = Self::lerp_matrix(old_mat, new_mat, smooth_t);
-            self.bone_manager.set_skinning_matrix(i, blended_mat);
+        for (i, pose) in self.transition_pose.bone_poses.iter().enumerate() {
+            if let Some(bone) = self.bone_manager.get_bone_mut(i) {
+                bone.animation_translate = pose.translation.lerp(bone.animation_translate, smooth_t);
+                bone.animation_rotate = Self::blend_rotation(pose.rotation, bone.animation_rotate, smooth_t);
+            }
         }
     }
-    
-    /// 矩阵线性插值
-    fn lerp_matrix(a: Mat4, b: Mat4, t: f32) -> Mat4 {
-        // 分量线性插值
-        let cols_a = a.to_cols_array();
-        let cols_b = b.to_cols_array();
-        let mut result = [0.0f32; 16];
-        for i in 0..16 {
-            result[i] = cols_a[i] * (1.0 - t) + cols_b[i] * t;
+
+    /// 过渡旋转插值：夹角小时 nlerp，夹角大时 slerp 保持角速度均匀
+    #[inline]
+    fn blend_rotation(from: Quat, to: Quat, t: f32) -> Quat {
+        if from.dot(to).abs() > TRANSITION_NLERP_DOT {
+            from.lerp(to, t)
+        } else {
+            from.slerp(to, t)
         }
-        Mat4::from_cols_array(&result)
     }
 
     /// 设置头部角度
@@ -1336,6 +1388,80 @@ impl MmdModel {
         count
     }
     
+    // ========== 网格 LOD ==========
+
+    /// 生成网格 LOD 并按 LOD 前缀重排顶点（加载线程在首次蒙皮与 GPU 数据初始化之前调用）
+    ///
+    /// 受顶点 / UV Morph 影响的顶点保持不动；重排同步到所有逐顶点数据：顶点（含 UV）、
+    /// 权重（含 SDEF 参数）、蒙皮输出、索引与 Morph 状态。边缘宽度按材质而非逐顶点，不受影响。
+    /// 开关只影响之后加载的模型，同一模型资源因此可能存在两种顶点顺序（见 [`Self::pose_share_key`]）。
+    pub fn generate_mesh_lod(&mut self) {
+        if !lod::is_enabled() || self.mesh_lod.is_some() || self.weights.len() != self.vertices.len() {
+            return;
+        }
+        let vertex_count = self.vertices.len();
+        let positions: Vec<Vec3> = self.vertices.iter().map(|v| v.position).collect();
+        let bones: Vec<i32> = self.weights.iter().map(lod::dominant_bone).collect();
+        let mut pinned = vec![false; vertex_count];
+        for i in 0..self.morph_manager.morph_count() {
+            if let Some(morph) = self.morph_manager.get_morph(i) {
+                let touched = morph.vertex_offsets.iter().map(|o| o.vertex_index)
+                    .chain(morph.uv_offsets.iter().map(|o| o.vertex_index));
+                for v in touched {
+                    if let Some(p) = pinned.get_mut(v as usize) {
+                        *p = true;
+                    }
+                }
+            }
+        }
+
+        let start = std::time::Instant::now();
+        let (mesh_lod, order) = match lod::generate(&positions, &self.indices, &self.submeshes, &bones, &pinned) {
+            Some(result) => result,
+            None => return,
+        };
+
+        let mut new_of_old = vec![0u32; vertex_count];
+        for (new, &old) in order.iter().enumerate() {
+            new_of_old[old as usize] = new as u32;
+        }
+        lod::apply_order(&mut self.vertices, &order);
+        lod::apply_order(&mut self.weights, &order);
+        lod::apply_order(&mut self.update_positions, &order);
+        lod::apply_order(&mut self.update_normals, &order);
+        lod::apply_order(&mut self.update_uvs, &order);
+        for index in &mut self.indices {
+            *index = new_of_old[*index as usize];
+        }
+        self.morph_manager.remap_vertices(&new_of_old);
+        // 依赖顶点顺序的缓存在下次 update 时重建
+        self.cpu_skinner = None;
+        self.morphed_positions.clear();
+        self.update_uvs_raw.clear();
+
+        log::info!(
+            "网格 LOD 生成完成: {} 级, 三角形 {} -> {:?}, 顶点前缀 {:?}, 耗时 {:?}",
+            mesh_lod.level_count(),
+            self.indices.len() / 3,
+            (1..=mesh_lod.level_count())
+                .map(|l| mesh_lod.ranges(l).iter().map(|r| r.1 as usize / 3).sum::<usize>())
+                .collect::<Vec<_>>(),
+            (1..=mesh_lod.level_count()).filter_map(|l| mesh_lod.vertex_count(l)).collect::<Vec<_>>(),
+            start.elapsed(),
+        );
+        self.mesh_lod = Some(mesh_lod);
+    }
+
+    pub fn mesh_lod(&self) -> Option<&MeshLod> {
+        self.mesh_lod.as_ref()
+    }
+
+    /// 设置当前 LOD 级别（超出已生成级别时取最粗一级）
+    pub fn set_mesh_lod_level(&mut self, level: usize) {
+        let max = self.mesh_lod.as_ref().map_or(0, |l| l.level_count());
+        self.mesh_lod_level = level.min(max);
+    }
+
     // ========== GPU 蒙皮相关方法 ==========
     
     /// 初始化 GPU 蒙皮数据（模型加载后调用）
@@ -1461,6 +1587,8 @@ impl MmdModel {
     pub fn get_dynamic_bone_count(&self) -> usize {
         if let Some(ref physics) = self.physics {
             physics.get_dynamic_bone_indices().len()
+        } else if let Some(ref shared) = self.physics_thread {
+            shared.dynamic_bone_indices().len()
         } else {
             0
         }
@@ -1541,6 +1669,12 @@ impl MmdModel {
         if morph_count == 0 {
             return;
         }
+        // 权重未变化时沿用上次结果
+        let version = self.morph_manager.refresh_weights();
+        if version == self.effective_weights_version && self.effective_weights_buf.len() == morph_count {
+            return;
+        }
+        self.effective_weights_version = version;
         self.effective_weights_buf.resize(morph_count, 0.0);
         for w in self.effective_weights_buf.iter_mut() {
             *w = 0.0;
@@ -1560,11 +1694,24 @@ impl MmdModel {
         if !self.gpu_morph_initialized || self.vertex_morph_count == 0 {
             return;
         }
+        let mut changed = false;
         for (gpu_idx, &morph_idx) in self.vertex_morph_indices.iter().enumerate() {
             if gpu_idx < self.gpu_morph_weights.len() && morph_idx < self.effective_weights_buf.len() {
-                self.gpu_morph_weights[gpu_idx] = self.effective_weights_buf[morph_idx];
+                let weight = self.effective_weights_buf[morph_idx];
+                if self.gpu_morph_weights[gpu_idx] != weight {
+                    self.gpu_morph_weights[gpu_idx] = weight;
+                    changed = true;
+                }
             }
         }
+        if changed {
+            self.gpu_morph_weights_version += 1;
+        }
+    }
+    
+    /// GPU 顶点 Morph 权重版本（内容变化时递增）
+    pub fn gpu_morph_weights_version(&self) -> u64 {
+        self.gpu_morph_weights_version
     }
     
     pub fn get_vertex_morph_count(&self) -> usize {
@@ -1653,11 +1800,24 @@ impl MmdModel {
         if !self.gpu_uv_morph_initialized || self.uv_morph_count == 0 {
             return;
         }
+        let mut changed = false;
         for (gpu_idx, &morph_idx) in self.uv_morph_indices.iter().enumerate() {
             if gpu_idx < self.gpu_uv_morph_weights.len() && morph_idx < self.effective_weights_buf.len() {
-                self.gpu_uv_morph_weights[gpu_idx] = self.effective_weights_buf[morph_idx];
+                let weight = self.effective_weights_buf[morph_idx];
+                if self.gpu_uv_morph_weights[gpu_idx] != weight {
+                    self.gpu_uv_morph_weights[gpu_idx] = weight;
+                    changed = true;
+                }
             }
         }
+        if changed {
+            self.gpu_uv_morph_weights_version += 1;
+        }
+    }
+    
+    /// GPU UV Morph 权重版本（内容变化时递增）
+    pub fn gpu_uv_morph_weights_version(&self) -> u64 {
+        self.gpu_uv_morph_weights_version
     }
     
     /// 获取 UV Morph 数量
@@ -1750,9 +1910,183 @@ impl MmdModel {
         }
     }
     
+    /// 标记外部 Morph 状态（ResetAllMorphs 时清除）
+    pub fn set_manual_morph_active(&mut self, active: bool) {
+        self.manual_morph_active = active;
+    }
+
+    /// 姿态共享键：同一模型资源、同一动画来源与帧的实例得到相同值，可复用一份蒙皮结果。
+    /// 返回 0 表示姿态含实例独有输入（物理、VR、头部/眼球追踪、过渡、外部 Morph），不可共享。
+    /// 自动眨眼不参与判定，跟随实例沿用首领实例的眨眼。
+    /// 材质可见性（隐藏材质、第一人称）不参与判定：只共享蒙皮结果，跟随实例绘制时使用自身的子网格表。
+    /// 顶点顺序（是否经网格 LOD 重排）与 UV 布局（是否经纹理图集改写）参与判定：跟随实例绑定首领的 UV 缓冲。
+    pub fn pose_share_key(&self) -> u64 {
+        use std::hash::{Hash, Hasher};
+
+        if self.is_physics_enabled()
+            || self.vr_enabled
+            || self.is_transitioning
+            || self.manual_morph_active
+            || !self.vpd_bone_overrides.is_empty()
+            || self.head_angle_x != 0.0
+            || self.head_angle_y != 0.0
+            || self.head_angle_z != 0.0
+            || (self.eye_tracking_enabled && (self.eye_angle_x != 0.0 || self.eye_angle_y != 0.0))
+        {
+            return 0;
+        }
+
+        let mut hasher = std::collections::hash_map::DefaultHasher::new();
+        self.name.hash(&mut hasher);
+        self.vertices.len().hash(&mut hasher);
+        // 网格 LOD 重排了顶点顺序，与未重排的同名实例不能共用蒙皮输出
+        self.mesh_lod.is_some().hash(&mut hasher);
+        self.uv_layout_key.hash(&mut hasher);
+        self.bone_manager.bone_count().hash(&mut hasher);
+        if !self.animation_layer_manager.hash_pose_state(&mut hasher) {
+            return 0;
+        }
+        hasher.finish().max(1)
+    }
+
+    /// 设置渲染端的 UV 布局标识（纹理图集改写 UV 后调用）
+    pub fn set_uv_layout_key(&mut self, key: u64) {
+        self.uv_layout_key = key;
+    }
+
+    /// 为当前单层满权重动画烘焙 GPU 骨骼调色板，返回采样帧数（0 表示不可烘焙或仍在后台烘焙）
+    ///
+    /// 重采样轨道按动画在实例间共享并在后台线程烘焙；未就绪期间 [`Self::prepare_bone_palette`] 走 CPU 路径，
+    /// 就绪后返回 -2 提示调用方再次调用本方法完成安装
+    pub fn bake_bone_palette(&mut self) -> u32 {
+        let pending = self.bone_palette_pending.take();
+        self.release_bone_palette();
+        let animation = match self.animation_layer_manager.single_full_weight_clip() {
+            Some((animation, _)) => animation,
+            None => return 0,
+        };
+        if let Some(pending) = pending.filter(|p| p.is_for(&animation)) {
+            return match pending.finish() {
+                Ok(palette) => self.install_bone_palette(palette),
+                Err(pending) => {
+                    self.bone_palette_pending = Some(pending);
+                    0
+                }
+            };
+        }
+
+        // 头/眼/手的全局变换由 CPU 读取（头部旋转、第一人称相机、手持物品），保留在 CPU 评估
+        let mut cpu_bones: Vec<usize> = PALETTE_CPU_BONE_NAMES
+            .iter()
+            .filter_map(|name| self.bone_manager.find_bone_by_name(name))
+            .collect();
+        cpu_bones.extend(
+            [self.head_bone_cached, self.head_bone_index, self.eye_bone_index, self.eye_bone_left, self.eye_bone_right]
+                .into_iter()
+                .flatten(),
+        );
+        if let Some((l, r)) = self.eye_bone_pair {
+            cpu_bones.extend([l, r]);
+        }
+
+        let rejected = Arc::downgrade(&animation);
+        match BakedBonePalette::bake_shared(animation, &self.bone_manager, &self.morph_manager, &cpu_bones) {
+            PaletteBake::Ready(palette) => self.install_bone_palette(palette),
+            PaletteBake::Pending(pending) => {
+                self.bone_palette_pending = Some(pending);
+                0
+            }
+            PaletteBake::Rejected => {
+                self.bone_palette_rejected = Some(rejected);
+                0
+            }
+        }
+    }
+
+    fn install_bone_palette(&mut self, palette: BakedBonePalette) -> u32 {
+        log::info!(
+            "骨骼调色板烘焙完成: {} 根骨骼下放 GPU, {} 条轨道 × {} 帧",
+            palette.eligible_count(), palette.track_count(), palette.sample_count()
+        );
+        self.bone_manager.set_palette_skip(Some(palette.cpu_skip_mask().to_vec()));
+        let samples = palette.sample_count();
+        self.bone_palette = Some(palette);
+        samples
+    }
+
+    /// 判定本帧能否由 GPU 调色板计算，并据此启用 CPU 跳过。
+    /// 返回调色板采样帧；-1 表示本帧走 CPU 完整路径（含后台烘焙未完成），-2 表示需要调用 bake_bone_palette
+    pub fn prepare_bone_palette(&mut self) -> f32 {
+        self.bone_manager.set_palette_active(false);
+        if self.pose_share_key() == 0 {
+            return -1.0;
+        }
+        let (animation, frame) = match self.animation_layer_manager.single_full_weight_clip() {
+            Some(clip) => clip,
+            None => return -1.0,
+        };
+        match &self.bone_palette {
+            Some(palette) if palette.is_for(&animation) => {
+                self.bone_manager.set_palette_active(true);
+                self.bone_palette_frame = frame.max(0.0);
+                self.bone_palette_frame
+            }
+            _ if self.bone_palette_rejected.as_ref().map_or(false, |w| w.ptr_eq(&Arc::downgrade(&animation))) => -1.0,
+            _ => match &self.bone_palette_pending {
+                Some(pending) if pending.is_for(&animation) && !pending.is_ready() => -1.0,
+                _ => -2.0,
+            },
+        }
+    }
+
+    /// 释放烘焙数据并恢复 CPU 完整评估
+    pub fn release_bone_palette(&mut self) {
+        self.bone_palette = None;
+        self.bone_palette_pending = None;
+        self.bone_manager.set_palette_skip(None);
+    }
+
+    pub fn bone_palette(&self) -> Option<&BakedBonePalette> {
+        self.bone_palette.as_ref()
+    }
+
+    /// 骨骼的实时模型空间位置。GPU 调色板接管、CPU 跳过评估的骨骼不再更新全局变换，改从烘焙轨道采样，
+    /// 剔除包围盒与公共 API 读到的位置因此与绘制一致
+    pub fn bone_position(&self, index: usize) -> Option<Vec3> {
+        if self.bone_manager.is_palette_skipped(index) {
+            if let Some(palette) = &self.bone_palette {
+                return Some(palette.bone_position(index, self.bone_palette_frame));
+            }
+        }
+        self.bone_manager.get_bone(index).map(|bone| bone.position())
+    }
+
+    /// 把引用的动画实例换成压缩后的新实例；为旧实例烘焙的调色板随之释放，下次准备时重新烘焙
+    pub fn replace_animation(&mut self, old: &Arc<VmdAnimation>, new: &Arc<VmdAnimation>) {
+        self.animation_layer_manager.replace_animation(old, new);
+        if self.bone_palette.as_ref().map_or(false, |p| p.is_for(old))
+            || self.bone_palette_pending.as_ref().map_or(false, |p| p.is_for(old))
+        {
+            self.release_bone_palette();
+        }
+        if self.bone_palette_rejected.as_ref().map_or(false, |w| w.ptr_eq(&Arc::downgrade(old))) {
+            self.bone_palette_rejected = None;
+        }
+    }
+
+    /// 仅推进动画层时钟，不评估姿态（姿态共享的跟随实例使用）
+    pub fn advance_animation_clock(&mut self, elapsed: f32) {
+        self.animation_layer_manager.update(elapsed);
+    }
+
     /// 仅更新动画（不执行 CPU 蒙皮，用于 GPU 蒙皮模式）
     pub fn tick_animation_no_skinning(&mut self, elapsed: f32) {
         self.animation_layer_manager.update(elapsed);
+        self.evaluate_animation_no_skinning(elapsed);
+    }
+
+    /// 在当前层时钟下评估姿态（不推进层时钟，不执行 CPU 蒙皮）
+    pub fn evaluate_animation_no_skinning(&mut self, elapsed: f32) {
         self.begin_animation();
         
         self.animation_layer_manager.evaluate_normalized(
@@ -1777,6 +2111,9 @@ impl MmdModel {
         self.sync_gpu_morph_weights_from_cache();
         self.sync_gpu_uv_morph_weights_from_cache();
         
+        // 过渡混合（局部姿态，随后的层级更新统一传播）
+        self.apply_transition_pose(elapsed);
+        
         // 骨骼更新（物理前）— 先计算当前帧全局变换
         self.update_node_animation(false);
         
@@ -1788,23 +2125,17 @@ impl MmdModel {
         }
         
         // 记录物理更新前的动态骨骼数量
-        let physics_enabled = self.physics_enabled && self.physics.is_some();
+        let physics_enabled = self.is_physics_enabled();
         
         self.update_physics(elapsed);
         self.update_node_animation(true);
         self.end_physics_update();
         self.end_animation();
         
-        // 应用矩阵插值过渡（GPU蒙皮模式也需要）
-        self.apply_transition_blend(elapsed);
-        
         // 调试日志（仅首次）
         if !self.debug_logged && physics_enabled {
             self.debug_logged = true;
-            if let Some(ref physics) = self.physics {
-                let dynamic_count = physics.get_dynamic_bone_indices().len();
-                log::info!("GPU蒙皮物理调试: 物理已启用, {} 个动态骨骼", dynamic_count);
-            }
+            log::info!("GPU蒙皮物理调试: 物理已启用, {} 个动态骨骼", self.get_dynamic_bone_count());
         }
         // 注意：不调用 self.update()，跳过 CPU 蒙皮
     }
@@ -1836,6 +2167,7 @@ impl MmdModel {
         physics.build_physics(&self.rigid_bodies, &self.joints, &self.physics_bone_transforms_buf);
         physics.initialize(&self.physics_bone_transforms_buf);
 
+        self.physics_thread = None;
         self.physics = Some(physics);
         self.physics_enabled = true;
         true
@@ -1846,6 +2178,9 @@ impl MmdModel {
         if let Some(ref mut physics) = self.physics {
             physics.reset();
         }
+        if let Some(ref shared) = self.physics_thread {
+            shared.reset();
+        }
     }
     
     /// 启用/禁用物理
@@ -1855,26 +2190,81 @@ impl MmdModel {
     
     /// 获取物理是否启用
     pub fn is_physics_enabled(&self) -> bool {
-        self.physics_enabled && self.physics.is_some()
+        self.physics_enabled && self.has_physics()
     }
     
     /// 获取物理系统是否已初始化
     pub fn has_physics(&self) -> bool {
-        self.physics.is_some()
+        self.physics.is_some() || self.physics_thread.is_some()
+    }
+
+    /// 物理是否由独立物理线程步进
+    pub fn is_physics_threaded(&self) -> bool {
+        self.physics_thread.is_some()
+    }
+
+    /// 按全局配置在渲染线程内联步进、独立物理线程与共享世界之间切换
+    fn sync_physics_host(&mut self, threaded: bool, pooled: bool) {
+        // 入池状态与配置不符时先取回，再按新配置重新移交
+        if self.physics_thread.as_ref().map_or(false, |shared| shared.is_pooled() != pooled) {
+            if let Some(shared) = self.physics_thread.take() {
+                self.physics = shared.take_back();
+            }
+        }
+        if threaded {
+            if let Some(physics) = self.physics.take() {
+                match ThreadedPhysics::start(physics, pooled) {
+                    Ok(shared) => self.physics_thread = Some(shared),
+                    Err(physics) => self.physics = Some(physics),
+                }
+            }
+        } else if let Some(shared) = self.physics_thread.take() {
+            self.physics = shared.take_back();
+        }
     }
     
+    /// 设置物理重力
+    ///
+    /// 共享世界内的模型共用重力：入池模型先取回物理，再移交到重力匹配的共享世界。
+    pub fn set_physics_gravity(&mut self, gravity: Vec3) {
+        match self.physics_thread.take() {
+            Some(shared) if shared.is_pooled() => {
+                self.physics = shared.take_back();
+                if let Some(mut physics) = self.physics.take() {
+                    physics.set_gravity(gravity.x, gravity.y, gravity.z);
+                    match ThreadedPhysics::start(physics, true) {
+                        Ok(shared) => self.physics_thread = Some(shared),
+                        Err(physics) => self.physics = Some(physics),
+                    }
+                }
+            }
+            Some(shared) => {
+                shared.with_physics(|p| p.set_gravity(gravity.x, gravity.y, gravity.z));
+                self.physics_thread = Some(shared);
+            }
+            None => {
+                if let Some(ref mut physics) = self.physics {
+                    physics.set_gravity(gravity.x, gravity.y, gravity.z);
+                }
+            }
+        }
+    }
+
     /// 更新物理模拟（Bullet3）
     ///
     /// 流程：sync_bodies → stepSimulation → sync_bones
     /// 所有中间数据复用预分配缓冲区，零堆分配。
     pub fn update_physics(&mut self, delta_time: f32) {
         // 全局开关 + per-model 开关双重检查
-        if !crate::physics::config::get_config().enabled
-            || !self.physics_enabled
-            || self.physics.is_none()
-        {
+        let config = crate::physics::config::get_config();
+        if !config.enabled || !self.physics_enabled || !self.has_physics() {
             return;
         }
+        if self.physics_gravity_y != config.gravity_y {
+            self.physics_gravity_y = config.gravity_y;
+            self.set_physics_gravity(Vec3::new(0.0, config.gravity_y, 0.0));
+        }
+        self.sync_physics_host(config.threaded, config.world_pool);
 
         // 收集骨骼变换（复用缓冲区，resize + 索引赋值避免 push 分支开销）
         let bone_count = self.bone_manager.bone_count();
@@ -1885,16 +2275,39 @@ impl MmdModel {
 
         let model_transform = self.model_transform;
 
+        // 独立物理线程：只提交输入，并插值最近两步的结果
+        if let Some(ref shared) = self.physics_thread {
+            shared.submit(&self.physics_bone_transforms_buf, model_transform);
+            shared.interpolate_into(&mut self.physics_blend_buf);
+            for &(bone_idx, transform) in &self.physics_blend_buf {
+                self.bone_manager.set_global_transform_physics(bone_idx, transform);
+            }
+            let physics_bone_indices = shared.dynamic_bone_indices();
+            self.bone_manager.set_physics_bone_indices(physics_bone_indices);
+            self.bone_manager.update_non_physics_children(physics_bone_indices);
+            return;
+        }
+
         // 拆分借用：先取出 physics 避免同时借用 self
-        let mut physics = self.physics.take().unwrap();
+        let mut physics = match self.physics.take() {
+            Some(p) => p,
+            None => return,
+        };
 
-        // 1. 同步运动学刚体
-        physics.sync_bodies_with_model_velocity(
-            &self.physics_bone_transforms_buf, delta_time, model_transform,
+        // 0. 静止或刚从剔除中恢复时冻结/唤醒；冻结期间跳过同步与步进，保持冻结前的结果
+        let active = physics.update_activity(
+            &self.physics_bone_transforms_buf, model_transform, std::time::Duration::ZERO,
         );
 
-        // 2. Bullet3 步进
-        physics.step_simulation(delta_time);
+        if active {
+            // 1. 同步运动学刚体
+            physics.sync_bodies_with_model_velocity(
+                &self.physics_bone_transforms_buf, delta_time, model_transform,
+            );
+
+            // 2. Bullet3 步进
+            physics.step_simulation(delta_time);
+        }
 
         // 3. 同步物理结果回骨骼（复用内部缓冲区）
         let dynamic_bone_transforms = physics.get_dynamic_bone_transforms(
@@ -1921,50 +2334,67 @@ impl MmdModel {
     
     /// 获取物理调试信息（JSON 格式）
     pub fn get_physics_debug_info(&self) -> String {
-        use crate::physics::PhysicsMode;
-
-        if let Some(ref physics) = self.physics {
-            let mut info = String::from("{\n");
-
-            // 刚体信息
-            info.push_str("  \"rigid_bodies\": [\n");
-            for (i, rb) in physics.rigid_bodies.iter().enumerate() {
-                let type_str = match rb.physics_mode {
-                    PhysicsMode::FollowBone => "FollowBone",
-                    PhysicsMode::Physics => "Physics",
-                    PhysicsMode::PhysicsWithBone => "PhysicsWithBone",
-                };
-                let escaped_name = rb.name.replace('\\', "\\\\").replace('"', "\\\"");
-                info.push_str(&format!(
-                    "    {{\"index\": {}, \"name\": \"{}\", \"type\": \"{}\", \"bone\": {}, \"mass\": {:.3}}}",
-                    i, escaped_name, type_str, rb.bone_index, rb.mass
-                ));
-                if i < physics.rigid_bodies.len() - 1 {
-                    info.push_str(",\n");
-                } else {
-                    info.push_str("\n");
-                }
-            }
-            info.push_str("  ],\n");
+        let info = match (&self.physics, &self.physics_thread) {
+            (Some(physics), _) => Some(Self::physics_debug_json(physics)),
+            (None, Some(shared)) => shared.with_physics(|physics| Self::physics_debug_json(physics)),
+            (None, None) => None,
+        };
+        info.unwrap_or_else(|| String::from("{\"error\": \"no physics\"}"))
+    }
 
-            // 统计信息
-            let kinematic_count = physics.rigid_bodies.iter()
-                .filter(|rb| rb.physics_mode == PhysicsMode::FollowBone).count();
-            let dynamic_count = physics.rigid_bodies.iter()
-                .filter(|rb| rb.physics_mode == PhysicsMode::Physics).count();
-            let dynamic_bone_count = physics.rigid_bodies.iter()
-                .filter(|rb| rb.physics_mode == PhysicsMode::PhysicsWithBone).count();
+    fn physics_debug_json(physics: &MMDPhysics) -> String {
+        use crate::physics::PhysicsMode;
 
+        let mut info = String::from("{\n");
+
+        // 刚体信息
+        info.push_str("  \"rigid_bodies\": [\n");
+        for (i, rb) in physics.rigid_bodies.iter().enumerate() {
+            let type_str = match rb.physics_mode {
+                PhysicsMode::FollowBone => "FollowBone",
+                PhysicsMode::Physics => "Physics",
+                PhysicsMode::PhysicsWithBone => "PhysicsWithBone",
+            };
+            let escaped_name = rb.name.replace('\\', "\\\\").replace('"', "\\\"");
             info.push_str(&format!(
-                "  \"stats\": {{\"total_rb\": {}, \"kinematic\": {}, \"dynamic\": {}, \"dynamic_bone\": {}, \"joints\": {}}}\n",
-                physics.rigid_bodies.len(), kinematic_count, dynamic_count, dynamic_bone_count, physics.joint_count()
+                "    {{\"index\": {}, \"name\": \"{}\", \"type\": \"{}\", \"bone\": {}, \"mass\": {:.3}}}",
+                i, escaped_name, type_str, rb.bone_index, rb.mass
             ));
-
-            info.push_str("}");
-            info
-        } else {
-            String::from("{\"error\": \"no physics\"}")
+            if i < physics.rigid_bodies.len() - 1 {
+                info.push_str(",\n");
+            } else {
+                info.push_str("\n");
+            }
         }
+        info.push_str("  ],\n");
+
+        // 统计信息
+        let kinematic_count = physics.rigid_bodies.iter()
+            .filter(|rb| rb.physics_mode == PhysicsMode::FollowBone).count();
+        let dynamic_count = physics.rigid_bodies.iter()
+            .filter(|rb| rb.physics_mode == PhysicsMode::Physics).count();
+        let dynamic_bone_count = physics.rigid_bodies.iter()
+            .filter(|rb| rb.physics_mode == PhysicsMode::PhysicsWithBone).count();
+
+        info.push_str(&format!(
+            "  \"stats\": {{\"total_rb\": {}, \"kinematic\": {}, \"dynamic\": {}, \"dynamic_bone\": {}, \"joints\": {}}},\n",
+            physics.rigid_bodies.len(), kinematic_count, dynamic_count, dynamic_bone_count, physics.joint_count()
+        ));
+        let dynamic_bodies = physics.dynamic_body_count();
+        let state = physics.activity_state();
+        let frozen_bodies = if state == crate::physics::ActivityState::Frozen { dynamic_bodies } else { 0 };
+        info.push_str(&format!(
+            "  \"activity\": {{\"state\": \"{}\", \"active_bodies\": {}, \"frozen_bodies\": {}}},\n",
+            state.as_str(), dynamic_bodies - frozen_bodies, frozen_bodies
+        ));
+        let (pool_worlds, pool_members) = crate::physics::pool_stats();
+        info.push_str(&format!(
+            "  \"pool\": {{\"pooled\": {}, \"worlds\": {}, \"members\": {}}}\n",
+            physics.is_pooled(), pool_worlds, pool_members
+        ));
+
+        info.push_str("}");
+        info
     }
     
     // ======== VR 联动 ========
@@ -2161,6 +2591,7 @@ impl MmdModel {
         
         // 运行时更新缓冲区
         total += (self.update_positions.capacity() * size_of::<Vec3>()) as u64;
+        total += (self.morphed_positions.capacity() * size_of::<Vec3>()) as u64;
         total += (self.update_normals.capacity() * size_of::<Vec3>()) as u64;
         total += (self.update_uvs.capacity() * size_of::<Vec2>()) as u64;
         total += (self.update_positions_raw.capacity() * size_of::<f32>()) as u64;
@@ -2188,7 +2619,7 @@ impl MmdModel {
         
         // 物理缓冲区
         total += (self.physics_bone_transforms_buf.capacity() * size_of::<Mat4>()) as u64;
-        total += (self.transition_matrices.capacity() * size_of::<Mat4>()) as u64;
+        total += (self.transition_pose.bone_poses.capacity() * size_of::<BonePose>()) as u64;
         
         // 材质可见性
         total += (self.material_visible.capacity() * size_of::<bool>()) as u64;
@@ -2202,6 +2633,13 @@ impl MmdModel {
         // VPD 骨骼覆盖
         total += (self.vpd_bone_overrides.capacity() * (size_of::<usize>() + size_of::<(Vec3, Quat)>())) as u64;
         
+        // CPU 蒙皮预排序数据
+        total += self.cpu_skinner.as_ref().map_or(0, |s| s.memory_usage());
+        total += self.mesh_lod.as_ref().map_or(0, |l| l.memory_usage());
+        
+        // GPU 骨骼调色板烘焙数据
+        total += self.bone_palette.as_ref().map_or(0, |p| p.memory_usage());
+        
         total
     }
 }
@@ -2212,97 +2650,403 @@ impl Default for MmdModel {
     }
 }
 
-/// 计算单个顶点的蒙皮
-fn compute_vertex_skinning(
-    position: Vec3,
-    normal: Vec3,
-    weight: &VertexWeight,
-    matrices: &[Mat4],
-) -> (Vec3, Vec3) {
-    match weight {
-        VertexWeight::Bdef1 { bone } => {
-            let m = matrices
-                .get(*bone as usize)
-                .copied()
-                .unwrap_or(Mat4::IDENTITY);
-            let pos = m.transform_point3(position);
-            let norm = m.transform_vector3(normal).normalize_or_zero();
-            (pos, norm)
-        }
-        VertexWeight::Bdef2 { bones, weight } => {
-            let m0 = matrices
-                .get(bones[0] as usize)
-                .copied()
-                .unwrap_or(Mat4::IDENTITY);
-            let m1 = matrices
-                .get(bones[1] as usize)
-                .copied()
-                .unwrap_or(Mat4::IDENTITY);
-            let w0 = *weight;
-            let w1 = 1.0 - w0;
-
-            let pos = m0.transform_point3(position) * w0 + m1.transform_point3(position) * w1;
-            let norm =
-                (m0.transform_vector3(normal) * w0 + m1.transform_vector3(normal) * w1).normalize_or_zero();
-            (pos, norm)
-        }
-        VertexWeight::Bdef4 { bones, weights } => {
-            let mut pos = Vec3::ZERO;
-            let mut norm = Vec3::ZERO;
-
-            for i in 0..4 {
-                let m = matrices
-                    .get(bones[i] as usize)
-                    .copied()
-                    .unwrap_or(Mat4::IDENTITY);
-                let w = weights[i];
-                pos += m.transform_point3(position) * w;
-                norm += m.transform_vector3(normal) * w;
-            }
-
-            (pos, norm.normalize_or_zero())
-        }
-        VertexWeight::Sdef {
-            bones,
-            weight,
-            c: _,
-            r0: _,
-            r1: _,
-        } => {
-            // SDEF 球面变形
-            let m0 = matrices
-                .get(bones[0] as usize)
-                .copied()
-                .unwrap_or(Mat4::IDENTITY);
-            let m1 = matrices
-                .get(bones[1] as usize)
-                .copied()
-                .unwrap_or(Mat4::IDENTITY);
-            let w0 = *weight;
-            let w1 = 1.0 - w0;
-
-            // 简化实现：退化为 BDEF2
-            let pos = m0.transform_point3(position) * w0 + m1.transform_point3(position) * w1;
-            let norm =
-                (m0.transform_vector3(normal) * w0 + m1.transform_vector3(normal) * w1).normalize_or_zero();
-            (pos, norm)
-        }
-        VertexWeight::Qdef { bones, weights } => {
-            // QDEF 与 BDEF4 相同处理
-            let mut pos = Vec3::ZERO;
-            let mut norm = Vec3::ZERO;
-
-            for i in 0..4 {
-                let m = matrices
-                    .get(bones[i] as usize)
-                    .copied()
-                    .unwrap_or(Mat4::IDENTITY);
-                let w = weights[i];
-                pos += m.transform_point3(position) * w;
-                norm += m.transform_vector3(normal) * w;
-            }
-
-            (pos, norm.normalize_or_zero())
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::animation::{BoneKeyframe, Motion};
+    use crate::skeleton::{BoneFlags, BoneLink, IkConfig, IkLink};
+
+    /// 根 → 躯干 → 左臂链，另挂一条 IK 腿
+    fn build_model() -> MmdModel {
+        let specs: [(&str, i32, Vec3); 7] = [
+            ("センター", -1, Vec3::new(0.0, 8.0, 0.0)),
+            ("上半身", 0, Vec3::new(0.0, 10.0, 0.0)),
+            ("左腕", 1, Vec3::new(1.5, 14.0, 0.0)),
+            ("左ひじ", 2, Vec3::new(4.0, 12.0, 0.5)),
+            ("左足", 0, Vec3::new(1.0, 7.0, 0.0)),
+            ("左足ＩＫ", -1, Vec3::new(1.0, 0.5, 0.0)),
+            ("左足首", 4, Vec3::new(1.0, 1.0, 0.0)),
+        ];
+        let mut model = MmdModel::new();
+        for (name, parent, pos) in specs {
+            let mut bone = BoneLink::new(name.to_string());
+            bone.parent_index = parent;
+            bone.initial_position = pos;
+            model.bone_manager.add_bone(bone);
+        }
+        if let Some(leg_ik) = model.bone_manager.get_bone_mut(5) {
+            leg_ik.flags |= BoneFlags::IK;
+            leg_ik.ik_config = Some(IkConfig {
+                target_bone: 6,
+                iterations: 4,
+                limit_angle: 1.0,
+                links: vec![IkLink { bone_index: 4, has_limits: false, limit_min: Vec3::ZERO, limit_max: Vec3::ZERO }],
+            });
+        }
+        model.bone_manager.build_hierarchy();
+        model
+    }
+
+    fn build_animation(angle: f32) -> Arc<VmdAnimation> {
+        let mut motion = Motion::new();
+        let keys: [(&str, u32, Vec3, Quat); 4] = [
+            ("センター", 0, Vec3::ZERO, Quat::IDENTITY),
+            ("センター", 30, Vec3::new(0.5, -1.0, 2.0), Quat::from_rotation_y(angle)),
+            ("左腕", 0, Vec3::ZERO, Quat::from_rotation_z(angle)),
+            ("左腕", 40, Vec3::ZERO, Quat::from_rotation_z(-angle)),
+        ];
+        for (name, frame, translation, rotation) in keys {
+            motion.insert_bone_keyframe(name, BoneKeyframe::with_transform(frame, translation, rotation));
+        }
+        Arc::new(VmdAnimation::from_motion(motion))
+    }
+
+    /// 只有一个关键帧的静态姿态：センター 绕 Y 轴旋转 angle
+    fn static_pose(angle: f32) -> Arc<VmdAnimation> {
+        let mut motion = Motion::new();
+        motion.insert_bone_keyframe(
+            "センター",
+            BoneKeyframe::with_transform(0, Vec3::ZERO, Quat::from_rotation_y(angle)),
+        );
+        Arc::new(VmdAnimation::from_motion(motion))
+    }
+
+    /// 大角度过渡中途蒙皮矩阵仍为刚体变换（矩阵逐分量插值会使网格收缩）
+    #[test]
+    fn large_rotation_transition_keeps_volume() {
+        const DT: f32 = 1.0 / 60.0;
+        let target_angle = std::f32::consts::PI * 0.9;
+        let mut model = build_model();
+        model.set_layer_animation(0, Some(static_pose(0.0)));
+        model.play_layer(0);
+        for _ in 0..3 {
+            model.tick_animation(DT);
+        }
+
+        model.transition_layer_to(0, Some(static_pose(target_angle)), 0.5);
+        for _ in 0..15 {
+            model.tick_animation(DT);
+        }
+        assert!(model.is_transitioning);
+        for m in model.bone_manager.get_skinning_matrices() {
+            for axis in [m.x_axis, m.y_axis, m.z_axis] {
+                assert!((axis.truncate().length() - 1.0).abs() < 1e-3, "过渡中途骨骼缩放: {:?}", m);
+            }
+        }
+
+        for _ in 0..30 {
+            model.tick_animation(DT);
+        }
+        assert!(!model.is_transitioning);
+        let center = model.bone_manager.get_bone(0).unwrap().animation_rotate;
+        assert!(center.abs_diff_eq(Quat::from_rotation_y(target_angle), 1e-4));
+    }
+
+    /// 稳态下每帧更新（多层混合、骨骼遮罩、IK、矩阵过渡与姿态快照过渡）不再分配堆内存
+    #[test]
+    fn steady_state_update_does_not_allocate() {
+        use crate::alloc_counter::thread_allocation_count;
+
+        const DT: f32 = 1.0 / 60.0;
+        let idle = build_animation(0.3);
+        let wave = build_animation(0.9);
+
+        let mut model = build_model();
+        model.set_layer_animation(0, Some(idle.clone()));
+        model.play_layer(0);
+        model.set_layer_animation(1, Some(wave.clone()));
+        model.set_layer_weight(1, 0.5);
+        model.play_layer(1);
+        assert!(model.set_layer_bone_mask_by_name(1, Some("上半身")));
+
+        // 暖机：构建蒙皮器、线程池等常驻状态，并各完成一次过渡以保留缓冲容量
+        let switch = |model: &mut MmdModel, to: &Arc<VmdAnimation>| {
+            model.transition_layer_to(0, Some(to.clone()), 0.2);
+            let MmdModel { animation_layer_manager, bone_manager, morph_manager, .. } = model;
+            animation_layer_manager.transition_layer_to(1, Some(to.clone()), 0.2, bone_manager, morph_manager);
+        };
+        for _ in 0..4 {
+            model.tick_animation(DT);
+        }
+        switch(&mut model, &wave);
+        for _ in 0..30 {
+            model.tick_animation(DT);
+        }
+
+        let before = thread_allocation_count().unwrap();
+        for round in 0..4 {
+            switch(&mut model, if round % 2 == 0 { &idle } else { &wave });
+            for _ in 0..30 {
+                model.tick_animation(DT);
+            }
+        }
+        let allocations = thread_allocation_count().unwrap() - before;
+        assert_eq!(allocations, 0, "稳态更新发生了 {} 次分配", allocations);
+    }
+
+    /// 80×80 平面网格（12800 个三角形，足以生成 LOD），UV.x 记录原始顶点序号；
+    /// 附带一个顶点 Morph 与一个 UV Morph
+    fn build_mesh_model() -> MmdModel {
+        use crate::morph::{Morph, MorphType, UvMorphOffset, VertexMorphOffset};
+
+        const SIZE: u32 = 80;
+        let mut model = build_model();
+        for y in 0..=SIZE {
+            for x in 0..=SIZE {
+                let index = model.vertices.len();
+                model.vertices.push(RuntimeVertex {
+                    position: Vec3::new(x as f32, y as f32, 0.0),
+                    normal: Vec3::Z,
+                    uv: Vec2::new(index as f32, 0.0),
+                });
+                model.weights.push(VertexWeight::Bdef2 { bones: [0, 1], weight: 0.75 });
+            }
+        }
+        for y in 0..SIZE {
+            for x in 0..SIZE {
+                let a = y * (SIZE + 1) + x;
+                model.indices.extend_from_slice(&[a, a + 1, a + SIZE + 2, a, a + SIZE + 2, a + SIZE + 1]);
+            }
+        }
+        model.submeshes.push(SubMesh::new(0, model.indices.len() as u32, 0));
+        model.materials.push(MmdMaterial::default());
+        model.update_positions = model.vertices.iter().map(|v| v.position).collect();
+        model.update_normals = model.vertices.iter().map(|v| v.normal).collect();
+        model.update_uvs = model.vertices.iter().map(|v| v.uv).collect();
+
+        let mut vertex = Morph::new("vertex".to_string(), MorphType::Vertex);
+        vertex.vertex_offsets = (0..model.vertices.len() as u32).step_by(37)
+            .map(|i| VertexMorphOffset { vertex_index: i, offset: Vec3::new(0.0, 0.0, i as f32 * 0.01) })
+            .collect();
+        let mut uv = Morph::new("uv".to_string(), MorphType::Uv);
+        uv.uv_offsets = (5..model.vertices.len() as u32).step_by(53)
+            .map(|i| UvMorphOffset { vertex_index: i, offset: Vec4::new(0.0, 0.5, 0.0, 0.0) })
+            .collect();
+        model.morph_manager.add_morph(vertex);
+        model.morph_manager.add_morph(uv);
+        model.morph_manager.set_material_count(model.materials.len());
+        model.morph_manager.set_vertex_count(model.vertices.len());
+        model.init_material_visibility();
+        model
+    }
+
+    /// GPU 蒙皮路径（UpdateAnimationOnly，以及 AdvanceAnimationClock → PrepareBonePalette → GetPoseShareKey →
+    /// EvaluateAnimationOnly）连同每帧 GPU Morph 权重同步与材质 Morph 展平，稳态下不分配堆内存
+    #[test]
+    fn steady_state_gpu_update_does_not_allocate() {
+        use crate::alloc_counter::thread_allocation_count;
+
+        const DT: f32 = 1.0 / 60.0;
+        let mut model = build_mesh_model();
+        model.init_gpu_skinning_data();
+        model.init_gpu_morph_data();
+        model.init_gpu_uv_morph_data();
+        model.set_layer_animation(0, Some(build_animation(0.6)));
+        model.play_layer(0);
+
+        let frame = |model: &mut MmdModel, i: u32| {
+            model.morph_manager.set_morph_weight(0, (i % 10) as f32 * 0.1);
+            model.morph_manager.set_morph_weight(1, (i % 7) as f32 * 0.1);
+            if i % 2 == 0 {
+                model.tick_animation_no_skinning(DT);
+            } else {
+                model.advance_animation_clock(DT);
+                model.prepare_bone_palette();
+                model.pose_share_key();
+                model.evaluate_animation_no_skinning(DT);
+            }
+            model.sync_gpu_morph_weights();
+            model.get_material_morph_results_flat();
+        };
+        for i in 0..30 {
+            frame(&mut model, i);
+        }
+
+        let before = thread_allocation_count().unwrap();
+        for i in 30..150 {
+            frame(&mut model, i);
+        }
+        let allocations = thread_allocation_count().unwrap() - before;
+        assert_eq!(allocations, 0, "GPU 路径稳态更新发生了 {} 次分配", allocations);
+    }
+
+    /// UpdateModel 路径（tick_animation：动画、顶点 Morph、CPU 蒙皮与 JNI 平铺缓冲）稳态下不分配堆内存
+    #[test]
+    fn steady_state_cpu_skinning_update_does_not_allocate() {
+        use crate::alloc_counter::thread_allocation_count;
+
+        const DT: f32 = 1.0 / 60.0;
+        // 串行蒙皮：并行模式下 rayon 的跨线程任务队列自行分配，不属于本路径
+        crate::skinning::set_thread_count(1);
+        let mut model = build_mesh_model();
+        model.set_layer_animation(0, Some(build_animation(0.6)));
+        model.play_layer(0);
+        // UV Morph 权重保持不变：UV 平铺缓冲只在其变化后重拷
+        model.morph_manager.set_morph_weight(1, 0.5);
+
+        for i in 0..30 {
+            model.morph_manager.set_morph_weight(0, (i % 10) as f32 * 0.1);
+            model.tick_animation(DT);
+        }
+
+        let before = thread_allocation_count().unwrap();
+        for i in 30..150 {
+            model.morph_manager.set_morph_weight(0, (i % 10) as f32 * 0.1);
+            model.tick_animation(DT);
+        }
+        let allocations = thread_allocation_count().unwrap() - before;
+        assert_eq!(allocations, 0, "UpdateModel 稳态更新发生了 {} 次分配", allocations);
+    }
+
+    /// 网格 LOD 重排顶点后，LOD 0 下 Morph 与非恒等姿态的蒙皮结果按原始顶点对照与未重排时完全一致
+    #[test]
+    fn mesh_lod_reorder_keeps_morph_results() {
+        let mut plain = build_mesh_model();
+        let mut reordered = build_mesh_model();
+        reordered.generate_mesh_lod();
+        assert!(reordered.mesh_lod().is_some(), "应生成网格 LOD");
+        reordered.set_mesh_lod_level(0);
+        assert_ne!(plain.pose_share_key(), reordered.pose_share_key());
+
+        let old_of_new: Vec<usize> = reordered.vertices.iter().map(|v| v.uv.x as usize).collect();
+        assert!(old_of_new.iter().enumerate().any(|(new, &old)| new != old), "顶点应被重排");
+
+        let animation = build_animation(0.7);
+        for (frame, vertex_weight, uv_weight) in [(12.0, 1.0, 0.0), (25.5, 0.5, 1.0), (40.0, 0.0, 0.25)] {
+            for model in [&mut plain, &mut reordered] {
+                model.morph_manager.set_morph_weight(0, vertex_weight);
+                model.morph_manager.set_morph_weight(1, uv_weight);
+                model.update_all_animation(Some(&*animation), frame, 0.0);
+            }
+            assert!(
+                plain.update_positions.iter().zip(&plain.vertices)
+                    .any(|(p, v)| !p.abs_diff_eq(v.position, 1e-3)),
+                "第 {} 帧姿态应使顶点偏离原位", frame
+            );
+            for (new, &old) in old_of_new.iter().enumerate() {
+                assert!(reordered.update_positions[new].abs_diff_eq(plain.update_positions[old], 1e-5),
+                    "顶点 {} 位置不一致", old);
+                assert!(reordered.update_normals[new].abs_diff_eq(plain.update_normals[old], 1e-5),
+                    "顶点 {} 法线不一致", old);
+                assert_eq!(reordered.update_uvs[new], plain.update_uvs[old], "顶点 {} UV 不一致", old);
+            }
+        }
+    }
+
+    /// 纹理图集改写了 UV 的实例不与原始 UV 或其他图集布局的实例共享姿态（跟随实例绑定首领的 UV 缓冲）
+    #[test]
+    fn uv_layout_key_separates_pose_share() {
+        let plain = build_model();
+        let mut atlased = build_model();
+        let mut other_atlas = build_model();
+        assert_eq!(plain.pose_share_key(), atlased.pose_share_key());
+
+        atlased.set_uv_layout_key(0x1234);
+        other_atlas.set_uv_layout_key(0x5678);
+        assert_ne!(atlased.pose_share_key(), 0);
+        assert_ne!(plain.pose_share_key(), atlased.pose_share_key());
+        assert_ne!(atlased.pose_share_key(), other_atlas.pose_share_key());
+
+        other_atlas.set_uv_layout_key(0x1234);
+        assert_eq!(atlased.pose_share_key(), other_atlas.pose_share_key());
+    }
+
+    /// 500 骨骼树：每 25 根一条链挂在根骨骼下
+    fn build_large_skeleton(bone_count: usize, vrm: bool) -> MmdModel {
+        let mut model = MmdModel::new();
+        for i in 0..bone_count {
+            let mut bone = BoneLink::new(format!("bone_{}", i));
+            bone.parent_index = match i {
+                0 => -1,
+                _ if i % 25 == 1 => 0,
+                _ => i as i32 - 1,
+            };
+            bone.initial_position = Vec3::new((i / 25) as f32 * 0.2, (i % 25) as f32 * 0.1, 0.0);
+            model.bone_manager.add_bone(bone);
+        }
+        model.set_vrm(vrm);
+        model.bone_manager.set_vrm(vrm);
+        model.bone_manager.build_hierarchy();
+        model
+    }
+
+    fn large_animation(bone_count: usize, angle: f32) -> Arc<VmdAnimation> {
+        let mut motion = Motion::new();
+        for i in 0..bone_count {
+            let rotation = Quat::from_euler(glam::EulerRot::XYZ, angle, angle * 0.5, -angle);
+            motion.insert_bone_keyframe(&format!("bone_{}", i), BoneKeyframe::with_transform(0, Vec3::ZERO, rotation));
+        }
+        Arc::new(VmdAnimation::from_motion(motion))
+    }
+
+    /// 过渡混合耗时对比：cargo test --release transition -- --ignored --nocapture
+    #[test]
+    #[ignore]
+    fn bench_matrix_vs_local_transition() {
+        use std::hint::black_box;
+        use std::time::Instant;
+
+        const BONES: usize = 500;
+        const ITERATIONS: u32 = 2000;
+        const DT: f32 = 1.0 / 60.0;
+
+        for (label, vrm) in [("PMX", false), ("VRM", true)] {
+            let mut model = build_large_skeleton(BONES, vrm);
+            model.set_layer_animation(0, Some(large_animation(BONES, 0.3)));
+            model.play_layer(0);
+            for _ in 0..4 {
+                model.tick_animation(DT);
+            }
+
+            // 旧做法：层级更新后对蒙皮矩阵逐分量插值
+            let cached = model.bone_manager.get_skinning_matrices().to_vec();
+            let start = Instant::now();
+            for _ in 0..ITERATIONS {
+                for (m, old) in model.bone_manager.skinning_matrices_mut().iter_mut().zip(&cached) {
+                    let a = old.to_cols_array();
+                    let b = m.to_cols_array();
+                    let mut blended = [0.0f32; 16];
+                    for k in 0..16 {
+                        blended[k] = a[k] * 0.5 + b[k] * 0.5;
+                    }
+                    *m = Mat4::from_cols_array(&blended);
+                }
+                black_box(model.bone_manager.get_skinning_matrices());
+            }
+            let matrix = start.elapsed();
+
+            // 新做法：层级更新前在局部 TRS 空间混合
+            model.transition_layer_to(0, Some(large_animation(BONES, 2.6)), 1.0);
+            model.tick_animation(DT);
+            let start = Instant::now();
+            for _ in 0..ITERATIONS {
+                model.is_transitioning = true;
+                model.transition_progress = 0.5;
+                model.apply_transition_pose(0.0);
+                black_box(model.bone_manager.get_bone(BONES - 1).map(|b| b.animation_rotate));
+            }
+            let local = start.elapsed();
+
+            // 整帧耗时（含层级与蒙皮矩阵计算），过渡中 vs 非过渡
+            let start = Instant::now();
+            for _ in 0..ITERATIONS {
+                model.is_transitioning = true;
+                model.transition_progress = 0.5;
+                model.tick_animation(0.0);
+            }
+            let frame_transition = start.elapsed();
+            model.is_transitioning = false;
+            let start = Instant::now();
+            for _ in 0..ITERATIONS {
+                model.tick_animation(0.0);
+            }
+            let frame_idle = start.elapsed();
+
+            let per = |d: std::time::Duration| d.as_secs_f64() * 1e6 / ITERATIONS as f64;
+            println!(
+                "{} {} 骨骼: 矩阵插值 {:.2} µs, 局部 TRS 混合 {:.2} µs; 整帧 过渡中 {:.2} µs / 非过渡 {:.2} µs",
+                label, BONES, per(matrix), per(local), per(frame_transition), per(frame_idle)
+            );
         }
     }
 }
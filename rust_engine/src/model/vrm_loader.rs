@@ -115,6 +115,7 @@ pub fn load_vrm<P: AsRef<Path>>(path: P) -> Result<MmdModel> {
     model.morph_manager.set_material_count(model.materials.len());
     model.morph_manager.set_vertex_count(model.vertices.len());
     model.init_material_visibility();
+    model.generate_mesh_lod();
     model.update();
 
     log::info!(
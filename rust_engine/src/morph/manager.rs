@@ -2,6 +2,9 @@
 //!
 //! 实现 MMD Morph 系统：Vertex / Bone / Group / Flip / Material / UV Morph。
 //! 支持 Group/Flip Morph 递归展开，并提供 GPU 蒙皮路径的有效权重计算。
+//!
+//! 权重按版本跟踪：只有权重变化后才重新计算材质/UV 结果与顶点 Morph 列表，
+//! 顶点 Morph 只触及稀疏偏移涉及的顶点；骨骼 Morph 叠加在每帧重置的骨骼姿态上，每帧重放。
 
 use std::collections::HashMap;
 use glam::{Vec2, Vec3, Vec4};
@@ -116,6 +119,20 @@ pub struct MorphManager {
     material_count: usize,
     uv_morph_deltas: Vec<Vec2>,
     vertex_count: usize,
+    /// 上次检查时的 Morph 权重（判定权重是否变化）
+    evaluated_weights: Vec<f32>,
+    /// 权重版本，任一权重变化时递增
+    weights_version: u64,
+    /// 权重非零的 Morph（索引, 权重），权重变化时重建
+    active_morphs: Vec<(usize, f32)>,
+    /// 材质/UV 结果与顶点 Morph 列表对应的权重版本
+    applied_version: u64,
+    /// 展开 Group/Flip 后的顶点 Morph（索引, 有效权重）
+    active_vertex_morphs: Vec<(usize, f32)>,
+    /// 顶点位置已应用到的权重版本
+    positions_version: u64,
+    /// 上次被顶点 Morph 改动的顶点（下次求值前恢复原位）
+    touched_vertices: Vec<u32>,
 }
 
 impl MorphManager {
@@ -127,19 +144,55 @@ impl MorphManager {
             material_count: 0,
             uv_morph_deltas: Vec::new(),
             vertex_count: 0,
+            evaluated_weights: Vec::new(),
+            weights_version: 1,
+            active_morphs: Vec::new(),
+            applied_version: 0,
+            active_vertex_morphs: Vec::new(),
+            positions_version: 0,
+            touched_vertices: Vec::new(),
         }
     }
     
     pub fn set_material_count(&mut self, count: usize) {
         self.material_count = count;
         self.material_morph_results = vec![MaterialMorphResult::default(); count];
+        self.applied_version = 0;
     }
     
     pub fn set_vertex_count(&mut self, count: usize) {
         self.vertex_count = count;
         self.uv_morph_deltas = vec![Vec2::ZERO; count];
+        self.applied_version = 0;
     }
-    
+
+    /// 顶点重排后同步所有按顶点索引记录的数据（顶点 / UV Morph 偏移、UV 偏移累积与上次改动列表）
+    pub fn remap_vertices(&mut self, new_of_old: &[u32]) {
+        let remap = |v: &mut u32| {
+            if let Some(&n) = new_of_old.get(*v as usize) {
+                *v = n;
+            }
+        };
+        for morph in &mut self.morphs {
+            for o in &mut morph.vertex_offsets {
+                remap(&mut o.vertex_index);
+            }
+            for o in &mut morph.uv_offsets {
+                remap(&mut o.vertex_index);
+            }
+        }
+        for v in &mut self.touched_vertices {
+            remap(v);
+        }
+        if self.uv_morph_deltas.len() == new_of_old.len() {
+            let mut deltas = vec![Vec2::ZERO; new_of_old.len()];
+            for (old, &new) in new_of_old.iter().enumerate() {
+                deltas[new as usize] = self.uv_morph_deltas[old];
+            }
+            self.uv_morph_deltas = deltas;
+        }
+    }
+
     pub fn add_morph(&mut self, morph: Morph) {
         let index = self.morphs.len();
         self.name_to_index.insert(morph.name.clone(), index);
@@ -190,33 +243,94 @@ impl MorphManager {
         &self.uv_morph_deltas
     }
     
-    /// 应用所有 Morph（遵循 MMD 规范，Group/Flip 递归展开）
-    pub fn apply_morphs(&mut self, bone_manager: &mut BoneManager, positions: &mut [Vec3]) {
-        for result in &mut self.material_morph_results {
-            result.reset();
+    /// 检查权重是否变化，变化时重建非零权重列表并递增版本；返回当前版本
+    pub fn refresh_weights(&mut self) -> u64 {
+        let changed = self.evaluated_weights.len() != self.morphs.len()
+            || self.morphs.iter().zip(&self.evaluated_weights).any(|(m, &w)| m.weight != w);
+        if changed {
+            self.evaluated_weights.clear();
+            self.evaluated_weights.extend(self.morphs.iter().map(|m| m.weight));
+            self.active_morphs.clear();
+            self.active_morphs.extend(
+                self.morphs.iter().enumerate()
+                    .filter(|(_, m)| m.weight.abs() > MORPH_WEIGHT_EPSILON)
+                    .map(|(i, m)| (i, m.weight)),
+            );
+            self.weights_version += 1;
         }
-        for delta in &mut self.uv_morph_deltas {
-            *delta = Vec2::ZERO;
+        self.weights_version
+    }
+    
+    /// 材质/UV 结果与顶点 Morph 列表当前对应的权重版本
+    pub fn applied_version(&self) -> u64 {
+        self.applied_version
+    }
+    
+    /// 应用所有 Morph（遵循 MMD 规范，Group/Flip 递归展开）
+    ///
+    /// 骨骼 Morph 每帧重放；材质/UV 结果与顶点 Morph 列表仅在权重变化时重算。
+    /// 顶点位置由 [`Self::apply_vertex_morphs`] 单独写入（仅 CPU 蒙皮路径需要）。
+    pub fn apply_morphs(&mut self, bone_manager: &mut BoneManager) {
+        let version = self.refresh_weights();
+        let rebuild = version != self.applied_version;
+        if rebuild {
+            for result in &mut self.material_morph_results {
+                result.reset();
+            }
+            for delta in &mut self.uv_morph_deltas {
+                *delta = Vec2::ZERO;
+            }
+            self.active_vertex_morphs.clear();
         }
         
-        let active_morphs: Vec<(usize, f32)> = self.morphs.iter().enumerate()
-            .filter(|(_, m)| m.weight.abs() > MORPH_WEIGHT_EPSILON)
-            .map(|(i, m)| (i, m.weight))
-            .collect();
-        
-        for (morph_idx, weight) in active_morphs {
-            // 拆分借用：morphs 只读，material_morph_results / uv_morph_deltas 可写
-            apply_single_morph(
-                &self.morphs,
-                &mut self.material_morph_results,
-                &mut self.uv_morph_deltas,
-                morph_idx,
-                weight,
-                bone_manager,
-                positions,
-                0,
-            );
+        for k in 0..self.active_morphs.len() {
+            let (morph_idx, weight) = self.active_morphs[k];
+            // 拆分借用：morphs 只读，结果缓冲可写
+            let mut targets = MorphTargets {
+                material_morph_results: &mut self.material_morph_results,
+                uv_morph_deltas: &mut self.uv_morph_deltas,
+                vertex_morphs: &mut self.active_vertex_morphs,
+                rebuild,
+            };
+            apply_single_morph(&self.morphs, &mut targets, morph_idx, weight, bone_manager, 0);
+        }
+        self.applied_version = version;
+    }
+    
+    /// 将顶点 Morph 稀疏地写入 positions（须在 [`Self::apply_morphs`] 之后调用）
+    ///
+    /// 先把上次改动过的顶点恢复为 rest 位置，再叠加当前顶点 Morph 的偏移；
+    /// 权重未变化时不做任何事并返回 false。`force` 表示 positions 刚整体重置为 rest，需无条件重新应用。
+    pub fn apply_vertex_morphs(
+        &mut self,
+        rest: impl Fn(usize) -> Vec3,
+        positions: &mut [Vec3],
+        force: bool,
+    ) -> bool {
+        if !force && self.positions_version == self.applied_version {
+            return false;
+        }
+        if !force {
+            for &v in &self.touched_vertices {
+                if let Some(p) = positions.get_mut(v as usize) {
+                    *p = rest(v as usize);
+                }
+            }
+        }
+        self.touched_vertices.clear();
+        for &(morph_idx, weight) in &self.active_vertex_morphs {
+            if let Some(morph) = self.morphs.get(morph_idx) {
+                for offset in &morph.vertex_offsets {
+                    let idx = offset.vertex_index as usize;
+                    if idx < positions.len() {
+                        positions[idx] += offset.offset * weight;
+                        self.touched_vertices.push(offset.vertex_index);
+                    }
+                }
+            }
         }
+        self.positions_version = self.applied_version;
+        true
     }
     
     /// 计算所有 Morph 的有效权重（递归展开 Group/Flip），写入外部缓冲区
@@ -235,6 +349,9 @@ impl MorphManager {
         total += (self.name_to_index.capacity() * (size_of::<String>() + size_of::<usize>())) as u64;
         total += (self.material_morph_results.capacity() * size_of::<MaterialMorphResult>()) as u64;
         total += (self.uv_morph_deltas.capacity() * size_of::<Vec2>()) as u64;
+        total += (self.evaluated_weights.capacity() * size_of::<f32>()) as u64;
+        total += ((self.active_morphs.capacity() + self.active_vertex_morphs.capacity()) * size_of::<(usize, f32)>()) as u64;
+        total += (self.touched_vertices.capacity() * size_of::<u32>()) as u64;
         total
     }
 }
@@ -257,18 +374,11 @@ fn accumulate_effective_weight(
     
     match morph.morph_type {
         MorphType::Group => {
-            let subs: Vec<(usize, f32)> = morph.group_offsets.iter()
-                .filter_map(|sub| {
-                    let sub_idx = sub.morph_index as usize;
-                    if sub_idx < morphs.len() && sub_idx != morph_idx {
-                        Some((sub_idx, effective_weight * sub.influence))
-                    } else {
-                        None
-                    }
-                })
-                .collect();
-            for (sub_idx, sub_weight) in subs {
-                accumulate_effective_weight(morphs, sub_idx, sub_weight, out, depth + 1);
+            for sub in &morph.group_offsets {
+                let sub_idx = sub.morph_index as usize;
+                if sub_idx < morphs.len() && sub_idx != morph_idx {
+                    accumulate_effective_weight(morphs, sub_idx, effective_weight * sub.influence, out, depth + 1);
+                }
             }
         }
         MorphType::Flip => {
@@ -292,15 +402,22 @@ fn accumulate_effective_weight(
     }
 }
 
-/// 递归应用单个 Morph（拆分字段借用避免 clone 开销）
+/// Morph 求值的可写目标（拆分字段借用避免 clone 开销）
+struct MorphTargets<'a> {
+    material_morph_results: &'a mut [MaterialMorphResult],
+    uv_morph_deltas: &'a mut [Vec2],
+    vertex_morphs: &'a mut Vec<(usize, f32)>,
+    /// 权重已变化，需要重算材质/UV 结果与顶点 Morph 列表
+    rebuild: bool,
+}
+
+/// 递归应用单个 Morph
 fn apply_single_morph(
     morphs: &[Morph],
-    material_morph_results: &mut [MaterialMorphResult],
-    uv_morph_deltas: &mut [Vec2],
+    targets: &mut MorphTargets,
     morph_idx: usize,
     effective_weight: f32,
     bone_manager: &mut BoneManager,
-    positions: &mut [Vec3],
     depth: u32,
 ) {
     if depth > MAX_GROUP_MORPH_DEPTH || effective_weight.abs() < MORPH_WEIGHT_EPSILON {
@@ -314,27 +431,22 @@ fn apply_single_morph(
     
     match morph.morph_type {
         MorphType::Vertex => {
-            apply_vertex_morph(&morph.vertex_offsets, effective_weight, positions);
+            if targets.rebuild && !morph.vertex_offsets.is_empty() {
+                targets.vertex_morphs.push((morph_idx, effective_weight));
+            }
         }
         MorphType::Bone => {
             apply_bone_morph(&morph.bone_offsets, effective_weight, bone_manager);
         }
         MorphType::Group => {
-            let subs: Vec<(usize, f32)> = morph.group_offsets.iter()
-                .filter_map(|sub| {
-                    let sub_idx = sub.morph_index as usize;
-                    if sub_idx < morphs.len() && sub_idx != morph_idx {
-                        Some((sub_idx, effective_weight * sub.influence))
-                    } else {
-                        None
-                    }
-                })
-                .collect();
-            for (sub_idx, sub_weight) in subs {
-                apply_single_morph(
-                    morphs, material_morph_results, uv_morph_deltas,
-                    sub_idx, sub_weight, bone_manager, positions, depth + 1,
-                );
+            // morphs 只读借用，可直接遍历子 Morph 递归
+            for sub in &morph.group_offsets {
+                let sub_idx = sub.morph_index as usize;
+                if sub_idx < morphs.len() && sub_idx != morph_idx {
+                    apply_single_morph(
+                        morphs, targets, sub_idx, effective_weight * sub.influence, bone_manager, depth + 1,
+                    );
+                }
             }
         }
         MorphType::Flip => {
@@ -346,18 +458,19 @@ fn apply_single_morph(
                 let sub_idx = sub.morph_index as usize;
                 let sub_influence = sub.influence;
                 if sub_idx < morphs.len() && sub_idx != morph_idx {
-                    apply_single_morph(
-                        morphs, material_morph_results, uv_morph_deltas,
-                        sub_idx, sub_influence, bone_manager, positions, depth + 1,
-                    );
+                    apply_single_morph(morphs, targets, sub_idx, sub_influence, bone_manager, depth + 1);
                 }
             }
         }
         MorphType::Material => {
-            apply_material_morph(&morph.material_offsets, effective_weight, material_morph_results);
+            if targets.rebuild {
+                apply_material_morph(&morph.material_offsets, effective_weight, targets.material_morph_results);
+            }
         }
         MorphType::Uv | MorphType::AdditionalUv1 => {
-            apply_uv_morph(&morph.uv_offsets, effective_weight, uv_morph_deltas);
+            if targets.rebuild {
+                apply_uv_morph(&morph.uv_offsets, effective_weight, targets.uv_morph_deltas);
+            }
         }
         _ => {
             // AdditionalUv2/3/4, Impulse 暂不处理
@@ -365,19 +478,6 @@ fn apply_single_morph(
     }
 }
 
-fn apply_vertex_morph(
-    offsets: &[super::VertexMorphOffset],
-    weight: f32,
-    positions: &mut [Vec3],
-) {
-    for offset in offsets {
-        let idx = offset.vertex_index as usize;
-        if idx < positions.len() {
-            positions[idx] += offset.offset * weight;
-        }
-    }
-}
-
 fn apply_bone_morph(
     offsets: &[super::BoneMorphOffset],
     weight: f32,
@@ -452,3 +552,68 @@ impl Default for MorphManager {
         Self::new()
     }
 }
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::morph::{GroupMorphOffset, VertexMorphOffset};
+
+    fn vertex_morph(name: &str, offsets: &[(u32, Vec3)]) -> Morph {
+        let mut morph = Morph::new(name.to_string(), MorphType::Vertex);
+        morph.vertex_offsets = offsets
+            .iter()
+            .map(|&(vertex_index, offset)| VertexMorphOffset { vertex_index, offset })
+            .collect();
+        morph
+    }
+
+    /// 全量重算参考：rest + Σ 有效权重 × 偏移
+    fn reference(manager: &MorphManager, rest: &[Vec3]) -> Vec<Vec3> {
+        let mut weights = vec![0.0; manager.morph_count()];
+        manager.compute_effective_weights_into(&mut weights);
+        let mut out = rest.to_vec();
+        for (i, &w) in weights.iter().enumerate() {
+            let morph = manager.get_morph(i).unwrap();
+            if morph.morph_type != MorphType::Vertex {
+                continue;
+            }
+            for offset in &morph.vertex_offsets {
+                out[offset.vertex_index as usize] += offset.offset * w;
+            }
+        }
+        out
+    }
+
+    #[test]
+    fn sparse_vertex_morphs_match_full_recompute() {
+        let rest: Vec<Vec3> = (0..6).map(|i| Vec3::splat(i as f32)).collect();
+        let mut manager = MorphManager::new();
+        manager.set_vertex_count(rest.len());
+        manager.add_morph(vertex_morph("a", &[(0, Vec3::X), (1, Vec3::Y)]));
+        manager.add_morph(vertex_morph("b", &[(1, Vec3::Z), (4, Vec3::ONE)]));
+        let mut group = Morph::new("g".to_string(), MorphType::Group);
+        group.group_offsets = vec![GroupMorphOffset { morph_index: 0, influence: 0.5 }];
+        manager.add_morph(group);
+
+        let mut bones = BoneManager::new();
+        let mut positions = rest.clone();
+        manager.apply_morphs(&mut bones);
+        assert!(manager.apply_vertex_morphs(|i| rest[i], &mut positions, true));
+
+        for weights in [[1.0, 0.0, 0.0], [0.3, 0.7, 1.0], [0.0, 0.5, 0.0], [0.0, 0.0, 0.0]] {
+            for (i, &w) in weights.iter().enumerate() {
+                manager.set_morph_weight(i, w);
+            }
+            manager.apply_morphs(&mut bones);
+            assert!(manager.apply_vertex_morphs(|i| rest[i], &mut positions, false));
+            let expected = reference(&manager, &rest);
+            for (p, e) in positions.iter().zip(&expected) {
+                assert!(p.abs_diff_eq(*e, 1e-5), "权重 {:?}: {:?} != {:?}", weights, p, e);
+            }
+
+            // 权重未变化时跳过
+            manager.apply_morphs(&mut bones);
+            assert!(!manager.apply_vertex_morphs(|i| rest[i], &mut positions, false));
+        }
+    }
+}
@@ -0,0 +1,292 @@
+//! 物理活动控制器
+//!
+//! 模型被剔除（渲染侧停止提交输入）或骨骼连续 N 次观测未超过阈值时冻结：
+//! 动态刚体清零速度并转入休眠，跳过步进，骨骼保持冻结前的物理结果。
+//! 重新可见或开始运动时唤醒，随后的稳定期内抑制惯性并收紧速度上限，
+//! 避免长时间冻结后刚体被突变的姿态拉飞。
+
+use std::sync::atomic::{AtomicBool, AtomicU64, Ordering};
+use std::sync::{Arc, Mutex, Weak};
+use std::time::{Duration, Instant};
+
+use glam::Mat4;
+use once_cell::sync::Lazy;
+
+use super::config::PhysicsConfig;
+
+/// 超过该时长未收到渲染侧输入即视为被剔除
+pub const CULL_TIMEOUT: Duration = Duration::from_millis(500);
+
+/// 物理活动状态
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+pub enum ActivityState {
+    Active,
+    /// 唤醒后的稳定期
+    Settling,
+    Frozen,
+}
+
+impl ActivityState {
+    pub fn as_str(self) -> &'static str {
+        match self {
+            ActivityState::Active => "active",
+            ActivityState::Settling => "settling",
+            ActivityState::Frozen => "frozen",
+        }
+    }
+}
+
+/// 一次观测后需要对刚体执行的动作
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+pub enum ActivityAction {
+    /// 正常步进
+    Step,
+    /// 冻结刚体并跳过步进
+    Freeze,
+    /// 保持冻结，跳过步进
+    Hold,
+    /// 唤醒刚体后步进；snap 为 true 时先将刚体对齐到当前骨骼（从剔除中恢复）
+    Wake { snap: bool },
+}
+
+/// 供统计读取的共享状态（物理线程与渲染线程都可能观测）
+struct ActivityHandle {
+    frozen: AtomicBool,
+    /// 最近一次观测时刻（相对 EPOCH 的毫秒）
+    observed_ms: AtomicU64,
+}
+
+static EPOCH: Lazy<Instant> = Lazy::new(Instant::now);
+
+static REGISTRY: Lazy<Mutex<Vec<Weak<ActivityHandle>>>> = Lazy::new(|| Mutex::new(Vec::new()));
+
+fn now_ms() -> u64 {
+    EPOCH.elapsed().as_millis() as u64
+}
+
+/// 单个模型的物理活动控制器
+pub struct PhysicsActivity {
+    state: ActivityState,
+    /// 冻结是否由剔除引起（唤醒时需对齐刚体）
+    frozen_by_cull: bool,
+    /// 连续静止的观测次数
+    still_count: u32,
+    /// 稳定期剩余观测次数
+    settle_left: u32,
+    last_observed: Option<Instant>,
+    prev_bones: Vec<Mat4>,
+    prev_model: Mat4,
+    handle: Arc<ActivityHandle>,
+}
+
+impl PhysicsActivity {
+    pub fn new() -> Self {
+        let handle = Arc::new(ActivityHandle {
+            frozen: AtomicBool::new(false),
+            observed_ms: AtomicU64::new(now_ms()),
+        });
+        {
+            let mut registry = REGISTRY.lock().unwrap_or_else(|e| e.into_inner());
+            registry.retain(|w| w.strong_count() > 0);
+            registry.push(Arc::downgrade(&handle));
+        }
+        Self {
+            state: ActivityState::Active,
+            frozen_by_cull: false,
+            still_count: 0,
+            settle_left: 0,
+            last_observed: None,
+            prev_bones: Vec::new(),
+            prev_model: Mat4::IDENTITY,
+            handle,
+        }
+    }
+
+    pub fn state(&self) -> ActivityState {
+        self.state
+    }
+
+    pub fn is_settling(&self) -> bool {
+        self.state == ActivityState::Settling
+    }
+
+    /// 观测本次输入并决定动作
+    ///
+    /// input_age 为骨骼输入距提交的时长（内联模式恒为 0）；
+    /// 内联模式下被剔除时不会被调用，恢复时按两次观测的间隔判定。
+    pub fn observe(
+        &mut self,
+        bones: &[Mat4],
+        model_transform: Mat4,
+        input_age: Duration,
+        config: &PhysicsConfig,
+    ) -> ActivityAction {
+        let now = Instant::now();
+        let gap = self.last_observed.map_or(Duration::ZERO, |t| now.duration_since(t));
+        self.last_observed = Some(now);
+        self.handle.observed_ms.store(now_ms(), Ordering::Relaxed);
+
+        let moved = self.record_motion(bones, model_transform, config.sleep_threshold);
+
+        if !config.sleep_enabled {
+            return match self.state {
+                ActivityState::Frozen => self.wake(config, self.frozen_by_cull),
+                _ => self.tick_settle(),
+            };
+        }
+
+        let culled = input_age > CULL_TIMEOUT;
+        match self.state {
+            ActivityState::Frozen => {
+                if culled || (!moved && !self.frozen_by_cull) {
+                    ActivityAction::Hold
+                } else {
+                    self.wake(config, self.frozen_by_cull)
+                }
+            }
+            ActivityState::Active | ActivityState::Settling => {
+                if culled {
+                    self.freeze(true)
+                } else if gap > CULL_TIMEOUT {
+                    // 内联模式：渲染侧长时间未调用后恢复，视作从剔除中唤醒
+                    self.wake(config, true)
+                } else if moved {
+                    self.still_count = 0;
+                    self.tick_settle()
+                } else {
+                    self.still_count += 1;
+                    if self.still_count >= config.sleep_idle_frames.max(1) {
+                        self.freeze(false)
+                    } else {
+                        self.tick_settle()
+                    }
+                }
+            }
+        }
+    }
+
+    /// 强制回到活动状态（物理重置时）
+    pub fn reset(&mut self) {
+        self.set_state(ActivityState::Active);
+        self.frozen_by_cull = false;
+        self.still_count = 0;
+        self.settle_left = 0;
+        self.last_observed = None;
+        self.prev_bones.clear();
+    }
+
+    /// 与上次观测比较并记录本次骨骼；首次观测视为运动
+    fn record_motion(&mut self, bones: &[Mat4], model_transform: Mat4, threshold: f32) -> bool {
+        let moved = self.prev_bones.len() != bones.len()
+            || !self.prev_model.abs_diff_eq(model_transform, threshold)
+            || self.prev_bones.iter().zip(bones).any(|(a, b)| !a.abs_diff_eq(*b, threshold));
+        self.prev_bones.clear();
+        self.prev_bones.extend_from_slice(bones);
+        self.prev_model = model_transform;
+        moved
+    }
+
+    fn freeze(&mut self, by_cull: bool) -> ActivityAction {
+        self.frozen_by_cull = by_cull;
+        self.still_count = 0;
+        self.settle_left = 0;
+        self.set_state(ActivityState::Frozen);
+        ActivityAction::Freeze
+    }
+
+    fn wake(&mut self, config: &PhysicsConfig, snap: bool) -> ActivityAction {
+        self.frozen_by_cull = false;
+        self.still_count = 0;
+        self.settle_left = config.settle_frames;
+        self.set_state(if self.settle_left > 0 { ActivityState::Settling } else { ActivityState::Active });
+        ActivityAction::Wake { snap }
+    }
+
+    fn tick_settle(&mut self) -> ActivityAction {
+        if self.state == ActivityState::Settling {
+            self.settle_left = self.settle_left.saturating_sub(1);
+            if self.settle_left == 0 {
+                self.set_state(ActivityState::Active);
+            }
+        }
+        ActivityAction::Step
+    }
+
+    fn set_state(&mut self, state: ActivityState) {
+        self.state = state;
+        self.handle.frozen.store(state == ActivityState::Frozen, Ordering::Relaxed);
+    }
+}
+
+/// 全局物理活动统计：(活动模型数, 冻结模型数)
+///
+/// 超过 CULL_TIMEOUT 未被观测的模型（内联模式下被剔除）计为冻结。
+pub fn activity_counts() -> (usize, usize) {
+    let now = now_ms();
+    let timeout = CULL_TIMEOUT.as_millis() as u64;
+    let registry = REGISTRY.lock().unwrap_or_else(|e| e.into_inner());
+    registry.iter().filter_map(Weak::upgrade).fold((0, 0), |(active, frozen), h| {
+        let stale = now.saturating_sub(h.observed_ms.load(Ordering::Relaxed)) > timeout;
+        if stale || h.frozen.load(Ordering::Relaxed) {
+            (active, frozen + 1)
+        } else {
+            (active + 1, frozen)
+        }
+    })
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    fn config() -> PhysicsConfig {
+        PhysicsConfig {
+            sleep_enabled: true,
+            sleep_idle_frames: 3,
+            settle_frames: 2,
+            ..PhysicsConfig::default()
+        }
+    }
+
+    #[test]
+    fn freezes_after_idle_and_wakes_on_motion() {
+        let config = config();
+        let mut activity = PhysicsActivity::new();
+        let still = [Mat4::IDENTITY; 4];
+        let fresh = Duration::ZERO;
+
+        assert_eq!(activity.observe(&still, Mat4::IDENTITY, fresh, &config), ActivityAction::Step);
+        for _ in 0..2 {
+            assert_eq!(activity.observe(&still, Mat4::IDENTITY, fresh, &config), ActivityAction::Step);
+        }
+        assert_eq!(activity.observe(&still, Mat4::IDENTITY, fresh, &config), ActivityAction::Freeze);
+        assert_eq!(activity.observe(&still, Mat4::IDENTITY, fresh, &config), ActivityAction::Hold);
+
+        let moved = [Mat4::from_translation(glam::Vec3::X); 4];
+        assert_eq!(
+            activity.observe(&moved, Mat4::IDENTITY, fresh, &config),
+            ActivityAction::Wake { snap: false }
+        );
+        assert_eq!(activity.state(), ActivityState::Settling);
+        activity.observe(&moved, Mat4::IDENTITY, fresh, &config);
+        activity.observe(&moved, Mat4::IDENTITY, fresh, &config);
+        assert_eq!(activity.state(), ActivityState::Active);
+    }
+
+    #[test]
+    fn stale_input_freezes_and_snaps_on_return() {
+        let config = config();
+        let mut activity = PhysicsActivity::new();
+        let bones = [Mat4::IDENTITY; 2];
+
+        activity.observe(&bones, Mat4::IDENTITY, Duration::ZERO, &config);
+        let stale = CULL_TIMEOUT + Duration::from_millis(1);
+        assert_eq!(activity.observe(&bones, Mat4::IDENTITY, stale, &config), ActivityAction::Freeze);
+        assert_eq!(activity.observe(&bones, Mat4::IDENTITY, stale, &config), ActivityAction::Hold);
+        // 剔除冻结的模型即使静止，恢复输入后也要唤醒
+        assert_eq!(
+            activity.observe(&bones, Mat4::IDENTITY, Duration::ZERO, &config),
+            ActivityAction::Wake { snap: true }
+        );
+    }
+}
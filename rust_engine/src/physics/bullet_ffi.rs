@@ -59,6 +59,8 @@ mod ffi {
         pub fn bw_world_add_constraint(world: *mut BW_World, c: *mut BW_Constraint, disable_collision: bool);
         pub fn bw_world_remove_constraint(world: *mut BW_World, c: *mut BW_Constraint);
         pub fn bw_world_set_kinematic_filter(world: *mut BW_World, enabled: bool);
+        pub fn bw_world_set_owner_isolation(world: *mut BW_World, enabled: bool);
+        pub fn bw_world_get_rigid_body_count(world: *mut BW_World) -> c_int;
 
         // 碰撞形状
         pub fn bw_shape_sphere(radius: c_float) -> *mut BW_Shape;
@@ -86,6 +88,7 @@ mod ffi {
         pub fn bw_rigid_body_get_mass(rb: *mut BW_RigidBody) -> c_float;
         pub fn bw_rigid_body_clear_forces(rb: *mut BW_RigidBody);
         pub fn bw_rigid_body_apply_central_force(rb: *mut BW_RigidBody, x: c_float, y: c_float, z: c_float);
+        pub fn bw_rigid_body_set_owner(rb: *mut BW_RigidBody, owner: c_int);
 
         // 6DOF 弹簧约束
         pub fn bw_6dof_spring_create(
@@ -113,7 +116,7 @@ pub const BT_CONSTRAINT_STOP_ERP: i32 = 2;
 pub const BT_CONSTRAINT_STOP_CFM: i32 = 3;
 
 // 激活状态常量
-#[allow(dead_code)]
+pub const ISLAND_SLEEPING: i32 = 2;
 pub const DISABLE_DEACTIVATION: i32 = 4;
 
 // ===== 安全封装类型 =====
@@ -165,6 +168,15 @@ impl BulletWorld {
     pub fn set_kinematic_filter(&self, enabled: bool) {
         unsafe { ffi::bw_world_set_kinematic_filter(self.ptr, enabled) }
     }
+
+    /// 共享世界：所有者不同的刚体互不碰撞
+    pub fn set_owner_isolation(&self, enabled: bool) {
+        unsafe { ffi::bw_world_set_owner_isolation(self.ptr, enabled) }
+    }
+
+    pub fn rigid_body_count(&self) -> usize {
+        unsafe { ffi::bw_world_get_rigid_body_count(self.ptr) as usize }
+    }
 }
 
 impl Drop for BulletWorld {
@@ -324,6 +336,11 @@ impl BulletRigidBody {
         unsafe { ffi::bw_rigid_body_apply_central_force(self.ptr, x, y, z) }
     }
 
+    /// 设置所有者（0 = 无所有者），配合世界的所有者隔离使用
+    pub fn set_owner(&self, owner: i32) {
+        unsafe { ffi::bw_rigid_body_set_owner(self.ptr, owner) }
+    }
+
     pub fn force_activation_state(&self, state: i32) {
         unsafe { ffi::bw_rigid_body_force_activation_state(self.ptr, state) }
     }
@@ -26,6 +26,18 @@ pub struct PhysicsConfig {
     pub kinematic_filter: bool,
     /// 调试日志
     pub debug_log: bool,
+    /// 在独立物理线程上按固定频率步进，渲染侧只插值结果
+    pub threaded: bool,
+    /// 线程物理模式下多个模型共享 Bullet3 世界（整体步进一次）
+    pub world_pool: bool,
+    /// 静止或被剔除时冻结刚体
+    pub sleep_enabled: bool,
+    /// 骨骼连续多少次观测（帧/物理步）未超过阈值后冻结
+    pub sleep_idle_frames: u32,
+    /// 判定骨骼运动的矩阵元素差阈值
+    pub sleep_threshold: f32,
+    /// 唤醒后的稳定期（帧/物理步）
+    pub settle_frames: u32,
 }
 
 impl Default for PhysicsConfig {
@@ -41,6 +53,12 @@ impl Default for PhysicsConfig {
             joints_enabled: true,
             kinematic_filter: true,
             debug_log: false,
+            threaded: false,
+            world_pool: false,
+            sleep_enabled: true,
+            sleep_idle_frames: 180,
+            sleep_threshold: 0.005,
+            settle_frames: 20,
         }
     }
 }
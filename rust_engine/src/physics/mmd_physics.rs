@@ -4,16 +4,21 @@
 //! 实现 commitBodyStates / syncBodies / stepSimulation / syncBones 全套流程。
 
 use std::collections::HashSet;
+use std::time::Duration;
 
 use glam::{Mat3, Mat4, Vec3};
 
 use mmd::pmx::rigid_body::RigidBody as PmxRigidBody;
 use mmd::pmx::joint::Joint as PmxJoint;
 
-use super::bullet_ffi::{self, BulletWorld};
+use super::bullet_ffi::{self, BulletWorld, DISABLE_DEACTIVATION, ISLAND_SLEEPING};
 use super::mmd_rigid_body::{MmdRigidBodyData, PhysicsMode};
 use super::mmd_joint::MmdJointData;
 use super::config::get_config;
+use super::activity::{ActivityAction, ActivityState, PhysicsActivity};
+
+/// 稳定期内的速度上限系数
+const SETTLE_VELOCITY_SCALE: f32 = 0.25;
 
 /// MMD 物理世界管理器（Bullet3 引擎）
 ///
@@ -25,8 +30,10 @@ pub struct MMDPhysics {
     joints: Vec<MmdJointData>,
     /// MMD 刚体数据列表
     pub rigid_bodies: Vec<MmdRigidBodyData>,
-    /// Bullet3 物理世界
-    world: BulletWorld,
+    /// 独占的 Bullet3 物理世界；迁入共享世界池期间为 None
+    world: Option<BulletWorld>,
+    /// 重力（独占世界直接生效；共享世界按重力分组，迁入时据此选世界）
+    gravity: Vec3,
     /// 物理 FPS
     fps: f32,
     /// 最大子步数
@@ -41,6 +48,9 @@ pub struct MMDPhysics {
 
     /// 上一帧模型世界位置（用于计算移动速度实现惯性）
     prev_model_position: Option<Vec3>,
+
+    /// 静止/剔除冻结控制
+    activity: PhysicsActivity,
 }
 
 impl MMDPhysics {
@@ -56,12 +66,14 @@ impl MMDPhysics {
         Some(Self {
             joints: Vec::new(),
             rigid_bodies: Vec::new(),
-            world,
+            world: Some(world),
+            gravity: Vec3::new(0.0, config.gravity_y, 0.0),
             fps: config.physics_fps,
             max_substep_count: config.max_substep_count,
             dynamic_bone_indices: HashSet::new(),
             dynamic_bone_buf: Vec::new(),
             prev_model_position: None,
+            activity: PhysicsActivity::new(),
         })
     }
 
@@ -102,17 +114,7 @@ impl MMDPhysics {
             self.rigid_bodies.push(rb_data);
         }
 
-        // 第二步：统一将已存储的刚体添加到世界
-        // 此时所有权已在 self.rigid_bodies 中，panic 时 Drop 链会正确清理
-        for rb_data in &self.rigid_bodies {
-            if let Some(ref body) = rb_data.bullet_body {
-                let group = 1i32 << (rb_data.group.min(15) as i32);
-                let mask = rb_data.group_mask as i32;
-                self.world.add_rigid_body(body, group, mask);
-            }
-        }
-
-        // 第三步：创建关节并存入 Vec
+        // 第二步：创建关节并存入 Vec
         if config.joints_enabled {
             self.joints.reserve(pmx_joints.len());
 
@@ -146,13 +148,13 @@ impl MMDPhysics {
                 // 先存入 Vec，再添加到世界
                 self.joints.push(joint_data);
             }
+        }
 
-            // 统一添加约束到世界
-            for joint_data in &self.joints {
-                if let Some(ref constraint) = joint_data.constraint {
-                    self.world.add_constraint(constraint, true);
-                }
-            }
+        // 第三步：统一将已存储的刚体与约束添加到世界
+        // 此时所有权已在 Vec 中，panic 时 Drop 链会正确清理
+        if let Some(ref world) = self.world {
+            self.add_to_world(world);
+            world.set_kinematic_filter(config.kinematic_filter);
         }
 
         // 第四步：预计算动态骨骼索引集合（一次性，避免每帧重算）
@@ -164,8 +166,6 @@ impl MMDPhysics {
         // 预分配动态骨骼缓冲区
         self.dynamic_bone_buf.reserve(self.dynamic_bone_indices.len());
 
-        self.world.set_kinematic_filter(config.kinematic_filter);
-
         let kinematic_count = self.rigid_bodies.iter()
             .filter(|rb| rb.physics_mode == PhysicsMode::FollowBone).count();
         let dynamic_count = self.rigid_bodies.iter()
@@ -220,6 +220,11 @@ impl MMDPhysics {
         let dt = delta_time.max(0.001);
         let curr_pos = model_transform.w_axis.truncate();
 
+        // 稳定期内不施加惯性，避免唤醒时累积的位移变成冲击
+        if self.activity.is_settling() {
+            self.prev_model_position = None;
+        }
+
         // 计算模型世界速度
         let model_velocity = if let Some(prev_pos) = self.prev_model_position {
             (curr_pos - prev_pos) / dt
@@ -284,13 +289,20 @@ impl MMDPhysics {
     /// Bullet3 没有内置全局速度限制，需在每步后手动截断超速刚体，
     /// 防止卡顿帧或极端力导致的物理爆炸。
     pub fn step_simulation(&self, delta_time: f32) {
-        let fixed_dt = 1.0 / self.fps;
-        self.world.step(delta_time, self.max_substep_count, fixed_dt);
+        if let Some(ref world) = self.world {
+            let fixed_dt = 1.0 / self.fps;
+            world.step(delta_time, self.max_substep_count, fixed_dt);
+        }
+        self.clamp_velocities();
+    }
 
-        // 速度钳制
+    /// 截断超速刚体（共享世界步进后由世界池对每个成员调用）
+    pub fn clamp_velocities(&self) {
         let config = get_config();
-        let max_lin = config.max_linear_velocity;
-        let max_ang = config.max_angular_velocity;
+        // 稳定期内收紧速度上限
+        let scale = if self.activity.is_settling() { SETTLE_VELOCITY_SCALE } else { 1.0 };
+        let max_lin = config.max_linear_velocity * scale;
+        let max_ang = config.max_angular_velocity * scale;
         let max_lin_sq = max_lin * max_lin;
         let max_ang_sq = max_ang * max_ang;
 
@@ -373,9 +385,62 @@ impl MMDPhysics {
         }
     }
 
+    /// 观测本次骨骼输入，按静止/剔除状态冻结或唤醒刚体
+    ///
+    /// 返回 false 表示处于冻结状态，本次应跳过同步与步进（结果保持冻结前）。
+    pub fn update_activity(&mut self, bone_transforms: &[Mat4], model_transform: Mat4, input_age: Duration) -> bool {
+        let config = get_config();
+        match self.activity.observe(bone_transforms, model_transform, input_age, &config) {
+            ActivityAction::Step => true,
+            ActivityAction::Hold => false,
+            ActivityAction::Freeze => {
+                self.set_dynamic_activation(ISLAND_SLEEPING);
+                false
+            }
+            ActivityAction::Wake { snap } => {
+                if snap {
+                    self.initialize(bone_transforms);
+                }
+                self.prev_model_position = None;
+                self.set_dynamic_activation(DISABLE_DEACTIVATION);
+                true
+            }
+        }
+    }
+
+    pub fn activity_state(&self) -> ActivityState {
+        self.activity.state()
+    }
+
+    /// 动态刚体数量
+    pub fn dynamic_body_count(&self) -> usize {
+        self.rigid_bodies.iter().filter(|rb| rb.physics_mode != PhysicsMode::FollowBone).count()
+    }
+
+    /// 设置动态刚体激活状态；休眠前清零速度，共享世界步进时整岛跳过
+    fn set_dynamic_activation(&self, state: i32) {
+        for rb_data in &self.rigid_bodies {
+            if rb_data.physics_mode == PhysicsMode::FollowBone {
+                continue;
+            }
+            if let Some(ref body) = rb_data.bullet_body {
+                if state == ISLAND_SLEEPING {
+                    body.set_linear_velocity(0.0, 0.0, 0.0);
+                    body.set_angular_velocity(0.0, 0.0, 0.0);
+                    body.clear_forces();
+                }
+                body.force_activation_state(state);
+            }
+        }
+    }
+
     /// 重置物理系统
     pub fn reset(&mut self) {
         self.prev_model_position = None;
+        if self.activity.state() == ActivityState::Frozen {
+            self.set_dynamic_activation(DISABLE_DEACTIVATION);
+        }
+        self.activity.reset();
         for rb_data in &self.rigid_bodies {
             if let Some(ref body) = rb_data.bullet_body {
                 body.set_transform(rb_data.initial_transform);
@@ -387,8 +452,85 @@ impl MMDPhysics {
     }
 
     /// 设置重力
-    pub fn set_gravity(&self, x: f32, y: f32, z: f32) {
-        self.world.set_gravity(x, y, z);
+    ///
+    /// 共享世界内所有模型共用重力，成员只记录新值，
+    /// 由调用方取回后重新移交到重力匹配的共享世界。
+    pub fn set_gravity(&mut self, x: f32, y: f32, z: f32) {
+        self.gravity = Vec3::new(x, y, z);
+        if let Some(ref world) = self.world {
+            world.set_gravity(x, y, z);
+        }
+    }
+
+    pub fn gravity(&self) -> Vec3 {
+        self.gravity
+    }
+
+    /// 是否已迁入共享世界
+    pub fn is_pooled(&self) -> bool {
+        self.world.is_none()
+    }
+
+    fn add_to_world(&self, world: &BulletWorld) {
+        for rb_data in &self.rigid_bodies {
+            if let Some(ref body) = rb_data.bullet_body {
+                let group = 1i32 << (rb_data.group.min(15) as i32);
+                let mask = rb_data.group_mask as i32;
+                world.add_rigid_body(body, group, mask);
+            }
+        }
+        for joint in &self.joints {
+            if let Some(ref constraint) = joint.constraint {
+                world.add_constraint(constraint, true);
+            }
+        }
+    }
+
+    fn remove_from_world(&self, world: &BulletWorld) {
+        for joint in &self.joints {
+            if let Some(ref constraint) = joint.constraint {
+                world.remove_constraint(constraint);
+            }
+        }
+        for rb in &self.rigid_bodies {
+            if let Some(ref body) = rb.bullet_body {
+                world.remove_rigid_body(body);
+            }
+        }
+    }
+
+    /// 迁入共享世界：刚体与约束移出独占世界（随即释放）后加入 shared，并标记所有者
+    ///
+    /// 调用方须在释放本对象前调用 [`Self::leave_shared_world`]。
+    pub fn join_shared_world(&mut self, shared: &BulletWorld, owner: i32) {
+        if let Some(world) = self.world.take() {
+            self.remove_from_world(&world);
+        }
+        for rb in &self.rigid_bodies {
+            if let Some(ref body) = rb.bullet_body {
+                body.set_owner(owner);
+            }
+        }
+        self.add_to_world(shared);
+    }
+
+    /// 移出共享世界，回到新建的独占世界（创建失败时刚体不在任何世界中，物理停止）
+    pub fn leave_shared_world(&mut self, shared: &BulletWorld) {
+        if self.world.is_some() {
+            return;
+        }
+        self.remove_from_world(shared);
+        for rb in &self.rigid_bodies {
+            if let Some(ref body) = rb.bullet_body {
+                body.set_owner(0);
+            }
+        }
+        let config = get_config();
+        if let Some(world) = BulletWorld::new(self.gravity.x, self.gravity.y, self.gravity.z) {
+            self.add_to_world(&world);
+            world.set_kinematic_filter(config.kinematic_filter);
+            self.world = Some(world);
+        }
     }
 
     pub fn rigid_body_count(&self) -> usize { self.rigid_bodies.len() }
@@ -444,15 +586,9 @@ impl Drop for MMDPhysics {
         // Bullet3 要求：必须在 destroy 对象前先从世界中移除。
         // Rust 默认按声明顺序 drop 字段（joints → rigid_bodies → world），
         // 如果不先移除，bw_world_destroy 会访问已释放的指针导致崩溃。
-        for joint in &self.joints {
-            if let Some(ref constraint) = joint.constraint {
-                self.world.remove_constraint(constraint);
-            }
-        }
-        for rb in &self.rigid_bodies {
-            if let Some(ref body) = rb.bullet_body {
-                self.world.remove_rigid_body(body);
-            }
+        // 共享世界中的成员由世界池在释放前移出（leave_shared_world）。
+        if let Some(ref world) = self.world {
+            self.remove_from_world(world);
         }
         // 之后 Rust 自动 drop 各字段（约束/刚体/世界），此时世界已为空，安全释放
 
@@ -6,6 +6,9 @@ pub mod bullet_ffi;
 mod mmd_physics;
 mod mmd_rigid_body;
 mod mmd_joint;
+mod physics_thread;
+mod activity;
+mod world_pool;
 pub mod config;
 
 /// Z 轴翻转变换（左手 ↔ 右手坐标系转换，与 saba InvZ 一致）
@@ -21,5 +24,8 @@ pub(crate) fn inv_z(m: Mat4) -> Mat4 {
 pub use mmd_physics::MMDPhysics;
 pub use mmd_rigid_body::{MmdRigidBodyData, PhysicsMode};
 pub use mmd_joint::MmdJointData;
+pub use physics_thread::{ThreadedPhysics, threaded_model_count};
+pub use world_pool::pool_stats;
+pub use activity::{ActivityState, activity_counts};
 pub use config::{PhysicsConfig, get_config, set_config, reset_config};
 pub use bullet_ffi::{BulletAllocStats, get_alloc_stats};
@@ -0,0 +1,364 @@
+//! 独立物理线程
+//!
+//! 开启后各模型的 Bullet3 世界交由专用线程按 physics_fps 固定步进，
+//! 动态骨骼变换双缓冲（上一步 / 最新一步）。渲染侧只提交骨骼输入，
+//! 并按距最新一步的时间在两份结果间插值，帧耗时不再随物理开销波动。
+//! 启用世界池时，同一共享世界的成员先逐个同步输入，再整体步进一次。
+
+use std::collections::HashSet;
+use std::sync::{Arc, Mutex, Weak};
+use std::thread;
+use std::time::{Duration, Instant};
+
+use glam::Mat4;
+use once_cell::sync::Lazy;
+
+use super::bullet_ffi::BulletWorld;
+use super::config::get_config;
+use super::mmd_physics::MMDPhysics;
+use super::world_pool::{self, PooledWorld};
+
+/// 渲染侧提交的最新骨骼输入
+struct PhysicsInput {
+    bone_transforms: Vec<Mat4>,
+    model_transform: Mat4,
+    /// 最近一次提交的时刻；长时间未提交视为模型被剔除
+    submitted_at: Option<Instant>,
+}
+
+/// 物理线程写出的双缓冲结果
+struct PhysicsOutput {
+    previous: Vec<(usize, Mat4)>,
+    current: Vec<(usize, Mat4)>,
+    /// 最新一步完成的时刻
+    stepped_at: Option<Instant>,
+    /// 最新一步的步长（秒）
+    step_interval: f32,
+}
+
+/// 由物理线程步进的单个模型物理世界
+pub struct ThreadedPhysics {
+    /// 物理世界；取回内联模式时置为 None
+    physics: Mutex<Option<MMDPhysics>>,
+    input: Mutex<PhysicsInput>,
+    output: Mutex<PhysicsOutput>,
+    dynamic_bone_indices: HashSet<usize>,
+    /// 所在共享世界（未入池时为 None）
+    pool: Option<Arc<PooledWorld>>,
+}
+
+impl ThreadedPhysics {
+    /// 将物理世界移交物理线程，pooled 时迁入共享世界；线程启动失败时原样退回
+    pub fn start(mut physics: MMDPhysics, pooled: bool) -> Result<Arc<Self>, MMDPhysics> {
+        let pool = if pooled { world_pool::acquire(physics.gravity()) } else { None };
+        if let Some(ref pool) = pool {
+            physics.join_shared_world(&pool.lock(), world_pool::next_owner());
+        }
+        let shared = Arc::new(Self {
+            dynamic_bone_indices: physics.get_dynamic_bone_indices().clone(),
+            pool,
+            physics: Mutex::new(Some(physics)),
+            input: Mutex::new(PhysicsInput {
+                bone_transforms: Vec::new(),
+                model_transform: Mat4::IDENTITY,
+                submitted_at: None,
+            }),
+            output: Mutex::new(PhysicsOutput {
+                previous: Vec::new(),
+                current: Vec::new(),
+                stepped_at: None,
+                step_interval: 0.0,
+            }),
+        });
+        if register(&shared) {
+            Ok(shared)
+        } else {
+            match shared.take_back() {
+                Some(physics) => Err(physics),
+                None => unreachable!(),
+            }
+        }
+    }
+
+    /// 取回物理世界（切回内联模式），之后物理线程不再步进该模型
+    pub fn take_back(&self) -> Option<MMDPhysics> {
+        match self.pool {
+            Some(ref pool) => {
+                let world = pool.lock();
+                let mut physics = self.physics.lock().unwrap_or_else(|e| e.into_inner()).take();
+                if let Some(ref mut p) = physics {
+                    p.leave_shared_world(&world);
+                    pool.release();
+                }
+                physics
+            }
+            None => self.physics.lock().unwrap_or_else(|e| e.into_inner()).take(),
+        }
+    }
+
+    /// 是否位于共享世界
+    pub fn is_pooled(&self) -> bool {
+        self.pool.is_some()
+    }
+
+    /// 在持锁状态下访问物理世界（调试信息等低频查询）
+    pub fn with_physics<R>(&self, f: impl FnOnce(&mut MMDPhysics) -> R) -> Option<R> {
+        // 共享世界成员先锁世界，避免与物理线程的整体步进并发访问刚体
+        let _world = self.pool.as_ref().map(|pool| pool.lock());
+        self.physics.lock().unwrap_or_else(|e| e.into_inner()).as_mut().map(f)
+    }
+
+    pub fn dynamic_bone_indices(&self) -> &HashSet<usize> {
+        &self.dynamic_bone_indices
+    }
+
+    /// 提交本帧动画后的骨骼全局变换与模型变换，供物理线程下一步使用
+    pub fn submit(&self, bone_transforms: &[Mat4], model_transform: Mat4) {
+        let mut input = self.input.lock().unwrap_or_else(|e| e.into_inner());
+        input.bone_transforms.clear();
+        input.bone_transforms.extend_from_slice(bone_transforms);
+        input.model_transform = model_transform;
+        input.submitted_at = Some(Instant::now());
+    }
+
+    /// 按距最新一步的时间在两份结果间插值，写入 out（复用调用方缓冲区）
+    pub fn interpolate_into(&self, out: &mut Vec<(usize, Mat4)>) {
+        out.clear();
+        let output = self.output.lock().unwrap_or_else(|e| e.into_inner());
+        let stepped_at = match output.stepped_at {
+            Some(t) => t,
+            None => return,
+        };
+        let alpha = if output.step_interval > 0.0 {
+            (stepped_at.elapsed().as_secs_f32() / output.step_interval).min(1.0)
+        } else {
+            1.0
+        };
+        for (&(bone, prev), &(_, curr)) in output.previous.iter().zip(&output.current) {
+            out.push((bone, blend_transform(prev, curr, alpha)));
+        }
+    }
+
+    /// 重置物理世界并清空已输出的结果
+    pub fn reset(&self) {
+        self.with_physics(|physics| physics.reset());
+        let mut output = self.output.lock().unwrap_or_else(|e| e.into_inner());
+        output.previous.clear();
+        output.current.clear();
+        output.stepped_at = None;
+    }
+
+    /// 物理线程上独立步进一步（未入池）；返回 false 表示物理世界已被取回
+    fn step(&self, dt: f32, bones: &mut Vec<Mat4>) -> bool {
+        let mut guard = self.physics.lock().unwrap_or_else(|e| e.into_inner());
+        let physics = match guard.as_mut() {
+            Some(p) => p,
+            None => return false,
+        };
+        if self.sync_input(physics, dt, bones) {
+            physics.step_simulation(dt);
+            self.publish(physics, dt, bones);
+        }
+        true
+    }
+
+    /// 共享世界步进前：同步该成员的输入；返回是否已有输入
+    fn pre_pooled_step(&self, dt: f32, bones: &mut Vec<Mat4>) -> bool {
+        let mut guard = self.physics.lock().unwrap_or_else(|e| e.into_inner());
+        match guard.as_mut() {
+            Some(physics) => self.sync_input(physics, dt, bones),
+            None => false,
+        }
+    }
+
+    /// 共享世界步进后：钳制速度并写出该成员的结果
+    fn post_pooled_step(&self, dt: f32, bones: &mut Vec<Mat4>) {
+        let mut guard = self.physics.lock().unwrap_or_else(|e| e.into_inner());
+        if let Some(physics) = guard.as_mut() {
+            physics.clamp_velocities();
+            self.publish(physics, dt, bones);
+        }
+    }
+
+    /// 取最新输入同步运动学刚体与惯性力；bones 保留输入供 publish 使用
+    ///
+    /// 返回 false 表示尚无输入或模型已冻结，本步不模拟也不写出结果。
+    fn sync_input(&self, physics: &mut MMDPhysics, dt: f32, bones: &mut Vec<Mat4>) -> bool {
+        let (model_transform, input_age) = {
+            let input = self.input.lock().unwrap_or_else(|e| e.into_inner());
+            if input.bone_transforms.is_empty() {
+                return false;
+            }
+            bones.clear();
+            bones.extend_from_slice(&input.bone_transforms);
+            (input.model_transform, input.submitted_at.map_or(Duration::ZERO, |t| t.elapsed()))
+        };
+        if !physics.update_activity(bones, model_transform, input_age) {
+            return false;
+        }
+        physics.sync_bodies_with_model_velocity(bones, dt, model_transform);
+        true
+    }
+
+    /// 读取动态骨骼结果写入双缓冲
+    fn publish(&self, physics: &mut MMDPhysics, dt: f32, bones: &[Mat4]) {
+        let result = physics.get_dynamic_bone_transforms(bones);
+
+        let mut output = self.output.lock().unwrap_or_else(|e| e.into_inner());
+        let output = &mut *output;
+        std::mem::swap(&mut output.previous, &mut output.current);
+        output.current.clear();
+        output.current.extend_from_slice(result);
+        if output.previous.len() != output.current.len() {
+            output.previous.clone_from(&output.current);
+        }
+        output.stepped_at = Some(Instant::now());
+        output.step_interval = dt;
+    }
+}
+
+impl Drop for ThreadedPhysics {
+    fn drop(&mut self) {
+        // 共享世界成员必须先移出世界，MMDPhysics 才能安全释放刚体
+        drop(self.take_back());
+    }
+}
+
+/// 整体步进一个共享世界的全部成员
+fn step_pooled_world(
+    world: &BulletWorld,
+    members: &[Arc<ThreadedPhysics>],
+    dt: f32,
+    bones: &mut Vec<Mat4>,
+    had_input: &mut Vec<bool>,
+) {
+    had_input.clear();
+    for member in members {
+        had_input.push(member.pre_pooled_step(dt, bones));
+    }
+    world.step(dt, 1, dt);
+    for (member, &stepped) in members.iter().zip(had_input.iter()) {
+        if stepped {
+            // publish 需要该成员自己的骨骼输入，重新取一次
+            let input = member.input.lock().unwrap_or_else(|e| e.into_inner());
+            bones.clear();
+            bones.extend_from_slice(&input.bone_transforms);
+            drop(input);
+            member.post_pooled_step(dt, bones);
+        }
+    }
+}
+
+fn blend_transform(a: Mat4, b: Mat4, t: f32) -> Mat4 {
+    if t >= 1.0 {
+        return b;
+    }
+    let (sa, ra, ta) = a.to_scale_rotation_translation();
+    let (sb, rb, tb) = b.to_scale_rotation_translation();
+    Mat4::from_scale_rotation_translation(sa.lerp(sb, t), ra.slerp(rb, t), ta.lerp(tb, t))
+}
+
+struct Registry {
+    entries: Vec<Weak<ThreadedPhysics>>,
+    running: bool,
+}
+
+static REGISTRY: Lazy<Mutex<Registry>> =
+    Lazy::new(|| Mutex::new(Registry { entries: Vec::new(), running: false }));
+
+/// 登记到物理线程，必要时启动线程
+fn register(shared: &Arc<ThreadedPhysics>) -> bool {
+    let mut registry = REGISTRY.lock().unwrap_or_else(|e| e.into_inner());
+    registry.entries.push(Arc::downgrade(shared));
+    if registry.running {
+        return true;
+    }
+    match thread::Builder::new().name("mmd-physics".into()).spawn(run_worker) {
+        Ok(_) => {
+            registry.running = true;
+            true
+        }
+        Err(e) => {
+            log::error!("[Bullet3] 物理线程启动失败，回退到渲染线程步进: {}", e);
+            registry.entries.pop();
+            false
+        }
+    }
+}
+
+/// 当前由物理线程步进的模型数量
+pub fn threaded_model_count() -> usize {
+    let registry = REGISTRY.lock().unwrap_or_else(|e| e.into_inner());
+    registry.entries.iter().filter(|w| w.strong_count() > 0).count()
+}
+
+fn run_worker() {
+    let mut next_tick = Instant::now();
+    let mut live: Vec<Arc<ThreadedPhysics>> = Vec::new();
+    let mut bones: Vec<Mat4> = Vec::new();
+    let mut had_input: Vec<bool> = Vec::new();
+    log::info!("[Bullet3] 物理线程已启动");
+
+    loop {
+        let config = get_config();
+        let dt = 1.0 / config.physics_fps.max(1.0);
+        let interval = Duration::from_secs_f32(dt);
+
+        {
+            let mut registry = REGISTRY.lock().unwrap_or_else(|e| e.into_inner());
+            registry.entries.retain(|w| w.strong_count() > 0);
+            if registry.entries.is_empty() {
+                registry.running = false;
+                log::info!("[Bullet3] 无模型使用物理线程，线程退出");
+                return;
+            }
+            live.extend(registry.entries.iter().filter_map(Weak::upgrade));
+        }
+        // 同一共享世界的成员排在一起，未入池的排在最前
+        live.sort_by_key(|p| p.pool.as_ref().map_or(0, |w| Arc::as_ptr(w) as usize));
+
+        // 落后时最多补 max_substep_count 步，之后重新对齐节拍
+        let max_catch_up = config.max_substep_count.max(1);
+        let mut steps = 0;
+        while Instant::now() >= next_tick && steps < max_catch_up {
+            if config.enabled {
+                step_all(&live, dt, &mut bones, &mut had_input);
+            }
+            next_tick += interval;
+            steps += 1;
+        }
+        let now = Instant::now();
+        if now >= next_tick {
+            next_tick = now + interval;
+        }
+
+        // 睡眠前释放强引用，模型可在物理线程空闲时正常析构
+        live.clear();
+        let now = Instant::now();
+        if next_tick > now {
+            thread::sleep(next_tick - now);
+        }
+    }
+}
+
+/// 步进一轮：未入池的逐个步进，共享世界按世界整体步进
+fn step_all(live: &[Arc<ThreadedPhysics>], dt: f32, bones: &mut Vec<Mat4>, had_input: &mut Vec<bool>) {
+    let mut i = 0;
+    while i < live.len() {
+        match live[i].pool {
+            None => {
+                live[i].step(dt, bones);
+                i += 1;
+            }
+            Some(ref pool) => {
+                let end = live[i..]
+                    .iter()
+                    .position(|p| !p.pool.as_ref().map_or(false, |w| Arc::ptr_eq(w, pool)))
+                    .map_or(live.len(), |n| i + n);
+                let world = pool.lock();
+                step_pooled_world(&world, &live[i..end], dt, bones, had_input);
+                i = end;
+            }
+        }
+    }
+}
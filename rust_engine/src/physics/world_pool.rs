@@ -0,0 +1,263 @@
+//! 共享物理世界池
+//!
+//! 多个模型的刚体放入同一个 Bullet3 世界，按所有者隔离碰撞，
+//! 由物理线程对整个世界只调用一次 stepSimulation。
+//! 模型之间既无碰撞也无约束，Bullet 的模拟岛天然按模型划分，互不牵连。
+
+use std::sync::atomic::{AtomicI32, AtomicUsize, Ordering};
+use std::sync::{Arc, Mutex, MutexGuard, Weak};
+
+use glam::Vec3;
+use once_cell::sync::Lazy;
+
+use super::bullet_ffi::BulletWorld;
+use super::config::get_config;
+
+/// 单个共享世界容纳的模型上限（限制宽相规模与单次步进耗时）
+pub const MAX_MODELS_PER_WORLD: usize = 16;
+
+/// 共享物理世界
+pub struct PooledWorld {
+    world: Mutex<BulletWorld>,
+    members: AtomicUsize,
+    /// 世界重力（创建后不变；重力不同的模型分入不同世界）
+    gravity: Vec3,
+}
+
+impl PooledWorld {
+    /// 锁定世界；锁顺序为 世界 → 成员物理
+    pub fn lock(&self) -> MutexGuard<'_, BulletWorld> {
+        self.world.lock().unwrap_or_else(|e| e.into_inner())
+    }
+
+    /// 成员离开（物理已移出世界）
+    pub fn release(&self) {
+        self.members.fetch_sub(1, Ordering::AcqRel);
+    }
+
+    pub fn member_count(&self) -> usize {
+        self.members.load(Ordering::Acquire)
+    }
+
+    pub fn gravity(&self) -> Vec3 {
+        self.gravity
+    }
+}
+
+static POOL: Lazy<Mutex<Vec<Weak<PooledWorld>>>> = Lazy::new(|| Mutex::new(Vec::new()));
+
+static NEXT_OWNER: AtomicI32 = AtomicI32::new(1);
+
+/// 分配刚体所有者编号（非 0）
+pub fn next_owner() -> i32 {
+    loop {
+        let owner = NEXT_OWNER.fetch_add(1, Ordering::Relaxed);
+        if owner != 0 {
+            return owner;
+        }
+    }
+}
+
+/// 取得一个重力相同且未满的共享世界并占用一个成员位；没有时新建（C++ OOM 时返回 None）
+pub fn acquire(gravity: Vec3) -> Option<Arc<PooledWorld>> {
+    let mut pool = POOL.lock().unwrap_or_else(|e| e.into_inner());
+    pool.retain(|w| w.strong_count() > 0);
+
+    for weak in pool.iter() {
+        if let Some(world) = weak.upgrade().filter(|w| w.gravity == gravity) {
+            let claimed = world.members.fetch_update(Ordering::AcqRel, Ordering::Acquire, |n| {
+                if n < MAX_MODELS_PER_WORLD { Some(n + 1) } else { None }
+            });
+            if claimed.is_ok() {
+                return Some(world);
+            }
+        }
+    }
+
+    let config = get_config();
+    let world = BulletWorld::new(gravity.x, gravity.y, gravity.z)?;
+    world.set_owner_isolation(true);
+    world.set_kinematic_filter(config.kinematic_filter);
+    let pooled = Arc::new(PooledWorld {
+        world: Mutex::new(world),
+        members: AtomicUsize::new(1),
+        gravity,
+    });
+    pool.push(Arc::downgrade(&pooled));
+    log::info!("[Bullet3] 新建共享物理世界（当前 {} 个）", pool.len());
+    Some(pooled)
+}
+
+/// 共享世界统计：(世界数, 成员模型数)
+pub fn pool_stats() -> (usize, usize) {
+    let pool = POOL.lock().unwrap_or_else(|e| e.into_inner());
+    pool.iter()
+        .filter_map(Weak::upgrade)
+        .fold((0, 0), |(worlds, members), w| (worlds + 1, members + w.member_count()))
+}
+
+#[cfg(test)]
+mod tests {
+    use super::super::bullet_ffi::{BulletConstraint, BulletRigidBody, BulletShape, RigidBodyInfo};
+    use super::*;
+    use glam::Mat4;
+    use std::time::Instant;
+
+    /// 一串以弹簧约束相连的刚体，首节为运动学（模拟头发/裙摆链）
+    struct Chain {
+        constraints: Vec<BulletConstraint>,
+        bodies: Vec<BulletRigidBody>,
+        _shape: BulletShape,
+    }
+
+    fn build_chain(origin: Vec3, length: usize) -> Chain {
+        let shape = BulletShape::sphere(0.1).unwrap();
+        let bodies: Vec<BulletRigidBody> = (0..length)
+            .map(|i| {
+                let info = RigidBodyInfo {
+                    mass: 1.0,
+                    linear_damping: 0.5,
+                    angular_damping: 0.5,
+                    friction: 0.5,
+                    restitution: 0.0,
+                    additional_damping: true,
+                    is_kinematic: i == 0,
+                    disable_deactivation: true,
+                    no_contact_response: false,
+                    initial_transform: Mat4::from_translation(origin - Vec3::Y * (i as f32 * 0.25)),
+                };
+                BulletRigidBody::new(&info, &shape).unwrap()
+            })
+            .collect();
+        let constraints = bodies
+            .windows(2)
+            .map(|pair| {
+                let c = BulletConstraint::new_6dof_spring(
+                    &pair[0],
+                    &pair[1],
+                    Mat4::from_translation(Vec3::Y * -0.125),
+                    Mat4::from_translation(Vec3::Y * 0.125),
+                    true,
+                )
+                .unwrap();
+                c.set_angular_lower_limit(-0.5, -0.5, -0.5);
+                c.set_angular_upper_limit(0.5, 0.5, 0.5);
+                c
+            })
+            .collect();
+        Chain { constraints, bodies, _shape: shape }
+    }
+
+    fn add_chain(world: &BulletWorld, chain: &Chain, owner: i32) {
+        for body in &chain.bodies {
+            body.set_owner(owner);
+            world.add_rigid_body(body, 1, -1);
+        }
+        for c in &chain.constraints {
+            world.add_constraint(c, true);
+        }
+    }
+
+    fn remove_chain(world: &BulletWorld, chain: &Chain) {
+        for c in &chain.constraints {
+            world.remove_constraint(c);
+        }
+        for body in &chain.bodies {
+            world.remove_rigid_body(body);
+        }
+    }
+
+    #[test]
+    fn pooled_members_do_not_collide() {
+        // 两条链在同一位置重叠；隔离后各自的末端应与单独模拟时一致
+        let world = BulletWorld::new(0.0, -98.0, 0.0).unwrap();
+        world.set_owner_isolation(true);
+        let a = build_chain(Vec3::ZERO, 4);
+        let b = build_chain(Vec3::ZERO, 4);
+        add_chain(&world, &a, 1);
+        add_chain(&world, &b, 2);
+        assert_eq!(world.rigid_body_count(), 8);
+
+        let solo_world = BulletWorld::new(0.0, -98.0, 0.0).unwrap();
+        let solo = build_chain(Vec3::ZERO, 4);
+        add_chain(&solo_world, &solo, 0);
+
+        for _ in 0..60 {
+            world.step(1.0 / 60.0, 1, 1.0 / 60.0);
+            solo_world.step(1.0 / 60.0, 1, 1.0 / 60.0);
+        }
+        let tail = |c: &Chain| c.bodies.last().unwrap().get_position();
+        assert!(tail(&a).abs_diff_eq(tail(&solo), 1e-3));
+        assert!(tail(&b).abs_diff_eq(tail(&solo), 1e-3));
+
+        remove_chain(&world, &a);
+        remove_chain(&world, &b);
+        remove_chain(&solo_world, &solo);
+    }
+
+    #[test]
+    fn acquire_groups_worlds_by_gravity() {
+        // 取不常见的重力值，避免与并行测试共用全局池中的世界
+        let low = Vec3::new(0.0, -12.5, 0.0);
+        let high = Vec3::new(0.0, -37.5, 0.0);
+        let a = acquire(low).unwrap();
+        let b = acquire(low).unwrap();
+        let c = acquire(high).unwrap();
+        assert!(Arc::ptr_eq(&a, &b));
+        assert!(!Arc::ptr_eq(&a, &c));
+        assert_eq!(c.gravity(), high);
+        a.release();
+        b.release();
+        c.release();
+    }
+
+    /// 步进耗时对比：cargo test --release world_pool -- --ignored --nocapture
+    #[test]
+    #[ignore]
+    fn bench_isolated_vs_pooled() {
+        const CHAIN_LENGTH: usize = 30;
+        const STEPS: u32 = 300;
+        for &models in &[10usize, 40] {
+            let chains: Vec<Chain> = (0..models)
+                .map(|i| build_chain(Vec3::new(i as f32 * 0.05, 0.0, 0.0), CHAIN_LENGTH))
+                .collect();
+
+            let worlds: Vec<BulletWorld> = (0..models).map(|_| BulletWorld::new(0.0, -98.0, 0.0).unwrap()).collect();
+            for (world, chain) in worlds.iter().zip(&chains) {
+                add_chain(world, chain, 0);
+            }
+            let start = Instant::now();
+            for _ in 0..STEPS {
+                for world in &worlds {
+                    world.step(1.0 / 60.0, 1, 1.0 / 60.0);
+                }
+            }
+            let isolated = start.elapsed();
+            for (world, chain) in worlds.iter().zip(&chains) {
+                remove_chain(world, chain);
+            }
+
+            let pooled_world = BulletWorld::new(0.0, -98.0, 0.0).unwrap();
+            pooled_world.set_owner_isolation(true);
+            for (i, chain) in chains.iter().enumerate() {
+                add_chain(&pooled_world, chain, i as i32 + 1);
+            }
+            let start = Instant::now();
+            for _ in 0..STEPS {
+                pooled_world.step(1.0 / 60.0, 1, 1.0 / 60.0);
+            }
+            let pooled = start.elapsed();
+            for chain in &chains {
+                remove_chain(&pooled_world, chain);
+            }
+
+            println!(
+                "{} 模型 × {} 刚体: 独立世界 {:.3} ms/步, 共享世界 {:.3} ms/步",
+                models,
+                CHAIN_LENGTH,
+                isolated.as_secs_f64() * 1000.0 / STEPS as f64,
+                pooled.as_secs_f64() * 1000.0 / STEPS as f64
+            );
+        }
+    }
+}
@@ -4,14 +4,24 @@ use glam::{Vec3, Quat, Mat4};
 use std::collections::{HashMap, HashSet};
 
 use super::{BoneLink, IkSolver};
+use super::ik_solver::IkScratch;
 
 
+/// 前序层级节点：父骨骼总在子骨骼之前，子树在数组中连续
+#[derive(Clone, Copy)]
+struct HierarchyNode {
+    bone: usize,
+    /// 子树在前序数组中的结束位置（不含）
+    subtree_end: usize,
+}
+
 /// 骨骼集合 - 类似 nphysics Multibody
 ///
 /// 设计原则（参考 nphysics）：
 /// - 所有骨骼存储在连续数组中
 /// - 使用排序索引确保父骨骼先于子骨骼更新
 /// - 变换传播：local_to_world = parent.local_to_world * local_to_parent
+/// - 增量更新：本地变换与父骨骼全局变换都未变化的骨骼跳过全局变换重算
 pub struct BoneSet {
     /// 骨骼数组
     links: Vec<BoneLink>,
@@ -34,11 +44,41 @@ pub struct BoneSet {
     /// 子骨骼缓存（parent_index -> children_indices）
     children_cache: Vec<Vec<usize>>,
     
+    /// 前序排列的骨骼层级，全局变换按此顺序扁平遍历
+    hierarchy: Vec<HierarchyNode>,
+    
+    /// 骨骼在 hierarchy 中的位置（根不可达的骨骼为 usize::MAX）
+    hierarchy_pos: Vec<usize>,
+    
+    /// 上次计算全局变换时的本地变换（NaN 表示必须重算）
+    computed_local: Vec<Mat4>,
+    
+    /// 是否存在物理后变形的骨骼
+    has_after_physics: bool,
+    
+    /// 物理骨骼下游的非物理骨骼（前序），物理同步后只更新这些骨骼
+    physics_subtree: Vec<usize>,
+    
+    /// physics_subtree 对应的物理骨骼集合
+    physics_subtree_key: HashSet<usize>,
+    
+    /// 构建 physics_subtree 的标记暂存区
+    physics_subtree_mark: Vec<bool>,
+    
     /// 更新标志
     needs_hierarchy_update: bool,
     
     /// VRM 标志（VMD 旋转/平移需要额外坐标系转换）
     is_vrm: bool,
+    
+    /// GPU 调色板接管、CPU 可跳过评估的骨骼
+    palette_skip: Vec<bool>,
+    
+    /// 本帧是否启用 palette_skip
+    palette_active: bool,
+    
+    /// IK 链求解状态暂存区（跨帧复用）
+    ik_scratch: IkScratch,
 }
 
 impl BoneSet {
@@ -52,8 +92,18 @@ impl BoneSet {
             skinning_matrices: Vec::new(),
             physics_bone_indices: HashSet::new(),
             children_cache: Vec::new(),
+            hierarchy: Vec::new(),
+            hierarchy_pos: Vec::new(),
+            computed_local: Vec::new(),
+            has_after_physics: false,
+            physics_subtree: Vec::new(),
+            physics_subtree_key: HashSet::new(),
+            physics_subtree_mark: Vec::new(),
             needs_hierarchy_update: true,
             is_vrm: false,
+            palette_skip: Vec::new(),
+            palette_active: false,
+            ik_scratch: IkScratch::default(),
         }
     }
     
@@ -87,7 +137,7 @@ impl BoneSet {
     /// 2. 计算 body_shift（相对于父骨骼的偏移）
     /// 3. 计算初始全局变换
     /// 4. 计算逆绑定矩阵
-    /// 5. 构建子骨骼缓存
+    /// 5. 构建子骨骼缓存与前序层级
     /// 6. 创建 IK 求解器
     pub fn build_hierarchy(&mut self) {
         let bone_count = self.links.len();
@@ -126,8 +176,9 @@ impl BoneSet {
             self.links[i].local_to_parent = Mat4::from_translation(body_shift);
         }
         
-        // 3. 构建子骨骼缓存
+        // 3. 构建子骨骼缓存与前序层级
         self.build_children_cache();
+        self.build_hierarchy_order();
         
         // 4. 创建 IK 求解器
         self.ik_solvers.clear();
@@ -162,6 +213,47 @@ impl BoneSet {
         }
     }
     
+    /// 构建前序层级（根骨骼依次展开），并令所有骨骼在下次更新时重算
+    fn build_hierarchy_order(&mut self) {
+        let bone_count = self.links.len();
+        self.hierarchy.clear();
+        self.hierarchy_pos = vec![usize::MAX; bone_count];
+        let mut stack = Vec::new();
+        for root in 0..bone_count {
+            if !self.links[root].is_root() {
+                continue;
+            }
+            stack.push(root);
+            while let Some(bone) = stack.pop() {
+                if self.hierarchy_pos[bone] != usize::MAX {
+                    continue;
+                }
+                self.hierarchy_pos[bone] = self.hierarchy.len();
+                self.hierarchy.push(HierarchyNode { bone, subtree_end: 0 });
+                // 逆序入栈，保持子骨骼原有顺序
+                stack.extend(self.children_cache[bone].iter().rev());
+            }
+        }
+        
+        // 逆序回填子树结束位置：子骨骼位于父骨骼之后
+        for pos in (0..self.hierarchy.len()).rev() {
+            let bone = self.hierarchy[pos].bone;
+            let mut end = pos + 1;
+            for &child in &self.children_cache[bone] {
+                let child_pos = self.hierarchy_pos[child];
+                if child_pos != usize::MAX && child_pos > pos {
+                    end = end.max(self.hierarchy[child_pos].subtree_end);
+                }
+            }
+            self.hierarchy[pos].subtree_end = end;
+        }
+        
+        self.computed_local = vec![Mat4::NAN; bone_count];
+        self.has_after_physics = self.links.iter().any(|b| b.deform_after_physics());
+        self.physics_subtree.clear();
+        self.physics_subtree_key.clear();
+    }
+    
     // ========================================
     // 访问器（类似 nphysics Multibody）
     // ========================================
@@ -260,6 +352,35 @@ impl BoneSet {
         self.physics_bone_indices.contains(&index)
     }
     
+    // ========================================
+    // GPU 骨骼调色板
+    // ========================================
+    
+    /// 设置由 GPU 调色板接管的骨骼（None 清除）
+    pub fn set_palette_skip(&mut self, mask: Option<Vec<bool>>) {
+        self.palette_skip = mask.unwrap_or_default();
+        if self.palette_skip.is_empty() {
+            self.palette_active = false;
+        }
+    }
+    
+    /// 启用/停用本帧的调色板跳过
+    pub fn set_palette_active(&mut self, active: bool) {
+        self.palette_active = active && !self.palette_skip.is_empty();
+    }
+    
+    /// 本帧是否有骨骼交由 GPU 调色板计算
+    #[inline]
+    pub fn is_palette_active(&self) -> bool {
+        self.palette_active
+    }
+    
+    /// 骨骼本帧是否由 GPU 调色板计算（CPU 跳过局部/全局/蒙皮矩阵计算）
+    #[inline]
+    pub fn is_palette_skipped(&self, index: usize) -> bool {
+        self.palette_active && self.palette_skip.get(index).copied().unwrap_or(false)
+    }
+    
     // ========================================
     // 变换更新（核心功能）
     // ========================================
@@ -274,6 +395,9 @@ impl BoneSet {
     /// 结束更新（计算蒙皮矩阵）
     pub fn end_update(&mut self) {
         for i in 0..self.links.len() {
+            if self.is_palette_skipped(i) {
+                continue;
+            }
             self.skinning_matrices[i] = self.links[i].get_skinning_matrix();
         }
     }
@@ -287,31 +411,31 @@ impl BoneSet {
     
     /// 更新骨骼变换
     ///
-    /// 参考 nphysics Multibody::update_kinematics
+    /// 参考 nphysics Multibody::update_kinematics。
+    /// 全局变换沿前序数组扁平传播，本地变换与父骨骼全局变换均未变化的骨骼跳过。
     pub fn update_transforms(&mut self, after_physics: bool) {
+        if after_physics && !self.has_after_physics {
+            return;
+        }
+        
         // 1. 更新本地变换（跳过物理骨骼）
-        for &idx in &self.sorted_indices.clone() {
+        for order in 0..self.sorted_indices.len() {
+            let idx = self.sorted_indices[order];
             if self.links[idx].deform_after_physics() != after_physics {
                 continue;
             }
-            if self.physics_bone_indices.contains(&idx) {
+            if self.physics_bone_indices.contains(&idx) || self.is_palette_skipped(idx) {
                 continue;
             }
             self.links[idx].compute_local_transform();
         }
         
-        // 2. 从根骨骼递归更新全局变换
-        for &idx in &self.sorted_indices.clone() {
-            if self.links[idx].deform_after_physics() != after_physics {
-                continue;
-            }
-            if self.links[idx].is_root() {
-                self.update_global_transform_recursive(idx);
-            }
-        }
+        // 2. 从根骨骼更新全局变换
+        self.update_root_subtrees(after_physics);
         
         // 3. 处理附加变换和 IK
-        for &idx in &self.sorted_indices.clone() {
+        for order in 0..self.sorted_indices.len() {
+            let idx = self.sorted_indices[order];
             if self.links[idx].deform_after_physics() != after_physics {
                 continue;
             }
@@ -321,7 +445,7 @@ impl BoneSet {
             
             if needs_append {
                 self.apply_append_transform(idx);
-                self.update_global_transform_recursive(idx);
+                self.update_subtree_global(idx);
             }
             
             if is_ik {
@@ -329,46 +453,82 @@ impl BoneSet {
             }
         }
         
-        // 4. 最终更新全局变换
-        for &idx in &self.sorted_indices.clone() {
-            if self.links[idx].deform_after_physics() != after_physics {
-                continue;
-            }
-            if self.links[idx].is_root() {
-                self.update_global_transform_recursive(idx);
+        // 4. 最终更新全局变换（仅附加变换 / IK 影响到的子树实际重算）
+        self.update_root_subtrees(after_physics);
+    }
+    
+    /// 更新所有变形阶段匹配的根骨骼子树
+    fn update_root_subtrees(&mut self, after_physics: bool) {
+        let mut pos = 0;
+        while pos < self.hierarchy.len() {
+            let node = self.hierarchy[pos];
+            if self.links[node.bone].deform_after_physics() == after_physics {
+                self.propagate_range(pos, node.subtree_end);
             }
+            pos = node.subtree_end;
+        }
+    }
+    
+    /// 更新骨骼及其子孙的全局变换
+    fn update_subtree_global(&mut self, index: usize) {
+        let pos = self.hierarchy_pos.get(index).copied().unwrap_or(usize::MAX);
+        if pos != usize::MAX {
+            let end = self.hierarchy[pos].subtree_end;
+            self.propagate_range(pos, end);
         }
     }
     
-    /// 递归更新全局变换
+    /// 沿前序数组更新 [start, end) 内骨骼的全局变换
     ///
-    /// 类似 nphysics Multibody::update_kinematics
-    fn update_global_transform_recursive(&mut self, index: usize) {
-        // 跳过物理骨骼（它们的变换由物理系统设置）
-        if self.physics_bone_indices.contains(&index) {
-            // 仍需递归更新子骨骼
-            let children = self.children_cache[index].clone();
-            for child_idx in children {
-                self.update_global_transform_recursive(child_idx);
+    /// 本地变换与父骨骼全局变换都与上次计算时相同的骨骼跳过；
+    /// 调色板骨骼连同子树交由 GPU，物理骨骼保留物理结果但继续更新其子骨骼。
+    fn propagate_range(&mut self, start: usize, end: usize) {
+        let bone_count = self.links.len();
+        let mut pos = start;
+        while pos < end {
+            let node = self.hierarchy[pos];
+            let idx = node.bone;
+            if self.is_palette_skipped(idx) {
+                pos = node.subtree_end;
+                continue;
             }
-            return;
+            pos += 1;
+            if self.physics_bone_indices.contains(&idx) {
+                continue;
+            }
+            
+            let parent_idx = self.links[idx].parent_index;
+            let parent_global = if parent_idx >= 0 && (parent_idx as usize) < bone_count {
+                self.links[parent_idx as usize].local_to_world
+            } else {
+                Mat4::IDENTITY
+            };
+            let bone = &mut self.links[idx];
+            if bone.local_to_parent == self.computed_local[idx] && bone.parent_to_world == parent_global {
+                continue;
+            }
+            bone.parent_to_world = parent_global;
+            bone.local_to_world = parent_global * bone.local_to_parent;
+            self.computed_local[idx] = bone.local_to_parent;
         }
-        
-        // 计算全局变换：local_to_world = parent.local_to_world * local_to_parent
-        let parent_idx = self.links[index].parent_index;
-        if parent_idx >= 0 && (parent_idx as usize) < self.links.len() {
-            let parent_global = self.links[parent_idx as usize].local_to_world;
-            self.links[index].parent_to_world = parent_global;
-            self.links[index].local_to_world = parent_global * self.links[index].local_to_parent;
-        } else {
-            self.links[index].parent_to_world = Mat4::IDENTITY;
-            self.links[index].local_to_world = self.links[index].local_to_parent;
+    }
+    
+    /// 全局变换被 propagate_range 之外的路径直接写入（物理同步、VR IK 等）后调用，
+    /// 令下次传播必定重算该骨骼，而不是因本地变换未变而沿用被写入的结果
+    fn invalidate_computed(&mut self, index: usize) {
+        if let Some(local) = self.computed_local.get_mut(index) {
+            *local = Mat4::NAN;
         }
-        
-        // 递归更新子骨骼
-        let children = self.children_cache[index].clone();
-        for child_idx in children {
-            self.update_global_transform_recursive(child_idx);
+    }
+    
+    fn invalidate_subtree(&mut self, index: usize) {
+        let pos = self.hierarchy_pos.get(index).copied().unwrap_or(usize::MAX);
+        if pos == usize::MAX {
+            return;
+        }
+        for k in pos..self.hierarchy[pos].subtree_end {
+            let bone = self.hierarchy[k].bone;
+            self.invalidate_computed(bone);
         }
     }
     
@@ -428,12 +588,18 @@ impl BoneSet {
     
     /// IK 求解
     fn solve_ik(&mut self, bone_index: usize) {
-        let solver_idx = self.ik_solvers.iter().position(|s| s.bone_index == bone_index);
-        if let Some(idx) = solver_idx {
-            let solver = self.ik_solvers[idx].clone();
-            solver.solve(&mut self.links, &self.children_cache);
-            self.update_global_transform_recursive(bone_index);
+        let Some(si) = self.ik_solvers.iter().position(|s| s.bone_index == bone_index) else {
+            return;
+        };
+        self.ik_solvers[si].solve_with_scratch(&mut self.links, &self.children_cache, &mut self.ik_scratch);
+        // 求解器沿链节点子树直接写入了全局变换
+        for k in 0..self.ik_solvers[si].config.links.len() {
+            let link = self.ik_solvers[si].config.links[k].bone_index;
+            if link >= 0 {
+                self.invalidate_subtree(link as usize);
+            }
         }
+        self.update_subtree_global(bone_index);
     }
     
     // ========================================
@@ -499,6 +665,7 @@ impl BoneSet {
         }
         
         self.links[index].local_to_world = transform;
+        self.invalidate_computed(index);
         
         let parent_idx = self.links[index].parent_index;
         let local_transform = if parent_idx >= 0 && (parent_idx as usize) < self.links.len() {
@@ -524,6 +691,7 @@ impl BoneSet {
         }
         
         self.links[index].local_to_world = transform;
+        self.invalidate_computed(index);
         
         let parent_idx = self.links[index].parent_index;
         let local_transform = if parent_idx >= 0 && (parent_idx as usize) < self.links.len() {
@@ -544,6 +712,7 @@ impl BoneSet {
     pub fn update_single_bone_global(&mut self, index: usize) {
         if index >= self.links.len() { return; }
         self.links[index].compute_local_transform();
+        self.invalidate_computed(index);
         let parent_idx = self.links[index].parent_index;
         if parent_idx >= 0 && (parent_idx as usize) < self.links.len() {
             self.links[index].local_to_world =
@@ -554,14 +723,17 @@ impl BoneSet {
         self.update_children_global_transform(index);
     }
 
-    /// 递归更新子骨骼全局变换
+    /// 无条件更新子孙骨骼的全局变换（前序数组中父骨骼之后的连续子树）
     fn update_children_global_transform(&mut self, parent_index: usize) {
-        let parent_global = self.links[parent_index].local_to_world;
-        let children = self.children_cache[parent_index].clone();
-        
-        for child_idx in children {
-            self.links[child_idx].local_to_world = parent_global * self.links[child_idx].local_to_parent;
-            self.update_children_global_transform(child_idx);
+        let pos = self.hierarchy_pos.get(parent_index).copied().unwrap_or(usize::MAX);
+        if pos == usize::MAX {
+            return;
+        }
+        for k in pos + 1..self.hierarchy[pos].subtree_end {
+            let idx = self.hierarchy[k].bone;
+            let parent_global = self.links[self.links[idx].parent_index as usize].local_to_world;
+            self.links[idx].local_to_world = parent_global * self.links[idx].local_to_parent;
+            self.invalidate_computed(idx);
         }
     }
     
@@ -581,17 +753,39 @@ impl BoneSet {
         }
     }
 
-    /// 批量更新物理骨骼后，更新非物理骨骼
+    /// 批量更新物理骨骼后，更新物理骨骼下游的非物理骨骼
+    ///
+    /// 其余骨骼不受物理影响，沿用物理前的全局变换。
     pub fn update_non_physics_children(&mut self, physics_bone_indices: &HashSet<usize>) {
-        for &idx in &self.sorted_indices.clone() {
-            if physics_bone_indices.contains(&idx) {
+        if self.physics_subtree_key != *physics_bone_indices {
+            self.rebuild_physics_subtree(physics_bone_indices);
+        }
+        for k in 0..self.physics_subtree.len() {
+            let idx = self.physics_subtree[k];
+            let parent_global = self.links[self.links[idx].parent_index as usize].local_to_world;
+            self.links[idx].parent_to_world = parent_global;
+            self.links[idx].local_to_world = parent_global * self.links[idx].local_to_parent;
+            self.invalidate_computed(idx);
+        }
+    }
+    
+    /// 按前序收集以物理骨骼为祖先的非物理骨骼
+    fn rebuild_physics_subtree(&mut self, physics_bone_indices: &HashSet<usize>) {
+        self.physics_subtree_key.clone_from(physics_bone_indices);
+        self.physics_subtree.clear();
+        self.physics_subtree_mark.clear();
+        self.physics_subtree_mark.resize(self.links.len(), false);
+        for k in 0..self.hierarchy.len() {
+            let idx = self.hierarchy[k].bone;
+            let parent_idx = self.links[idx].parent_index;
+            if parent_idx < 0 {
                 continue;
             }
-            
-            let parent_idx = self.links[idx].parent_index;
-            if parent_idx >= 0 {
-                let parent_global = self.links[parent_idx as usize].local_to_world;
-                self.links[idx].local_to_world = parent_global * self.links[idx].local_to_parent;
+            let parent = parent_idx as usize;
+            let under_physics = physics_bone_indices.contains(&parent) || self.physics_subtree_mark[parent];
+            self.physics_subtree_mark[idx] = under_physics;
+            if under_physics && !physics_bone_indices.contains(&idx) {
+                self.physics_subtree.push(idx);
             }
         }
     }
@@ -615,6 +809,12 @@ impl BoneSet {
         &self.skinning_matrices
     }
     
+    /// 获取可写的蒙皮矩阵数组（用于原地过渡插值）
+    #[inline]
+    pub fn skinning_matrices_mut(&mut self) -> &mut [Mat4] {
+        &mut self.skinning_matrices
+    }
+    
     /// 设置指定骨骼的蒙皮矩阵（用于过渡插值）
     #[inline]
     pub fn set_skinning_matrix(&mut self, index: usize, matrix: Mat4) {
@@ -679,6 +879,12 @@ impl BoneSet {
             total += (children.capacity() * size_of::<usize>()) as u64;
         }
         total += (self.children_cache.capacity() * size_of::<Vec<usize>>()) as u64;
+        total += (self.hierarchy.capacity() * size_of::<HierarchyNode>()) as u64;
+        total += ((self.hierarchy_pos.capacity() + self.physics_subtree.capacity()) * size_of::<usize>()) as u64;
+        total += (self.computed_local.capacity() * size_of::<Mat4>()) as u64;
+        total += (self.physics_subtree_key.capacity() * size_of::<usize>()) as u64;
+        total += self.physics_subtree_mark.capacity() as u64;
+        total += self.palette_skip.capacity() as u64;
         total
     }
 }
@@ -690,3 +896,160 @@ impl Default for BoneSet {
 }
 
 // ============================================================================
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    /// 0 ─┬─ 1 ── 2
+    ///    └─ 3 ── 4 ── 5
+    fn build_bones() -> BoneSet {
+        let specs: [(i32, Vec3); 6] = [
+            (-1, Vec3::ZERO),
+            (0, Vec3::new(1.0, 2.0, 0.0)),
+            (1, Vec3::new(2.0, 4.0, 0.0)),
+            (0, Vec3::new(-1.0, 2.0, 0.0)),
+            (3, Vec3::new(-2.0, 3.0, 1.0)),
+            (4, Vec3::new(-2.5, 4.0, 1.0)),
+        ];
+        let mut bones = BoneSet::new();
+        for (i, (parent, pos)) in specs.into_iter().enumerate() {
+            let mut bone = BoneLink::new(format!("bone{}", i));
+            bone.parent_index = parent;
+            bone.initial_position = pos;
+            bones.add_bone(bone);
+        }
+        bones.build_hierarchy();
+        bones
+    }
+
+    /// 全量重算参考：按层级逐个 parent * local
+    fn full_globals(bones: &BoneSet) -> Vec<Mat4> {
+        let mut out = vec![Mat4::IDENTITY; bones.bone_count()];
+        for node in &bones.hierarchy {
+            let bone = &bones.links[node.bone];
+            out[node.bone] = if bone.parent_index >= 0 {
+                out[bone.parent_index as usize] * bone.local_to_parent
+            } else {
+                bone.local_to_parent
+            };
+        }
+        out
+    }
+
+    fn assert_globals(bones: &BoneSet, expected: &[Mat4]) {
+        for (i, e) in expected.iter().enumerate() {
+            assert!(bones.get_global_transform(i).abs_diff_eq(*e, 1e-5), "骨骼 {} 全局变换不一致", i);
+        }
+    }
+
+    #[test]
+    fn hierarchy_is_preorder_with_contiguous_subtrees() {
+        let bones = build_bones();
+        let order: Vec<usize> = bones.hierarchy.iter().map(|n| n.bone).collect();
+        assert_eq!(order, vec![0, 1, 2, 3, 4, 5]);
+        assert_eq!(bones.hierarchy[bones.hierarchy_pos[3]].subtree_end, 6);
+        assert_eq!(bones.hierarchy[bones.hierarchy_pos[1]].subtree_end, 3);
+    }
+
+    #[test]
+    fn incremental_update_matches_full_recompute() {
+        let mut bones = build_bones();
+        // 部分帧只动一个子树，其余帧整体静止或根骨骼移动
+        let frames: [&[(usize, f32)]; 5] = [&[], &[(3, 0.4)], &[(3, 0.4)], &[(1, -0.7), (4, 0.2)], &[(0, 1.1)]];
+        for keys in frames {
+            bones.begin_update();
+            for &(idx, angle) in keys {
+                bones.set_bone_rotation(idx, Quat::from_rotation_z(angle));
+            }
+            bones.update_transforms(false);
+            assert_globals(&bones, &full_globals(&bones));
+        }
+    }
+
+    #[test]
+    fn physics_sync_updates_only_physics_subtree() {
+        let mut bones = build_bones();
+        bones.begin_update();
+        bones.set_bone_rotation(1, Quat::from_rotation_x(0.3));
+        bones.update_transforms(false);
+        let before = full_globals(&bones);
+
+        let physics: HashSet<usize> = [4].into_iter().collect();
+        let transform = Mat4::from_rotation_translation(Quat::from_rotation_y(0.5), Vec3::new(-2.0, 2.5, 1.5));
+        bones.set_global_transform_physics(4, transform);
+        bones.set_physics_bone_indices(&physics);
+        bones.update_non_physics_children(&physics);
+
+        assert!(bones.get_global_transform(4).abs_diff_eq(transform, 1e-5));
+        assert!(bones.get_global_transform(5).abs_diff_eq(transform * bones.links[5].local_to_parent, 1e-5));
+        assert_eq!(bones.physics_subtree, vec![5]);
+        for i in 0..4 {
+            assert_eq!(bones.get_global_transform(i), before[i]);
+        }
+
+        // 下一帧物理保护解除，物理骨骼回到动画驱动
+        bones.clear_physics_bone_indices();
+        bones.begin_update();
+        bones.set_bone_rotation(1, Quat::from_rotation_x(0.3));
+        bones.update_transforms(false);
+        assert_globals(&bones, &before);
+    }
+
+    /// 直接写入全局变换后子孙立即按新父变换重算；下一帧同样的动画输入把写入骨骼连同子孙恢复为动画结果
+    #[test]
+    fn direct_global_write_recomputes_children() {
+        let mut bones = build_bones();
+        bones.begin_update();
+        bones.set_bone_rotation(3, Quat::from_rotation_z(0.4));
+        bones.update_transforms(false);
+        let animated = full_globals(&bones);
+        assert_globals(&bones, &animated);
+
+        let written = Mat4::from_rotation_translation(Quat::from_rotation_x(0.9), Vec3::new(-1.0, 3.0, 2.0));
+        bones.set_global_transform(3, written);
+        let child = written * bones.links[4].local_to_parent;
+        assert!(bones.get_global_transform(3).abs_diff_eq(written, 1e-5));
+        assert!(bones.get_global_transform(4).abs_diff_eq(child, 1e-5));
+        assert!(bones.get_global_transform(5).abs_diff_eq(child * bones.links[5].local_to_parent, 1e-5));
+        for i in 0..3 {
+            assert_eq!(bones.get_global_transform(i), animated[i]);
+        }
+
+        // 物理式写入不更新子骨骼；本地变换与上次相同的子孙也必须因父变换变化而重算
+        bones.set_global_transform_physics(3, written);
+        bones.begin_update();
+        bones.set_bone_rotation(3, Quat::from_rotation_z(0.4));
+        bones.update_transforms(false);
+        assert_globals(&bones, &animated);
+    }
+
+    #[test]
+    fn toggling_physics_and_external_writes_do_not_leave_stale_globals() {
+        let mut bones = build_bones();
+        let physics: HashSet<usize> = [3].into_iter().collect();
+        let body = Mat4::from_rotation_translation(Quat::from_rotation_z(0.8), Vec3::new(-1.5, 2.0, 0.5));
+        for frame in 0..6 {
+            let physics_on = frame % 2 == 1;
+            if physics_on {
+                bones.set_physics_bone_indices(&physics);
+            } else {
+                bones.clear_physics_bone_indices();
+            }
+            bones.begin_update();
+            bones.set_bone_rotation(1, Quat::from_rotation_x(0.2));
+            bones.update_transforms(false);
+            if physics_on {
+                bones.set_global_transform_physics(3, body);
+                bones.update_non_physics_children(&physics);
+                assert!(bones.get_global_transform(3).abs_diff_eq(body, 1e-5));
+            }
+            // 本地变换全部由动画或物理写回给出，全局变换必须与全量重算一致
+            assert_globals(&bones, &full_globals(&bones));
+            if !physics_on {
+                // 外部直接写入全局变换（VR IK），下一帧应回到动画结果
+                bones.set_global_transform(1, Mat4::from_translation(Vec3::new(0.0, 5.0, 0.0)));
+            }
+        }
+    }
+}
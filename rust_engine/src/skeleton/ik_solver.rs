@@ -17,6 +17,12 @@ struct IkChainState {
     best_ik_rotate: Quat,
 }
 
+/// IK 链状态暂存区，由骨骼集合持有并在各求解器间复用
+#[derive(Default)]
+pub(crate) struct IkScratch {
+    chain_states: Vec<IkChainState>,
+}
+
 /// 求解轴类型
 #[derive(Clone, Copy, Debug, PartialEq)]
 enum SolveAxis {
@@ -49,6 +55,16 @@ impl IkSolver {
     
     /// 求解 IK
     pub fn solve(&self, bones: &mut [BoneLink], children_cache: &[Vec<usize>]) {
+        self.solve_with_scratch(bones, children_cache, &mut IkScratch::default());
+    }
+
+    /// 求解 IK（链状态写入调用方持有的暂存区，稳态下不分配）
+    pub(crate) fn solve_with_scratch(
+        &self,
+        bones: &mut [BoneLink],
+        children_cache: &[Vec<usize>],
+        scratch: &mut IkScratch,
+    ) {
         if !self.enabled {
             return;
         }
@@ -59,10 +75,9 @@ impl IkSolver {
         }
         
         // 初始化 IK 链状态
-        let mut chain_states: Vec<IkChainState> = self.config.links
-            .iter()
-            .map(|_| IkChainState::default())
-            .collect();
+        let chain_states = &mut scratch.chain_states;
+        chain_states.clear();
+        chain_states.resize(self.config.links.len(), IkChainState::default());
         
         // 初始化 IK 链骨骼
         for link in &self.config.links {
@@ -79,7 +94,7 @@ impl IkSolver {
         
         // 迭代求解
         for iteration in 0..self.config.iterations {
-            self.solve_iteration(bones, children_cache, target_idx, iteration, &mut chain_states);
+            self.solve_iteration(bones, children_cache, target_idx, iteration, chain_states);
             
             // 检查距离
             let target_pos = bones[target_idx].local_to_world.col(3).truncate();
@@ -1,121 +1,500 @@
-//! 顶点蒙皮计算
+//! CPU 顶点蒙皮
+//!
+//! 顶点按固定大小分块，块间由 rayon 并行；块内按权重类型（单/双/四骨骼）拆成同质批次，
+//! 以 SoA 形式存放骨骼索引与权重。每个顶点先混合骨骼矩阵再做一次变换，
+//! 矩阵与向量运算走 glam 的 SIMD 实现（x86 SSE2 / aarch64 NEON）。
 
-use glam::{Vec3, Mat4};
-use crate::model::VertexWeight;
-use super::{SkinningInput, SkinningOutput};
+use std::sync::{Arc, RwLock};
 
-/// 蒙皮上下文
-pub struct SkinningContext {
-    pub parallel_count: u32,
+use glam::{Mat4, Vec3, Vec3A, Vec4};
+use once_cell::sync::Lazy;
+use rayon::prelude::*;
+use rayon::ThreadPool;
+
+use crate::model::{RuntimeVertex, VertexWeight};
+
+/// 每个并行块的顶点数（块内偏移用 u16 存放）
+const CHUNK_VERTICES: usize = 2048;
+
+/// 无效骨骼索引，查表时回退为单位矩阵
+const INVALID_BONE: u32 = u32::MAX;
+
+/// 蒙皮线程池模式
+enum SkinningPool {
+    /// rayon 全局线程池
+    Global,
+    /// 在调用线程上串行执行
+    Serial,
+    /// 独立线程池
+    Dedicated(Arc<ThreadPool>),
 }
 
-impl Default for SkinningContext {
-    fn default() -> Self {
-        Self { parallel_count: 1 }
+static SKINNING_POOL: Lazy<RwLock<(usize, SkinningPool)>> =
+    Lazy::new(|| RwLock::new((0, SkinningPool::Global)));
+
+/// 设置 CPU 蒙皮线程数：0 = 使用 rayon 全局线程池，1 = 串行，N = 独立的 N 线程池
+pub fn set_thread_count(count: usize) {
+    let mut guard = SKINNING_POOL.write().unwrap_or_else(|e| e.into_inner());
+    if guard.0 == count {
+        return;
     }
+    let pool = match count {
+        0 => SkinningPool::Global,
+        1 => SkinningPool::Serial,
+        n => match rayon::ThreadPoolBuilder::new()
+            .num_threads(n)
+            .thread_name(|i| format!("mmd-skinning-{}", i))
+            .build()
+        {
+            Ok(pool) => SkinningPool::Dedicated(Arc::new(pool)),
+            Err(e) => {
+                log::warn!("创建蒙皮线程池失败（{} 线程），回退到全局线程池: {}", n, e);
+                SkinningPool::Global
+            }
+        },
+    };
+    *guard = (count, pool);
 }
 
-/// 计算蒙皮
-pub fn compute_skinning(input: &SkinningInput) -> SkinningOutput {
-    let vertex_count = input.positions.len();
-    let mut positions = Vec::with_capacity(vertex_count);
-    let mut normals = Vec::with_capacity(vertex_count);
-    
-    for i in 0..vertex_count {
-        let (pos, norm) = compute_single_vertex(
-            input.positions[i],
-            input.normals[i],
-            &input.weights[i],
-            input.bone_matrices,
-        );
-        positions.push(pos);
-        normals.push(norm);
-    }
-    
-    SkinningOutput { positions, normals }
+/// 当前 CPU 蒙皮线程数设置
+pub fn thread_count() -> usize {
+    SKINNING_POOL.read().unwrap_or_else(|e| e.into_inner()).0
 }
 
-/// 计算单个顶点的蒙皮
-fn compute_single_vertex(
-    position: Vec3,
-    normal: Vec3,
-    weight: &VertexWeight,
-    matrices: &[Mat4],
-) -> (Vec3, Vec3) {
-    match weight {
-        VertexWeight::Bdef1 { bone } => {
-            let m = get_matrix(matrices, *bone);
-            let pos = m.transform_point3(position);
-            let norm = m.transform_vector3(normal).normalize_or_zero();
-            (pos, norm)
-        }
-        VertexWeight::Bdef2 { bones, weight } => {
-            let m0 = get_matrix(matrices, bones[0]);
-            let m1 = get_matrix(matrices, bones[1]);
-            let w0 = *weight;
-            let w1 = 1.0 - w0;
-            
-            let pos = m0.transform_point3(position) * w0 + m1.transform_point3(position) * w1;
-            let norm = (m0.transform_vector3(normal) * w0 + m1.transform_vector3(normal) * w1).normalize_or_zero();
-            (pos, norm)
+/// 同类权重的 SoA 批次，按块连续存放
+struct Batch<W> {
+    /// 顶点在所属块内的偏移
+    local: Vec<u16>,
+    /// 与 local 一一对应的骨骼索引/权重
+    data: Vec<W>,
+    /// 每块在 local/data 中的起始位置（长度 = 块数 + 1）
+    offsets: Vec<u32>,
+}
+
+impl<W> Batch<W> {
+    fn new() -> Self {
+        Self { local: Vec::new(), data: Vec::new(), offsets: vec![0] }
+    }
+
+    fn push(&mut self, local: usize, data: W) {
+        self.local.push(local as u16);
+        self.data.push(data);
+    }
+
+    fn close_chunk(&mut self) {
+        self.offsets.push(self.local.len() as u32);
+    }
+
+    #[inline]
+    fn chunk(&self, chunk: usize) -> (&[u16], &[W]) {
+        let start = self.offsets[chunk] as usize;
+        let end = self.offsets[chunk + 1] as usize;
+        (&self.local[start..end], &self.data[start..end])
+    }
+
+    fn memory_usage(&self) -> u64 {
+        use std::mem::size_of;
+        (self.local.capacity() * size_of::<u16>()
+            + self.data.capacity() * size_of::<W>()
+            + self.offsets.capacity() * size_of::<u32>()) as u64
+    }
+}
+
+/// 双骨骼权重（BDEF2 / SDEF）
+#[derive(Clone, Copy)]
+struct PairWeight {
+    bones: [u32; 2],
+    weight: f32,
+}
+
+/// 四骨骼权重（BDEF4 / QDEF）
+#[derive(Clone, Copy)]
+struct QuadWeight {
+    bones: [u32; 4],
+    weights: Vec4,
+}
+
+/// 预排序的 CPU 蒙皮数据，模型加载后构建一次，之后每帧复用
+pub struct CpuSkinner {
+    vertex_count: usize,
+    /// 绑定姿态法线（SoA，16 字节对齐）
+    rest_normals: Vec<Vec3A>,
+    single: Batch<u32>,
+    pair: Batch<PairWeight>,
+    quad: Batch<QuadWeight>,
+}
+
+impl CpuSkinner {
+    pub fn new(vertices: &[RuntimeVertex], weights: &[VertexWeight]) -> Self {
+        let vertex_count = vertices.len().min(weights.len());
+        let mut single = Batch::new();
+        let mut pair = Batch::new();
+        let mut quad = Batch::new();
+
+        for chunk_start in (0..vertex_count).step_by(CHUNK_VERTICES) {
+            let chunk_end = (chunk_start + CHUNK_VERTICES).min(vertex_count);
+            for (local, weight) in weights[chunk_start..chunk_end].iter().enumerate() {
+                match weight {
+                    VertexWeight::Bdef1 { bone } => single.push(local, bone_index(*bone)),
+                    // SDEF 沿用 BDEF2 近似（与原实现一致），与 BDEF2 同批处理
+                    VertexWeight::Bdef2 { bones, weight }
+                    | VertexWeight::Sdef { bones, weight, .. } => pair.push(
+                        local,
+                        PairWeight { bones: [bone_index(bones[0]), bone_index(bones[1])], weight: *weight },
+                    ),
+                    VertexWeight::Bdef4 { bones, weights }
+                    | VertexWeight::Qdef { bones, weights } => quad.push(
+                        local,
+                        QuadWeight {
+                            bones: [
+                                bone_index(bones[0]),
+                                bone_index(bones[1]),
+                                bone_index(bones[2]),
+                                bone_index(bones[3]),
+                            ],
+                            weights: Vec4::from_array(*weights),
+                        },
+                    ),
+                }
+            }
+            single.close_chunk();
+            pair.close_chunk();
+            quad.close_chunk();
         }
-        VertexWeight::Bdef4 { bones, weights } => {
-            let mut pos = Vec3::ZERO;
-            let mut norm = Vec3::ZERO;
-            
-            for i in 0..4 {
-                let m = get_matrix(matrices, bones[i]);
-                let w = weights[i];
-                pos += m.transform_point3(position) * w;
-                norm += m.transform_vector3(normal) * w;
+
+        let rest_normals = vertices[..vertex_count].iter().map(|v| Vec3A::from(v.normal)).collect();
+        Self { vertex_count, rest_normals, single, pair, quad }
+    }
+
+    pub fn vertex_count(&self) -> usize {
+        self.vertex_count
+    }
+
+    /// 蒙皮并写入输出缓冲区
+    ///
+    /// `source` 为已应用 Morph 的静止位置，蒙皮结果写入 `positions`；
+    /// `positions_raw`/`normals_raw` 为 JNI 使用的平铺缓冲区（每顶点 3 个 f32）。
+    /// `vertex_limit` 为需要蒙皮的顶点前缀长度（网格 LOD），按块向上取整，之后的顶点保持上次结果。
+    pub fn skin(
+        &self,
+        vertex_limit: usize,
+        matrices: &[Mat4],
+        source: &[Vec3],
+        positions: &mut [Vec3],
+        normals: &mut [Vec3],
+        positions_raw: &mut [f32],
+        normals_raw: &mut [f32],
+    ) {
+        let n = if vertex_limit >= self.vertex_count {
+            self.vertex_count
+        } else {
+            ((vertex_limit + CHUNK_VERTICES - 1) / CHUNK_VERTICES * CHUNK_VERTICES).min(self.vertex_count)
+        };
+        let source = &source[..n];
+        let positions = &mut positions[..n];
+        let normals = &mut normals[..n];
+        let positions_raw = &mut positions_raw[..n * 3];
+        let normals_raw = &mut normals_raw[..n * 3];
+
+        let pool = {
+            let guard = SKINNING_POOL.read().unwrap_or_else(|e| e.into_inner());
+            match &guard.1 {
+                SkinningPool::Global => None,
+                SkinningPool::Serial => Some(None),
+                SkinningPool::Dedicated(pool) => Some(Some(Arc::clone(pool))),
             }
-            
-            (pos, norm.normalize_or_zero())
+        };
+
+        // 单块模型或串行模式直接在调用线程执行，避免调度开销
+        if n <= CHUNK_VERTICES || matches!(pool, Some(None)) {
+            source
+                .chunks(CHUNK_VERTICES)
+                .zip(positions.chunks_mut(CHUNK_VERTICES))
+                .zip(normals.chunks_mut(CHUNK_VERTICES))
+                .zip(positions_raw.chunks_mut(CHUNK_VERTICES * 3))
+                .zip(normals_raw.chunks_mut(CHUNK_VERTICES * 3))
+                .enumerate()
+                .for_each(|(chunk, ((((source, positions), normals), positions_raw), normals_raw))| {
+                    let out = ChunkOutput { source, positions, normals, positions_raw, normals_raw };
+                    self.skin_chunk(chunk, matrices, out)
+                });
+            return;
         }
-        VertexWeight::Sdef { bones, weight, c, r0: _, r1: _ } => {
-            // SDEF 球面变形 - 简化实现
-            let m0 = get_matrix(matrices, bones[0]);
-            let m1 = get_matrix(matrices, bones[1]);
-            let w0 = *weight;
-            let w1 = 1.0 - w0;
-            
-            // 计算中心点变换
-            let c_transformed = m0.transform_point3(*c) * w0 + m1.transform_point3(*c) * w1;
-            
-            // 计算相对于中心的偏移
-            let offset = position - *c;
-            
-            // 使用球面插值旋转偏移
-            let q0 = glam::Quat::from_mat4(&m0);
-            let q1 = glam::Quat::from_mat4(&m1);
-            let q = q0.slerp(q1, w1);
-            
-            let rotated_offset = q * offset;
-            let pos = c_transformed + rotated_offset;
-            
-            let norm = (m0.transform_vector3(normal) * w0 + m1.transform_vector3(normal) * w1).normalize_or_zero();
-            (pos, norm)
+
+        let mut run = || {
+            source
+                .par_chunks(CHUNK_VERTICES)
+                .zip(positions.par_chunks_mut(CHUNK_VERTICES))
+                .zip(normals.par_chunks_mut(CHUNK_VERTICES))
+                .zip(positions_raw.par_chunks_mut(CHUNK_VERTICES * 3))
+                .zip(normals_raw.par_chunks_mut(CHUNK_VERTICES * 3))
+                .enumerate()
+                .for_each(|(chunk, ((((source, positions), normals), positions_raw), normals_raw))| {
+                    let out = ChunkOutput { source, positions, normals, positions_raw, normals_raw };
+                    self.skin_chunk(chunk, matrices, out)
+                });
+        };
+        match pool {
+            Some(Some(pool)) => pool.install(run),
+            _ => run(),
         }
-        VertexWeight::Qdef { bones, weights } => {
-            // QDEF 与 BDEF4 类似
+    }
+
+    fn skin_chunk(&self, chunk: usize, matrices: &[Mat4], mut out: ChunkOutput<'_>) {
+        let rest_normals = &self.rest_normals[chunk * CHUNK_VERTICES..];
+
+        let (local, bones) = self.single.chunk(chunk);
+        for (&i, &bone) in local.iter().zip(bones) {
+            let i = i as usize;
+            let m = bone_matrix(matrices, bone);
+            out.write(i, &m, rest_normals[i]);
+        }
+
+        let (local, weights) = self.pair.chunk(chunk);
+        for (&i, w) in local.iter().zip(weights) {
+            let i = i as usize;
+            let m = bone_matrix(matrices, w.bones[0]) * w.weight
+                + bone_matrix(matrices, w.bones[1]) * (1.0 - w.weight);
+            out.write(i, &m, rest_normals[i]);
+        }
+
+        let (local, weights) = self.quad.chunk(chunk);
+        for (&i, w) in local.iter().zip(weights) {
+            let i = i as usize;
+            let m = bone_matrix(matrices, w.bones[0]) * w.weights.x
+                + bone_matrix(matrices, w.bones[1]) * w.weights.y
+                + bone_matrix(matrices, w.bones[2]) * w.weights.z
+                + bone_matrix(matrices, w.bones[3]) * w.weights.w;
+            out.write(i, &m, rest_normals[i]);
+        }
+    }
+
+    pub fn memory_usage(&self) -> u64 {
+        use std::mem::size_of;
+        (self.rest_normals.capacity() * size_of::<Vec3A>()) as u64
+            + self.single.memory_usage()
+            + self.pair.memory_usage()
+            + self.quad.memory_usage()
+    }
+}
+
+/// 单个块的输入与输出切片
+struct ChunkOutput<'a> {
+    source: &'a [Vec3],
+    positions: &'a mut [Vec3],
+    normals: &'a mut [Vec3],
+    positions_raw: &'a mut [f32],
+    normals_raw: &'a mut [f32],
+}
+
+impl ChunkOutput<'_> {
+    #[inline]
+    fn write(&mut self, i: usize, m: &Mat4, rest_normal: Vec3A) {
+        let pos = m.transform_point3a(Vec3A::from(self.source[i]));
+        let norm = m.transform_vector3a(rest_normal).normalize_or_zero();
+        self.positions[i] = pos.into();
+        self.normals[i] = norm.into();
+        self.positions_raw[i * 3..i * 3 + 3].copy_from_slice(&pos.to_array());
+        self.normals_raw[i * 3..i * 3 + 3].copy_from_slice(&norm.to_array());
+    }
+}
+
+#[inline]
+fn bone_index(bone: i32) -> u32 {
+    if bone < 0 { INVALID_BONE } else { bone as u32 }
+}
+
+#[inline]
+fn bone_matrix(matrices: &[Mat4], bone: u32) -> Mat4 {
+    matrices.get(bone as usize).copied().unwrap_or(Mat4::IDENTITY)
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use glam::{Quat, Vec2};
+    use std::time::Instant;
+
+    /// 逐顶点参考实现（与重写前的 MmdModel::update 一致）
+    fn reference(position: Vec3, normal: Vec3, weight: &VertexWeight, matrices: &[Mat4]) -> (Vec3, Vec3) {
+        let get = |b: i32| matrices.get(b as usize).copied().unwrap_or(Mat4::IDENTITY);
+        let blend = |bones: &[i32], weights: &[f32]| {
             let mut pos = Vec3::ZERO;
             let mut norm = Vec3::ZERO;
-            
-            for i in 0..4 {
-                let m = get_matrix(matrices, bones[i]);
-                let w = weights[i];
-                pos += m.transform_point3(position) * w;
-                norm += m.transform_vector3(normal) * w;
+            for (&b, &w) in bones.iter().zip(weights) {
+                pos += get(b).transform_point3(position) * w;
+                norm += get(b).transform_vector3(normal) * w;
             }
-            
             (pos, norm.normalize_or_zero())
+        };
+        match weight {
+            VertexWeight::Bdef1 { bone } => blend(&[*bone], &[1.0]),
+            VertexWeight::Bdef2 { bones, weight } | VertexWeight::Sdef { bones, weight, .. } => {
+                blend(bones, &[*weight, 1.0 - *weight])
+            }
+            VertexWeight::Bdef4 { bones, weights } | VertexWeight::Qdef { bones, weights } => {
+                blend(bones, weights)
+            }
         }
     }
-}
 
-fn get_matrix(matrices: &[Mat4], index: i32) -> Mat4 {
-    if index < 0 {
-        return Mat4::IDENTITY;
+    fn build_mesh(vertex_count: usize, bone_count: i32) -> (Vec<RuntimeVertex>, Vec<VertexWeight>, Vec<Mat4>) {
+        let vertices = (0..vertex_count)
+            .map(|i| {
+                let t = i as f32 * 0.37;
+                RuntimeVertex {
+                    position: Vec3::new(t.sin(), t * 0.001, t.cos()),
+                    normal: Vec3::new(t.cos(), 0.5, t.sin()).normalize(),
+                    uv: Vec2::ZERO,
+                }
+            })
+            .collect();
+        let weights = (0..vertex_count)
+            .map(|i| {
+                let b = (i as i32 * 7) % bone_count;
+                match i % 5 {
+                    0 => VertexWeight::Bdef1 { bone: b },
+                    1 => VertexWeight::Bdef2 { bones: [b, (b + 1) % bone_count], weight: 0.3 },
+                    2 => VertexWeight::Sdef {
+                        bones: [b, (b + 2) % bone_count],
+                        weight: 0.6,
+                        c: Vec3::ZERO,
+                        r0: Vec3::ZERO,
+                        r1: Vec3::ZERO,
+                    },
+                    3 => VertexWeight::Bdef4 {
+                        bones: [b, (b + 1) % bone_count, (b + 2) % bone_count, -1],
+                        weights: [0.4, 0.3, 0.2, 0.1],
+                    },
+                    _ => VertexWeight::Qdef { bones: [b, b, b, b], weights: [0.25; 4] },
+                }
+            })
+            .collect();
+        let matrices = (0..bone_count)
+            .map(|i| {
+                Mat4::from_rotation_translation(
+                    Quat::from_rotation_y(i as f32 * 0.1) * Quat::from_rotation_x(i as f32 * 0.05),
+                    Vec3::new(i as f32 * 0.01, 0.2, -0.1),
+                )
+            })
+            .collect();
+        (vertices, weights, matrices)
+    }
+
+    struct Buffers {
+        rest: Vec<Vec3>,
+        positions: Vec<Vec3>,
+        normals: Vec<Vec3>,
+        positions_raw: Vec<f32>,
+        normals_raw: Vec<f32>,
+    }
+
+    impl Buffers {
+        fn new(vertices: &[RuntimeVertex]) -> Self {
+            Self {
+                rest: vertices.iter().map(|v| v.position).collect(),
+                positions: vec![Vec3::ZERO; vertices.len()],
+                normals: vec![Vec3::ZERO; vertices.len()],
+                positions_raw: vec![0.0; vertices.len() * 3],
+                normals_raw: vec![0.0; vertices.len() * 3],
+            }
+        }
+
+        fn skin(&mut self, skinner: &CpuSkinner, matrices: &[Mat4]) {
+            self.skin_prefix(skinner, matrices, usize::MAX);
+        }
+
+        fn skin_prefix(&mut self, skinner: &CpuSkinner, matrices: &[Mat4], vertex_limit: usize) {
+            skinner.skin(
+                vertex_limit,
+                matrices,
+                &self.rest,
+                &mut self.positions,
+                &mut self.normals,
+                &mut self.positions_raw,
+                &mut self.normals_raw,
+            );
+        }
+    }
+
+    #[test]
+    fn matches_reference() {
+        // 跨越多个块，且最后一块不满
+        let (vertices, weights, matrices) = build_mesh(CHUNK_VERTICES * 2 + 123, 40);
+        let skinner = CpuSkinner::new(&vertices, &weights);
+        let mut buffers = Buffers::new(&vertices);
+        buffers.skin(&skinner, &matrices);
+
+        for (i, (v, w)) in vertices.iter().zip(&weights).enumerate() {
+            let (pos, norm) = reference(v.position, v.normal, w, &matrices);
+            assert!(buffers.positions[i].abs_diff_eq(pos, 1e-4), "顶点 {} 位置不一致", i);
+            assert!(buffers.normals[i].abs_diff_eq(norm, 1e-4), "顶点 {} 法线不一致", i);
+            assert_eq!(&buffers.positions_raw[i * 3..i * 3 + 3], &buffers.positions[i].to_array());
+            assert_eq!(&buffers.normals_raw[i * 3..i * 3 + 3], &buffers.normals[i].to_array());
+        }
+    }
+
+    #[test]
+    fn missing_bones_fall_back_to_identity() {
+        let vertices = vec![RuntimeVertex { position: Vec3::new(1.0, 2.0, 3.0), normal: Vec3::Y, uv: Vec2::ZERO }];
+        let weights = vec![VertexWeight::Bdef1 { bone: 99 }];
+        let skinner = CpuSkinner::new(&vertices, &weights);
+        let mut buffers = Buffers::new(&vertices);
+        buffers.skin(&skinner, &[]);
+        assert_eq!(buffers.positions[0], Vec3::new(1.0, 2.0, 3.0));
+        assert_eq!(buffers.normals[0], Vec3::Y);
+    }
+
+    #[test]
+    fn prefix_skins_whole_chunks_only() {
+        let (vertices, weights, matrices) = build_mesh(CHUNK_VERTICES * 3, 40);
+        let skinner = CpuSkinner::new(&vertices, &weights);
+        let mut buffers = Buffers::new(&vertices);
+        buffers.skin_prefix(&skinner, &matrices, CHUNK_VERTICES + 1);
+
+        // 前缀所在的两块完整蒙皮，第三块保持未写入
+        let last = CHUNK_VERTICES * 2 - 1;
+        let (pos, _) = reference(vertices[last].position, vertices[last].normal, &weights[last], &matrices);
+        assert!(buffers.positions[last].abs_diff_eq(pos, 1e-4));
+        assert!(buffers.positions[CHUNK_VERTICES * 2..].iter().all(|p| *p == Vec3::ZERO));
+    }
+
+    /// 吞吐量：cargo test --release skinning -- --ignored --nocapture
+    #[test]
+    #[ignore]
+    fn bench_vertices_per_ms() {
+        const ITERATIONS: u32 = 50;
+        for &vertex_count in &[50_000usize, 200_000] {
+            let (vertices, weights, matrices) = build_mesh(vertex_count, 200);
+            let skinner = CpuSkinner::new(&vertices, &weights);
+            let mut buffers = Buffers::new(&vertices);
+
+            let start = Instant::now();
+            let mut sink = Vec3::ZERO;
+            for _ in 0..ITERATIONS {
+                for (v, w) in vertices.iter().zip(&weights) {
+                    sink += reference(v.position, v.normal, w, &matrices).0;
+                }
+            }
+            let serial = start.elapsed();
+
+            for &threads in &[1usize, 0] {
+                set_thread_count(threads);
+                let start = Instant::now();
+                for _ in 0..ITERATIONS {
+                    buffers.skin(&skinner, &matrices);
+                }
+                let skinned = start.elapsed();
+                println!(
+                    "{} 顶点, 线程设置 {}: 逐顶点参考 {:.0} 顶点/ms, 分批蒙皮 {:.0} 顶点/ms (sink {:?})",
+                    vertex_count,
+                    threads,
+                    vertex_count as f64 * ITERATIONS as f64 / (serial.as_secs_f64() * 1000.0),
+                    vertex_count as f64 * ITERATIONS as f64 / (skinned.as_secs_f64() * 1000.0),
+                    sink
+                );
+            }
+            set_thread_count(0);
+        }
     }
-    matrices.get(index as usize).copied().unwrap_or(Mat4::IDENTITY)
 }